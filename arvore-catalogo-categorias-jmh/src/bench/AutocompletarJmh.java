@@ -0,0 +1,52 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Autocompletar sobre um milhão de nomes de produtos com acentos, com a carga
+ * do {@code BenchAutocompletar}. As consultas com {@code ~n} no final toleram
+ * {@code n} erros de digitação.
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AutocompletarJmh {
+
+    @Param({"e", "eletro", "eletronicos", "cafe", "lampada dei", "britania", "eletrnico~1", "lampda~1",
+        "bratania~1", "eletrnocos~2"})
+    public String consulta;
+
+    private LongSupplier autocompletar;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchAutocompletar", consulta);
+        autocompletar = Cargas.operacao(operacoes, "autocompletar");
+    }
+
+    @Benchmark
+    public void autocompletar(Blackhole consumidor) {
+        consumidor.consume(autocompletar.getAsLong());
+    }
+}
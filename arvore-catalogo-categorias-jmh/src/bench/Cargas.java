@@ -0,0 +1,102 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Acesso às cargas dos benchmarks de {@code arvore-catalogo-categorias/bench}
+ * a partir dos benchmarks JMH.
+ *
+ * O catálogo e os benchmarks de {@code bench} ficam no pacote padrão, que não
+ * pode ser importado de um pacote com nome, e o JMH exige que as classes de
+ * benchmark tenham pacote. Por isso cada benchmark JMH pede as operações ao
+ * método estático {@code operacoes} da classe correspondente, por reflexão,
+ * uma vez no {@code @Setup}; as operações medidas são chamadas direto, pelo
+ * {@link LongSupplier} devolvido, e medem exatamente o mesmo código que a
+ * {@code Medicao}.
+ *
+ * @since 2025
+ */
+final class Cargas {
+
+    private Cargas() {
+    }
+
+    /**
+     * Chama {@code classe.operacoes(argumentos)}.
+     *
+     * @param classe     Nome da classe de benchmark, no pacote padrão
+     * @param argumentos Argumentos do método, na ordem da declaração
+     * @return Operações medidas, pelo nome
+     * @throws IllegalArgumentException se a classe não tiver um método
+     *                                  {@code operacoes} compatível com os
+     *                                  argumentos
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, LongSupplier> operacoes(String classe, Object... argumentos) {
+        try {
+            for (Method metodo : Class.forName(classe).getDeclaredMethods()) {
+                if (metodo.getName().equals("operacoes") && Modifier.isStatic(metodo.getModifiers())
+                        && aceita(metodo.getParameterTypes(), argumentos)) {
+                    metodo.setAccessible(true);
+                    return (Map<String, LongSupplier>) metodo.invoke(null, argumentos);
+                }
+            }
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new IllegalStateException("Carga de " + classe + " indisponível", e);
+        } catch (InvocationTargetException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException("Falha ao montar a carga de " + classe, causa);
+        }
+        throw new IllegalArgumentException("Nenhum método operacoes em " + classe + " aceita os argumentos");
+    }
+
+    /**
+     * Retorna a operação com o nome informado.
+     *
+     * @throws IllegalArgumentException se não houver operação com o nome
+     */
+    static LongSupplier operacao(Map<String, LongSupplier> operacoes, String nome) {
+        LongSupplier operacao = operacoes.get(nome);
+        if (operacao == null) {
+            throw new IllegalArgumentException("Operação desconhecida: " + nome + " (há " + operacoes.keySet() + ")");
+        }
+        return operacao;
+    }
+
+    /**
+     * Troca o console por um que descarta o texto, para as operações que
+     * imprimem a árvore, e retorna o console anterior.
+     */
+    static PrintStream silenciarConsole() {
+        PrintStream anterior = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return anterior;
+    }
+
+    private static boolean aceita(Class<?>[] tipos, Object[] argumentos) {
+        if (tipos.length != argumentos.length) {
+            return false;
+        }
+        for (int i = 0; i < tipos.length; i++) {
+            Class<?> tipo = tipos[i];
+            if (tipo == int.class) {
+                tipo = Integer.class;
+            } else if (tipo == boolean.class) {
+                tipo = Boolean.class;
+            }
+            if (!tipo.isInstance(argumentos[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
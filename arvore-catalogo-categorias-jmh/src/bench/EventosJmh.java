@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Custo do fluxo de eventos nas alterações, com a carga do
+ * {@code BenchEventos}: alteração de preço e o par associar e desassociar,
+ * com o fluxo desligado e ligado (sem assinaturas lendo).
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EventosJmh {
+
+    @Param({"100000"})
+    public int categorias;
+
+    @Param({"false", "true"})
+    public boolean eventos;
+
+    private LongSupplier setPreco;
+    private LongSupplier associarDesassociar;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchEventos", categorias, eventos);
+        setPreco = Cargas.operacao(operacoes, "setPreco");
+        associarDesassociar = Cargas.operacao(operacoes, "associar e desassociar");
+    }
+
+    @Benchmark
+    public void setPreco(Blackhole consumidor) {
+        consumidor.consume(setPreco.getAsLong());
+    }
+
+    @Benchmark
+    public void associarDesassociar(Blackhole consumidor) {
+        consumidor.consume(associarDesassociar.getAsLong());
+    }
+}
@@ -0,0 +1,91 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Facetas por marca pelo índice do catálogo (dicionário de marcas e
+ * conjuntos de produtos) contra o percurso ingênuo da subárvore, com a carga
+ * do {@code BenchFacetasMarca}: 200 mil produtos em 4000 folhas, com 60
+ * marcas de frequência decrescente. A subárvore {@code Loja} é o catálogo
+ * inteiro e {@code Dep3}, um dos 20 departamentos.
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FacetasMarcaJmh {
+
+    @Param({"Loja", "Dep3"})
+    public String subarvore;
+
+    private LongSupplier contarIngenuo;
+    private LongSupplier contarIndice;
+    private LongSupplier contarIndiceAlterado;
+    private LongSupplier filtrarIngenuo;
+    private LongSupplier filtrarIndice;
+    private LongSupplier filtrarIndiceMarcaRara;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchFacetasMarca", subarvore);
+        contarIngenuo = Cargas.operacao(operacoes, "contagem: percurso ingênuo");
+        contarIndice = Cargas.operacao(operacoes, "contagem: índice (subárvore em cache)");
+        contarIndiceAlterado = Cargas.operacao(operacoes, "contagem: índice (subárvore alterada)");
+        filtrarIngenuo = Cargas.operacao(operacoes, "filtro Marca0: percurso ingênuo");
+        filtrarIndice = Cargas.operacao(operacoes, "filtro Marca0: índice (subárvore em cache)");
+        filtrarIndiceMarcaRara = Cargas.operacao(operacoes, "filtro Marca59: índice (subárvore em cache)");
+    }
+
+    @Benchmark
+    public void contarIngenuo(Blackhole consumidor) {
+        consumidor.consume(contarIngenuo.getAsLong());
+    }
+
+    @Benchmark
+    public void contarIndice(Blackhole consumidor) {
+        consumidor.consume(contarIndice.getAsLong());
+    }
+
+    /**
+     * Altera o preço de um produto da subárvore antes de cada contagem.
+     */
+    @Benchmark
+    public void contarIndiceAlterado(Blackhole consumidor) {
+        consumidor.consume(contarIndiceAlterado.getAsLong());
+    }
+
+    @Benchmark
+    public void filtrarIngenuo(Blackhole consumidor) {
+        consumidor.consume(filtrarIngenuo.getAsLong());
+    }
+
+    @Benchmark
+    public void filtrarIndice(Blackhole consumidor) {
+        consumidor.consume(filtrarIndice.getAsLong());
+    }
+
+    @Benchmark
+    public void filtrarIndiceMarcaRara(Blackhole consumidor) {
+        consumidor.consume(filtrarIndiceMarcaRara.getAsLong());
+    }
+}
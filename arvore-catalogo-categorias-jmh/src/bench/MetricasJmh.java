@@ -0,0 +1,65 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Custo das métricas nas operações mais curtas do catálogo, com a carga do
+ * {@code BenchMetricas}: métricas desligadas, ligadas com a amostragem padrão
+ * das durações e ligadas medindo a duração de toda chamada.
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricasJmh {
+
+    @Param({"desligadas", "amostragem", "todas"})
+    public String metricas;
+
+    private LongSupplier buscarCategoriaPorCodigo;
+    private LongSupplier buscarProduto;
+    private LongSupplier associarDesassociar;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchMetricas", metricas);
+        buscarCategoriaPorCodigo = Cargas.operacao(operacoes, "buscarCategoriaPorCodigo");
+        buscarProduto = Cargas.operacao(operacoes, "buscarProduto");
+        associarDesassociar = Cargas.operacao(operacoes, "associar+desassociar");
+    }
+
+    @Benchmark
+    public void buscarCategoriaPorCodigo(Blackhole consumidor) {
+        consumidor.consume(buscarCategoriaPorCodigo.getAsLong());
+    }
+
+    @Benchmark
+    public void buscarProduto(Blackhole consumidor) {
+        consumidor.consume(buscarProduto.getAsLong());
+    }
+
+    @Benchmark
+    public void associarDesassociar(Blackhole consumidor) {
+        consumidor.consume(associarDesassociar.getAsLong());
+    }
+}
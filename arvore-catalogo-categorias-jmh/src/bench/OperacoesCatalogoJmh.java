@@ -0,0 +1,116 @@
+package bench;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cada operação do {@code CatalogoControll} em árvores larga, profunda,
+ * equilibrada e assimétrica, com as cargas do {@code BenchOperacoesCatalogo}
+ * (formatos, produtos e sorteio dos argumentos descritos lá). As operações que
+ * alteram o catálogo são medidas em pares que o devolvem ao estado anterior.
+ *
+ * Tamanhos maiores que os padrões pedem mais memória, por exemplo:
+ * {@code -p tamanho=10000000 -p formato=equilibrado -jvmArgsAppend -Xmx24g}.
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OperacoesCatalogoJmh {
+
+    @Param({"largo", "profundo", "equilibrado", "assimetrico"})
+    public String formato;
+
+    @Param({"1000", "100000"})
+    public int tamanho;
+
+    private LongSupplier buscarCategoria;
+    private LongSupplier buscarCaminhoCompleto;
+    private LongSupplier listarRotasDaSubarvore;
+    private LongSupplier definirSubcategoria;
+    private LongSupplier associarDesassociar;
+    private LongSupplier criarRemover;
+    private LongSupplier listarArvore;
+    private LongSupplier gerarArvoresDeNavegacao;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchOperacoesCatalogo", formato, tamanho);
+        buscarCategoria = Cargas.operacao(operacoes, "buscarCategoria");
+        buscarCaminhoCompleto = Cargas.operacao(operacoes, "buscarCaminhoCompleto");
+        listarRotasDaSubarvore = Cargas.operacao(operacoes, "listarRotasDaSubarvore");
+        definirSubcategoria = Cargas.operacao(operacoes, "definirSubcategoria");
+        associarDesassociar = Cargas.operacao(operacoes, "associarProduto+desassociarProduto");
+        criarRemover = Cargas.operacao(operacoes, "criarSubcategoria+removerCategoria");
+        listarArvore = Cargas.operacao(operacoes, "listarArvore");
+        gerarArvoresDeNavegacao = Cargas.operacao(operacoes, "gerarArvoresDeNavegacao");
+        console = Cargas.silenciarConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarConsole() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void buscarCategoria(Blackhole consumidor) {
+        consumidor.consume(buscarCategoria.getAsLong());
+    }
+
+    @Benchmark
+    public void buscarCaminhoCompleto(Blackhole consumidor) {
+        consumidor.consume(buscarCaminhoCompleto.getAsLong());
+    }
+
+    @Benchmark
+    public void listarRotasDaSubarvore(Blackhole consumidor) {
+        consumidor.consume(listarRotasDaSubarvore.getAsLong());
+    }
+
+    @Benchmark
+    public void definirSubcategoria(Blackhole consumidor) {
+        consumidor.consume(definirSubcategoria.getAsLong());
+    }
+
+    @Benchmark
+    public void associarProdutoDesassociarProduto(Blackhole consumidor) {
+        consumidor.consume(associarDesassociar.getAsLong());
+    }
+
+    @Benchmark
+    public void criarSubcategoriaRemoverCategoria(Blackhole consumidor) {
+        consumidor.consume(criarRemover.getAsLong());
+    }
+
+    @Benchmark
+    public void listarArvore(Blackhole consumidor) {
+        consumidor.consume(listarArvore.getAsLong());
+    }
+
+    @Benchmark
+    public void gerarArvoresDeNavegacao(Blackhole consumidor) {
+        consumidor.consume(gerarArvoresDeNavegacao.getAsLong());
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Percursos da árvore inteira feitos só na thread que chama
+ * ({@code threads} igual a 0) ou divididos num pool, com a carga do
+ * {@code BenchPercursoParalelo}: exportação em JSON por linha, geração das
+ * rotas de navegação e soma dos preços por stream, em árvores larga,
+ * assimétrica e equilibrada. O ganho depende de quantos processadores a
+ * máquina tem.
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PercursoParaleloJmh {
+
+    @Param({"larga", "assimetrica", "equilibrada"})
+    public String formato;
+
+    @Param({"200000"})
+    public int categorias;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int threads;
+
+    private LongSupplier exportarArvore;
+    private LongSupplier gerarArvoresDeNavegacao;
+    private LongSupplier somarPrecos;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchPercursoParalelo", formato, categorias,
+                threads);
+        exportarArvore = Cargas.operacao(operacoes, "exportarArvore");
+        gerarArvoresDeNavegacao = Cargas.operacao(operacoes, "gerarArvoresDeNavegacao");
+        somarPrecos = Cargas.operacao(operacoes, "soma dos preços");
+        console = Cargas.silenciarConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarConsole() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void exportarArvore(Blackhole consumidor) {
+        consumidor.consume(exportarArvore.getAsLong());
+    }
+
+    @Benchmark
+    public void gerarArvoresDeNavegacao(Blackhole consumidor) {
+        consumidor.consume(gerarArvoresDeNavegacao.getAsLong());
+    }
+
+    @Benchmark
+    public void somarPrecos(Blackhole consumidor) {
+        consumidor.consume(somarPrecos.getAsLong());
+    }
+}
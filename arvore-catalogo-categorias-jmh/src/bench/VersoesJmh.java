@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Publicação de versões imutáveis para leitura concorrente, com a carga do
+ * {@code BenchVersoes}: alteração de preço publicando uma versão nova e
+ * busca de categoria e produto por código numa versão, em catálogos com 2, 20
+ * e 100 departamentos (200 categorias e 4000 produtos cada).
+ *
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class VersoesJmh {
+
+    @Param({"2", "20", "100"})
+    public int departamentos;
+
+    private LongSupplier setPreco;
+    private LongSupplier buscarNaVersao;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Map<String, LongSupplier> operacoes = Cargas.operacoes("BenchVersoes", departamentos);
+        setPreco = Cargas.operacao(operacoes, "setPreco publicando versão");
+        buscarNaVersao = Cargas.operacao(operacoes, "buscar categoria e produto na versão");
+    }
+
+    @Benchmark
+    public void setPrecoPublicandoVersao(Blackhole consumidor) {
+        consumidor.consume(setPreco.getAsLong());
+    }
+
+    @Benchmark
+    public void buscarNaVersao(Blackhole consumidor) {
+        consumidor.consume(buscarNaVersao.getAsLong());
+    }
+}
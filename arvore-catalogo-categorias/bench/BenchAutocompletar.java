@@ -0,0 +1,83 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede o autocompletar do {@link CatalogoControll} em um catálogo com um
+ * milhão de nomes gerados a partir de sílabas com acentos.
+ *
+ * As consultas com {@code ~n} no final são feitas com tolerância a
+ * {@code n} erros de digitação.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out BenchAutocompletar
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchAutocompletar {
+
+    private static final int PRODUTOS = 1_000_000;
+    private static final String[] SILABAS = {"ele", "tro", "ni", "cos", "do", "més", "ti", "note", "bo", "ok",
+        "ca", "fé", "ção", "lâm", "pa", "da", "ge", "la", "dei", "ra", "mó", "vel", "sa", "pá", "tu"};
+    private static final String[] MARCAS = {"Dell", "Apple", "Philco", "Britânia", "Arno", "Brastemp"};
+    private static final String[] CONSULTAS = {"e", "eletro", "eletronicos", "cafe", "lampada dei", "britania",
+        "eletrnico~1", "lampda~1", "bratania~1", "eletrnocos~2"};
+
+    public static void main(String[] args) {
+        long inicio = System.nanoTime();
+        CatalogoControll catalogo = montar();
+        System.out.println(String.format("Autocompletar: %d produtos indexados em %d ms", PRODUTOS,
+                (System.nanoTime() - inicio) / 1_000_000));
+        for (String consulta : CONSULTAS) {
+            Medicao.medir("'" + consulta + "', top 10", autocompletar(catalogo, consulta));
+        }
+        Medicao.encerrar();
+    }
+
+    /**
+     * Monta o catálogo e retorna a consulta medida. Usado pelo
+     * {@code AutocompletarJmh}, do módulo JMH.
+     *
+     * @param consulta Texto consultado, com {@code ~n} no final para tolerar
+     *                 {@code n} erros
+     * @return Operação {@code autocompletar}
+     */
+    static Map<String, LongSupplier> operacoes(String consulta) {
+        return Collections.singletonMap("autocompletar", autocompletar(montar(), consulta));
+    }
+
+    private static CatalogoControll montar() {
+        Random aleatorio = new Random(42);
+        CatalogoControll catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "0", "");
+        for (int i = 0; i < PRODUTOS; i++) {
+            catalogo.inserirProduto(nome(aleatorio) + " " + MARCAS[aleatorio.nextInt(MARCAS.length)] + " " + i,
+                    "P" + i, 1, "");
+        }
+        return catalogo;
+    }
+
+    private static LongSupplier autocompletar(CatalogoControll catalogo, String consulta) {
+        int til = consulta.indexOf('~');
+        if (til < 0) {
+            return () -> catalogo.autocompletar(consulta, 10).size();
+        }
+        String texto = consulta.substring(0, til);
+        int erros = Integer.parseInt(consulta.substring(til + 1));
+        return () -> catalogo.autocompletar(texto, 10, erros).size();
+    }
+
+    private static String nome(Random aleatorio) {
+        StringBuilder nome = new StringBuilder();
+        int silabas = 2 + aleatorio.nextInt(4);
+        for (int i = 0; i < silabas; i++) {
+            nome.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+        }
+        nome.setCharAt(0, Character.toUpperCase(nome.charAt(0)));
+        return nome.toString();
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Mede a vazão da escrita concorrente do {@link CatalogoControll}
+ * ({@link CatalogoControll#ativarEscritaConcorrente()}) com 1, 2, 4 e 8
+ * threads, cada uma alterando um ramo próprio do catálogo: associa e
+ * desassocia produtos nas folhas do ramo e move folhas entre as categorias
+ * dele. A primeira linha é a referência, com uma thread e a escrita
+ * concorrente desligada.
+ *
+ * Como os ramos são disjuntos, as threads só disputam a trava de intenção
+ * da raiz e o monitor dos índices; o ganho com mais threads depende de
+ * quantos processadores a máquina tem.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -cp out BenchEscritaConcorrente
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchEscritaConcorrente {
+
+    private static final int RAMOS = 8;
+    private static final int CATEGORIAS_POR_RAMO = 10;
+    private static final int FOLHAS_POR_CATEGORIA = 10;
+    private static final int PRODUTOS_POR_RAMO = 200;
+    private static final int OPERACOES_POR_THREAD = 200_000;
+    private static final int RODADAS = 3;
+
+    public static void main(String[] args) throws InterruptedException {
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            saida.println("Processadores disponíveis: " + Runtime.getRuntime().availableProcessors());
+            // aquecimento, para o JIT compilar o caminho com e sem travas
+            medir(1, false);
+            medir(2, true);
+            saida.println(linha("1 thread, escrita concorrente desligada", medir(1, false)));
+            for (int threads : new int[] {1, 2, 4, 8}) {
+                saida.println(linha(threads + (threads == 1 ? " thread" : " threads"), medir(threads, true)));
+            }
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    private static String linha(String nome, double operacoesPorSegundo) {
+        return String.format(Locale.ROOT, "%-48s %14.0f ops/s", nome, operacoesPorSegundo);
+    }
+
+    /**
+     * Roda as threads algumas vezes sobre um catálogo novo e devolve a
+     * melhor vazão, em operações por segundo.
+     */
+    private static double medir(int threads, boolean concorrente) throws InterruptedException {
+        double melhor = 0;
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            CatalogoControll catalogo = montar();
+            if (concorrente) {
+                catalogo.ativarEscritaConcorrente();
+            }
+            List<Thread> escritoras = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int ramo = t;
+                escritoras.add(new Thread(() -> escrever(catalogo, ramo, new Random(ramo))));
+            }
+            long inicio = System.nanoTime();
+            escritoras.forEach(Thread::start);
+            for (Thread escritora : escritoras) {
+                escritora.join();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            melhor = Math.max(melhor, (double) threads * OPERACOES_POR_THREAD / segundos);
+        }
+        return melhor;
+    }
+
+    private static CatalogoControll montar() {
+        CatalogoControll catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "LOJA", "");
+        for (int r = 0; r < RAMOS; r++) {
+            catalogo.inserirCategoria("R" + r, "R" + r, "");
+            for (int c = 0; c < CATEGORIAS_POR_RAMO; c++) {
+                catalogo.definirSubcategoria("R" + r, "R" + r + "_c" + c);
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    catalogo.definirSubcategoria("R" + r + "_c" + c, "R" + r + "_c" + c + "_f" + f);
+                }
+            }
+        }
+        return catalogo;
+    }
+
+    /**
+     * Operações de uma thread, todas dentro do próprio ramo: 70% de
+     * associações e desassociações, 30% de folhas movidas para outra
+     * categoria do ramo.
+     */
+    private static void escrever(CatalogoControll catalogo, int ramo, Random aleatorio) {
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < PRODUTOS_POR_RAMO; i++) {
+            produtos.add(new Produto("Produto " + ramo + "_" + i, "P" + ramo + "_" + i, i, "Marca" + (i % 10)));
+        }
+        for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+            String folha = "R" + ramo + "_c" + aleatorio.nextInt(CATEGORIAS_POR_RAMO) + "_f"
+                    + aleatorio.nextInt(FOLHAS_POR_CATEGORIA);
+            int sorteio = aleatorio.nextInt(10);
+            if (sorteio < 4) {
+                catalogo.associarProduto(folha, produtos.get(aleatorio.nextInt(produtos.size())));
+            } else if (sorteio < 7) {
+                catalogo.desassociarProduto(folha, produtos.get(aleatorio.nextInt(produtos.size())));
+            } else {
+                catalogo.definirSubcategoria("R" + ramo + "_c" + aleatorio.nextInt(CATEGORIAS_POR_RAMO), folha);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede o fluxo de eventos do {@link CatalogoControll} ({@link CatalogoControll#ativarEventos()})
+ * sobre um catálogo gerado pelo {@link GeradorCatalogo}:
+ * <ul>
+ * <li>o custo que ele acrescenta às alterações (preço de um produto e
+ * associação seguida de desassociação), com o fluxo desligado e ligado;</li>
+ * <li>a atualização de uma cópia derivada (o preço de cada produto e o
+ * caminho de cada categoria, como num índice de busca) depois de um lote de
+ * alterações: refeita percorrendo {@link CatalogoControll#getRaiz()} e
+ * {@link CatalogoControll#getProdutosCadastrados()}, como hoje, ou
+ * atualizada só com os eventos recebidos.</li>
+ * </ul>
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (argumentos opcionais:
+ * quantidade de categorias e de alterações entre uma atualização e outra):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out BenchEventos 100000 10000
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchEventos {
+
+    public static void main(String[] args) {
+        int categorias = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        int alteracoes = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000;
+        CatalogoControll catalogo = montar(categorias);
+        List<Produto> produtos = catalogo.getProdutosCadastrados();
+        List<Categoria> folhas = folhas(catalogo);
+        System.out.println("Catálogo: " + catalogo.getRaiz().getTamanhoSubarvore() + " categorias, "
+                + produtos.size() + " produtos");
+
+        Random aleatorio = new Random(42);
+        Map<String, LongSupplier> operacoes = operacoes(catalogo);
+        for (boolean ligado : new boolean[] {false, true}) {
+            if (ligado) {
+                catalogo.ativarEventos();
+            }
+            String sufixo = ligado ? " (eventos ligados)" : " (eventos desligados)";
+            for (Map.Entry<String, LongSupplier> operacao : operacoes.entrySet()) {
+                Medicao.medir(operacao.getKey() + sufixo, operacao.getValue());
+            }
+        }
+
+        Map<String, Double> precos = new HashMap<>();
+        Map<String, String> caminhos = new HashMap<>();
+        AssinaturaEventos assinatura = catalogo.assinarEventos();
+        long inicio = System.nanoTime();
+        refazer(catalogo, precos, caminhos);
+        imprimir("cópia refeita do catálogo inteiro", System.nanoTime() - inicio);
+
+        for (int rodada = 0; rodada < 5; rodada++) {
+            for (int i = 0; i < alteracoes; i++) {
+                Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+                if (i % 10 == 0) {
+                    Categoria folha = folhas.get(aleatorio.nextInt(folhas.size()));
+                    catalogo.associarProduto(folha.getNome(), produto);
+                } else {
+                    produto.setPreco(aleatorio.nextInt(10_000));
+                }
+            }
+            inicio = System.nanoTime();
+            int aplicados = 0;
+            for (List<EventoCatalogo> eventos = assinatura.receber(4096); !eventos.isEmpty();
+                    eventos = assinatura.receber(4096)) {
+                for (EventoCatalogo evento : eventos) {
+                    aplicar(evento, precos, caminhos);
+                }
+                aplicados += eventos.size();
+            }
+            imprimir("cópia atualizada com " + aplicados + " eventos", System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+            refazer(catalogo, precos, caminhos);
+            imprimir("cópia refeita do catálogo inteiro", System.nanoTime() - inicio);
+        }
+        Medicao.encerrar();
+    }
+
+    /**
+     * Monta o catálogo, liga ou não o fluxo de eventos e retorna as
+     * alterações medidas, pelo nome. Usado pelo {@code EventosJmh}, do
+     * módulo JMH.
+     *
+     * @param categorias Quantidade de categorias (com cinco produtos por
+     *                   categoria)
+     * @param eventos    Se o fluxo de eventos fica ligado
+     * @return Operações
+     */
+    static Map<String, LongSupplier> operacoes(int categorias, boolean eventos) {
+        CatalogoControll catalogo = montar(categorias);
+        if (eventos) {
+            catalogo.ativarEventos();
+        }
+        return operacoes(catalogo);
+    }
+
+    private static CatalogoControll montar(int categorias) {
+        GeradorCatalogo gerador = new GeradorCatalogo(42);
+        gerador.setCategorias(categorias);
+        gerador.setProdutos(categorias * 5);
+        CatalogoControll catalogo = new CatalogoControll();
+        gerador.carregar(catalogo);
+        return catalogo;
+    }
+
+    private static List<Categoria> folhas(CatalogoControll catalogo) {
+        List<Categoria> folhas = new ArrayList<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.getRaiz())) {
+            if (categoria.isFolha()) {
+                folhas.add(categoria);
+            }
+        }
+        return folhas;
+    }
+
+    /**
+     * Alterações medidas; com o fluxo ligado, ninguém lê os eventos e o anel
+     * só é sobrescrito.
+     */
+    private static Map<String, LongSupplier> operacoes(CatalogoControll catalogo) {
+        Random aleatorio = new Random(7);
+        List<Produto> produtos = catalogo.getProdutosCadastrados();
+        List<Categoria> folhas = folhas(catalogo);
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("setPreco", () -> {
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            produto.setPreco(aleatorio.nextInt(10_000));
+            return 1;
+        });
+        operacoes.put("associar e desassociar", () -> {
+            Categoria folha = folhas.get(aleatorio.nextInt(folhas.size()));
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            boolean associado = catalogo.associarProduto(folha.getNome(), produto);
+            catalogo.desassociarProduto(folha.getNome(), produto);
+            return associado ? 1 : 0;
+        });
+        return operacoes;
+    }
+
+    private static void refazer(CatalogoControll catalogo, Map<String, Double> precos, Map<String, String> caminhos) {
+        precos.clear();
+        caminhos.clear();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.getRaiz())) {
+            caminhos.put(categoria.getNome(), categoria.montarCaminho(" > "));
+        }
+        for (Produto produto : catalogo.getProdutosCadastrados()) {
+            precos.put(produto.getCodigo(), produto.getPreco());
+        }
+    }
+
+    private static void aplicar(EventoCatalogo evento, Map<String, Double> precos, Map<String, String> caminhos) {
+        switch (evento.getTipo()) {
+            case PRODUTO_CRIADO:
+            case PRODUTO_REPRECIFICADO:
+                precos.put(evento.getProduto(), evento.getPreco());
+                break;
+            case CATEGORIA_CRIADA:
+            case CATEGORIA_MOVIDA:
+            case CATEGORIA_RENOMEADA:
+                caminhos.put(evento.getCategoria(), String.join(" > ", evento.getCaminho()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void imprimir(String nome, long nanos) {
+        System.out.printf("%-48s %14.1f ms%n", nome, nanos / 1e6);
+    }
+}
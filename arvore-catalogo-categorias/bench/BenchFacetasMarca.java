@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Compara as facetas por marca do {@link CatalogoControll} (dicionário de
+ * marcas e conjuntos de bits) com o percurso ingênuo da subárvore, que conta
+ * e filtra comparando strings.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -cp out BenchFacetasMarca
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchFacetasMarca {
+
+    private static final int DEPARTAMENTOS = 20;
+    private static final int CATEGORIAS_POR_DEPARTAMENTO = 20;
+    private static final int FOLHAS_POR_CATEGORIA = 10;
+    private static final int PRODUTOS = 200_000;
+    private static final int MARCAS = 60;
+
+    public static void main(String[] args) {
+        CatalogoControll catalogo = montar();
+        System.out.println("Facetas por marca: " + PRODUTOS + " produtos, "
+                + DEPARTAMENTOS * CATEGORIAS_POR_DEPARTAMENTO * FOLHAS_POR_CATEGORIA + " folhas, " + MARCAS
+                + " marcas");
+        for (String nome : new String[] {"Loja", "Dep3"}) {
+            System.out.println("-- subárvore " + nome + " ("
+                    + catalogo.buscarCategoria(nome).getQuantidadeProdutosSubarvore() + " produtos)");
+            for (Map.Entry<String, LongSupplier> operacao : operacoes(catalogo, nome).entrySet()) {
+                Medicao.medir(operacao.getKey(), operacao.getValue());
+            }
+        }
+        Medicao.encerrar();
+    }
+
+    /**
+     * Monta o catálogo e retorna as operações medidas numa subárvore, pelo
+     * nome. Usado pelo {@code FacetasMarcaJmh}, do módulo JMH.
+     *
+     * @param subarvore Nome da categoria consultada ({@code Loja} ou
+     *                  {@code Dep0} a {@code Dep19})
+     * @return Operações
+     */
+    static Map<String, LongSupplier> operacoes(String subarvore) {
+        return operacoes(montar(), subarvore);
+    }
+
+    private static CatalogoControll montar() {
+        Random aleatorio = new Random(42);
+        CatalogoControll catalogo = new CatalogoControll();
+        Categoria raiz = new Categoria("Loja", "0", "");
+        List<Categoria> folhas = new ArrayList<>();
+        for (int d = 0; d < DEPARTAMENTOS; d++) {
+            Categoria departamento = new Categoria("Dep" + d, "D" + d, "");
+            raiz.adicionarFilho(departamento);
+            for (int c = 0; c < CATEGORIAS_POR_DEPARTAMENTO; c++) {
+                Categoria categoria = new Categoria("Cat" + d + "_" + c, "C" + d + "_" + c, "");
+                departamento.adicionarFilho(categoria);
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    Categoria folha = new Categoria("Folha" + d + "_" + c + "_" + f, "F" + d + "_" + c + "_" + f, "");
+                    categoria.adicionarFilho(folha);
+                    folhas.add(folha);
+                }
+            }
+        }
+        catalogo.setRaiz(raiz);
+        for (int i = 0; i < PRODUTOS; i++) {
+            // marcas com frequência decrescente: poucas marcas concentram a maioria dos produtos
+            int marca = (int) (MARCAS * Math.pow(aleatorio.nextDouble(), 2));
+            Produto produto = catalogo.inserirProduto("Produto " + i, "P" + i, aleatorio.nextInt(10_000),
+                    "Marca" + marca);
+            folhas.get(aleatorio.nextInt(folhas.size())).adicionarProduto(produto);
+        }
+        return catalogo;
+    }
+
+    private static Map<String, LongSupplier> operacoes(CatalogoControll catalogo, String nome) {
+        Categoria categoria = catalogo.buscarCategoria(nome);
+        Produto naSubarvore = catalogo.listarProdutosDaSubarvore(nome).get(0);
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("contagem: percurso ingênuo", () -> contarIngenuo(categoria).size());
+        operacoes.put("contagem: índice (subárvore em cache)", () -> catalogo.contarProdutosPorMarca(nome).size());
+        operacoes.put("contagem: índice (subárvore alterada)", () -> {
+            naSubarvore.setPreco(naSubarvore.getPreco() + 1);
+            return catalogo.contarProdutosPorMarca(nome).size();
+        });
+        operacoes.put("filtro Marca0: percurso ingênuo", () -> filtrarIngenuo(categoria, "Marca0").size());
+        operacoes.put("filtro Marca0: índice (subárvore em cache)",
+                () -> catalogo.listarProdutosPorMarca(nome, "Marca0").size());
+        operacoes.put("filtro Marca59: índice (subárvore em cache)",
+                () -> catalogo.listarProdutosPorMarca(nome, "Marca59").size());
+        return operacoes;
+    }
+
+    private static Map<String, Integer> contarIngenuo(Categoria topo) {
+        Map<String, Integer> contagens = new HashMap<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(topo)) {
+            for (Produto produto : categoria.getProdutos()) {
+                contagens.merge(produto.getMarca(), 1, Integer::sum);
+            }
+        }
+        return contagens;
+    }
+
+    private static List<Produto> filtrarIngenuo(Categoria topo, String marca) {
+        List<Produto> resultado = new ArrayList<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(topo)) {
+            for (Produto produto : categoria.getProdutos()) {
+                if (marca.equals(produto.getMarca())) {
+                    resultado.add(produto);
+                }
+            }
+        }
+        return resultado;
+    }
+}
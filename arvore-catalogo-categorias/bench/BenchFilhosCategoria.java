@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Mede as operações sobre as listas de uma categoria com muitas filhas e
+ * muitos produtos diretos: anexar as filhas, percorrê-las, buscá-las pelo
+ * nome e retirá-las em ordem aleatória, e o mesmo para os produtos.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (argumento opcional:
+ * quantidade de filhas e de produtos):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -cp out BenchFilhosCategoria 50000
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchFilhosCategoria {
+
+    private static final int RODADAS = 5;
+
+    private static long sumidouro;
+
+    public static void main(String[] args) {
+        int quantidade = (args.length > 0) ? Integer.parseInt(args[0]) : 50_000;
+        System.out.println("Filhas e produtos por categoria: " + quantidade);
+        double[] melhores = new double[6];
+        Arrays.fill(melhores, Double.MAX_VALUE);
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            double[] tempos = rodar(quantidade, new Random(rodada));
+            for (int i = 0; i < tempos.length; i++) {
+                melhores[i] = Math.min(melhores[i], tempos[i]);
+            }
+        }
+        imprimir("anexar filhas", melhores[0]);
+        imprimir("percorrer filhas", melhores[1]);
+        imprimir("buscar filha pelo nome", melhores[2]);
+        imprimir("retirar filhas (ordem aleatória)", melhores[3]);
+        imprimir("associar produtos", melhores[4]);
+        imprimir("desassociar produtos (ordem aleatória)", melhores[5]);
+        System.out.println("(verificação: " + sumidouro + ")");
+    }
+
+    private static void imprimir(String nome, double nanossegundos) {
+        System.out.println(String.format(Locale.ROOT, "%-48s %14.1f ns/op", nome, nanossegundos));
+    }
+
+    /**
+     * Uma rodada de cada operação, devolvendo os nanossegundos por operação.
+     */
+    private static double[] rodar(int quantidade, Random aleatorio) {
+        double[] tempos = new double[6];
+        Categoria pai = new Categoria("Pai");
+        List<Categoria> filhas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            filhas.add(new Categoria("Filha " + i));
+        }
+        long inicio = System.nanoTime();
+        for (Categoria filha : filhas) {
+            pai.adicionarFilho(filha);
+        }
+        tempos[0] = porOperacao(inicio, quantidade);
+
+        inicio = System.nanoTime();
+        long nivel = 0;
+        for (int repeticao = 0; repeticao < 100; repeticao++) {
+            for (Categoria filha : pai.getFilhos()) {
+                nivel += filha.getNivel();
+            }
+        }
+        tempos[1] = porOperacao(inicio, 100L * quantidade);
+        sumidouro += nivel;
+
+        int buscas = Math.min(quantidade, 10_000);
+        inicio = System.nanoTime();
+        for (int i = 0; i < buscas; i++) {
+            Categoria achada = pai.buscarFilho("Filha " + aleatorio.nextInt(quantidade));
+            sumidouro += (achada != null) ? 1 : 0;
+        }
+        tempos[2] = porOperacao(inicio, buscas);
+
+        Collections.shuffle(filhas, aleatorio);
+        inicio = System.nanoTime();
+        for (Categoria filha : filhas) {
+            pai.removerFilho(filha);
+        }
+        tempos[3] = porOperacao(inicio, quantidade);
+
+        Categoria folha = new Categoria("Folha");
+        List<Produto> produtos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            produtos.add(new Produto("Produto " + i, "P" + i, i, "Marca " + (i % 50)));
+        }
+        inicio = System.nanoTime();
+        for (Produto produto : produtos) {
+            folha.adicionarProduto(produto);
+        }
+        tempos[4] = porOperacao(inicio, quantidade);
+
+        Collections.shuffle(produtos, aleatorio);
+        inicio = System.nanoTime();
+        for (Produto produto : produtos) {
+            folha.removerProduto(produto);
+        }
+        tempos[5] = porOperacao(inicio, quantidade);
+        sumidouro += pai.getFilhos().size() + folha.getProdutos().size();
+        return tempos;
+    }
+
+    private static double porOperacao(long inicio, long operacoes) {
+        return (System.nanoTime() - inicio) / (double) operacoes;
+    }
+}
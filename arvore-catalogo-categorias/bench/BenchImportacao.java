@@ -0,0 +1,184 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara a importação em lote ({@link CatalogoControll#importar}) com a
+ * montagem do mesmo catálogo pelas operações unitárias
+ * ({@code inserirCategoria}, {@code definirSubcategoria},
+ * {@code inserirProduto} e {@code associarProduto}).
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (argumentos opcionais:
+ * quantidade de produtos e formato do arquivo de produtos, {@code csv} ou
+ * {@code jsonl}):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xms4g -Xmx4g -cp out BenchImportacao 2000000 jsonl
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchImportacao {
+
+    private static final int DEPARTAMENTOS = 20;
+    private static final int CATEGORIAS_POR_DEPARTAMENTO = 20;
+    private static final int FOLHAS_POR_CATEGORIA = 10;
+    private static final int MARCAS = 60;
+
+    /**
+     * Produtos montados pelas operações unitárias; o custo por linha é
+     * extrapolado a partir deles.
+     */
+    private static final int AMOSTRA_UNITARIA = 200_000;
+
+    /**
+     * Linha de categoria gerada: código, nome e código do pai.
+     */
+    private static final class LinhaCategoria {
+        final String codigo;
+        final String nome;
+        final String pai;
+
+        LinhaCategoria(String codigo, String nome, String pai) {
+            this.codigo = codigo;
+            this.nome = nome;
+            this.pai = pai;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int quantidade = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        String formato = (args.length > 1) ? args[1] : "csv";
+        Random aleatorio = new Random(42);
+
+        List<LinhaCategoria> categorias = gerarCategorias();
+        List<String> folhas = new ArrayList<>();
+        for (LinhaCategoria categoria : categorias) {
+            if (categoria.codigo.startsWith("F")) {
+                folhas.add(categoria.codigo);
+            }
+        }
+        // pais e filhas fora de ordem, como num arquivo exportado de outro sistema
+        Collections.shuffle(categorias, aleatorio);
+
+        Path pasta = Files.createTempDirectory("importacao");
+        Path arquivoCategorias = pasta.resolve("categorias.csv");
+        Path arquivoProdutos = pasta.resolve("produtos." + formato);
+        try {
+            gravarCategorias(categorias, arquivoCategorias);
+            gravarProdutos(quantidade, folhas, formato.equals("jsonl"), arquivoProdutos);
+            System.out.printf("Arquivos: %d categorias, %d produtos (%.1f MB)%n", categorias.size(), quantidade,
+                    Files.size(arquivoProdutos) / 1e6);
+
+            CatalogoControll catalogo = new CatalogoControll();
+            long inicio = System.nanoTime();
+            RelatorioImportacao relatorio = catalogo.importar(arquivoCategorias, arquivoProdutos);
+            long nanos = System.nanoTime() - inicio;
+            System.out.println(relatorio);
+            imprimir("importação em lote", nanos, relatorio.getLinhasLidas());
+
+            catalogo = null;
+            relatorio = null;
+            System.gc();
+            montarUnitario(categorias, folhas, Math.min(quantidade, AMOSTRA_UNITARIA));
+        } finally {
+            Files.deleteIfExists(arquivoCategorias);
+            Files.deleteIfExists(arquivoProdutos);
+            Files.deleteIfExists(pasta);
+        }
+    }
+
+    /**
+     * Monta a mesma árvore e uma amostra dos produtos pelas operações
+     * unitárias, para comparação.
+     */
+    private static void montarUnitario(List<LinhaCategoria> categorias, List<String> folhas, int quantidade) {
+        Random aleatorio = new Random(42);
+        CatalogoControll catalogo = new CatalogoControll();
+        // as operações unitárias imprimem uma mensagem a cada chamada
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long inicio = System.nanoTime();
+        catalogo.inserirCategoria("Loja", "0", "");
+        for (LinhaCategoria categoria : categorias) {
+            catalogo.inserirCategoria(categoria.nome, categoria.codigo, "");
+        }
+        for (LinhaCategoria categoria : categorias) {
+            catalogo.definirSubcategoria(nomeDoPai(categoria), categoria.nome);
+        }
+        for (int i = 0; i < quantidade; i++) {
+            Produto produto = catalogo.inserirProduto("Produto " + i, "P" + i, aleatorio.nextInt(10_000),
+                    "Marca" + aleatorio.nextInt(MARCAS));
+            String folha = folhas.get(aleatorio.nextInt(folhas.size()));
+            catalogo.associarProduto("Folha" + folha.substring(1), produto);
+        }
+        long nanos = System.nanoTime() - inicio;
+        System.setOut(console);
+        imprimir("operações unitárias (amostra)", nanos, categorias.size() + quantidade);
+    }
+
+    private static String nomeDoPai(LinhaCategoria categoria) {
+        if (categoria.pai.isEmpty()) {
+            return "Loja";
+        }
+        return (categoria.pai.startsWith("D") ? "Dep" : "Cat") + categoria.pai.substring(1);
+    }
+
+    private static List<LinhaCategoria> gerarCategorias() {
+        List<LinhaCategoria> categorias = new ArrayList<>();
+        for (int d = 0; d < DEPARTAMENTOS; d++) {
+            categorias.add(new LinhaCategoria("D" + d, "Dep" + d, ""));
+            for (int c = 0; c < CATEGORIAS_POR_DEPARTAMENTO; c++) {
+                categorias.add(new LinhaCategoria("C" + d + "_" + c, "Cat" + d + "_" + c, "D" + d));
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    String sufixo = d + "_" + c + "_" + f;
+                    categorias.add(new LinhaCategoria("F" + sufixo, "Folha" + sufixo, "C" + d + "_" + c));
+                }
+            }
+        }
+        return categorias;
+    }
+
+    private static void gravarCategorias(List<LinhaCategoria> categorias, Path arquivo) throws IOException {
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            saida.write("codigo,nome,descricao,pai\n");
+            for (LinhaCategoria categoria : categorias) {
+                saida.write(categoria.codigo + "," + categoria.nome + ",\"Categoria " + categoria.nome + ", gerada\","
+                        + categoria.pai + "\n");
+            }
+        }
+    }
+
+    private static void gravarProdutos(int quantidade, List<String> folhas, boolean json, Path arquivo)
+            throws IOException {
+        Random aleatorio = new Random(42);
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            if (!json) {
+                saida.write("codigo,nome,preco,marca,categorias\n");
+            }
+            for (int i = 0; i < quantidade; i++) {
+                int preco = aleatorio.nextInt(10_000);
+                String marca = "Marca" + aleatorio.nextInt(MARCAS);
+                String folha = folhas.get(aleatorio.nextInt(folhas.size()));
+                if (json) {
+                    saida.write("{\"codigo\":\"P" + i + "\",\"nome\":\"Produto " + i + "\",\"preco\":" + preco
+                            + ",\"marca\":\"" + marca + "\",\"categorias\":[\"" + folha + "\"]}\n");
+                } else {
+                    saida.write("P" + i + ",Produto " + i + "," + preco + "," + marca + "," + folha + "\n");
+                }
+            }
+        }
+    }
+
+    private static void imprimir(String nome, long nanos, long linhas) {
+        System.out.printf("%-35s %10.2f ms %12.0f linhas/s%n", nome, nanos / 1e6, linhas / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Compara a aplicação de uma carga de alterações pelas operações unitárias
+ * ({@code definirSubcategoria}, {@code associarProduto},
+ * {@code desassociarProduto} e {@code removerCategoria}) com a aplicação
+ * das mesmas alterações em um único lote ({@link CatalogoControll#aplicarLote(LoteCatalogo)}),
+ * sobre catálogos iguais gerados pelo {@link GeradorCatalogo}.
+ *
+ * A carga imita a rotina noturna de merchandising: cria categorias novas
+ * sob categorias existentes, associa produtos cadastrados, move parte das
+ * categorias novas para outros pais, desassocia parte das associações
+ * feitas e, por fim, remove parte das categorias novas. Cada modo roda sem
+ * nada ligado e com o diário e a leitura concorrente ativos, em que as
+ * operações unitárias gravam um registro e publicam uma versão por chamada.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (argumentos opcionais:
+ * quantidade de alterações e de categorias do catálogo):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx3g -cp out BenchLote 500000 100000
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchLote {
+
+    /**
+     * Alteração da carga, aplicada tanto no lote quanto por chamada.
+     */
+    private interface Alteracao {
+        void acrescentar(LoteCatalogo lote);
+
+        void aplicar(CatalogoControll catalogo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int alteracoes = (args.length > 0) ? Integer.parseInt(args[0]) : 500_000;
+        int categorias = (args.length > 1) ? Integer.parseInt(args[1]) : 100_000;
+        for (boolean completo : new boolean[] {false, true}) {
+            String modo = completo ? "com diário e leitura concorrente" : "sem diário";
+            CatalogoControll unitario = carregar(categorias);
+            CatalogoControll emLote = carregar(categorias);
+            List<Alteracao> carga = gerarCarga(emLote, alteracoes, new Random(42));
+            LoteCatalogo lote = new LoteCatalogo();
+            for (Alteracao alteracao : carga) {
+                alteracao.acrescentar(lote);
+            }
+            Path pastaUnitario = Files.createTempDirectory("lote-unitario");
+            Path pastaLote = Files.createTempDirectory("lote");
+            try {
+                if (completo) {
+                    ativar(unitario, pastaUnitario);
+                    ativar(emLote, pastaLote);
+                }
+                System.gc();
+                long inicio = System.nanoTime();
+                for (Alteracao alteracao : carga) {
+                    alteracao.aplicar(unitario);
+                }
+                if (completo) {
+                    unitario.sincronizarDiario();
+                }
+                imprimir("operações unitárias, " + modo, System.nanoTime() - inicio, carga.size());
+
+                System.gc();
+                inicio = System.nanoTime();
+                ResultadoLote resultado = emLote.aplicarLote(lote);
+                if (completo) {
+                    emLote.sincronizarDiario();
+                }
+                imprimir("lote, " + modo, System.nanoTime() - inicio, carga.size());
+                if (!resultado.isAplicado()) {
+                    throw new IllegalStateException("Lote recusado: " + resultado.getErros());
+                }
+                conferir(unitario, emLote);
+            } finally {
+                if (completo) {
+                    unitario.fecharDiario();
+                    emLote.fecharDiario();
+                }
+                apagar(pastaUnitario);
+                apagar(pastaLote);
+            }
+        }
+    }
+
+    private static CatalogoControll carregar(int categorias) {
+        GeradorCatalogo gerador = new GeradorCatalogo(42);
+        gerador.setCategorias(categorias);
+        gerador.setProdutos(categorias * 5);
+        CatalogoControll catalogo = new CatalogoControll();
+        gerador.carregar(catalogo);
+        return catalogo;
+    }
+
+    private static void ativar(CatalogoControll catalogo, Path pasta) throws IOException {
+        catalogo.abrirDiario(pasta);
+        catalogo.ativarLeituraConcorrente();
+    }
+
+    /**
+     * Gera a carga sobre as categorias e os produtos do catálogo, sem
+     * alterá-lo: 40% de categorias novas, 40% de associações, 10% de
+     * categorias novas movidas, 5% de desassociações e 5% de remoções.
+     * Categorias novas só ficam sob categorias originais, então nenhuma
+     * subordinação forma ciclo.
+     */
+    private static List<Alteracao> gerarCarga(CatalogoControll catalogo, int quantidade, Random aleatorio) {
+        List<String> originais = new ArrayList<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.getRaiz())) {
+            originais.add(categoria.getNome());
+        }
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; produtos.size() < originais.size() * 5; i++) {
+            produtos.add(catalogo.buscarProduto("P" + i));
+        }
+        int novas = quantidade * 40 / 100;
+        int associacoes = quantidade * 40 / 100;
+        int movidas = quantidade * 10 / 100;
+        int desassociacoes = quantidade * 5 / 100;
+        int remocoes = quantidade - novas - associacoes - movidas - desassociacoes;
+
+        List<Alteracao> carga = new ArrayList<>(quantidade);
+        for (int i = 0; i < novas; i++) {
+            carga.add(subordinar(originais.get(aleatorio.nextInt(originais.size())), "Nova " + i));
+        }
+        List<String> associadas = new ArrayList<>();
+        List<Produto> associados = new ArrayList<>();
+        Set<String> jaAssociadas = new HashSet<>();
+        for (int i = 0; i < associacoes; i++) {
+            String nome = (i % 2 == 0) ? "Nova " + aleatorio.nextInt(novas)
+                    : originais.get(aleatorio.nextInt(originais.size()));
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            carga.add(associar(nome, produto));
+            if (i % 2 == 0 && associadas.size() < desassociacoes && jaAssociadas.add(nome)) {
+                associadas.add(nome);
+                associados.add(produto);
+            }
+        }
+        for (int i = 0; i < movidas; i++) {
+            carga.add(subordinar(originais.get(aleatorio.nextInt(originais.size())),
+                    "Nova " + aleatorio.nextInt(novas)));
+        }
+        for (int i = 0; i < associadas.size(); i++) {
+            carga.add(desassociar(associadas.get(i), associados.get(i)));
+        }
+        for (int i = 0; i < remocoes; i++) {
+            // as últimas categorias novas, que não recebem desassociações
+            carga.add(remover("Nova " + (novas - 1 - i)));
+        }
+        return carga;
+    }
+
+    private static Alteracao subordinar(String pai, String filho) {
+        return new Alteracao() {
+            @Override
+            public void acrescentar(LoteCatalogo lote) {
+                lote.definirSubcategoria(pai, filho);
+            }
+
+            @Override
+            public void aplicar(CatalogoControll catalogo) {
+                catalogo.definirSubcategoria(pai, filho);
+            }
+        };
+    }
+
+    private static Alteracao associar(String categoria, Produto produto) {
+        return new Alteracao() {
+            @Override
+            public void acrescentar(LoteCatalogo lote) {
+                lote.associarProduto(categoria, produto);
+            }
+
+            @Override
+            public void aplicar(CatalogoControll catalogo) {
+                catalogo.associarProduto(categoria, catalogo.buscarProduto(produto.getCodigo()));
+            }
+        };
+    }
+
+    private static Alteracao desassociar(String categoria, Produto produto) {
+        return new Alteracao() {
+            @Override
+            public void acrescentar(LoteCatalogo lote) {
+                lote.desassociarProduto(categoria, produto);
+            }
+
+            @Override
+            public void aplicar(CatalogoControll catalogo) {
+                catalogo.desassociarProduto(categoria, catalogo.buscarProduto(produto.getCodigo()));
+            }
+        };
+    }
+
+    private static Alteracao remover(String categoria) {
+        return new Alteracao() {
+            @Override
+            public void acrescentar(LoteCatalogo lote) {
+                lote.removerCategoria(categoria);
+            }
+
+            @Override
+            public void aplicar(CatalogoControll catalogo) {
+                catalogo.removerCategoria(categoria);
+            }
+        };
+    }
+
+    /**
+     * Confere que os dois catálogos terminaram com a mesma forma.
+     */
+    private static void conferir(CatalogoControll unitario, CatalogoControll emLote) {
+        Categoria a = unitario.getRaiz();
+        Categoria b = emLote.getRaiz();
+        if (a.getTamanhoSubarvore() != b.getTamanhoSubarvore()
+                || a.getQuantidadeProdutosSubarvore() != b.getQuantidadeProdutosSubarvore()) {
+            throw new IllegalStateException("Os catálogos divergiram: " + a.getTamanhoSubarvore() + "/"
+                    + a.getQuantidadeProdutosSubarvore() + " e " + b.getTamanhoSubarvore() + "/"
+                    + b.getQuantidadeProdutosSubarvore());
+        }
+    }
+
+    private static void apagar(Path pasta) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    private static void imprimir(String nome, long nanos, long alteracoes) {
+        System.out.printf("%-52s %10.2f ms %12.0f alterações/s%n", nome, nanos / 1e6, alteracoes / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Mede quantos bytes de heap cada produto ocupa: só no
+ * {@link RegistroProdutos} (o produto em si e a busca por código) e no
+ * {@link CatalogoControll} inteiro, que também indexa marca e nome
+ * (autocompletar) e, por último, associa os produtos às folhas. A medida é
+ * a diferença de heap ocupado (depois de coletas de lixo) antes e depois de
+ * cadastrar os produtos, dividida pela quantidade.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (argumento opcional:
+ * quantidade de produtos):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx4g -cp out BenchMemoriaProdutos 2000000
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchMemoriaProdutos {
+
+    private static final int FOLHAS = 1_000;
+    private static final int MARCAS = 200;
+
+    public static void main(String[] args) {
+        int quantidade = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            medir(saida, quantidade);
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    private static void medir(PrintStream saida, int quantidade) {
+        saida.println("Produtos: " + quantidade);
+        long inicial = heapOcupado();
+        RegistroProdutos registro = new RegistroProdutos();
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < quantidade; i++) {
+            registro.registrar(novo(i, aleatorio));
+        }
+        imprimir(saida, "registro (produto e busca por código)", heapOcupado() - inicial, quantidade);
+        saida.println("(verificação: " + registro.buscar("SKU-" + (10_000_000 + quantidade - 1)).getNome() + ")");
+        registro = null;
+
+        inicial = heapOcupado();
+        CatalogoControll catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "LOJA", "");
+        for (int f = 0; f < FOLHAS; f++) {
+            catalogo.definirSubcategoria("Loja", "Folha" + f);
+        }
+        aleatorio = new Random(42);
+        Produto[] produtos = new Produto[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            Produto produto = novo(i, aleatorio);
+            produtos[i] = catalogo.inserirProduto(produto.getNome(), produto.getCodigo(), produto.getPreco(),
+                    produto.getMarca());
+        }
+        imprimir(saida, "catálogo (com índices de marca e nome)", heapOcupado() - inicial, quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            catalogo.associarProduto("Folha" + (i % FOLHAS), produtos[i]);
+        }
+        imprimir(saida, "catálogo, associados a uma folha", heapOcupado() - inicial, quantidade);
+        saida.println("(verificação: " + catalogo.getRaiz().getQuantidadeProdutosSubarvore() + ")");
+    }
+
+    private static Produto novo(int i, Random aleatorio) {
+        return new Produto("Produto de teste número " + i, "SKU-" + (10_000_000 + i),
+                aleatorio.nextInt(1_000_000) / 100.0, "Marca " + aleatorio.nextInt(MARCAS));
+    }
+
+    private static void imprimir(PrintStream saida, String nome, long bytes, int quantidade) {
+        saida.println(String.format(Locale.ROOT, "%-48s %10.1f bytes/produto", nome, bytes / (double) quantidade));
+    }
+
+    /**
+     * Heap ocupado depois de algumas coletas de lixo seguidas.
+     */
+    private static long heapOcupado() {
+        Runtime runtime = Runtime.getRuntime();
+        long ocupado = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            ocupado = Math.min(ocupado, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return ocupado;
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede o custo das métricas do {@link CatalogoControll} (ver
+ * {@link MetricasCatalogo}) nas operações mais curtas: busca de categoria e
+ * de produto por código e o par associar e desassociar. Cada operação é
+ * medida com as métricas desligadas, ligadas com a amostragem padrão de
+ * durações e ligadas medindo a duração de toda chamada.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -cp out BenchMetricas
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchMetricas {
+
+    private static final int CATEGORIAS = 10_000;
+    private static final int PRODUTOS = 10_000;
+    private static final String[] CONFIGURACOES = {"desligadas", "amostragem", "todas"};
+
+    public static void main(String[] args) {
+        CatalogoControll catalogo = montar();
+        Map<String, LongSupplier> operacoes = operacoes(catalogo);
+        for (int repeticao = 0; repeticao < 2; repeticao++) {
+            for (String configuracao : CONFIGURACOES) {
+                configurar(catalogo, configuracao);
+                String descricao = configuracao.equals("amostragem")
+                        ? "amostragem 1/" + MetricasCatalogo.AMOSTRAGEM_PADRAO
+                        : configuracao.equals("todas") ? "todas as durações" : configuracao;
+                for (Map.Entry<String, LongSupplier> operacao : operacoes.entrySet()) {
+                    Medicao.medir(operacao.getKey() + ", " + descricao, operacao.getValue());
+                }
+            }
+        }
+        System.out.println();
+        System.out.println(catalogo.relatorioMetricas());
+        Medicao.encerrar();
+    }
+
+    /**
+     * Monta o catálogo, configura as métricas e retorna as operações
+     * medidas, pelo nome. Usado pelo {@code MetricasJmh}, do módulo JMH.
+     *
+     * @param configuracao {@code desligadas}, {@code amostragem} (amostragem
+     *                     padrão das durações) ou {@code todas} (duração de
+     *                     toda chamada)
+     * @return Operações
+     */
+    static Map<String, LongSupplier> operacoes(String configuracao) {
+        CatalogoControll catalogo = montar();
+        configurar(catalogo, configuracao);
+        return operacoes(catalogo);
+    }
+
+    private static CatalogoControll montar() {
+        CatalogoControll catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Raiz", "C0", "");
+        for (int i = 1; i < CATEGORIAS; i++) {
+            catalogo.inserirCategoria("Categoria " + i, "C" + i, "");
+        }
+        for (int i = 0; i < PRODUTOS; i++) {
+            catalogo.inserirProduto("Produto " + i, "P" + i, i, "Marca " + (i % 50));
+        }
+        // produtos mais baratos e mais caros na raiz, para que o par associar e
+        // desassociar não mude os extremos de preço das ancestrais
+        for (int i = 0; i < 100; i++) {
+            catalogo.associarProduto("Categoria 2", catalogo.buscarProduto("P" + (i * (PRODUTOS / 100))));
+        }
+        return catalogo;
+    }
+
+    private static void configurar(CatalogoControll catalogo, String configuracao) {
+        switch (configuracao) {
+            case "desligadas":
+                catalogo.desativarMetricas();
+                break;
+            case "amostragem":
+                catalogo.ativarMetricas();
+                catalogo.getMetricas().setAmostragem(MetricasCatalogo.AMOSTRAGEM_PADRAO);
+                break;
+            case "todas":
+                catalogo.ativarMetricas();
+                catalogo.getMetricas().setAmostragem(1);
+                break;
+            default:
+                throw new IllegalArgumentException("Configuração de métricas desconhecida: " + configuracao);
+        }
+    }
+
+    private static Map<String, LongSupplier> operacoes(CatalogoControll catalogo) {
+        Random aleatorio = new Random(42);
+        String[] codigosCategoria = new String[1024];
+        String[] codigosProduto = new String[1024];
+        for (int i = 0; i < codigosCategoria.length; i++) {
+            codigosCategoria[i] = "C" + aleatorio.nextInt(CATEGORIAS);
+            codigosProduto[i] = "P" + aleatorio.nextInt(PRODUTOS);
+        }
+        Produto produto = catalogo.buscarProduto("P" + (PRODUTOS / 2 + 1));
+        int[] proximo = new int[1];
+
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("buscarCategoriaPorCodigo", () -> catalogo
+                .buscarCategoriaPorCodigo(codigosCategoria[proximo[0]++ & 1023]).getNivel());
+        operacoes.put("buscarProduto", () -> catalogo.buscarProduto(codigosProduto[proximo[0]++ & 1023])
+                .getCodigo().length());
+        operacoes.put("associar+desassociar", () -> {
+            boolean associado = catalogo.associarProduto("Categoria 1", produto);
+            return (associado && catalogo.desassociarProduto("Categoria 1", produto)) ? 1 : 0;
+        });
+        return operacoes;
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede cada operação do {@link CatalogoControll} em catálogos de formatos e
+ * tamanhos diferentes, informando vazão, tempo médio, bytes alocados por
+ * operação, taxa de alocação e coletas de lixo (ver
+ * {@link Medicao#medirCompleto(LongSupplier)}).
+ *
+ * Formatos de árvore, para {@code n} categorias:
+ * <ul>
+ * <li>{@code largo}: todas as categorias são filhas da raiz;</li>
+ * <li>{@code profundo}: cadeias de {@value #PROFUNDIDADE} categorias
+ * penduradas na raiz;</li>
+ * <li>{@code equilibrado}: cada categoria tem {@value #GRAU} filhas;</li>
+ * <li>{@code assimetrico}: o pai de cada categoria é sorteado com
+ * preferência pelas mais antigas, o que concentra filhas em poucas
+ * categorias perto da raiz.</li>
+ * </ul>
+ * Há um produto para cada {@value #CATEGORIAS_POR_PRODUTO} categorias,
+ * associado a uma folha sorteada.
+ *
+ * As operações que alteram o catálogo são medidas em pares que o devolvem ao
+ * estado anterior, para que o formato não mude ao longo da medição:
+ * associar e desassociar um produto, criar uma subcategoria e removê-la. Mover
+ * uma folha para outra categoria não desfaz a operação, mas mantém a
+ * quantidade de categorias.
+ *
+ * Opções, todas no formato {@code nome=valor}:
+ * <ul>
+ * <li>{@code formatos}: lista separada por vírgulas (padrão: todos);</li>
+ * <li>{@code tamanhos}: quantidades de categorias (padrão: 1000,100000);</li>
+ * <li>{@code operacoes}: nomes das operações a medir (padrão: todas);</li>
+ * <li>{@code gravar}: arquivo onde os resultados são gravados, uma linha por
+ * medição, separados por tabulação;</li>
+ * <li>{@code comparar}: arquivo gravado antes, cujos tempos são mostrados ao
+ * lado dos atuais com a variação.</li>
+ * </ul>
+ * O arquivo {@code bench/resultados-base.tsv} guarda a medição de referência
+ * da versão atual; grave uma medição nova e compare (ou faça diff) com ele
+ * antes e depois de uma alteração.
+ *
+ * O {@code OperacoesCatalogoJmh}, do módulo {@code arvore-catalogo-categorias-jmh},
+ * mede as mesmas operações ({@link #operacoes(String, int)}) com o JMH, em
+ * JVMs separadas e com o perfilador de coleta de lixo; a referência dele é
+ * {@code arvore-catalogo-categorias-jmh/resultados-base.csv}.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out BenchOperacoesCatalogo comparar=bench/resultados-base.tsv
+ * java -Xmx24g -cp out BenchOperacoesCatalogo tamanhos=10000000 formatos=equilibrado
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchOperacoesCatalogo {
+
+    static final int PROFUNDIDADE = 1_000;
+    static final int GRAU = 10;
+    static final int CATEGORIAS_POR_PRODUTO = 10;
+
+    private static final String CABECALHO = "formato\ttamanho\toperacao\tns_op\tops_s\tbytes_op";
+
+    /**
+     * Formatos de árvore medidos.
+     */
+    enum Formato {
+        LARGO, PROFUNDO, EQUILIBRADO, ASSIMETRICO;
+
+        /**
+         * Posição do pai da categoria {@code i} (maior que zero), sempre
+         * menor que {@code i}.
+         */
+        int pai(int i, Random aleatorio) {
+            switch (this) {
+                case LARGO:
+                    return 0;
+                case PROFUNDO:
+                    return ((i - 1) % PROFUNDIDADE == 0) ? 0 : i - 1;
+                case EQUILIBRADO:
+                    return (i - 1) / GRAU;
+                default:
+                    double sorteio = aleatorio.nextDouble();
+                    return (int) (i * sorteio * sorteio * sorteio);
+            }
+        }
+
+        String nome() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Catálogo montado num formato, com as listas usadas para sortear os
+     * argumentos das operações.
+     */
+    private static final class Cenario {
+        final CatalogoControll catalogo = new CatalogoControll();
+        final List<Categoria> categorias = new ArrayList<>();
+        final List<Categoria> folhas = new ArrayList<>();
+        final List<Categoria> internas = new ArrayList<>();
+        final List<Produto> produtos = new ArrayList<>();
+        final Random aleatorio = new Random(42);
+
+        <T> T sortear(List<T> lista) {
+            return lista.get(aleatorio.nextInt(lista.size()));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Opção sem valor: " + arg);
+            }
+            opcoes.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        List<Formato> formatos = new ArrayList<>();
+        for (String nome : opcoes.getOrDefault("formatos", "largo,profundo,equilibrado,assimetrico").split(",")) {
+            formatos.add(Formato.valueOf(nome.trim().toUpperCase(Locale.ROOT)));
+        }
+        List<Integer> tamanhos = new ArrayList<>();
+        for (String tamanho : opcoes.getOrDefault("tamanhos", "1000,100000").split(",")) {
+            tamanhos.add(Integer.parseInt(tamanho.trim()));
+        }
+        String operacoes = opcoes.get("operacoes");
+        Map<String, Double> base = opcoes.containsKey("comparar") ? lerBase(Paths.get(opcoes.get("comparar")))
+                : null;
+
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<String> linhas = new ArrayList<>();
+        try {
+            saida.println(String.format(Locale.ROOT, "%-12s %9s %-34s %12s %14s %12s %10s %6s%s", "formato", "tamanho",
+                    "operação", "ops/s", "ns/op", "B/op", "MB/s", "gc", (base != null) ? "      base" : ""));
+            for (int tamanho : tamanhos) {
+                for (Formato formato : formatos) {
+                    Cenario cenario = montar(formato, tamanho);
+                    for (Map.Entry<String, LongSupplier> operacao : operacoes(cenario).entrySet()) {
+                        if (operacoes != null && !operacoes.contains(operacao.getKey())) {
+                            continue;
+                        }
+                        Medicao.Resultado resultado = Medicao.medirCompleto(operacao.getValue());
+                        String chave = formato.nome() + "\t" + tamanho + "\t" + operacao.getKey();
+                        linhas.add(String.format(Locale.ROOT, "%s\t%.1f\t%.0f\t%.0f", chave, resultado.nanossegundos,
+                                resultado.vazao(), resultado.bytesAlocados));
+                        saida.println(linha(formato, tamanho, operacao.getKey(), resultado,
+                                (base != null) ? base.get(chave) : null));
+                    }
+                }
+            }
+        } finally {
+            System.setOut(saida);
+        }
+        Medicao.encerrar();
+        if (opcoes.containsKey("gravar")) {
+            linhas.add(0, CABECALHO);
+            linhas.add(0, "# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ", "
+                    + Runtime.getRuntime().availableProcessors() + " processador(es)");
+            Files.write(Paths.get(opcoes.get("gravar")), linhas, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String linha(Formato formato, int tamanho, String operacao, Medicao.Resultado resultado,
+            Double base) {
+        String texto = String.format(Locale.ROOT, "%-12s %9d %-34s %12.0f %14.1f %12.0f %10.1f %6d", formato.nome(),
+                tamanho, operacao, resultado.vazao(), resultado.nanossegundos, resultado.bytesAlocados,
+                resultado.megabytesPorSegundo(), resultado.coletas);
+        if (base != null) {
+            texto += String.format(Locale.ROOT, " %9.1f %+6.1f%%", base,
+                    100 * (resultado.nanossegundos - base) / base);
+        }
+        return texto;
+    }
+
+    /**
+     * Lê os tempos de um arquivo gravado com {@code gravar=}, pela chave
+     * formato, tamanho e operação.
+     */
+    private static Map<String, Double> lerBase(Path arquivo) throws IOException {
+        Map<String, Double> tempos = new HashMap<>();
+        for (String linha : Files.readAllLines(arquivo, StandardCharsets.UTF_8)) {
+            if (linha.isEmpty() || linha.startsWith("#") || linha.equals(CABECALHO)) {
+                continue;
+            }
+            String[] campos = linha.split("\t");
+            tempos.put(campos[0] + "\t" + campos[1] + "\t" + campos[2], Double.parseDouble(campos[3]));
+        }
+        return tempos;
+    }
+
+    // CENÁRIOS
+
+    /**
+     * Monta a árvore com as categorias {@code C0} (raiz) a {@code C(n-1)},
+     * de códigos {@code K0} a {@code K(n-1)}, e associa os produtos.
+     */
+    private static Cenario montar(Formato formato, int tamanho) {
+        Cenario cenario = new Cenario();
+        Random aleatorio = new Random(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Categoria categoria = new Categoria("C" + i, "K" + i, "");
+            if (i > 0) {
+                cenario.categorias.get(formato.pai(i, aleatorio)).adicionarFilho(categoria);
+            }
+            cenario.categorias.add(categoria);
+        }
+        cenario.catalogo.setRaiz(cenario.categorias.get(0));
+        for (Categoria categoria : cenario.categorias) {
+            (categoria.isFolha() ? cenario.folhas : cenario.internas).add(categoria);
+        }
+        int produtos = Math.max(100, tamanho / CATEGORIAS_POR_PRODUTO);
+        for (int i = 0; i < produtos; i++) {
+            Produto produto = cenario.catalogo.inserirProduto("Produto " + i, "P" + i,
+                    aleatorio.nextInt(100_000) / 100.0, "Marca" + aleatorio.nextInt(50));
+            cenario.sortear(cenario.folhas).adicionarProduto(produto);
+            cenario.produtos.add(produto);
+        }
+        return cenario;
+    }
+
+    /**
+     * Monta o catálogo e retorna as operações medidas sobre ele, pelo nome.
+     * Usado pelo {@code OperacoesCatalogoJmh}, do módulo JMH.
+     *
+     * @param formato Nome do formato da árvore ({@code largo}, {@code profundo},
+     *                {@code equilibrado} ou {@code assimetrico})
+     * @param tamanho Quantidade de categorias
+     * @return Operações, na ordem em que aparecem no resultado
+     */
+    static Map<String, LongSupplier> operacoes(String formato, int tamanho) {
+        return operacoes(montar(Formato.valueOf(formato.toUpperCase(Locale.ROOT)), tamanho));
+    }
+
+    /**
+     * Operações medidas, na ordem em que aparecem no resultado.
+     */
+    private static Map<String, LongSupplier> operacoes(Cenario cenario) {
+        CatalogoControll catalogo = cenario.catalogo;
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("buscarCategoria", () -> {
+            Categoria achada = catalogo.buscarCategoria(cenario.sortear(cenario.categorias).getNome());
+            return achada.getNivel();
+        });
+        operacoes.put("buscarCaminhoCompleto",
+                () -> catalogo.buscarCaminhoCompleto(cenario.sortear(cenario.categorias).getNome()).length());
+        operacoes.put("listarRotasDaSubarvore",
+                () -> catalogo.listarRotasDaSubarvore(cenario.sortear(cenario.internas).getNome()).size());
+        operacoes.put("definirSubcategoria", () -> {
+            Categoria folha = cenario.sortear(cenario.folhas);
+            Categoria destino = cenario.sortear(cenario.internas);
+            return catalogo.definirSubcategoria(destino.getNome(), folha.getNome()) ? 1 : 0;
+        });
+        operacoes.put("associarProduto+desassociarProduto", () -> {
+            String folha = cenario.sortear(cenario.folhas).getNome();
+            Produto produto = cenario.sortear(cenario.produtos);
+            boolean associado = catalogo.associarProduto(folha, produto);
+            return (associado && catalogo.desassociarProduto(folha, produto)) ? 1 : 0;
+        });
+        operacoes.put("criarSubcategoria+removerCategoria", () -> {
+            String pai = cenario.sortear(cenario.categorias).getNome();
+            boolean criada = catalogo.definirSubcategoria(pai, "Temporaria");
+            return (criada && catalogo.removerCategoria("Temporaria")) ? 1 : 0;
+        });
+        operacoes.put("listarArvore", () -> {
+            catalogo.listarArvore();
+            return 1;
+        });
+        operacoes.put("gerarArvoresDeNavegacao", () -> {
+            catalogo.gerarArvoresDeNavegacao();
+            return 1;
+        });
+        return operacoes;
+    }
+}
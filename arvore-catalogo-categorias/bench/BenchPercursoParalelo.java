@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede o ganho do percurso paralelo ({@link CatalogoControll#ativarPercursoParalelo(ForkJoinPool)}
+ * e {@link PercursoParalelo}) nos percursos da árvore inteira, com pools de
+ * 1, 2, 4 e 8 threads (dobrando até a quantidade de processadores, se
+ * maior), em três
+ * árvores geradas pelo {@link GeradorCatalogo}:
+ * <ul>
+ * <li>{@code larga}: 2 níveis com 500 filhas por categoria;</li>
+ * <li>{@code assimetrica}: grau com lei de potência, em que poucas
+ * categorias concentram a maior parte das filhas;</li>
+ * <li>{@code equilibrada}: 8 filhas por categoria.</li>
+ * </ul>
+ * Operações: exportação em JSON por linha para um destino que descarta o
+ * texto, geração das rotas de navegação (com o console descartado) e soma
+ * dos preços de todas as associações por stream. A primeira linha de cada
+ * operação é a referência sequencial; as demais mostram o ganho sobre ela.
+ * O ganho depende de quantos processadores a máquina tem.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out BenchPercursoParalelo [categorias]
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchPercursoParalelo {
+
+    private static final int CATEGORIAS_PADRAO = 200_000;
+    private static final int PRODUTOS_POR_CATEGORIA = 2;
+
+    public static void main(String[] args) throws Exception {
+        int categorias = (args.length > 0) ? Integer.parseInt(args[0]) : CATEGORIAS_PADRAO;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            int processadores = Runtime.getRuntime().availableProcessors();
+            saida.println("Processadores disponíveis: " + processadores);
+            for (String formato : new String[] {"larga", "assimetrica", "equilibrada"}) {
+                medirFormato(saida, formato, categorias, processadores);
+            }
+        } finally {
+            System.setOut(saida);
+        }
+        Medicao.encerrar();
+    }
+
+    /**
+     * Monta o catálogo e retorna as operações medidas, pelo nome, feitas só
+     * na thread que chama ({@code threads} igual a 0) ou num pool com a
+     * quantidade de threads informada. Usado pelo {@code PercursoParaleloJmh},
+     * do módulo JMH.
+     *
+     * @param formato    {@code larga}, {@code assimetrica} ou {@code equilibrada}
+     * @param categorias Quantidade de categorias
+     * @param threads    Threads do pool, ou 0 para o percurso sequencial
+     * @return Operações
+     */
+    static Map<String, LongSupplier> operacoes(String formato, int categorias, int threads) {
+        CatalogoControll catalogo = new CatalogoControll();
+        gerador(formato, categorias).carregar(catalogo);
+        ForkJoinPool pool = (threads > 0) ? new ForkJoinPool(threads) : null;
+        if (pool != null) {
+            catalogo.ativarPercursoParalelo(pool);
+        }
+        return operacoes(catalogo, pool);
+    }
+
+    private static GeradorCatalogo gerador(String formato, int categorias) {
+        GeradorCatalogo gerador = new GeradorCatalogo(42);
+        gerador.setCategorias(categorias);
+        gerador.setProdutos(categorias * PRODUTOS_POR_CATEGORIA);
+        switch (formato) {
+            case "larga":
+                gerador.setGrau(GeradorCatalogo.Grau.FIXO, 500);
+                gerador.setProfundidadeMaxima(2);
+                break;
+            case "assimetrica":
+                gerador.setGrau(GeradorCatalogo.Grau.POTENCIA, 8);
+                gerador.setProfundidadeMaxima(12);
+                break;
+            case "equilibrada":
+                gerador.setGrau(GeradorCatalogo.Grau.FIXO, 8);
+                gerador.setProfundidadeMaxima(12);
+                break;
+            default:
+                throw new IllegalArgumentException("Formato desconhecido: " + formato);
+        }
+        return gerador;
+    }
+
+    /**
+     * Operações sobre o catálogo; a soma dos preços usa o pool, se houver
+     * (as demais usam o que estiver ativo no catálogo).
+     */
+    private static Map<String, LongSupplier> operacoes(CatalogoControll catalogo, ForkJoinPool pool) {
+        Categoria raiz = catalogo.getRaiz();
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("exportarArvore", () -> {
+            try {
+                catalogo.exportarArvore(Writer.nullWriter(), RenderizadorArvore.Formato.JSON_LINHAS);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return 1;
+        });
+        operacoes.put("gerarArvoresDeNavegacao", () -> {
+            catalogo.gerarArvoresDeNavegacao();
+            return 1;
+        });
+        operacoes.put("soma dos preços", (pool == null)
+                ? () -> (long) PercursoParalelo.streamProdutos(raiz, false).mapToDouble(Produto::getPreco).sum()
+                : () -> pool.submit(() -> (long) PercursoParalelo.streamProdutos(raiz, true)
+                        .mapToDouble(Produto::getPreco).sum()).join());
+        return operacoes;
+    }
+
+    private static void medirFormato(PrintStream saida, String formato, int categorias, int processadores) {
+        CatalogoControll catalogo = new CatalogoControll();
+        gerador(formato, categorias).carregar(catalogo);
+        List<String> nomes = new ArrayList<>(operacoes(catalogo, null).keySet());
+        // tempos de cada operação: primeiro o sequencial, depois um por pool
+        Map<String, List<Double>> tempos = new LinkedHashMap<>();
+        List<String> modos = new ArrayList<>();
+        for (int threads = 0; threads <= Math.max(8, processadores); threads = Math.max(1, threads * 2)) {
+            ForkJoinPool pool = (threads > 0) ? new ForkJoinPool(threads) : null;
+            try {
+                if (pool != null) {
+                    catalogo.ativarPercursoParalelo(pool);
+                }
+                modos.add((threads == 0) ? "sequencial" : threads + (threads == 1 ? " thread" : " threads"));
+                for (Map.Entry<String, LongSupplier> operacao : operacoes(catalogo, pool).entrySet()) {
+                    tempos.computeIfAbsent(operacao.getKey(), nome -> new ArrayList<>())
+                            .add(Medicao.medirCompleto(operacao.getValue()).nanossegundos);
+                }
+            } finally {
+                catalogo.desativarPercursoParalelo();
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        }
+        for (String nome : nomes) {
+            List<Double> medidos = tempos.get(nome);
+            for (int modo = 0; modo < modos.size(); modo++) {
+                saida.println(linha(formato, nome, modos.get(modo), medidos.get(modo), medidos.get(0)));
+            }
+        }
+    }
+
+    private static String linha(String formato, String operacao, String modo, double nanossegundos,
+            double sequencial) {
+        return String.format(Locale.ROOT, "%-12s %-24s %-12s %10.2f ms  %5.2fx", formato, operacao, modo,
+                nanossegundos / 1e6, sequencial / nanossegundos);
+    }
+}
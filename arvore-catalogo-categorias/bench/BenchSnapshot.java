@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mede a gravação e a carga do snapshot binário do {@link CatalogoControll}
+ * e o custo do primeiro acesso aos produtos depois da carga.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias} (o argumento,
+ * opcional, é a quantidade de produtos):
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx4g -cp out BenchSnapshot 2000000
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchSnapshot {
+
+    private static final int DEPARTAMENTOS = 20;
+    private static final int CATEGORIAS_POR_DEPARTAMENTO = 20;
+    private static final int FOLHAS_POR_CATEGORIA = 10;
+    private static final int MARCAS = 60;
+
+    public static void main(String[] args) throws IOException {
+        int quantidade = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        Path arquivo = Files.createTempFile("catalogo", ".snap");
+        try {
+            // o catálogo original sai de alcance antes da carga, como num processo novo
+            gravar(quantidade, arquivo);
+            System.gc();
+
+            CatalogoControll carregado = new CatalogoControll();
+            long inicio = System.nanoTime();
+            carregado.carregarSnapshot(arquivo);
+            imprimir("carga (abrir e montar a árvore)", System.nanoTime() - inicio);
+
+            Random aleatorio = new Random(42);
+            inicio = System.nanoTime();
+            int encontrados = 0;
+            for (int i = 0; i < 1_000; i++) {
+                if (carregado.contemProduto("P" + aleatorio.nextInt(quantidade))) {
+                    encontrados++;
+                }
+            }
+            imprimir("1000 buscas por código, a frio", System.nanoTime() - inicio);
+
+            inicio = System.nanoTime();
+            int naRaiz = carregado.contarProdutosPorMarca("Loja").size();
+            imprimir("primeira contagem por marca na raiz", System.nanoTime() - inicio);
+
+            inicio = System.nanoTime();
+            int todos = carregado.getProdutosCadastrados().size();
+            imprimir("listar todos os cadastrados", System.nanoTime() - inicio);
+            System.out.println("(verificação: " + (encontrados + naRaiz + todos) + ")");
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Monta um catálogo sintético e grava o snapshot no arquivo.
+     */
+    private static void gravar(int quantidade, Path arquivo) throws IOException {
+        Random aleatorio = new Random(42);
+        CatalogoControll original = new CatalogoControll();
+        Categoria raiz = new Categoria("Loja", "0", "");
+        List<Categoria> folhas = new ArrayList<>();
+        for (int d = 0; d < DEPARTAMENTOS; d++) {
+            Categoria departamento = new Categoria("Dep" + d, "D" + d, "");
+            raiz.adicionarFilho(departamento);
+            for (int c = 0; c < CATEGORIAS_POR_DEPARTAMENTO; c++) {
+                Categoria categoria = new Categoria("Cat" + d + "_" + c, "C" + d + "_" + c, "");
+                departamento.adicionarFilho(categoria);
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    Categoria folha = new Categoria("Folha" + d + "_" + c + "_" + f, "F" + d + "_" + c + "_" + f, "");
+                    categoria.adicionarFilho(folha);
+                    folhas.add(folha);
+                }
+            }
+        }
+        original.setRaiz(raiz);
+        for (int i = 0; i < quantidade; i++) {
+            Produto produto = original.inserirProduto("Produto " + i, "P" + i, aleatorio.nextInt(10_000),
+                    "Marca" + aleatorio.nextInt(MARCAS));
+            folhas.get(aleatorio.nextInt(folhas.size())).adicionarProduto(produto);
+        }
+
+        long inicio = System.nanoTime();
+        original.salvarSnapshot(arquivo);
+        System.out.printf("Snapshot: %d produtos, %.1f MB%n", quantidade, Files.size(arquivo) / 1e6);
+        imprimir("gravação", System.nanoTime() - inicio);
+    }
+
+    private static void imprimir(String nome, long nanos) {
+        System.out.printf("%-45s %12.2f ms%n", nome, nanos / 1e6);
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Mede a publicação de versões imutáveis do {@link CatalogoControll} (leitura
+ * concorrente) em catálogos de tamanhos diferentes: o custo de uma alteração
+ * de preço com a versão publicada a cada operação, a montagem da primeira
+ * versão (catálogo inteiro) e as consultas por código numa versão.
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out BenchVersoes
+ * </pre>
+ *
+ * @since 2025
+ */
+public class BenchVersoes {
+
+    private static final int CATEGORIAS_POR_DEPARTAMENTO = 20;
+    private static final int FOLHAS_POR_CATEGORIA = 10;
+    private static final int PRODUTOS_POR_FOLHA = 20;
+    private static final int MARCAS = 60;
+
+    public static void main(String[] args) {
+        for (int departamentos : new int[] {2, 20, 100}) {
+            medir(departamentos);
+        }
+        Medicao.encerrar();
+    }
+
+    private static void medir(int departamentos) {
+        CatalogoControll catalogo = montar(departamentos);
+        System.out.println("Catálogo: " + catalogo.getRaiz().getTamanhoSubarvore() + " categorias, "
+                + catalogo.getProdutosCadastrados().size() + " produtos");
+
+        long inicio = System.nanoTime();
+        catalogo.ativarLeituraConcorrente();
+        System.out.printf("%-48s %14.1f ms%n", "primeira versão (catálogo inteiro)", (System.nanoTime() - inicio) / 1e6);
+
+        for (Map.Entry<String, LongSupplier> operacao : operacoes(catalogo, departamentos).entrySet()) {
+            Medicao.medir(operacao.getKey(), operacao.getValue());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Monta o catálogo, publica a primeira versão e retorna as operações
+     * medidas, pelo nome. Usado pelo {@code VersoesJmh}, do módulo JMH.
+     *
+     * @param departamentos Quantidade de departamentos, cada um com
+     *                      {@value #CATEGORIAS_POR_DEPARTAMENTO} categorias de
+     *                      {@value #FOLHAS_POR_CATEGORIA} folhas
+     * @return Operações
+     */
+    static Map<String, LongSupplier> operacoes(int departamentos) {
+        CatalogoControll catalogo = montar(departamentos);
+        catalogo.ativarLeituraConcorrente();
+        return operacoes(catalogo, departamentos);
+    }
+
+    private static CatalogoControll montar(int departamentos) {
+        Random aleatorio = new Random(42);
+        CatalogoControll catalogo = new CatalogoControll();
+        Categoria raiz = new Categoria("Loja", "0", "");
+        List<Categoria> folhas = new ArrayList<>();
+        for (int d = 0; d < departamentos; d++) {
+            Categoria departamento = new Categoria("Dep" + d, "D" + d, "");
+            raiz.adicionarFilho(departamento);
+            for (int c = 0; c < CATEGORIAS_POR_DEPARTAMENTO; c++) {
+                Categoria categoria = new Categoria("Cat" + d + "_" + c, "C" + d + "_" + c, "");
+                departamento.adicionarFilho(categoria);
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    Categoria folha = new Categoria("Folha" + d + "_" + c + "_" + f, "F" + d + "_" + c + "_" + f, "");
+                    categoria.adicionarFilho(folha);
+                    folhas.add(folha);
+                }
+            }
+        }
+        catalogo.setRaiz(raiz);
+        int produtos = 0;
+        for (Categoria folha : folhas) {
+            for (int i = 0; i < PRODUTOS_POR_FOLHA; i++) {
+                Produto produto = catalogo.inserirProduto("Produto " + produtos, "P" + produtos,
+                        aleatorio.nextInt(10_000), "Marca" + aleatorio.nextInt(MARCAS));
+                folha.adicionarProduto(produto);
+                produtos++;
+            }
+        }
+        return catalogo;
+    }
+
+    private static Map<String, LongSupplier> operacoes(CatalogoControll catalogo, int departamentos) {
+        Random aleatorio = new Random(42);
+        List<Produto> produtos = catalogo.getProdutosCadastrados();
+        VersaoCatalogo versao = catalogo.getVersaoPublicada();
+        Map<String, LongSupplier> operacoes = new LinkedHashMap<>();
+        operacoes.put("setPreco publicando versão", () -> {
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            produto.setPreco(aleatorio.nextInt(10_000));
+            return catalogo.getVersaoPublicada().getNumero();
+        });
+        operacoes.put("buscar categoria e produto na versão", () -> {
+            VersaoCategoria categoria = versao.buscarCategoriaPorCodigo("F" + aleatorio.nextInt(departamentos) + "_"
+                    + aleatorio.nextInt(CATEGORIAS_POR_DEPARTAMENTO) + "_" + aleatorio.nextInt(FOLHAS_POR_CATEGORIA));
+            VersaoProduto produto = versao.buscarProduto("P" + aleatorio.nextInt(produtos.size()));
+            return categoria.getTamanhoSubarvore() + (long) produto.getPreco();
+        });
+        return operacoes;
+    }
+}
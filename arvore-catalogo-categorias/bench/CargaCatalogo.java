@@ -0,0 +1,411 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Reproduz uma carga de trabalho sobre um catálogo sintético
+ * ({@link GeradorCatalogo}): várias threads executam uma mistura sorteada de
+ * consultas e alterações no {@link CatalogoControll} e, ao final, a carga
+ * informa a vazão e as latências (p50, p99, p99,9 e máxima) de cada tipo de
+ * operação e do total.
+ *
+ * Operações da mistura:
+ * <ul>
+ * <li>{@code busca}: procura uma categoria pelo código e monta o caminho
+ * até ela;</li>
+ * <li>{@code listar}: lista os produtos da subárvore de uma categoria;</li>
+ * <li>{@code associar}: associa um produto a uma folha;</li>
+ * <li>{@code desassociar}: desfaz uma associação feita antes pela mesma
+ * thread (ou uma associação sorteada, se não houver);</li>
+ * <li>{@code mover}: põe uma folha sob outra categoria;</li>
+ * <li>{@code criar}: cria uma subcategoria nova;</li>
+ * <li>{@code remover}: remove uma subcategoria criada antes pela mesma
+ * thread (ou cria uma, se não houver).</li>
+ * </ul>
+ *
+ * Com uma thread, as consultas usam os métodos do catálogo. Com mais de
+ * uma, o catálogo passa a aceitar escrita concorrente e a publicar versões
+ * ({@link CatalogoControll#ativarEscritaConcorrente()} e
+ * {@link CatalogoControll#ativarLeituraConcorrente()}), e as consultas são
+ * feitas na versão publicada, como o catálogo exige.
+ *
+ * O catálogo e a sequência de operações de cada thread dependem só da
+ * semente e dos parâmetros; a intercalação entre as threads, não.
+ *
+ * Opções, todas no formato {@code nome=valor} (entre parênteses, o padrão):
+ * <ul>
+ * <li>catálogo: {@code semente} (42), {@code categorias} (10000),
+ * {@code produtos} (50000), {@code grau} (geometrico; também fixo, uniforme
+ * e potencia), {@code grauMedio} (8), {@code profundidade} (6),
+ * {@code homonimas} (0, fração entre 0 e 1), {@code marcas} (200),
+ * {@code preco} (log_normal ou uniforme), {@code precoMedio} (150);</li>
+ * <li>carga: {@code threads} (1), {@code operacoes} por thread (200000),
+ * {@code aquecimento} por thread, não contadas (50000), {@code mistura}
+ * (busca:60,listar:5,associar:12,desassociar:10,mover:5,criar:4,remover:4).</li>
+ * </ul>
+ *
+ * Uso, a partir de {@code arvore-catalogo-categorias}:
+ * <pre>
+ * javac -encoding UTF-8 -d out src/*.java bench/*.java
+ * java -Xmx2g -cp out CargaCatalogo threads=4 categorias=100000 grau=potencia homonimas=0.05
+ * </pre>
+ *
+ * @since 2025
+ */
+public class CargaCatalogo {
+
+    private static final String MISTURA_PADRAO = "busca:60,listar:5,associar:12,desassociar:10,mover:5,criar:4,"
+            + "remover:4";
+
+    /**
+     * Tipos de operação da mistura.
+     */
+    enum Operacao {
+        BUSCA, LISTAR, ASSOCIAR, DESASSOCIAR, MOVER, CRIAR, REMOVER;
+
+        String nome() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Latências de um tipo de operação, em nanossegundos, na ordem em que
+     * foram medidas.
+     */
+    private static final class Latencias {
+        long[] valores = new long[1024];
+        int quantidade;
+
+        void registrar(long nanos) {
+            if (quantidade == valores.length) {
+                valores = Arrays.copyOf(valores, quantidade * 2);
+            }
+            valores[quantidade++] = nanos;
+        }
+
+        void juntar(Latencias outras) {
+            for (int i = 0; i < outras.quantidade; i++) {
+                registrar(outras.valores[i]);
+            }
+        }
+    }
+
+    /**
+     * Estado de uma thread da carga: os sorteios e o que ela mesma criou e
+     * associou, para poder desfazer.
+     */
+    private static final class Executora {
+        final int numero;
+        final Random aleatorio;
+        final Latencias[] latencias = new Latencias[Operacao.values().length];
+        final List<String> criadas = new ArrayList<>();
+        final List<String> folhasAssociadas = new ArrayList<>();
+        final List<Produto> produtosAssociados = new ArrayList<>();
+        int proximaCriada;
+
+        Executora(int numero, long semente) {
+            this.numero = numero;
+            this.aleatorio = new Random(semente * 31 + numero);
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = new Latencias();
+            }
+        }
+    }
+
+    private final CatalogoControll catalogo = new CatalogoControll();
+    private final List<Categoria> categorias;
+    private final List<Categoria> folhas;
+    private final List<Produto> produtos;
+    private final boolean concorrente;
+    private final Operacao[] sorteio;
+
+    private CargaCatalogo(GeradorCatalogo gerador, boolean concorrente, Operacao[] sorteio) {
+        gerador.carregar(catalogo);
+        this.categorias = gerador.getCategorias();
+        this.folhas = gerador.getFolhas();
+        this.produtos = gerador.getProdutos();
+        this.concorrente = concorrente;
+        this.sorteio = sorteio;
+        if (concorrente) {
+            catalogo.ativarLeituraConcorrente();
+            catalogo.ativarEscritaConcorrente();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Opção sem valor: " + arg);
+            }
+            opcoes.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        long semente = Long.parseLong(opcoes.getOrDefault("semente", "42"));
+        GeradorCatalogo gerador = new GeradorCatalogo(semente);
+        gerador.setCategorias(Integer.parseInt(opcoes.getOrDefault("categorias", "10000")));
+        gerador.setProdutos(Integer.parseInt(opcoes.getOrDefault("produtos", "50000")));
+        String grau = opcoes.getOrDefault("grau", "geometrico").toUpperCase(Locale.ROOT);
+        gerador.setGrau(GeradorCatalogo.Grau.valueOf(grau), Double.parseDouble(opcoes.getOrDefault("grauMedio", "8")));
+        gerador.setProfundidadeMaxima(Integer.parseInt(opcoes.getOrDefault("profundidade", "6")));
+        gerador.setFracaoHomonimas(Double.parseDouble(opcoes.getOrDefault("homonimas", "0")));
+        gerador.setMarcas(Integer.parseInt(opcoes.getOrDefault("marcas", "200")));
+        String preco = opcoes.getOrDefault("preco", "log_normal").toUpperCase(Locale.ROOT);
+        gerador.setPreco(GeradorCatalogo.Preco.valueOf(preco),
+                Double.parseDouble(opcoes.getOrDefault("precoMedio", "150")));
+        int threads = Integer.parseInt(opcoes.getOrDefault("threads", "1"));
+        int operacoes = Integer.parseInt(opcoes.getOrDefault("operacoes", "200000"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "50000"));
+        Operacao[] sorteio = lerMistura(opcoes.getOrDefault("mistura", MISTURA_PADRAO));
+
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long inicio = System.nanoTime();
+            CargaCatalogo carga = new CargaCatalogo(gerador, threads > 1, sorteio);
+            saida.println(String.format(Locale.ROOT,
+                    "Catálogo: %d categorias (%d folhas), %d produtos, montado em %d ms", carga.categorias.size(),
+                    carga.folhas.size(), carga.produtos.size(), (System.nanoTime() - inicio) / 1_000_000));
+            carga.rodar(threads, aquecimento, semente ^ 0x5DEECE66DL, null);
+            Latencias[] totais = new Latencias[Operacao.values().length];
+            double segundos = carga.rodar(threads, operacoes, semente, totais);
+            imprimir(saida, threads, segundos, totais);
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    /**
+     * Converte a mistura em um vetor, do tamanho da soma dos pesos, em que
+     * cada operação aparece tantas vezes quanto o seu peso.
+     */
+    private static Operacao[] lerMistura(String mistura) {
+        List<Operacao> sorteio = new ArrayList<>();
+        for (String parte : mistura.split(",")) {
+            String[] campos = parte.trim().split(":");
+            Operacao operacao = Operacao.valueOf(campos[0].toUpperCase(Locale.ROOT));
+            for (int i = Integer.parseInt(campos[1]); i > 0; i--) {
+                sorteio.add(operacao);
+            }
+        }
+        if (sorteio.isEmpty()) {
+            throw new IllegalArgumentException("Mistura sem operações: " + mistura);
+        }
+        return sorteio.toArray(new Operacao[0]);
+    }
+
+    // EXECUÇÃO
+
+    /**
+     * Roda as threads até cada uma fazer as suas operações.
+     *
+     * @param totais Onde juntar as latências de todas as threads, ou
+     *               {@code null} para descartá-las (aquecimento)
+     * @return Duração em segundos
+     */
+    private double rodar(int threads, int operacoes, long semente, Latencias[] totais) throws InterruptedException {
+        List<Executora> executoras = new ArrayList<>();
+        List<Thread> linhas = new ArrayList<>();
+        List<Throwable> erros = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Executora executora = new Executora(t, semente);
+            executoras.add(executora);
+            linhas.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < operacoes; i++) {
+                        executar(executora);
+                    }
+                } catch (Throwable e) {
+                    synchronized (erros) {
+                        erros.add(e);
+                    }
+                }
+            }, "carga-" + t));
+        }
+        long inicio = System.nanoTime();
+        linhas.forEach(Thread::start);
+        for (Thread linha : linhas) {
+            linha.join();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        if (!erros.isEmpty()) {
+            throw new IllegalStateException("Falha numa thread da carga", erros.get(0));
+        }
+        if (totais != null) {
+            for (int o = 0; o < totais.length; o++) {
+                totais[o] = new Latencias();
+                for (Executora executora : executoras) {
+                    totais[o].juntar(executora.latencias[o]);
+                }
+            }
+        }
+        return segundos;
+    }
+
+    /**
+     * Sorteia e executa uma operação, registrando a latência dela.
+     */
+    private void executar(Executora executora) {
+        Random aleatorio = executora.aleatorio;
+        Operacao operacao = sorteio[aleatorio.nextInt(sorteio.length)];
+        if (operacao == Operacao.REMOVER && executora.criadas.isEmpty()) {
+            operacao = Operacao.CRIAR;
+        }
+        long inicio;
+        switch (operacao) {
+            case BUSCA: {
+                String codigo = sortear(categorias, aleatorio).getCodigo();
+                inicio = System.nanoTime();
+                buscar(codigo);
+                break;
+            }
+            case LISTAR: {
+                Categoria categoria = sortear(categorias, aleatorio);
+                inicio = System.nanoTime();
+                listar(categoria);
+                break;
+            }
+            case ASSOCIAR: {
+                String folha = sortear(folhas, aleatorio).getNome();
+                Produto produto = sortear(produtos, aleatorio);
+                inicio = System.nanoTime();
+                if (catalogo.associarProduto(folha, produto)) {
+                    executora.folhasAssociadas.add(folha);
+                    executora.produtosAssociados.add(produto);
+                }
+                break;
+            }
+            case DESASSOCIAR: {
+                String folha;
+                Produto produto;
+                int feitas = executora.folhasAssociadas.size();
+                if (feitas > 0) {
+                    int posicao = aleatorio.nextInt(feitas);
+                    folha = trocarPeloUltimo(executora.folhasAssociadas, posicao);
+                    produto = trocarPeloUltimo(executora.produtosAssociados, posicao);
+                } else {
+                    folha = sortear(folhas, aleatorio).getNome();
+                    produto = sortear(produtos, aleatorio);
+                }
+                inicio = System.nanoTime();
+                catalogo.desassociarProduto(folha, produto);
+                break;
+            }
+            case MOVER: {
+                String folha = sortear(folhas, aleatorio).getNome();
+                String destino = sortear(categorias, aleatorio).getNome();
+                inicio = System.nanoTime();
+                catalogo.definirSubcategoria(destino, folha);
+                break;
+            }
+            case CRIAR: {
+                String pai = sortear(categorias, aleatorio).getNome();
+                String nome = "Carga " + executora.numero + "_" + executora.proximaCriada++;
+                inicio = System.nanoTime();
+                if (catalogo.definirSubcategoria(pai, nome)) {
+                    executora.criadas.add(nome);
+                }
+                break;
+            }
+            default: {
+                String nome = trocarPeloUltimo(executora.criadas, aleatorio.nextInt(executora.criadas.size()));
+                inicio = System.nanoTime();
+                catalogo.removerCategoria(nome);
+                break;
+            }
+        }
+        executora.latencias[operacao.ordinal()].registrar(System.nanoTime() - inicio);
+    }
+
+    private void buscar(String codigo) {
+        if (concorrente) {
+            VersaoCatalogo versao = catalogo.getVersaoPublicada();
+            VersaoCategoria categoria = versao.buscarCategoriaPorCodigo(codigo);
+            if (categoria != null) {
+                versao.buscarCaminho(categoria);
+            }
+        } else {
+            Categoria categoria = catalogo.buscarCategoriaPorCodigo(codigo);
+            if (categoria != null) {
+                catalogo.buscarCaminhoCompleto(categoria.getNome());
+            }
+        }
+    }
+
+    /**
+     * Lista os produtos da subárvore: pelo catálogo, com uma thread, ou
+     * percorrendo a categoria na versão publicada.
+     */
+    private void listar(Categoria categoria) {
+        if (!concorrente) {
+            catalogo.listarProdutosDaSubarvore(categoria.getNome());
+            return;
+        }
+        VersaoCategoria topo = catalogo.getVersaoPublicada().buscarCategoriaPorCodigo(categoria.getCodigo());
+        if (topo == null) {
+            return;
+        }
+        List<VersaoProduto> encontrados = new ArrayList<>();
+        List<VersaoCategoria> pendentes = new ArrayList<>();
+        pendentes.add(topo);
+        while (!pendentes.isEmpty()) {
+            VersaoCategoria atual = pendentes.remove(pendentes.size() - 1);
+            encontrados.addAll(atual.getProdutos());
+            pendentes.addAll(atual.getFilhas());
+        }
+    }
+
+    private static <T> T sortear(List<T> lista, Random aleatorio) {
+        return lista.get(aleatorio.nextInt(lista.size()));
+    }
+
+    /**
+     * Retira da lista o elemento da posição, pondo o último no lugar dele.
+     */
+    private static <T> T trocarPeloUltimo(List<T> lista, int posicao) {
+        T ultimo = lista.remove(lista.size() - 1);
+        return (posicao == lista.size()) ? ultimo : lista.set(posicao, ultimo);
+    }
+
+    // RELATÓRIO
+
+    private static void imprimir(PrintStream saida, int threads, double segundos, Latencias[] totais) {
+        saida.println(String.format(Locale.ROOT, "%d thread(s), %.2f s", threads, segundos));
+        saida.println(String.format(Locale.ROOT, "%-12s %10s %12s %10s %10s %10s %10s", "operação", "quantidade",
+                "ops/s", "p50 µs", "p99 µs", "p99,9 µs", "máx µs"));
+        Map<String, Latencias> linhas = new LinkedHashMap<>();
+        Latencias todas = new Latencias();
+        for (Operacao operacao : Operacao.values()) {
+            Latencias latencias = totais[operacao.ordinal()];
+            if (latencias.quantidade > 0) {
+                linhas.put(operacao.nome(), latencias);
+                todas.juntar(latencias);
+            }
+        }
+        linhas.put("total", todas);
+        for (Map.Entry<String, Latencias> linha : linhas.entrySet()) {
+            Latencias latencias = linha.getValue();
+            long[] ordenadas = Arrays.copyOf(latencias.valores, latencias.quantidade);
+            Arrays.sort(ordenadas);
+            saida.println(String.format(Locale.ROOT, "%-12s %10d %12.0f %10.1f %10.1f %10.1f %10.1f", linha.getKey(),
+                    ordenadas.length, ordenadas.length / segundos, percentil(ordenadas, 0.50) / 1e3,
+                    percentil(ordenadas, 0.99) / 1e3, percentil(ordenadas, 0.999) / 1e3,
+                    ordenadas[ordenadas.length - 1] / 1e3));
+        }
+    }
+
+    /**
+     * Percentil pelo método do posto mais próximo, sobre valores ordenados.
+     */
+    private static long percentil(long[] ordenadas, double fracao) {
+        int posto = (int) Math.ceil(fracao * ordenadas.length);
+        return ordenadas[Math.max(0, posto - 1)];
+    }
+}
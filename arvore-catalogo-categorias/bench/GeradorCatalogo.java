@@ -0,0 +1,296 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera catálogos sintéticos a partir de uma semente: a mesma semente com os
+ * mesmos parâmetros gera sempre a mesma árvore, com os mesmos nomes,
+ * códigos, preços, marcas e associações.
+ *
+ * A árvore é montada em largura a partir da raiz: cada categoria com nível
+ * menor que a profundidade máxima sorteia quantas filhas terá, segundo a
+ * distribuição de grau escolhida, até chegar à quantidade de categorias.
+ * Se a árvore fechar antes disso (por exemplo, com grau zero sorteado em
+ * todas as folhas), as categorias acima da profundidade máxima sorteiam
+ * filhas de novo, pelo menos uma cada. Uma fração configurável das
+ * categorias repete o nome de uma categoria anterior (homônimas); os
+ * códigos ({@code C0}, {@code C1}, ...) são sempre únicos.
+ *
+ * Os produtos ({@code P0}, {@code P1}, ...) são associados a folhas
+ * sorteadas. A marca segue uma distribuição de Zipf sobre a quantidade de
+ * marcas (poucas marcas têm a maior parte dos produtos), e o preço segue a
+ * distribuição escolhida, arredondado para centavos.
+ *
+ * @since 2025
+ */
+final class GeradorCatalogo {
+
+    /**
+     * Distribuição da quantidade de filhas de cada categoria.
+     */
+    enum Grau {
+        /** Sempre o grau médio. */
+        FIXO,
+        /** Uniforme entre zero e o dobro do grau médio. */
+        UNIFORME,
+        /** Geométrica com a média informada: muitas categorias com poucas filhas. */
+        GEOMETRICO,
+        /** Lei de potência (Pareto): poucas categorias com muitíssimas filhas. */
+        POTENCIA
+    }
+
+    /**
+     * Distribuição dos preços dos produtos.
+     */
+    enum Preco {
+        /** Uniforme entre zero e o dobro do preço médio. */
+        UNIFORME,
+        /** Log-normal com a média informada: muitos preços baixos e alguns altos. */
+        LOG_NORMAL
+    }
+
+    private static final double EXPOENTE_POTENCIA = 1.5;
+    private static final double DESVIO_LOG_NORMAL = 1.0;
+
+    private final long semente;
+    private int categorias = 10_000;
+    private int produtos = 50_000;
+    private Grau grau = Grau.GEOMETRICO;
+    private double grauMedio = 8;
+    private int profundidadeMaxima = 6;
+    private double fracaoHomonimas;
+    private int marcas = 200;
+    private Preco preco = Preco.LOG_NORMAL;
+    private double precoMedio = 150;
+
+    private final List<Categoria> geradas = new ArrayList<>();
+    private final List<Categoria> folhas = new ArrayList<>();
+    private final List<Produto> produtosGerados = new ArrayList<>();
+
+    /**
+     * Cria um gerador com os parâmetros padrão: 10 mil categorias com grau
+     * geométrico de média 8 e até 6 níveis abaixo da raiz, 50 mil produtos,
+     * 200 marcas, preços log-normais com média 150 e nenhuma homônima.
+     *
+     * @param semente Semente dos sorteios
+     */
+    GeradorCatalogo(long semente) {
+        this.semente = semente;
+    }
+
+    // PARÂMETROS
+
+    void setCategorias(int categorias) {
+        if (categorias < 1) {
+            throw new IllegalArgumentException("O catálogo precisa de pelo menos uma categoria");
+        }
+        this.categorias = categorias;
+    }
+
+    void setProdutos(int produtos) {
+        this.produtos = produtos;
+    }
+
+    void setGrau(Grau grau, double grauMedio) {
+        if (grauMedio <= 0) {
+            throw new IllegalArgumentException("Grau médio deve ser positivo: " + grauMedio);
+        }
+        this.grau = grau;
+        this.grauMedio = grauMedio;
+    }
+
+    void setProfundidadeMaxima(int profundidadeMaxima) {
+        if (profundidadeMaxima < 1) {
+            throw new IllegalArgumentException("Profundidade máxima deve ser pelo menos 1");
+        }
+        this.profundidadeMaxima = profundidadeMaxima;
+    }
+
+    /**
+     * @param fracaoHomonimas Probabilidade, entre 0 e 1, de uma categoria
+     *                        repetir o nome de uma anterior
+     */
+    void setFracaoHomonimas(double fracaoHomonimas) {
+        this.fracaoHomonimas = fracaoHomonimas;
+    }
+
+    void setMarcas(int marcas) {
+        if (marcas < 1) {
+            throw new IllegalArgumentException("É preciso pelo menos uma marca");
+        }
+        this.marcas = marcas;
+    }
+
+    void setPreco(Preco preco, double precoMedio) {
+        this.preco = preco;
+        this.precoMedio = precoMedio;
+    }
+
+    // GERAÇÃO
+
+    /**
+     * Gera a árvore com os produtos associados. Os produtos não ficam
+     * cadastrados em nenhum catálogo; use {@link #carregar(CatalogoControll)}
+     * para isso.
+     *
+     * @return Raiz da árvore gerada
+     */
+    Categoria gerar() {
+        geradas.clear();
+        folhas.clear();
+        produtosGerados.clear();
+        Random aleatorio = new Random(semente);
+        Categoria raiz = new Categoria("Categoria 0", "C0", "");
+        geradas.add(raiz);
+        Deque<Categoria> pendentes = new ArrayDeque<>();
+        pendentes.add(raiz);
+        boolean completando = false;
+        while (geradas.size() < categorias) {
+            if (pendentes.isEmpty()) {
+                completando = true;
+                for (Categoria categoria : geradas) {
+                    if (categoria.getNivel() < profundidadeMaxima) {
+                        pendentes.add(categoria);
+                    }
+                }
+            }
+            Categoria pai = pendentes.poll();
+            if (pai.getNivel() >= profundidadeMaxima) {
+                continue;
+            }
+            long sorteio = sortearGrau(aleatorio);
+            if (completando) {
+                sorteio = Math.max(1, sorteio); // garante que a segunda passada avance
+            }
+            int filhas = (int) Math.min(sorteio, categorias - geradas.size());
+            for (int i = 0; i < filhas; i++) {
+                int numero = geradas.size();
+                String nome = (numero > 1 && aleatorio.nextDouble() < fracaoHomonimas)
+                        ? geradas.get(1 + aleatorio.nextInt(numero - 1)).getNome()
+                        : "Categoria " + numero;
+                Categoria filha = new Categoria(nome, "C" + numero, "");
+                pai.adicionarFilho(filha);
+                geradas.add(filha);
+                pendentes.add(filha);
+            }
+        }
+        for (Categoria categoria : geradas) {
+            if (categoria.isFolha()) {
+                folhas.add(categoria);
+            }
+        }
+
+        double[] pesosMarca = pesosZipf(marcas);
+        for (int i = 0; i < produtos; i++) {
+            String marca = "Marca " + sortearPeso(pesosMarca, aleatorio);
+            Produto produto = new Produto("Produto " + i + " " + marca, "P" + i, sortearPreco(aleatorio), marca);
+            folhas.get(aleatorio.nextInt(folhas.size())).adicionarProduto(produto);
+            produtosGerados.add(produto);
+        }
+        return raiz;
+    }
+
+    /**
+     * Gera o catálogo, põe a árvore como raiz do catálogo e cadastra os
+     * produtos gerados.
+     *
+     * @param catalogo Catálogo que recebe a árvore
+     * @return Raiz da árvore gerada
+     */
+    Categoria carregar(CatalogoControll catalogo) {
+        Categoria raiz = gerar();
+        catalogo.setRaiz(raiz);
+        for (Produto produto : produtosGerados) {
+            catalogo.registrarProduto(produto);
+        }
+        return raiz;
+    }
+
+    /**
+     * Categorias da última árvore gerada, em ordem de criação (a raiz é a
+     * primeira).
+     */
+    List<Categoria> getCategorias() {
+        return Collections.unmodifiableList(geradas);
+    }
+
+    /**
+     * Folhas da última árvore gerada, no momento da geração.
+     */
+    List<Categoria> getFolhas() {
+        return Collections.unmodifiableList(folhas);
+    }
+
+    /**
+     * Produtos da última árvore gerada, em ordem de criação.
+     */
+    List<Produto> getProdutos() {
+        return Collections.unmodifiableList(produtosGerados);
+    }
+
+    // SORTEIOS
+
+    private long sortearGrau(Random aleatorio) {
+        switch (grau) {
+            case FIXO:
+                return Math.round(grauMedio);
+            case UNIFORME:
+                return Math.round(aleatorio.nextDouble() * 2 * grauMedio);
+            case GEOMETRICO:
+                // número de fracassos antes do primeiro sucesso, com p = 1 / (média + 1)
+                double p = 1 / (grauMedio + 1);
+                return (long) Math.floor(Math.log(1 - aleatorio.nextDouble()) / Math.log(1 - p));
+            default:
+                // Pareto com mínimo escolhido para que a média seja grauMedio
+                double minimo = grauMedio * (EXPOENTE_POTENCIA - 1) / EXPOENTE_POTENCIA;
+                double sorteio = minimo / Math.pow(1 - aleatorio.nextDouble(), 1 / EXPOENTE_POTENCIA);
+                return (long) Math.min(Integer.MAX_VALUE, Math.floor(sorteio));
+        }
+    }
+
+    private double sortearPreco(Random aleatorio) {
+        double valor;
+        if (preco == Preco.UNIFORME) {
+            valor = aleatorio.nextDouble() * 2 * precoMedio;
+        } else {
+            double mi = Math.log(precoMedio) - DESVIO_LOG_NORMAL * DESVIO_LOG_NORMAL / 2;
+            valor = Math.exp(mi + DESVIO_LOG_NORMAL * aleatorio.nextGaussian());
+        }
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    /**
+     * Pesos acumulados de uma distribuição de Zipf (expoente 1) sobre
+     * {@code quantidade} valores, normalizados para terminar em 1.
+     */
+    private static double[] pesosZipf(int quantidade) {
+        double[] acumulados = new double[quantidade];
+        double soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += 1.0 / (i + 1);
+            acumulados[i] = soma;
+        }
+        for (int i = 0; i < quantidade; i++) {
+            acumulados[i] /= soma;
+        }
+        return acumulados;
+    }
+
+    private static int sortearPeso(double[] acumulados, Random aleatorio) {
+        double sorteio = aleatorio.nextDouble();
+        int baixo = 0;
+        int alto = acumulados.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (acumulados[meio] < sorteio) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,191 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Medição simples de tempo por operação para os benchmarks do catálogo.
+ *
+ * Executa uma fase de aquecimento (para o JIT compilar o código medido) e
+ * depois algumas rodadas de medição, imprimindo a média e o melhor tempo por
+ * operação. O valor devolvido por cada operação é acumulado e impresso ao
+ * final, para que o JIT não elimine o trabalho medido.
+ *
+ * {@link #medirCompleto(LongSupplier)} também calibra a quantidade de
+ * operações por rodada pelo tempo e conta os bytes alocados pela thread e as
+ * coletas de lixo durante a medição.
+ *
+ * As mesmas operações são medidas pelo JMH no módulo
+ * {@code arvore-catalogo-categorias-jmh}: cada benchmark daqui expõe as suas
+ * num método estático {@code operacoes}, e esta classe fica para medições
+ * rápidas sem o Maven.
+ *
+ * @since 2025
+ */
+final class Medicao {
+
+    private static final int RODADAS_AQUECIMENTO = 5;
+    private static final int RODADAS_MEDICAO = 10;
+
+    /**
+     * Duração mínima de uma rodada em {@link #medirCompleto(LongSupplier)}.
+     */
+    private static final long NANOS_POR_RODADA = 50_000_000L;
+
+    /**
+     * Resultado de {@link #medirCompleto(LongSupplier)}.
+     */
+    static final class Resultado {
+        /** Média de nanossegundos por operação. */
+        final double nanossegundos;
+        /** Melhor rodada, em nanossegundos por operação. */
+        final double melhor;
+        /** Bytes alocados por operação, ou -1 se a JVM não informar. */
+        final double bytesAlocados;
+        /** Coletas de lixo durante as rodadas de medição. */
+        final long coletas;
+
+        Resultado(double nanossegundos, double melhor, double bytesAlocados, long coletas) {
+            this.nanossegundos = nanossegundos;
+            this.melhor = melhor;
+            this.bytesAlocados = bytesAlocados;
+            this.coletas = coletas;
+        }
+
+        /** Operações por segundo, a partir da média. */
+        double vazao() {
+            return 1e9 / nanossegundos;
+        }
+
+        /** Taxa de alocação em MB por segundo, ou -1 se desconhecida. */
+        double megabytesPorSegundo() {
+            return (bytesAlocados < 0) ? -1 : bytesAlocados * vazao() / (1024 * 1024);
+        }
+    }
+
+    /**
+     * Acumula os resultados das operações medidas.
+     */
+    private static long sumidouro;
+
+    private Medicao() {
+    }
+
+    /**
+     * Mede uma operação e imprime o resultado em uma linha.
+     *
+     * @param nome             Nome exibido na saída
+     * @param operacoesRodada  Quantidade de chamadas por rodada
+     * @param operacao         Operação medida; retorna um valor qualquer
+     *                         derivado do trabalho feito
+     * @return Média de nanossegundos por operação
+     */
+    static double medir(String nome, int operacoesRodada, LongSupplier operacao) {
+        for (int rodada = 0; rodada < RODADAS_AQUECIMENTO; rodada++) {
+            executar(operacoesRodada, operacao);
+        }
+        double soma = 0;
+        double melhor = Double.MAX_VALUE;
+        for (int rodada = 0; rodada < RODADAS_MEDICAO; rodada++) {
+            long inicio = System.nanoTime();
+            executar(operacoesRodada, operacao);
+            double porOperacao = (System.nanoTime() - inicio) / (double) operacoesRodada;
+            soma += porOperacao;
+            melhor = Math.min(melhor, porOperacao);
+        }
+        double media = soma / RODADAS_MEDICAO;
+        System.out.println(String.format(Locale.ROOT, "%-48s %14.1f ns/op (melhor %.1f)", nome, media, melhor));
+        return media;
+    }
+
+    /**
+     * Mede uma operação com {@link #medirCompleto(LongSupplier)} e imprime o
+     * resultado em uma linha, como {@link #medir(String, int, LongSupplier)}.
+     *
+     * @param nome     Nome exibido na saída
+     * @param operacao Operação medida; retorna um valor qualquer derivado do
+     *                 trabalho feito
+     * @return Média de nanossegundos por operação
+     */
+    static double medir(String nome, LongSupplier operacao) {
+        Resultado resultado = medirCompleto(operacao);
+        System.out.println(String.format(Locale.ROOT, "%-48s %14.1f ns/op (melhor %.1f)", nome,
+                resultado.nanossegundos, resultado.melhor));
+        return resultado.nanossegundos;
+    }
+
+    /**
+     * Mede uma operação sem imprimir nada. A quantidade de chamadas por
+     * rodada é escolhida no aquecimento, para que cada rodada dure pelo menos
+     * {@link #NANOS_POR_RODADA}; operações mais lentas que isso rodam uma vez
+     * por rodada.
+     *
+     * @param operacao Operação medida; retorna um valor qualquer derivado do
+     *                 trabalho feito
+     * @return Tempo, alocação e coletas da medição
+     */
+    static Resultado medirCompleto(LongSupplier operacao) {
+        int operacoesRodada = 1;
+        for (int rodada = 0; rodada < RODADAS_AQUECIMENTO; rodada++) {
+            long inicio = System.nanoTime();
+            executar(operacoesRodada, operacao);
+            long duracao = Math.max(1, System.nanoTime() - inicio);
+            if (duracao < NANOS_POR_RODADA) {
+                // cresce no máximo 100 vezes por rodada: a primeira chamada pode não representar as demais
+                long alvo = operacoesRodada * NANOS_POR_RODADA / duracao + 1;
+                operacoesRodada = (int) Math.min(Math.min(alvo, operacoesRodada * 100L), 1 << 24);
+            }
+        }
+        long coletasAntes = coletas();
+        long bytesAntes = bytesAlocados();
+        double soma = 0;
+        double melhor = Double.MAX_VALUE;
+        for (int rodada = 0; rodada < RODADAS_MEDICAO; rodada++) {
+            long inicio = System.nanoTime();
+            executar(operacoesRodada, operacao);
+            double porOperacao = (System.nanoTime() - inicio) / (double) operacoesRodada;
+            soma += porOperacao;
+            melhor = Math.min(melhor, porOperacao);
+        }
+        long bytesDepois = bytesAlocados();
+        long operacoes = (long) operacoesRodada * RODADAS_MEDICAO;
+        double bytes = (bytesAntes < 0) ? -1 : (bytesDepois - bytesAntes) / (double) operacoes;
+        return new Resultado(soma / RODADAS_MEDICAO, melhor, bytes, coletas() - coletasAntes);
+    }
+
+    /**
+     * Bytes alocados até agora pela thread atual, ou -1 se a JVM não
+     * oferecer essa contagem.
+     */
+    private static long bytesAlocados() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long coletas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * Imprime o valor acumulado, que só serve para manter o trabalho vivo.
+     */
+    static void encerrar() {
+        System.out.println("(verificação: " + sumidouro + ")");
+    }
+
+    private static void executar(int operacoes, LongSupplier operacao) {
+        long acumulado = 0;
+        for (int i = 0; i < operacoes; i++) {
+            acumulado += operacao.getAsLong();
+        }
+        sumidouro += acumulado;
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumo dos produtos de uma subárvore de categorias: quantidade, soma,
+ * menor e maior preço e contagem por marca.
+ *
+ * Cada {@link Categoria} mantém o seu, e as alterações (associar ou remover
+ * produto, mover subcategoria, mudar preço ou marca) são aplicadas ao longo
+ * do caminho até a raiz, de modo que a leitura custa O(1). Um produto
+ * associado a duas categorias da mesma subárvore é contado duas vezes.
+ *
+ * Menor e maior preço não podem ser desfeitos por subtração; quando o valor
+ * que sai é justamente um dos extremos, ele é recalculado a partir dos
+ * produtos da própria categoria e dos resumos das filhas, sem descer mais.
+ *
+ * @since 2025
+ */
+class AgregadoProdutos {
+
+    private int quantidade;
+    private double soma;
+    private double menor = Double.POSITIVE_INFINITY;
+    private double maior = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Quantidade de associações por marca; criado só quando necessário.
+     */
+    private Map<String, Integer> marcas;
+
+    // LEITURA
+
+    int getQuantidade() {
+        return quantidade;
+    }
+
+    double getSoma() {
+        return soma;
+    }
+
+    double getMenor() {
+        return quantidade == 0 ? Double.NaN : menor;
+    }
+
+    double getMaior() {
+        return quantidade == 0 ? Double.NaN : maior;
+    }
+
+    int getQuantidadeMarcas() {
+        return marcas == null ? 0 : marcas.size();
+    }
+
+    /**
+     * Retorna a quantidade de associações por marca.
+     *
+     * @return Mapa somente leitura (vazio se não houver produtos)
+     */
+    Map<String, Integer> getMarcas() {
+        return marcas == null ? Collections.emptyMap() : Collections.unmodifiableMap(marcas);
+    }
+
+    // ATUALIZAÇÃO
+
+    /**
+     * Conta um produto a mais na subárvore.
+     */
+    void adicionar(double preco, String marca) {
+        quantidade++;
+        soma += preco;
+        menor = Math.min(menor, preco);
+        maior = Math.max(maior, preco);
+        contarMarca(marca, 1);
+    }
+
+    /**
+     * Desconta um produto da subárvore.
+     *
+     * @param dono Categoria dona deste resumo, usada se for preciso
+     *             recalcular os extremos
+     */
+    void remover(double preco, String marca, Categoria dono) {
+        quantidade--;
+        soma -= preco;
+        contarMarca(marca, -1);
+        if (preco == menor || preco == maior) {
+            recalcularExtremos(dono);
+        }
+    }
+
+    /**
+     * Soma o resumo de uma subárvore que passou a fazer parte desta.
+     */
+    void somar(AgregadoProdutos outro) {
+        if (outro.quantidade == 0) {
+            return;
+        }
+        quantidade += outro.quantidade;
+        soma += outro.soma;
+        menor = Math.min(menor, outro.menor);
+        maior = Math.max(maior, outro.maior);
+        outro.marcas.forEach(this::contarMarca);
+    }
+
+    /**
+     * Desconta o resumo de uma subárvore que deixou de fazer parte desta.
+     *
+     * @param dono Categoria dona deste resumo, usada se for preciso
+     *             recalcular os extremos
+     */
+    void subtrair(AgregadoProdutos outro, Categoria dono) {
+        if (outro.quantidade == 0) {
+            return;
+        }
+        quantidade -= outro.quantidade;
+        soma -= outro.soma;
+        outro.marcas.forEach((marca, total) -> contarMarca(marca, -total));
+        if (outro.menor == menor || outro.maior == maior) {
+            recalcularExtremos(dono);
+        }
+    }
+
+    /**
+     * Aplica a mudança de preço de um produto já contado nesta subárvore.
+     * O produto já deve estar com o preço novo.
+     *
+     * @param dono Categoria dona deste resumo, usada se for preciso
+     *             recalcular os extremos
+     */
+    void trocarPreco(double anterior, double novo, Categoria dono) {
+        soma += novo - anterior;
+        if ((anterior == menor && novo > anterior) || (anterior == maior && novo < anterior)) {
+            recalcularExtremos(dono);
+        } else {
+            menor = Math.min(menor, novo);
+            maior = Math.max(maior, novo);
+        }
+    }
+
+    /**
+     * Aplica a mudança de marca de um produto já contado nesta subárvore.
+     */
+    void trocarMarca(String anterior, String nova) {
+        contarMarca(anterior, -1);
+        contarMarca(nova, 1);
+    }
+
+    /**
+     * Substitui o resumo por valores já calculados (por exemplo, lidos de um
+     * snapshot), sem olhar os produtos.
+     */
+    void carregar(int quantidade, double soma, double menor, double maior, Map<String, Integer> marcas) {
+        this.quantidade = quantidade;
+        this.soma = soma;
+        this.menor = (quantidade == 0) ? Double.POSITIVE_INFINITY : menor;
+        this.maior = (quantidade == 0) ? Double.NEGATIVE_INFINITY : maior;
+        this.marcas = marcas.isEmpty() ? null : new HashMap<>(marcas);
+    }
+
+    /**
+     * Recalcula menor e maior preço a partir dos produtos da própria
+     * categoria e dos resumos das filhas, que já devem estar atualizados.
+     * Os resumos das filhas são lidos com o monitor delas, já que, com a
+     * escrita concorrente, outra thread pode estar atualizando uma filha;
+     * ninguém espera o monitor de uma ancestral segurando o de uma filha.
+     */
+    private void recalcularExtremos(Categoria dono) {
+        menor = Double.POSITIVE_INFINITY;
+        maior = Double.NEGATIVE_INFINITY;
+        for (Produto produto : dono.getProdutos()) {
+            menor = Math.min(menor, produto.getPreco());
+            maior = Math.max(maior, produto.getPreco());
+        }
+        for (Categoria filho : dono.getFilhos()) {
+            AgregadoProdutos resumo = filho.agregado;
+            synchronized (resumo) {
+                if (resumo.quantidade > 0) {
+                    menor = Math.min(menor, resumo.menor);
+                    maior = Math.max(maior, resumo.maior);
+                }
+            }
+        }
+    }
+
+    private void contarMarca(String marca, int delta) {
+        if (marcas == null) {
+            marcas = new HashMap<>();
+        }
+        marcas.merge(marca, delta, (total, d) -> total + d == 0 ? null : total + d);
+    }
+}
@@ -0,0 +1,343 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dados dos produtos guardados em colunas, um vetor primitivo por campo,
+ * em vez de um objeto com três textos e um {@code double} por produto.
+ *
+ * Cada produto ocupa uma posição nas colunas: o preço em centavos num
+ * {@code long[]}, a marca como código de um dicionário de marcas num
+ * {@code int[]} e o nome e o código como posições num único vetor de bytes
+ * com os textos em UTF-8, cada um precedido do tamanho. O {@link Produto}
+ * cadastrado passa a ser só uma vista sobre a sua posição (ver
+ * {@link Produto#armazenar(ArmazemProdutos)}).
+ *
+ * Um texto alterado é gravado de novo no fim do vetor de bytes, e o antigo
+ * fica perdido até o vetor ser compactado, o que acontece quando os textos
+ * descartados passam da metade do que está ocupado.
+ *
+ * As alterações são feitas com o monitor do armazém. As leituras não
+ * travam: quando um vetor cresce ou é compactado, o armazém passa a usar
+ * cópias novas, publicadas de uma vez, e quem estava lendo as antigas
+ * continua vendo dados coerentes.
+ *
+ * @since 2025
+ */
+final class ArmazemProdutos {
+
+    private static final int CAPACIDADE_INICIAL = 64;
+    private static final int BYTES_POR_PRODUTO_INICIAL = 32;
+
+    /**
+     * Posição de texto (ou código de marca) que representa {@code null}.
+     */
+    private static final int NULO = -1;
+
+    /**
+     * Vetores em uso, trocados juntos quando algum deles é substituído.
+     */
+    private static final class Colunas {
+        final long[] centavos;
+        final int[] marcas;
+        final int[] nomes;
+        final int[] codigos;
+        final byte[] textos;
+        final String[] dicionarioMarcas;
+
+        Colunas(long[] centavos, int[] marcas, int[] nomes, int[] codigos, byte[] textos, String[] dicionarioMarcas) {
+            this.centavos = centavos;
+            this.marcas = marcas;
+            this.nomes = nomes;
+            this.codigos = codigos;
+            this.textos = textos;
+            this.dicionarioMarcas = dicionarioMarcas;
+        }
+    }
+
+    private volatile Colunas colunas = new Colunas(new long[CAPACIDADE_INICIAL], new int[CAPACIDADE_INICIAL],
+            new int[CAPACIDADE_INICIAL], new int[CAPACIDADE_INICIAL],
+            new byte[CAPACIDADE_INICIAL * BYTES_POR_PRODUTO_INICIAL], new String[16]);
+
+    private int quantidade;
+
+    /**
+     * Bytes ocupados no vetor de textos e, deles, quantos são de textos já
+     * substituídos.
+     */
+    private int bytesOcupados;
+    private int bytesDescartados;
+
+    private final Map<String, Integer> codigosMarca = new HashMap<>();
+
+    // CONVERSÃO DE PREÇOS
+
+    /**
+     * Converte um preço para centavos, arredondando para o centavo mais
+     * próximo.
+     *
+     * @param preco Preço em reais
+     * @return Preço em centavos
+     */
+    static long centavos(double preco) {
+        return Math.round(preco * 100);
+    }
+
+    /**
+     * Converte centavos para o preço em reais.
+     *
+     * @param centavos Preço em centavos
+     * @return Preço em reais
+     */
+    static double preco(long centavos) {
+        return centavos / 100.0;
+    }
+
+    // INCLUSÃO E ALTERAÇÃO
+
+    /**
+     * Guarda os dados de um produto numa posição nova.
+     *
+     * @return Posição do produto nas colunas
+     */
+    synchronized int adicionar(String nome, String codigo, long centavos, String marca) {
+        int marcaCodigo = codigoMarca(marca);
+        int nomeInicio = gravarTexto(nome);
+        int codigoInicio = gravarTexto(codigo);
+        int posicao = quantidade;
+        Colunas atuais = colunas;
+        if (posicao == atuais.centavos.length) {
+            int capacidade = posicao * 2;
+            atuais = new Colunas(Arrays.copyOf(atuais.centavos, capacidade), Arrays.copyOf(atuais.marcas, capacidade),
+                    Arrays.copyOf(atuais.nomes, capacidade), Arrays.copyOf(atuais.codigos, capacidade),
+                    atuais.textos, atuais.dicionarioMarcas);
+            colunas = atuais;
+        }
+        atuais.centavos[posicao] = centavos;
+        atuais.marcas[posicao] = marcaCodigo;
+        atuais.nomes[posicao] = nomeInicio;
+        atuais.codigos[posicao] = codigoInicio;
+        quantidade++;
+        return posicao;
+    }
+
+    synchronized void alterarNome(int posicao, String nome) {
+        int inicio = gravarTexto(nome);
+        Colunas atuais = colunas;
+        bytesDescartados += tamanhoGravado(atuais.textos, atuais.nomes[posicao]);
+        atuais.nomes[posicao] = inicio;
+        compactarSeNecessario();
+    }
+
+    synchronized void alterarCodigo(int posicao, String codigo) {
+        int inicio = gravarTexto(codigo);
+        Colunas atuais = colunas;
+        bytesDescartados += tamanhoGravado(atuais.textos, atuais.codigos[posicao]);
+        atuais.codigos[posicao] = inicio;
+        compactarSeNecessario();
+    }
+
+    synchronized void alterarCentavos(int posicao, long centavos) {
+        colunas.centavos[posicao] = centavos;
+    }
+
+    synchronized void alterarMarca(int posicao, String marca) {
+        int codigo = codigoMarca(marca);
+        colunas.marcas[posicao] = codigo;
+    }
+
+    // LEITURA
+
+    String nome(int posicao) {
+        Colunas atuais = colunas;
+        return lerTexto(atuais.textos, atuais.nomes[posicao]);
+    }
+
+    String codigo(int posicao) {
+        Colunas atuais = colunas;
+        return lerTexto(atuais.textos, atuais.codigos[posicao]);
+    }
+
+    long centavos(int posicao) {
+        return colunas.centavos[posicao];
+    }
+
+    String marca(int posicao) {
+        Colunas atuais = colunas;
+        int codigo = atuais.marcas[posicao];
+        return (codigo == NULO) ? null : atuais.dicionarioMarcas[codigo];
+    }
+
+    /**
+     * Compara o código guardado na posição com um texto sem criar uma
+     * {@code String}, o que basta para códigos só com caracteres ASCII.
+     *
+     * @param posicao Posição do produto
+     * @param codigo  Código procurado (pode ser nulo)
+     * @return {@code true} se forem iguais
+     */
+    boolean codigoIgual(int posicao, String codigo) {
+        Colunas atuais = colunas;
+        int inicio = atuais.codigos[posicao];
+        if (inicio == NULO || codigo == null) {
+            return inicio == NULO && codigo == null;
+        }
+        byte[] textos = atuais.textos;
+        int tamanho = tamanho(textos, inicio);
+        inicio += cabecalho(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            byte valor = textos[inicio + i];
+            if (valor < 0) {
+                // caractere fora do ASCII: compara o texto decodificado
+                return codigo.equals(new String(textos, inicio, tamanho, StandardCharsets.UTF_8));
+            }
+            if (i >= codigo.length() || codigo.charAt(i) != valor) {
+                return false;
+            }
+        }
+        return codigo.length() == tamanho;
+    }
+
+    // TEXTOS
+
+    /**
+     * Grava o texto no fim do vetor de textos, crescendo-o se preciso.
+     *
+     * @return Posição do texto, ou {@link #NULO}
+     */
+    private int gravarTexto(String texto) {
+        if (texto == null) {
+            return NULO;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int necessario = bytesOcupados + 5 + bytes.length;
+        Colunas atuais = colunas;
+        if (necessario > atuais.textos.length) {
+            byte[] maior = Arrays.copyOf(atuais.textos, Math.max(necessario, atuais.textos.length * 2));
+            atuais = new Colunas(atuais.centavos, atuais.marcas, atuais.nomes, atuais.codigos, maior,
+                    atuais.dicionarioMarcas);
+            colunas = atuais;
+        }
+        int inicio = bytesOcupados;
+        int posicao = inicio;
+        int tamanho = bytes.length;
+        while (tamanho >= 0x80) {
+            atuais.textos[posicao++] = (byte) (tamanho | 0x80);
+            tamanho >>>= 7;
+        }
+        atuais.textos[posicao++] = (byte) tamanho;
+        System.arraycopy(bytes, 0, atuais.textos, posicao, bytes.length);
+        bytesOcupados = posicao + bytes.length;
+        return inicio;
+    }
+
+    private static String lerTexto(byte[] textos, int inicio) {
+        if (inicio == NULO) {
+            return null;
+        }
+        int tamanho = tamanho(textos, inicio);
+        return new String(textos, inicio + cabecalho(tamanho), tamanho, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes que o texto ocupa no vetor, contando o tamanho gravado antes dele.
+     */
+    private static int tamanhoGravado(byte[] textos, int inicio) {
+        if (inicio == NULO) {
+            return 0;
+        }
+        int tamanho = tamanho(textos, inicio);
+        return cabecalho(tamanho) + tamanho;
+    }
+
+    /**
+     * Lê o tamanho em bytes do texto, gravado em grupos de 7 bits.
+     */
+    private static int tamanho(byte[] textos, int inicio) {
+        int tamanho = 0;
+        int deslocamento = 0;
+        byte atual;
+        do {
+            atual = textos[inicio++];
+            tamanho |= (atual & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while (atual < 0);
+        return tamanho;
+    }
+
+    /**
+     * Quantos bytes o tamanho ocupa antes do texto.
+     */
+    private static int cabecalho(int tamanho) {
+        int bytes = 1;
+        while (tamanho >= 0x80) {
+            tamanho >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Regrava os textos em uso num vetor novo quando os descartados passam
+     * da metade do espaço ocupado.
+     */
+    private void compactarSeNecessario() {
+        if (bytesDescartados <= bytesOcupados / 2) {
+            return;
+        }
+        Colunas atuais = colunas;
+        byte[] textos = new byte[Math.max(CAPACIDADE_INICIAL, (bytesOcupados - bytesDescartados) * 3 / 2)];
+        int[] nomes = new int[atuais.nomes.length];
+        int[] codigos = new int[atuais.codigos.length];
+        int ocupados = 0;
+        for (int posicao = 0; posicao < quantidade; posicao++) {
+            nomes[posicao] = (atuais.nomes[posicao] == NULO) ? NULO : ocupados;
+            ocupados = copiarTexto(atuais.textos, atuais.nomes[posicao], textos, ocupados);
+            codigos[posicao] = (atuais.codigos[posicao] == NULO) ? NULO : ocupados;
+            ocupados = copiarTexto(atuais.textos, atuais.codigos[posicao], textos, ocupados);
+        }
+        colunas = new Colunas(atuais.centavos, atuais.marcas, nomes, codigos, textos, atuais.dicionarioMarcas);
+        bytesOcupados = ocupados;
+        bytesDescartados = 0;
+    }
+
+    /**
+     * Copia um texto gravado para a posição informada de outro vetor.
+     *
+     * @return Posição seguinte ao texto copiado no destino
+     */
+    private static int copiarTexto(byte[] origem, int inicio, byte[] destino, int posicao) {
+        if (inicio == NULO) {
+            return posicao;
+        }
+        int tamanho = tamanhoGravado(origem, inicio);
+        System.arraycopy(origem, inicio, destino, posicao, tamanho);
+        return posicao + tamanho;
+    }
+
+    // DICIONÁRIO DE MARCAS
+
+    private int codigoMarca(String marca) {
+        if (marca == null) {
+            return NULO;
+        }
+        Integer codigo = codigosMarca.get(marca);
+        if (codigo != null) {
+            return codigo;
+        }
+        int novo = codigosMarca.size();
+        Colunas atuais = colunas;
+        String[] dicionario = atuais.dicionarioMarcas;
+        if (novo == dicionario.length) {
+            dicionario = Arrays.copyOf(dicionario, novo * 2);
+        }
+        dicionario[novo] = marca;
+        if (dicionario != atuais.dicionarioMarcas) {
+            colunas = new Colunas(atuais.centavos, atuais.marcas, atuais.nomes, atuais.codigos, atuais.textos,
+                    dicionario);
+        }
+        codigosMarca.put(marca, novo);
+        return novo;
+    }
+}
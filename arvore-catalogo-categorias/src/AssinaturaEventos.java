@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Leitura do fluxo de eventos do catálogo a partir de uma sequência, criada
+ * por {@link CatalogoControll#assinarEventos()} ou
+ * {@link CatalogoControll#assinarEventos(long)}.
+ *
+ * {@link #receber(int)} devolve os eventos publicados desde a última
+ * chamada, em ordem, sem travar e sem esperar. O fluxo guarda só os eventos
+ * mais recentes e quem altera o catálogo não espera ninguém: uma assinatura
+ * que fica mais de uma capacidade do fluxo para trás perde os eventos
+ * seguintes, o que é informado por {@link #isAtrasada()} e por uma exceção
+ * em {@link #receber(int)}, nunca por um buraco silencioso. {@link #getAtraso()}
+ * mostra o quanto falta ler, para quem quiser acelerar antes disso.
+ *
+ * Para montar uma cópia derivada do catálogo e mantê-la atualizada:
+ * assine, leia o catálogo inteiro e aplique os eventos recebidos depois
+ * (alguns podem já estar refletidos na leitura, então aplicá-los deve ser
+ * idempotente). Guardando {@link #getSequencia()}, a cópia pode retomar do
+ * mesmo ponto mais tarde, enquanto os eventos ainda estiverem no fluxo.
+ *
+ * Cada assinatura deve ser lida por uma thread por vez.
+ *
+ * @since 2025
+ */
+public final class AssinaturaEventos {
+
+    private final FluxoEventos fluxo;
+
+    /**
+     * Sequência do próximo evento a receber.
+     */
+    private long sequencia;
+
+    /**
+     * @param fluxo     Fluxo assinado
+     * @param sequencia Sequência do primeiro evento a receber
+     */
+    AssinaturaEventos(FluxoEventos fluxo, long sequencia) {
+        this.fluxo = fluxo;
+        this.sequencia = sequencia;
+    }
+
+    /**
+     * Retorna os próximos eventos já publicados, em ordem de sequência, e
+     * avança a assinatura até depois do último devolvido.
+     *
+     * @param maximo Quantidade máxima de eventos devolvidos
+     * @return Lista (vazia se não houver eventos novos)
+     * @throws IllegalStateException se a assinatura ficou para trás e os
+     *                               eventos que ela esperava foram
+     *                               sobrescritos; a cópia derivada deve ser
+     *                               refeita a partir do catálogo, com uma
+     *                               assinatura nova
+     */
+    public List<EventoCatalogo> receber(int maximo) {
+        long disponivel = Math.min(fluxo.getProxima() - sequencia, maximo);
+        if (disponivel <= 0) {
+            return Collections.emptyList();
+        }
+        List<EventoCatalogo> eventos = new ArrayList<>((int) disponivel);
+        for (long i = 0; i < disponivel; i++) {
+            EventoCatalogo evento = fluxo.ler(sequencia + i);
+            if (evento == null) {
+                throw eventosDescartados();
+            }
+            eventos.add(evento);
+        }
+        sequencia += disponivel;
+        return eventos;
+    }
+
+    /**
+     * Indica se eventos ainda não recebidos já foram sobrescritos no fluxo.
+     *
+     * @return {@code true} se a assinatura perdeu eventos
+     */
+    public boolean isAtrasada() {
+        return sequencia < fluxo.getPrimeira();
+    }
+
+    /**
+     * Retorna a sequência do próximo evento a receber, para retomar a
+     * leitura com {@link CatalogoControll#assinarEventos(long)}.
+     *
+     * @return Próxima sequência
+     */
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    /**
+     * Retorna quantos eventos já publicados ainda não foram recebidos.
+     *
+     * @return Quantidade de eventos pendentes
+     */
+    public long getAtraso() {
+        return fluxo.getProxima() - sequencia;
+    }
+
+    /**
+     * Retorna quantos eventos o fluxo guarda; uma assinatura com atraso maior
+     * que isso perde eventos.
+     *
+     * @return Capacidade do fluxo
+     */
+    public int getCapacidade() {
+        return fluxo.capacidade();
+    }
+
+    /**
+     * Monta a exceção de uma assinatura que ficou para trás.
+     */
+    IllegalStateException eventosDescartados() {
+        return new IllegalStateException("Os eventos a partir da sequência " + sequencia
+                + " já foram descartados do fluxo (o mais antigo disponível é " + fluxo.getPrimeira() + ")");
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache dos caminhos (breadcrumbs) das categorias e das rotas de navegação
+ * de cada subárvore, usado por {@link CatalogoControll#buscarCaminhoCompleto(String)}
+ * e {@link CatalogoControll#listarRotasDaSubarvore(String)}.
+ *
+ * Os dois mapas guardam só as categorias usadas mais recentemente (LRU). O
+ * caminho de uma categoria depende dos nomes e da posição das ancestrais;
+ * as rotas de uma subárvore dependem também das descendentes. Quem
+ * renomeia, cria, move ou remove uma categoria chama
+ * {@link #invalidarSubarvore(Categoria)}, que descarta os caminhos e rotas
+ * da subárvore dela e as rotas das ancestrais, sem mexer no restante; quando
+ * uma categoria sai de baixo de outra, {@link #invalidarRotas(Categoria)}
+ * descarta as rotas do pai antigo e das ancestrais dele. Associar produtos
+ * não invalida nada.
+ *
+ * Como proteção contra alterações feitas direto nas categorias, sem passar
+ * pelo catálogo, cada caminho é guardado com o nível da categoria e cada
+ * lista de rotas com o tamanho da subárvore; um valor diferente na consulta
+ * também invalida a entrada.
+ *
+ * Para descartar uma subárvore, o cache percorre a subárvore ou as próprias
+ * entradas guardadas, o que for menor, testando cada entrada pelos rótulos
+ * de intervalo ({@link Categoria#isAncestralDe(Categoria)}) em O(1).
+ *
+ * Os métodos são sincronizados: com a escrita concorrente, threads que
+ * alteram subárvores disjuntas invalidam o cache ao mesmo tempo.
+ *
+ * @since 2025
+ */
+final class CacheNavegacao {
+
+    /**
+     * Quantidade máxima de caminhos guardados.
+     */
+    static final int MAXIMO_CAMINHOS = 16_384;
+
+    /**
+     * Categorias em nível menor que este têm o caminho montado a cada
+     * consulta: subir poucas ancestrais custa menos que manter a entrada.
+     */
+    static final int NIVEL_MINIMO_CAMINHO = 8;
+
+    /**
+     * Quantidade máxima de subárvores com rotas guardadas.
+     */
+    static final int MAXIMO_SUBARVORES = 256;
+
+    /**
+     * Subárvores com mais folhas que isto têm as rotas montadas a cada
+     * consulta, sem ocupar o cache.
+     */
+    static final int MAXIMO_ROTAS_GUARDADAS = 100_000;
+
+    private final String separador;
+
+    /**
+     * Caminhos por categoria, do menos ao mais recentemente usado.
+     */
+    private final Map<Categoria, Caminho> caminhos;
+
+    /**
+     * Rotas por topo de subárvore, do menos ao mais recentemente usado.
+     */
+    private final Map<Categoria, Rotas> rotas;
+
+    private long acertos;
+    private long falhas;
+    private long descartes;
+    private long invalidacoes;
+
+    /**
+     * Caminho de uma categoria, com o nível que ela tinha ao ser montado.
+     */
+    private static final class Caminho {
+        final String texto;
+        final int nivel;
+
+        Caminho(String texto, int nivel) {
+            this.texto = texto;
+            this.nivel = nivel;
+        }
+    }
+
+    /**
+     * Rotas de uma subárvore, com o tamanho que ela tinha ao serem montadas.
+     */
+    private static final class Rotas {
+        final int tamanho;
+        final List<String> lista;
+
+        Rotas(int tamanho, List<String> lista) {
+            this.tamanho = tamanho;
+            this.lista = lista;
+        }
+    }
+
+    /**
+     * Cria um cache vazio.
+     *
+     * @param separador Texto colocado entre os nomes, por exemplo {@code " > "}
+     */
+    CacheNavegacao(String separador) {
+        this.separador = separador;
+        this.caminhos = new LinkedHashMap<Categoria, Caminho>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Categoria, Caminho> maisAntiga) {
+                return descartar(size() > MAXIMO_CAMINHOS);
+            }
+        };
+        this.rotas = new LinkedHashMap<Categoria, Rotas>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Categoria, Rotas> maisAntiga) {
+                return descartar(size() > MAXIMO_SUBARVORES);
+            }
+        };
+    }
+
+    private boolean descartar(boolean excedeu) {
+        if (excedeu) {
+            descartes++;
+        }
+        return excedeu;
+    }
+
+    // CONSULTAS
+
+    /**
+     * Retorna o caminho da raiz até a categoria, com os nomes separados pelo
+     * separador do cache. Numa falha, o caminho é montado a partir da
+     * ancestral mais próxima que estiver no cache (ou da raiz). Caminhos de
+     * categorias abaixo de {@link #NIVEL_MINIMO_CAMINHO} não são guardados.
+     *
+     * @param categoria Categoria da árvore
+     * @return Caminho da raiz até a categoria
+     */
+    synchronized String caminho(Categoria categoria) {
+        if (categoria.getNivel() < NIVEL_MINIMO_CAMINHO) {
+            return montarCaminho(categoria);
+        }
+        Caminho guardado = caminhoValido(categoria);
+        if (guardado != null) {
+            acertos++;
+            return guardado.texto;
+        }
+        falhas++;
+        return guardarCaminho(categoria);
+    }
+
+    /**
+     * Retorna as rotas de navegação da subárvore: o caminho da raiz até cada
+     * folha abaixo da categoria (ou até ela, se for folha), em pré-ordem.
+     *
+     * @param topo Categoria da árvore
+     * @return Lista somente leitura das rotas
+     */
+    synchronized List<String> rotas(Categoria topo) {
+        Rotas guardadas = rotas.get(topo);
+        if (guardadas != null && guardadas.tamanho == topo.getTamanhoSubarvore()) {
+            acertos++;
+            return guardadas.lista;
+        }
+        falhas++;
+        String prefixo = caminhoSemContar(topo);
+        List<String> lista = new ArrayList<>();
+        StringBuilder texto = new StringBuilder(prefixo);
+        for (List<Categoria> rota : PercursoArvore.rotasAteFolhas(topo)) {
+            texto.setLength(prefixo.length());
+            for (int i = 1; i < rota.size(); i++) {
+                texto.append(separador).append(rota.get(i).getNome());
+            }
+            lista.add(texto.toString());
+        }
+        List<String> somenteLeitura = Collections.unmodifiableList(lista);
+        if (lista.size() <= MAXIMO_ROTAS_GUARDADAS) {
+            rotas.put(topo, new Rotas(topo.getTamanhoSubarvore(), somenteLeitura));
+        } else {
+            rotas.remove(topo);
+        }
+        return somenteLeitura;
+    }
+
+    // INVALIDAÇÃO
+
+    /**
+     * Descarta os caminhos e as rotas da subárvore da categoria e as rotas
+     * das ancestrais dela. Chamado quando a categoria é renomeada, criada,
+     * movida (depois de chegar ao pai novo) ou removida (antes de sair).
+     *
+     * @param topo Categoria alterada
+     */
+    synchronized void invalidarSubarvore(Categoria topo) {
+        if (topo.getTamanhoSubarvore() < caminhos.size() + rotas.size()) {
+            for (Categoria categoria : PercursoArvore.preOrdem(topo)) {
+                invalidar(caminhos.remove(categoria) != null);
+                invalidar(rotas.remove(categoria) != null);
+            }
+        } else {
+            caminhos.keySet().removeIf(categoria -> invalidar(categoria == topo || topo.isAncestralDe(categoria)));
+            rotas.keySet().removeIf(categoria -> invalidar(categoria == topo || topo.isAncestralDe(categoria)));
+        }
+        if (topo.getPai() != null) {
+            invalidarRotas(topo.getPai());
+        }
+    }
+
+    /**
+     * Descarta as rotas da categoria e das ancestrais dela, cujas
+     * subárvores mudaram.
+     *
+     * @param categoria Categoria que ganhou ou perdeu uma descendente
+     */
+    synchronized void invalidarRotas(Categoria categoria) {
+        for (Categoria atual = categoria; atual != null; atual = atual.getPai()) {
+            invalidar(rotas.remove(atual) != null);
+        }
+    }
+
+    private boolean invalidar(boolean removida) {
+        if (removida) {
+            invalidacoes++;
+        }
+        return removida;
+    }
+
+    /**
+     * Descarta tudo, como quando a raiz do catálogo é substituída.
+     */
+    synchronized void limpar() {
+        invalidacoes += caminhos.size() + rotas.size();
+        caminhos.clear();
+        rotas.clear();
+    }
+
+    // ESTATÍSTICAS
+
+    /**
+     * Retorna os contadores do cache: acertos, falhas, descartes (entradas
+     * retiradas por falta de espaço), invalidações e as quantidades de
+     * caminhos e subárvores guardados.
+     *
+     * @return Mapa nome para valor, na ordem acima
+     */
+    synchronized Map<String, Long> estatisticas() {
+        Map<String, Long> valores = new LinkedHashMap<>();
+        valores.put("acertos", acertos);
+        valores.put("falhas", falhas);
+        valores.put("descartes", descartes);
+        valores.put("invalidacoes", invalidacoes);
+        valores.put("caminhos", (long) caminhos.size());
+        valores.put("subarvores", (long) rotas.size());
+        return valores;
+    }
+
+    // MONTAGEM
+
+    private String caminhoSemContar(Categoria categoria) {
+        if (categoria.getNivel() < NIVEL_MINIMO_CAMINHO) {
+            return montarCaminho(categoria);
+        }
+        Caminho guardado = caminhoValido(categoria);
+        return (guardado != null) ? guardado.texto : guardarCaminho(categoria);
+    }
+
+    private String guardarCaminho(Categoria categoria) {
+        String texto = montarCaminho(categoria);
+        caminhos.put(categoria, new Caminho(texto, categoria.getNivel()));
+        return texto;
+    }
+
+    private Caminho caminhoValido(Categoria categoria) {
+        Caminho guardado = caminhos.get(categoria);
+        return (guardado != null && guardado.nivel == categoria.getNivel()) ? guardado : null;
+    }
+
+    /**
+     * Monta o caminho subindo até a primeira ancestral com caminho válido
+     * no cache (consultada sem contar como acerto) ou até a raiz, com o
+     * tamanho do texto calculado antes.
+     */
+    private String montarCaminho(Categoria categoria) {
+        String base = "";
+        int tamanho = 0;
+        int nomes = 0;
+        Categoria atual = categoria;
+        for (; atual != null; atual = atual.getPai()) {
+            Caminho guardado = (atual != categoria && atual.getNivel() >= NIVEL_MINIMO_CAMINHO)
+                    ? caminhoValido(atual) : null;
+            if (guardado != null) {
+                base = guardado.texto;
+                break;
+            }
+            tamanho += String.valueOf(atual.getNome()).length();
+            nomes++;
+        }
+        Categoria limite = atual;
+        tamanho += base.length() + (nomes - ((limite == null) ? 1 : 0)) * separador.length();
+        char[] texto = new char[tamanho];
+        base.getChars(0, base.length(), texto, 0);
+        int fim = tamanho;
+        for (atual = categoria; atual != limite; atual = atual.getPai()) {
+            String nome = String.valueOf(atual.getNome());
+            fim -= nome.length();
+            nome.getChars(0, nome.length(), texto, fim);
+            if (atual.getPai() != limite || limite != null) {
+                fim -= separador.length();
+                separador.getChars(0, separador.length(), texto, fim);
+            }
+        }
+        return new String(texto);
+    }
+}
@@ -1,5 +1,20 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * Classe de controle principal do catálogo de categorias e produtos.
@@ -21,6 +36,19 @@ public class CatalogoControll {
 
     // ATRIBUTOS
 
+    /**
+     * Registro das mensagens das operações: recusas em {@code INFO} e
+     * alterações bem-sucedidas em {@code FINE}.
+     */
+    private static final Logger LOG = Logger.getLogger(CatalogoControll.class.getName());
+
+    /**
+     * Lotes que criam ou removem pelo menos esta quantidade de categorias
+     * invalidam o índice de autocompletar, refeito de uma vez na próxima
+     * consulta, em vez de atualizá-lo nome a nome.
+     */
+    static final int MINIMO_LOTE_AUTOCOMPLETAR = 1024;
+
     /**
      * Raiz da árvore de categorias. Representa a categoria principal do catálogo.
      * Todas as outras categorias são descendentes desta.
@@ -28,19 +56,169 @@ public class CatalogoControll {
     private Categoria raiz;
 
     /**
-     * Lista auxiliar de produtos cadastrados no sistema.
-     * Mantém referência a todos os produtos para facilitar buscas e associações.
+     * Registro dos produtos cadastrados no sistema, indexados pelo código.
+     * Cada produto aparece uma única vez, na ordem em que foi cadastrado.
+     */
+    private final RegistroProdutos produtosCadastrados;
+
+    /**
+     * Índice das categorias da árvore pelo nome (case insensitive).
+     */
+    private final IndiceCategorias indicePorNome;
+
+    /**
+     * Índice das categorias da árvore pelo código (case insensitive).
+     */
+    private final IndiceCategorias indicePorCodigo;
+
+    /**
+     * Vetor plano de produtos em pré-ordem, para consultas por subárvore.
+     */
+    private final IndiceSubarvore indiceSubarvore;
+
+    /**
+     * Vetores de preços ordenados por subárvore, para consultas por faixa.
+     */
+    private final IndicePrecos indicePrecos;
+
+    /**
+     * Facetas por marca (dicionário de marcas e conjuntos de identificadores de produtos).
+     */
+    private final IndiceMarcas indiceMarcas;
+
+    /**
+     * Árvore de prefixos dos nomes de categorias e produtos, sem acentos.
+     */
+    private final IndiceAutocompletar indiceAutocompletar;
+
+    /**
+     * Diário onde as alterações são registradas, ou {@code null} se o
+     * catálogo não estiver usando um (ver {@link #abrirDiario(Path)}).
+     */
+    private DiarioCatalogo diario;
+
+    /**
+     * Publicador das versões imutáveis lidas sem travas, ou {@code null} se a
+     * leitura concorrente não estiver ativa (ver
+     * {@link #ativarLeituraConcorrente()}).
+     */
+    private volatile PublicadorVersoes publicador;
+
+    /**
+     * Travas hierárquicas das categorias, ou {@code null} se a escrita
+     * concorrente não estiver ativa (ver {@link #ativarEscritaConcorrente()}).
+     */
+    private volatile TravasSubarvore travas;
+
+    /**
+     * Monitor dos índices e do registro de produtos, compartilhados por
+     * todas as subárvores. As buscas por nome e código são feitas antes de
+     * travar as subárvores, então também passam por ele.
+     */
+    private final Object travaIndices = new Object();
+
+    /**
+     * Métricas das operações públicas, desligadas até
+     * {@link #ativarMetricas()}.
+     */
+    private final MetricasCatalogo metricas = new MetricasCatalogo(this);
+
+    /**
+     * Caminhos e rotas de navegação montados recentemente, invalidados por
+     * subárvore quando categorias são renomeadas, criadas, movidas ou
+     * removidas.
+     */
+    private final CacheNavegacao cacheNavegacao = new CacheNavegacao(" > ");
+
+    /**
+     * Pool onde os percursos da árvore inteira são divididos, ou
+     * {@code null} se forem feitos só na thread que chama (ver
+     * {@link #ativarPercursoParalelo(ForkJoinPool)}).
+     */
+    private volatile ForkJoinPool poolPercurso;
+
+    /**
+     * Fluxo dos eventos de alteração, ou {@code null} se ele não estiver
+     * ativo (ver {@link #ativarEventos()}).
      */
-    private List<Produto> produtosCadastrados;
+    private volatile FluxoEventos eventos;
+
+    /**
+     * Mantém os índices atualizados quando uma categoria da árvore
+     * é renomeada ou tem o código alterado diretamente pelos setters.
+     */
+    private final ObservadorCatalogo observador = new ObservadorCatalogo() {
+        @Override
+        public void categoriaAlterada(Categoria categoria, Campo campo, Object valorAnterior) {
+            synchronized (travaIndices) {
+                if (campo == Campo.NOME) {
+                    indicePorNome.remover((String) valorAnterior, categoria);
+                    indicePorNome.adicionar(categoria.getNome(), categoria);
+                    indiceAutocompletar.remover((String) valorAnterior, categoria);
+                    indiceAutocompletar.adicionar(categoria.getNome(), categoria);
+                    cacheNavegacao.invalidarSubarvore(categoria);
+                } else if (campo == Campo.CODIGO) {
+                    indicePorCodigo.remover((String) valorAnterior, categoria);
+                    indicePorCodigo.adicionar(categoria.getCodigo(), categoria);
+                }
+            }
+            if (diario != null) {
+                diario.categoriaAlterada(categoria, campo);
+            }
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.categoriaAlterada(categoria, campo, valorAnterior));
+            }
+            if (publicador != null) {
+                categoria.marcarAlterada();
+                publicarVersao();
+            }
+        }
+
+        @Override
+        public void produtoAlterado(Produto produto, Campo campo, Object valorAnterior) {
+            synchronized (travaIndices) {
+                if (campo == Campo.CODIGO) {
+                    produtosCadastrados.codigoAlterado(produto, (String) valorAnterior);
+                    indicePrecos.codigoAlterado(produto, (String) valorAnterior);
+                } else if (campo == Campo.PRECO) {
+                    indicePrecos.precoAlterado(produto, (Double) valorAnterior);
+                    indiceMarcas.precoAlterado(produto);
+                } else if (campo == Campo.MARCA) {
+                    indiceMarcas.marcaAlterada(produto);
+                    indicePrecos.marcaAlterada(produto);
+                } else if (campo == Campo.NOME) {
+                    indiceAutocompletar.remover((String) valorAnterior, produto);
+                    indiceAutocompletar.adicionar(produto.getNome(), produto);
+                }
+            }
+            if (diario != null) {
+                diario.produtoAlterado(produto,
+                        (campo == Campo.CODIGO) ? (String) valorAnterior : produto.getCodigo(), campo);
+            }
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.produtoAlterado(produto, campo, valorAnterior));
+            }
+            if (publicador != null) {
+                publicador.produtoAlterado(produto);
+                publicarVersao();
+            }
+        }
+    };
 
     // CONSTRUTOR
 
     /**
      * Construtor padrão da classe CatalogoControll.
-     * Inicializa a lista de produtos cadastrados.
+     * Inicializa o registro de produtos cadastrados e os índices de categorias.
      */
     public CatalogoControll() {
-        this.produtosCadastrados = new ArrayList<>();
+        this.produtosCadastrados = new RegistroProdutos();
+        this.indicePorNome = new IndiceCategorias();
+        this.indicePorCodigo = new IndiceCategorias();
+        this.indiceSubarvore = new IndiceSubarvore();
+        this.indicePrecos = new IndicePrecos();
+        this.indiceMarcas = new IndiceMarcas(produtosCadastrados);
+        this.indiceAutocompletar = new IndiceAutocompletar();
     }
     // MÉTODOS DE INSERÇÃO
 
@@ -54,68 +232,268 @@ public class CatalogoControll {
      * @param descricao       Descrição textual da categoria
      */
 
+    @SuppressWarnings("try")
     public void inserirCategoria(String nome, String categoriaCodigo, String descricao) {
-        Categoria novaCategoria = new Categoria(nome, categoriaCodigo, descricao);
-        if (raiz == null) {
-            raiz = novaCategoria; // primeira categoria vira raiz
-        } else {
-            raiz.adicionarFilho(novaCategoria); // demais: filhas diretas da raiz
+        long inicio = metricas.iniciar();
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            Categoria novaCategoria = new Categoria(nome, categoriaCodigo, descricao);
+            if (raiz == null) {
+                raiz = novaCategoria; // primeira categoria vira raiz
+            } else {
+                raiz.adicionarFilho(novaCategoria); // demais: filhas diretas da raiz
+                indiceMarcas.categoriaMovida(novaCategoria, null);
+                cacheNavegacao.invalidarRotas(raiz);
+            }
+            indexarCategoria(novaCategoria);
+            if (diario != null) {
+                diario.inserirCategoria(nome, categoriaCodigo, descricao);
+            }
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.categoria(EventoCatalogo.Tipo.CATEGORIA_CRIADA, novaCategoria,
+                        null));
+            }
+            publicarVersao();
         }
+        metricas.registrar(MetricasCatalogo.Operacao.INSERIR_CATEGORIA, inicio, true, 1);
     }
 
     /**
      * Cria um novo produto no sistema.
-     * O produto é armazenado na lista auxiliar de produtos cadastrados
+     * O produto é armazenado no registro de produtos cadastrados
      * e retornado para que possa ser associado a uma categoria em outro momento.
+     * Se já existir um produto com o mesmo código, ele é retornado e nenhum
+     * produto novo é criado.
      *
      * @param nome          Nome do produto
      * @param produtoCodigo Código identificador do produto
      * @param preco         Preço do produto (deve ser não negativo)
      * @param marca         Marca do produto
-     * @return Instância de {@link Produto} criada com os dados informados
+     * @return Instância de {@link Produto} cadastrada com o código informado
      */
+    @SuppressWarnings("try")
     public Produto inserirProduto(String nome, String produtoCodigo, double preco, String marca) {
-        Produto novoProduto = new Produto(nome, produtoCodigo, preco, marca);
-        produtosCadastrados.add(novoProduto); // opcional: manter na lista auxiliar
+        long inicio = metricas.iniciar();
+        Produto novoProduto;
+        try (TravasSubarvore.Travamento trava = travar()) {
+            synchronized (travaIndices) {
+                Produto existente = produtosCadastrados.buscar(produtoCodigo);
+                if (existente != null) {
+                    metricas.registrar(MetricasCatalogo.Operacao.INSERIR_PRODUTO, inicio, true, 0);
+                    return existente;
+                }
+                novoProduto = new Produto(nome, produtoCodigo, preco, marca);
+                registrarProduto(novoProduto);
+                if (diario != null) {
+                    diario.inserirProduto(novoProduto);
+                }
+                if (eventos != null) {
+                    eventos.publicar(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_CRIADO, novoProduto,
+                            null));
+                }
+            }
+        }
+        publicarVersao();
+        metricas.registrar(MetricasCatalogo.Operacao.INSERIR_PRODUTO, inicio, true, 0);
         return novoProduto;
     }
+
+    /**
+     * Adiciona um produto ao registro de produtos cadastrados.
+     *
+     * @param produto Produto cujo código ainda não está registrado
+     */
+    void registrarProduto(Produto produto) {
+        synchronized (travaIndices) {
+            produtosCadastrados.registrar(produto);
+            produto.observador = observador;
+            indiceMarcas.sincronizar(produto);
+            indiceAutocompletar.adicionar(produto.getNome(), produto);
+            if (publicador != null) {
+                publicador.produtoAlterado(produto);
+            }
+        }
+    }
     // MÉTODOS DE BUSCA
 
     /**
      * Busca uma categoria pelo nome em toda a árvore de categorias.
-     * A comparação do nome é feita de forma case insensitive.
+     * A comparação do nome é feita de forma case insensitive, consultando
+     * o índice por nome em vez de percorrer a árvore.
      *
      * @param nomeCategoria Nome da categoria a ser buscada
      * @return Categoria encontrada ou {@code null} se não existir
      */
 
-    private Categoria buscarCategoria(String nomeCategoria) {
-        if (raiz == null) {
-            return null;
+    Categoria buscarCategoria(String nomeCategoria) {
+        synchronized (travaIndices) {
+            return indicePorNome.buscar(nomeCategoria);
+        }
+    }
+
+    /**
+     * Retorna todas as categorias com o nome informado, na ordem em que
+     * {@link #buscarCategoria(String)} as encontraria se as anteriores
+     * fossem removidas.
+     *
+     * @param nomeCategoria Nome procurado
+     * @return Lista que não acompanha o índice
+     */
+    List<Categoria> categoriasComNome(String nomeCategoria) {
+        synchronized (travaIndices) {
+            return indicePorNome.buscarTodas(nomeCategoria);
+        }
+    }
+
+    /**
+     * Retorna todas as categorias com o código informado, como
+     * {@link #categoriasComNome(String)}.
+     *
+     * @param codigoCategoria Código procurado
+     * @return Lista que não acompanha o índice
+     */
+    List<Categoria> categoriasComCodigo(String codigoCategoria) {
+        synchronized (travaIndices) {
+            return indicePorCodigo.buscarTodas(codigoCategoria);
+        }
+    }
+
+    /**
+     * Busca um produto cadastrado pelo código, sem contar a busca nas
+     * métricas.
+     *
+     * @param codigoProduto Código do produto procurado
+     * @return Produto encontrado ou {@code null} se não estiver cadastrado
+     */
+    Produto produtoCadastrado(String codigoProduto) {
+        synchronized (travaIndices) {
+            return produtosCadastrados.buscar(codigoProduto);
+        }
+    }
+
+    /**
+     * Busca uma categoria pelo código em toda a árvore de categorias.
+     * A comparação do código é feita de forma case insensitive.
+     *
+     * @param codigoCategoria Código da categoria a ser buscada
+     * @return Categoria encontrada ou {@code null} se não existir
+     */
+    public Categoria buscarCategoriaPorCodigo(String codigoCategoria) {
+        long inicio = metricas.iniciar();
+        Categoria categoria;
+        synchronized (travaIndices) {
+            categoria = indicePorCodigo.buscar(codigoCategoria);
+        }
+        metricas.registrar(MetricasCatalogo.Operacao.BUSCAR_CATEGORIA_POR_CODIGO, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return categoria;
+    }
+
+    /**
+     * Busca um produto cadastrado pelo código.
+     *
+     * @param codigoProduto Código do produto procurado
+     * @return Produto encontrado ou {@code null} se não estiver cadastrado
+     */
+    public Produto buscarProduto(String codigoProduto) {
+        long inicio = metricas.iniciar();
+        Produto produto;
+        synchronized (travaIndices) {
+            produto = produtosCadastrados.buscar(codigoProduto);
+        }
+        metricas.registrar(MetricasCatalogo.Operacao.BUSCAR_PRODUTO, inicio, produto != null, 0);
+        return produto;
+    }
+
+    /**
+     * Verifica se existe um produto cadastrado com o código informado.
+     *
+     * @param codigoProduto Código do produto procurado
+     * @return {@code true} se o produto estiver cadastrado
+     */
+    public boolean contemProduto(String codigoProduto) {
+        return buscarProduto(codigoProduto) != null;
+    }
+
+    /**
+     * Retorna as categorias às quais um produto está associado,
+     * sem percorrer a árvore.
+     *
+     * @param produto Produto consultado
+     * @return Lista somente leitura das categorias do produto
+     */
+    public List<Categoria> buscarCategoriasDoProduto(Produto produto) {
+        return produto.getCategorias();
+    }
+
+    // MÉTODOS DE INDEXAÇÃO
+
+    /**
+     * Adiciona uma categoria aos índices por nome e por código e passa a
+     * observar alterações nesses campos.
+     *
+     * @param categoria Categoria recém-inserida na árvore
+     */
+    private void indexarCategoria(Categoria categoria) {
+        synchronized (travaIndices) {
+            indicePorNome.adicionar(categoria.getNome(), categoria);
+            indicePorCodigo.adicionar(categoria.getCodigo(), categoria);
+            indiceAutocompletar.adicionar(categoria.getNome(), categoria);
+            categoria.observador = observador;
         }
-        return buscarCategoriaRecursivo(raiz, nomeCategoria);
     }
 
     /**
-     * Método auxiliar recursivo para busca de categorias.
-     * Percorre a árvore em profundidade a partir da categoria informada.
+     * Remove dos índices a categoria informada e todas as suas descendentes.
+     * Os produtos dessas categorias continuam cadastrados, mas deixam de
+     * apontá-las no índice reverso.
      *
-     * @param atual Nó atual da árvore sendo visitado
-     * @param nome  Nome da categoria procurada
-     * @return Categoria encontrada ou {@code null} se não estiver nessa subárvore
+     * @param topo Raiz da subárvore que deixou o catálogo
      */
-    private Categoria buscarCategoriaRecursivo(Categoria atual, String nome) {
-        if (atual.getNome().equalsIgnoreCase(nome)) {
-            return atual;
+    private void desindexarSubarvore(Categoria topo) {
+        synchronized (travaIndices) {
+            for (Categoria atual : PercursoArvore.preOrdem(topo)) {
+                indicePorNome.remover(atual.getNome(), atual);
+                indicePorCodigo.remover(atual.getCodigo(), atual);
+                indiceAutocompletar.remover(atual.getNome(), atual);
+                atual.observador = null;
+                for (Produto produto : atual.getProdutos()) {
+                    produto.removerCategoria(atual);
+                }
+            }
         }
-        for (Categoria filho : atual.getFilhos()) {
-            Categoria encontrada = buscarCategoriaRecursivo(filho, nome);
-            if (encontrada != null) {
-                return encontrada;
+    }
+
+    /**
+     * Reconstrói os índices a partir da raiz atual, na mesma ordem em que
+     * uma busca em profundidade encontraria as categorias. O índice de
+     * autocompletar só é refeito na próxima consulta.
+     */
+    private void reindexarArvore() {
+        synchronized (travaIndices) {
+            indicePorNome.limpar();
+            indicePorCodigo.limpar();
+            indiceAutocompletar.invalidar();
+            for (Categoria atual : PercursoArvore.preOrdem(raiz)) {
+                indexarCategoria(atual);
             }
         }
-        return null;
+        cacheNavegacao.limpar();
+    }
+
+    /**
+     * Refaz o índice de autocompletar a partir das categorias da árvore e
+     * dos produtos cadastrados.
+     */
+    private void reconstruirAutocompletar() {
+        indiceAutocompletar.limpar();
+        for (Categoria atual : PercursoArvore.preOrdem(raiz)) {
+            indiceAutocompletar.adicionar(atual.getNome(), atual);
+        }
+        for (Produto produto : produtosCadastrados.todos()) {
+            indiceAutocompletar.adicionar(produto.getNome(), produto);
+        }
     }
+
     // MÉTODOS DE ASSOCIAÇÃO
 
     /**
@@ -126,63 +504,365 @@ public class CatalogoControll {
      * @param nomePai   Nome da categoria que será o pai
      * @param nomeFilho Nome da categoria que será a subcategoria
      * @return {@code true} se a operação for bem-sucedida,
-     *         {@code false} se o pai não for encontrado
+     *         {@code false} se o pai não for encontrado ou se a operação
+     *         criaria um ciclo (filho igual ao pai ou ancestral dele)
      */
 
     public boolean definirSubcategoria(String nomePai, String nomeFilho) {
-        Categoria pai = buscarCategoria(nomePai);
-        if (pai == null) {
-            System.out.println("Categoria pai '" + nomePai + "' não encontrada!");
-            return false;
-        }
+        long inicio = metricas.iniciar();
+        Categoria subordinada = subordinarPorNome(nomePai, nomeFilho);
+        // a subárvore da categoria movida é renumerada e reindexada
+        metricas.registrar(MetricasCatalogo.Operacao.DEFINIR_SUBCATEGORIA, inicio, subordinada != null,
+                (subordinada != null) ? subordinada.getTamanhoSubarvore() : 0);
+        return subordinada != null;
+    }
 
-        Categoria filho = buscarCategoria(nomeFilho);
-        if (filho != null) {
-            if (filho.getPai() != null) {
-                filho.getPai().removerFilho(filho);
+    /**
+     * Executa {@link #definirSubcategoria(String, String)}.
+     *
+     * @return Categoria posta sob o pai, ou {@code null} se a operação foi
+     *         recusada
+     */
+    private Categoria subordinarPorNome(String nomePai, String nomeFilho) {
+        for (;;) {
+            Categoria pai = buscarCategoria(nomePai);
+            if (pai == null) {
+                LOG.info(() -> "Categoria pai '" + nomePai + "' não encontrada!");
+                return null;
             }
-        } else {
-            filho = new Categoria(nomeFilho);
+
+            Categoria filho = buscarCategoria(nomeFilho);
+            Categoria subordinada;
+            try (TravasSubarvore.Travamento trava = travarSubordinacao(pai, filho)) {
+                if (trava != null && (buscarCategoria(nomePai) != pai || buscarCategoria(nomeFilho) != filho)) {
+                    continue; // os nomes mudaram de categoria enquanto a thread esperava as travas
+                }
+                if (filho == pai || (filho != null && filho.isAncestralDe(pai))) {
+                    LOG.info(() -> "Categoria '" + nomeFilho + "' não pode ser subcategoria de '" + nomePai
+                            + "': ela é o próprio pai ou uma de suas ancestrais!");
+                    return null;
+                }
+                if (diario != null) {
+                    diario.definirSubcategoria(pai, filho, nomeFilho);
+                }
+                List<String> caminhoAnterior = (eventos != null && filho != null)
+                        ? EventoCatalogo.caminho(filho) : null;
+                subordinada = subordinar(pai, filho, nomeFilho);
+                if (eventos != null) {
+                    eventos.publicar(EventoCatalogo.categoria((filho == null) ? EventoCatalogo.Tipo.CATEGORIA_CRIADA
+                            : EventoCatalogo.Tipo.CATEGORIA_MOVIDA, subordinada, caminhoAnterior));
+                }
+            }
+            publicarVersao();
+            LOG.fine(() -> "Subcategoria '" + nomeFilho + "' definida como filha de '" + nomePai + "'");
+            return subordinada;
+        }
+    }
+
+    /**
+     * Põe a categoria como última filha do pai, criando-a se ainda não
+     * existir. Não valida ciclos nem registra no diário.
+     *
+     * @param pai       Categoria da árvore que será o pai
+     * @param filho     Categoria existente, ou {@code null} para criar uma
+     * @param nomeFilho Nome da categoria criada quando {@code filho} é nulo
+     * @return Categoria posta sob o pai ({@code filho} ou a criada)
+     */
+    Categoria subordinar(Categoria pai, Categoria filho, String nomeFilho) {
+        if (filho == null) {
+            // anexada antes de indexada: quem a encontrar pelo nome já a acha na árvore
+            Categoria nova = new Categoria(nomeFilho);
+            pai.adicionarFilho(nova);
+            indiceMarcas.categoriaMovida(nova, null);
+            indexarCategoria(nova);
+            cacheNavegacao.invalidarRotas(pai);
+            return nova;
         }
 
+        // adicionarFilho retira a categoria do pai atual, se houver
+        Categoria paiAnterior = filho.getPai();
         pai.adicionarFilho(filho);
-        System.out.println(" Subcategoria '" + nomeFilho + "' definida como filha de '" + nomePai + "'");
-        return true;
+        indiceMarcas.categoriaMovida(filho, paiAnterior);
+        cacheNavegacao.invalidarSubarvore(filho);
+        if (paiAnterior != null) {
+            cacheNavegacao.invalidarRotas(paiAnterior);
+        }
+        return filho;
     }
 
     /**
      * Associa um produto a uma categoria específica.
-     * O produto é adicionado tanto à lista de produtos da categoria quanto
-     * à lista auxiliar de produtos cadastrados no catálogo.
+     * O produto é adicionado à lista de produtos da categoria e, se ainda não
+     * estiver cadastrado, ao registro de produtos do catálogo. Uma instância
+     * nova com o código, o nome, o preço e a marca de um produto já cadastrado
+     * é tratada como ele: é o produto cadastrado que fica associado.
      *
      * @param nomeCategoria Nome da categoria onde o produto será associado
      * @param produto       Produto previamente criado que será associado
      * @return {@code true} se a associação for bem-sucedida,
-     *         {@code false} se a categoria não for encontrada ou o produto for nulo
+     *         {@code false} se a categoria não for encontrada, o produto for nulo
+     *         ou já houver um produto cadastrado com o mesmo código e dados
+     *         diferentes
      */
 
     public boolean associarProduto(String nomeCategoria, Produto produto) {
-        if (produto == null) {
-            System.out.println(" Produto não pode ser nulo!");
+        long inicio = metricas.iniciar();
+        boolean associado = associarPorNome(nomeCategoria, produto);
+        metricas.registrar(MetricasCatalogo.Operacao.ASSOCIAR_PRODUTO, inicio, associado, associado ? 1 : 0);
+        return associado;
+    }
+
+    /**
+     * Executa {@link #associarProduto(String, Produto)}.
+     */
+    private boolean associarPorNome(String nomeCategoria, Produto informado) {
+        if (informado == null) {
+            LOG.info("Produto não pode ser nulo!");
             return false;
         }
 
-        Categoria categoria = buscarCategoria(nomeCategoria);
-        if (categoria == null) {
-            System.out.println(" Categoria '" + nomeCategoria + "' não encontrada!");
-            return false;
+        for (;;) {
+            Categoria categoria = buscarCategoria(nomeCategoria);
+            if (categoria == null) {
+                LOG.info(() -> "Categoria '" + nomeCategoria + "' não encontrada!");
+                return false;
+            }
+
+            Produto produto;
+            try (TravasSubarvore.Travamento trava = travar(categoria)) {
+                if (trava != null && buscarCategoria(nomeCategoria) != categoria) {
+                    continue; // o nome mudou de categoria enquanto a thread esperava as travas
+                }
+                // conferência, registro no diário e cadastro de uma vez, contra outra
+                // thread cadastrando o mesmo código
+                synchronized (travaIndices) {
+                    Produto cadastrado = produtosCadastrados.buscar(informado.getCodigo());
+                    if (cadastrado != null && cadastrado != informado && !cadastrado.mesmosDados(informado)) {
+                        LOG.info(() -> "Já existe outro produto cadastrado com o código '"
+                                + informado.getCodigo() + "'!");
+                        return false;
+                    }
+                    produto = (cadastrado != null) ? cadastrado : informado;
+                    if (diario != null) {
+                        diario.associarProduto(categoria, produto);
+                    }
+                    if (cadastrado == null) {
+                        registrarProduto(produto);
+                        if (eventos != null) {
+                            eventos.publicar(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_CRIADO, produto,
+                                    null));
+                        }
+                    }
+                }
+                boolean novo = !produto.pertenceA(categoria);
+                categoria.adicionarProduto(produto);
+                if (novo) {
+                    indicePrecos.produtoAssociado(categoria, produto);
+                    indiceMarcas.produtoAssociado(categoria, produto);
+                    if (eventos != null) {
+                        eventos.publicar(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_ASSOCIADO, produto,
+                                categoria));
+                    }
+                }
+            }
+            publicarVersao();
+            LOG.fine(() -> "Produto '" + produto.getNome() + "' associado à categoria '" + nomeCategoria + "'");
+            return true;
         }
+    }
 
+    /**
+     * Associa o produto à categoria, cadastrando-o se nenhum produto com o
+     * mesmo código estiver cadastrado. Não registra no diário.
+     *
+     * @param categoria Categoria da árvore
+     * @param produto   Produto cadastrado ou novo
+     */
+    void associar(Categoria categoria, Produto produto) {
+        if (produtoCadastrado(produto.getCodigo()) == null) {
+            registrarProduto(produto);
+        }
         categoria.adicionarProduto(produto);
-        produtosCadastrados.add(produto);
-        System.out.println(" Produto '" + produto.getNome() + "' associado à categoria '" + nomeCategoria + "'");
-        return true;
+    }
+
+    /**
+     * Remove a associação entre um produto e uma categoria.
+     * O produto continua cadastrado no catálogo.
+     *
+     * @param nomeCategoria Nome da categoria de onde o produto será retirado
+     * @param produto       Produto a ser desassociado
+     * @return {@code true} se o produto estava associado à categoria,
+     *         {@code false} caso contrário
+     */
+    public boolean desassociarProduto(String nomeCategoria, Produto produto) {
+        long inicio = metricas.iniciar();
+        boolean desassociado = desassociarPorNome(nomeCategoria, produto);
+        metricas.registrar(MetricasCatalogo.Operacao.DESASSOCIAR_PRODUTO, inicio, desassociado,
+                desassociado ? 1 : 0);
+        return desassociado;
+    }
+
+    /**
+     * Executa {@link #desassociarProduto(String, Produto)}.
+     */
+    private boolean desassociarPorNome(String nomeCategoria, Produto produto) {
+        for (;;) {
+            Categoria categoria = buscarCategoria(nomeCategoria);
+            if (produto == null || categoria == null) {
+                return false;
+            }
+            try (TravasSubarvore.Travamento trava = travar(categoria)) {
+                if (trava != null && buscarCategoria(nomeCategoria) != categoria) {
+                    continue; // o nome mudou de categoria enquanto a thread esperava as travas
+                }
+                if (!produto.pertenceA(categoria)) {
+                    return false;
+                }
+                if (diario != null) {
+                    diario.desassociarProduto(categoria, produto);
+                }
+                categoria.removerProduto(produto);
+                indicePrecos.produtoDesassociado(categoria, produto);
+                indiceMarcas.produtoDesassociado(categoria, produto);
+                if (eventos != null) {
+                    eventos.publicar(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_DESASSOCIADO, produto,
+                            categoria));
+                }
+            }
+            publicarVersao();
+            return true;
+        }
     }
 
     // MÉTODOS DE NAVEGAÇÃO E CONSULTA
+
+    /**
+     * Retorna todos os produtos associados a uma categoria e às suas
+     * subcategorias, em pré-ordem. A consulta é feita por faixa de rótulos
+     * sobre um vetor plano, sem percorrer a subárvore.
+     *
+     * @param nomeCategoria Nome da categoria topo da consulta
+     * @return Lista somente leitura com os produtos, ou lista vazia se a
+     *         categoria não for encontrada
+     */
+    public List<Produto> listarProdutosDaSubarvore(String nomeCategoria) {
+        long inicio = metricas.iniciar();
+        Categoria categoria = buscarCategoria(nomeCategoria);
+        List<Produto> resultado = (categoria != null)
+                ? indiceSubarvore.produtosDaSubarvore(categoria) : Collections.emptyList();
+        metricas.registrar(MetricasCatalogo.Operacao.LISTAR_PRODUTOS_DA_SUBARVORE, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return resultado;
+    }
+
+    /**
+     * Retorna os produtos de uma categoria e de suas subcategorias cujo preço
+     * está entre os limites informados (inclusive), ordenados por preço e sem
+     * repetição.
+     * Consultas repetidas na mesma subárvore custam O(log n + k); associações,
+     * desassociações e mudanças de preço feitas pelo catálogo corrigem o
+     * índice da subárvore sem remontá-lo.
+     *
+     * @param nomeCategoria Nome da categoria topo da consulta
+     * @param precoMinimo   Menor preço aceito
+     * @param precoMaximo   Maior preço aceito
+     * @return Lista somente leitura ordenada por preço (e depois por código),
+     *         ou lista vazia se a categoria não for encontrada
+     */
+    public List<Produto> buscarProdutosPorFaixaDePreco(String nomeCategoria, double precoMinimo,
+            double precoMaximo) {
+        long inicio = metricas.iniciar();
+        Categoria categoria = buscarCategoria(nomeCategoria);
+        List<Produto> resultado = (categoria != null)
+                ? indicePrecos.buscar(categoria, precoMinimo, precoMaximo) : Collections.emptyList();
+        metricas.registrar(MetricasCatalogo.Operacao.BUSCAR_PRODUTOS_POR_FAIXA_DE_PRECO, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return resultado;
+    }
+
+    /**
+     * Conta os produtos de uma categoria e de suas subcategorias por marca,
+     * para navegação por facetas. Um produto presente em mais de uma
+     * categoria da subárvore é contado uma vez; produtos sem marca não são
+     * contados, e o mapa nunca tem chave {@code null}.
+     *
+     * @param nomeCategoria Nome da categoria topo da consulta
+     * @return Mapa marca para quantidade, da marca mais frequente para a menos
+     *         frequente, ou mapa vazio se a categoria não for encontrada
+     */
+    public Map<String, Integer> contarProdutosPorMarca(String nomeCategoria) {
+        long inicio = metricas.iniciar();
+        Categoria categoria = buscarCategoria(nomeCategoria);
+        Map<String, Integer> resultado = (categoria != null)
+                ? indiceMarcas.contarPorMarca(categoria) : Collections.emptyMap();
+        metricas.registrar(MetricasCatalogo.Operacao.CONTAR_PRODUTOS_POR_MARCA, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return resultado;
+    }
+
+    /**
+     * Retorna os produtos de uma categoria e de suas subcategorias que são
+     * da marca informada, sem repetição.
+     *
+     * @param nomeCategoria Nome da categoria topo da consulta
+     * @param marca         Marca procurada (comparação exata)
+     * @return Lista de produtos na ordem de cadastro, ou lista vazia se a
+     *         categoria não for encontrada ou a marca for {@code null}
+     */
+    public List<Produto> listarProdutosPorMarca(String nomeCategoria, String marca) {
+        long inicio = metricas.iniciar();
+        Categoria categoria = buscarCategoria(nomeCategoria);
+        List<Produto> resultado = (categoria != null)
+                ? indiceMarcas.listarPorMarca(categoria, marca) : Collections.emptyList();
+        metricas.registrar(MetricasCatalogo.Operacao.LISTAR_PRODUTOS_POR_MARCA, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return resultado;
+    }
+
+    /**
+     * Sugere categorias e produtos cujo nome (ou uma das palavras do nome)
+     * começa pelo texto digitado, ignorando maiúsculas e acentos.
+     *
+     * @param texto  Texto digitado pelo usuário
+     * @param limite Quantidade máxima de sugestões
+     * @return Sugestões ordenadas: categorias antes de produtos, nomes que
+     *         começam pelo texto e nomes mais curtos primeiro
+     */
+    public List<Sugestao> autocompletar(String texto, int limite) {
+        return autocompletar(texto, limite, 0);
+    }
+
+    /**
+     * Sugere categorias e produtos tolerando erros de digitação (letras
+     * trocadas, faltando ou sobrando). Sugestões com menos erros vêm antes.
+     *
+     * @param texto       Texto digitado pelo usuário
+     * @param limite      Quantidade máxima de sugestões
+     * @param maximoErros Erros aceitos, de 0 a 2; textos curtos aceitam
+     *                    menos (um erro a cada quatro letras)
+     * @return Sugestões ordenadas por erros e depois por relevância
+     * @throws IllegalArgumentException se {@code maximoErros} estiver fora
+     *                                  do intervalo aceito
+     */
+    public List<Sugestao> autocompletar(String texto, int limite, int maximoErros) {
+        if (maximoErros < 0 || maximoErros > IndiceAutocompletar.MAXIMO_ERROS) {
+            throw new IllegalArgumentException("maximoErros deve estar entre 0 e "
+                    + IndiceAutocompletar.MAXIMO_ERROS + ": " + maximoErros);
+        }
+        long inicio = metricas.iniciar();
+        if (indiceAutocompletar.isDesatualizado()) {
+            reconstruirAutocompletar();
+        }
+        List<Sugestao> sugestoes = indiceAutocompletar.sugerir(texto, limite, maximoErros);
+        metricas.registrar(MetricasCatalogo.Operacao.AUTOCOMPLETAR, inicio, !sugestoes.isEmpty(), 0);
+        return sugestoes;
+    }
+
     /**
      * Retorna o caminho completo de uma categoria na árvore.
-     * O caminho é montado da raiz até a categoria, separando os nomes por " > ".
+     * O caminho é montado da raiz até a categoria, separando os nomes por " > ",
+     * e fica em cache até que a categoria ou uma ancestral seja renomeada ou
+     * movida.
      *
      * @param nomeCategoria Nome da categoria cujo caminho será buscado
      * @return String com o caminho completo ou mensagem indicando que não foi
@@ -190,69 +870,109 @@ public class CatalogoControll {
      */
 
     public String buscarCaminhoCompleto(String nomeCategoria) {
+        long inicio = metricas.iniciar();
         Categoria categoria = buscarCategoria(nomeCategoria);
         String caminho;
 
         if (categoria == null) {
             caminho = "Categoria (" + nomeCategoria + ") não encontrada";
         } else {
-            caminho = "Caminho completo: " + buscarCaminhoRec(categoria);
+            caminho = "Caminho completo: " + cacheNavegacao.caminho(categoria);
         }
 
+        metricas.registrar(MetricasCatalogo.Operacao.BUSCAR_CAMINHO_COMPLETO, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
         return caminho;
     }
 
     /**
-     * Método auxiliar recursivo que constrói o caminho da raiz até
-     * a categoria informada.
+     * Retorna as rotas de navegação que passam por uma categoria: o caminho
+     * da raiz até cada folha da subárvore dela (ou até ela, se for folha),
+     * com os nomes separados por " > ", em pré-ordem. As rotas ficam em
+     * cache até que uma categoria da subárvore ou do caminho até a raiz seja
+     * renomeada, criada, movida ou removida.
      *
-     * @param categoria Categoria atual no percurso da recursão
-     * @return Caminho da raiz até a categoria atual
+     * @param nomeCategoria Nome da categoria topo da consulta
+     * @return Lista somente leitura das rotas, ou lista vazia se a categoria
+     *         não for encontrada
      */
-    private String buscarCaminhoRec(Categoria categoria) {
-        if (categoria.getPai() == null) {
-            return categoria.getNome();
-        }
-        return buscarCaminhoRec(categoria.getPai()) + " > " + categoria.getNome();
+    public List<String> listarRotasDaSubarvore(String nomeCategoria) {
+        long inicio = metricas.iniciar();
+        Categoria categoria = buscarCategoria(nomeCategoria);
+        List<String> rotas = (categoria != null) ? cacheNavegacao.rotas(categoria) : Collections.emptyList();
+        metricas.registrar(MetricasCatalogo.Operacao.LISTAR_ROTAS_DA_SUBARVORE, inicio, categoria != null,
+                (categoria != null) ? 1 : 0);
+        return rotas;
     }
 
     /**
      * Método principal para iniciar a listagem da árvore hierárquica.
-     * Chama o método recursivo a partir da raiz.
+     * A árvore é escrita no console em blocos, pelo {@link RenderizadorArvore},
+     * montados em paralelo se o percurso paralelo estiver ativo.
      */
     public void listarArvore() {
+        long inicio = metricas.iniciar();
         if (raiz == null) {
             System.out.println("\n[AVISO] O catálogo está vazio (sem categorias).");
+            metricas.registrar(MetricasCatalogo.Operacao.LISTAR_ARVORE, inicio, false, 0);
             return;
         }
         System.out.println("\n=== LISTAGEM DA ÁRVORE HIERÁRQUICA E PRODUTOS ===");
-        exibirArvoreRecursivo(raiz);
+        try {
+            renderizar(new RenderizadorArvore(RenderizadorArvore.Formato.TEXTO), System.out);
+        } catch (IOException e) {
+            // PrintStream não lança IOException; mantido apenas pela assinatura
+            throw new UncheckedIOException(e);
+        }
         System.out.println("=================================================");
+        metricas.registrar(MetricasCatalogo.Operacao.LISTAR_ARVORE, inicio, true, tamanhoArvore());
     }
 
     /**
-     * Método auxiliar recursivo para percorrer e imprimir a árvore.
-     * Exibe a categoria, percorre as subcategorias e depois lista os produtos
-     * associados.
-     * * @param atual A categoria sendo visitada no momento.
+     * Exporta a árvore completa, com os produtos, para o destino informado.
+     * Não escreve cabeçalho nem rodapé; um catálogo vazio não gera linhas.
+     * Com o percurso paralelo ativo, as linhas são montadas em paralelo e
+     * escritas na mesma ordem.
+     *
+     * @param destino Destino do texto (por exemplo, um {@link java.io.Writer})
+     * @param formato Formato das linhas: texto hierárquico ou JSON por linha
+     * @throws IOException se o destino falhar ao receber o texto
      */
-    private void exibirArvoreRecursivo(Categoria atual) {
-        String indentacao = "    ".repeat(atual.getNivel());
-        String prefixo = (atual.getNivel() == 0) ? "[Raiz] " : "|-- ";
-        System.out
-                .println(indentacao + prefixo + "Categoria: " + atual.getNome() + " (Cód: " + atual.getCodigo() + ")");
-        for (Categoria filho : atual.getFilhos()) {
-            exibirArvoreRecursivo(filho);
+    public void exportarArvore(Appendable destino, RenderizadorArvore.Formato formato) throws IOException {
+        long inicio = metricas.iniciar();
+        boolean exportada = false;
+        try {
+            renderizar(new RenderizadorArvore(formato), destino);
+            exportada = true;
+        } finally {
+            // uma falha do destino conta como falha da operação
+            metricas.registrar(MetricasCatalogo.Operacao.EXPORTAR_ARVORE, inicio, exportada,
+                    exportada ? tamanhoArvore() : 0);
         }
-        if (!atual.getProdutos().isEmpty()) {
-            for (Produto p : atual.getProdutos()) {
-                System.out.println(indentacao + "    " + "-> [Produto] " + p.getNome()
-                        + " | R$ " + String.format("%.2f", p.getPreco())
-                        + " | Marca: " + p.getMarca());
-            }
+    }
+
+    /**
+     * Escreve a árvore inteira com o renderizador, no pool do percurso
+     * paralelo, se houver.
+     */
+    private void renderizar(RenderizadorArvore renderizador, Appendable destino) throws IOException {
+        ForkJoinPool pool = poolPercurso;
+        if (pool != null) {
+            renderizador.renderizar(raiz, destino, pool);
+        } else {
+            renderizador.renderizar(raiz, destino);
         }
     }
 
+    /**
+     * Retorna a quantidade de categorias do catálogo, visitadas pelas
+     * operações que percorrem a árvore inteira.
+     */
+    private int tamanhoArvore() {
+        Categoria atual = raiz;
+        return (atual != null) ? atual.getTamanhoSubarvore() : 0;
+    }
+
     /**
      * Remove uma categoria e toda sua subárvore.
      * 
@@ -260,66 +980,1045 @@ public class CatalogoControll {
      * @return true se removeu com sucesso, false se não encontrou ou erro.
      */
     public boolean removerCategoria(String nome) {
-        // Passo 1: Chama buscarCategoria para encontrar o alvo
-        Categoria alvo = buscarCategoria(nome);
-
-        // Validação: Se não encontrou a categoria
-        if (alvo == null) {
-            System.out.println("Erro: Categoria '" + nome + "' não encontrada.");
-            return false;
-        }
+        long inicio = metricas.iniciar();
+        Categoria removida = removerPorNome(nome);
+        // a subárvore removida inteira sai dos índices
+        metricas.registrar(MetricasCatalogo.Operacao.REMOVER_CATEGORIA, inicio, removida != null,
+                (removida != null) ? removida.getTamanhoSubarvore() : 0);
+        return removida != null;
+    }
 
-        // Validação: Não podemos remover a Raiz principal do sistema
-        if (alvo == this.raiz) {
-            System.out.println("Erro: Não é possível remover a categoria Raiz.");
-            return false;
-        }
+    /**
+     * Executa {@link #removerCategoria(String)}.
+     *
+     * @return Categoria removida, ou {@code null} se nada foi removido
+     */
+    @SuppressWarnings("try")
+    private Categoria removerPorNome(String nome) {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            // Passo 1: Chama buscarCategoria para encontrar o alvo
+            Categoria alvo = buscarCategoria(nome);
 
-        // Passo 2: Se a categoria não for a raiz, chama o método removerFilho() no
-        // objeto Pai
-        Categoria pai = alvo.getPai();
-        if (pai != null) {
-            pai.removerFilho(alvo);
-            System.out.println("Categoria '" + nome + "' removida com sucesso.");
-            return true;
+            // Validação: Se não encontrou a categoria
+            if (alvo == null) {
+                LOG.info(() -> "Erro: Categoria '" + nome + "' não encontrada.");
+                return null;
+            }
+
+            // Validação: Não podemos remover a Raiz principal do sistema
+            if (alvo == this.raiz) {
+                LOG.info("Erro: Não é possível remover a categoria Raiz.");
+                return null;
+            }
+
+            // Passo 2: Se a categoria não for a raiz, chama o método removerFilho() no
+            // objeto Pai
+            Categoria pai = alvo.getPai();
+            if (pai != null) {
+                if (diario != null) {
+                    diario.removerCategoria(alvo);
+                }
+                // o caminho é lido antes de a categoria sair da árvore
+                EventoCatalogo removida = (eventos != null)
+                        ? EventoCatalogo.categoria(EventoCatalogo.Tipo.CATEGORIA_REMOVIDA, alvo, null) : null;
+                retirar(alvo);
+                if (removida != null) {
+                    eventos.publicar(removida);
+                }
+                publicarVersao();
+                LOG.fine(() -> "Categoria '" + nome + "' removida com sucesso.");
+                return alvo;
+            }
+
+            return null;
         }
+    }
 
-        return false;
+    /**
+     * Retira da árvore e dos índices uma categoria que não é a raiz, com
+     * toda a sua subárvore. Não registra no diário.
+     *
+     * @param alvo Categoria com pai
+     */
+    void retirar(Categoria alvo) {
+        cacheNavegacao.invalidarSubarvore(alvo);
+        Categoria paiAnterior = alvo.getPai();
+        paiAnterior.removerFilho(alvo);
+        indiceMarcas.categoriaMovida(alvo, paiAnterior);
+        desindexarSubarvore(alvo);
     }
 
     /**
      * Implementa o requisito: Geração da Árvore de Navegação (Folhas).
-     * Busca todos os caminhos que terminam em um nó folha.
+     * Busca todos os caminhos que terminam em um nó folha. Com o percurso
+     * paralelo ativo, as rotas são montadas em paralelo, por trechos da
+     * árvore, e escritas na mesma ordem.
      */
     public void gerarArvoresDeNavegacao() {
+        long inicio = metricas.iniciar();
         // Verifica se a árvore está vazia (raiz é null)
         if (this.raiz == null) {
             System.out.println("\n[AVISO] O catálogo está vazio. Nenhuma rota de navegação disponível.");
+            metricas.registrar(MetricasCatalogo.Operacao.GERAR_ARVORES_DE_NAVEGACAO, inicio, false, 0);
             return;
         }
 
         System.out.println("\n=== Árvore de Navegação (Rotas Finais) ===");
-        // 1. Fazer uma travessia (recursiva) na árvore.
-        percorrerParaGerarNavegacao(this.raiz);
+        ForkJoinPool pool = poolPercurso;
+        if (pool != null && PercursoParalelo.peso(raiz) >= 2L * PercursoParalelo.GRAO_MINIMO) {
+            List<PercursoParalelo.Trecho> trechos = PercursoParalelo.particionar(raiz,
+                    PercursoParalelo.grao(raiz, pool.getParallelism()));
+            PercursoParalelo.processarEmOrdem(pool, trechos, this::montarRotas, System.out::print);
+        } else {
+            // 1. Percorrer a árvore uma única vez, montando cada rota a partir do pai.
+            Iterator<String> rotas = iteradorRotas();
+            while (rotas.hasNext()) {
+                System.out.println("Rota: Caminho completo: " + rotas.next());
+            }
+        }
         System.out.println("==========================================");
+        metricas.registrar(MetricasCatalogo.Operacao.GERAR_ARVORES_DE_NAVEGACAO, inicio, true, tamanhoArvore());
     }
 
     /**
-     * Método auxiliar recursivo para percorrer a árvore.
-     * 
-     * @param atual A categoria sendo analisada no momento.
+     * Monta as linhas de {@link #gerarArvoresDeNavegacao()} para as folhas
+     * de um trecho da árvore: as das subárvores do trecho e a de cada
+     * categoria de entrada que for folha (com muitos produtos). O caminho
+     * até o pai de cada subárvore vem do cache de navegação.
+     *
+     * @param trecho Trecho da árvore
+     * @return Linhas das rotas, na ordem da árvore
+     */
+    private StringBuilder montarRotas(PercursoParalelo.Trecho trecho) {
+        StringBuilder linhas = new StringBuilder();
+        Categoria paiAnterior = null;
+        String prefixo = "";
+        for (int i = 0; i < trecho.categorias.size(); i++) {
+            Categoria categoria = trecho.categorias.get(i);
+            PercursoParalelo.Trecho.Tipo tipo = trecho.tipos.get(i);
+            if (tipo == PercursoParalelo.Trecho.Tipo.ENTRADA && categoria.isFolha()) {
+                linhas.append("Rota: Caminho completo: ").append(cacheNavegacao.caminho(categoria))
+                        .append(System.lineSeparator());
+            } else if (tipo == PercursoParalelo.Trecho.Tipo.SUBARVORE) {
+                Categoria pai = categoria.getPai();
+                if (pai != paiAnterior) {
+                    prefixo = (pai != null) ? cacheNavegacao.caminho(pai) + " > " : "";
+                    paiAnterior = pai;
+                }
+                for (List<Categoria> rota : PercursoArvore.rotasAteFolhas(categoria)) {
+                    linhas.append("Rota: Caminho completo: ").append(prefixo).append(formatarRota(rota))
+                            .append(System.lineSeparator());
+                }
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Gera, de forma preguiçosa, as rotas de navegação do catálogo: uma lista
+     * de categorias da raiz até cada folha, em pré-ordem. As rotas são
+     * produzidas conforme o stream é consumido, sem mantê-las todas em memória,
+     * e categorias com o mesmo nome não interferem umas nas outras.
+     *
+     * @return Stream ordenado das rotas (vazio se o catálogo não tiver raiz)
+     */
+    public Stream<List<Categoria>> rotasDeNavegacao() {
+        Iterator<List<Categoria>> rotas = PercursoArvore.rotasAteFolhas(raiz).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rotas,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Gera, de forma preguiçosa, as rotas de navegação do catálogo como texto,
+     * com os nomes das categorias separados por {@code " > "}.
+     *
+     * @return Iterador das rotas, da primeira à última folha em pré-ordem
+     */
+    public Iterator<String> iteradorRotas() {
+        Iterator<List<Categoria>> rotas = PercursoArvore.rotasAteFolhas(raiz).iterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return rotas.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return formatarRota(rotas.next());
+            }
+        };
+    }
+
+    /**
+     * Converte uma rota em texto, com os nomes separados por {@code " > "}.
+     *
+     * @param rota Categorias da raiz até a folha
+     * @return Rota formatada
+     */
+    private static String formatarRota(List<Categoria> rota) {
+        StringBuilder texto = new StringBuilder();
+        for (Categoria categoria : rota) {
+            if (texto.length() > 0) {
+                texto.append(" > ");
+            }
+            texto.append(categoria.getNome());
+        }
+        return texto.toString();
+    }
+
+    // IMPORTAÇÃO EM LOTE
+
+    /**
+     * Importa categorias e produtos de arquivos CSV ou JSONL, escolhidos pela
+     * extensão ({@code .csv}, {@code .jsonl} ou {@code .ndjson}). Os arquivos
+     * são lidos em paralelo e a árvore nova é montada fora do catálogo, sem
+     * as buscas e atualizações de ancestrais que cada chamada de
+     * {@link #definirSubcategoria(String, String)} faria.
+     *
+     * Categorias têm {@code codigo}, {@code nome}, {@code descricao} e
+     * {@code pai} (código da categoria pai, do arquivo ou já existente; vazio
+     * para categorias de nível 0). Produtos têm {@code codigo}, {@code nome},
+     * {@code preco}, {@code marca} e {@code categorias} (códigos separados
+     * por {@code |} no CSV, ou uma lista no JSONL); um produto já cadastrado
+     * só recebe as associações novas, e um produto novo cujas categorias
+     * informadas não existem não é cadastrado. Linhas inválidas são
+     * ignoradas e listadas no relatório com o número da linha, em ordem.
+     *
+     * Com um diário aberto, o catálogo resultante é gravado como novo ponto
+     * de partida do diário, em vez de uma entrada por linha importada.
+     *
+     * @param arquivoCategorias Arquivo de categorias, ou {@code null}
+     * @param arquivoProdutos   Arquivo de produtos, ou {@code null}
+     * @return Relatório com as quantidades importadas e os erros por linha
+     * @throws IOException se um arquivo não puder ser lido ou não tiver as
+     *                     colunas obrigatórias; nesse caso o catálogo não é
+     *                     alterado
+     * @throws IllegalArgumentException se a extensão de um arquivo não for
+     *                                  reconhecida
      */
-    private void percorrerParaGerarNavegacao(Categoria atual) {
-        if (atual.isFolha()) {
-            String caminho = buscarCaminhoCompleto(atual.getNome());
-            System.out.println("Rota: " + caminho);
+    @SuppressWarnings("try")
+    public RelatorioImportacao importar(Path arquivoCategorias, Path arquivoProdutos) throws IOException {
+        long inicio = metricas.iniciar();
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            // o autocompletar é refeito de uma vez na próxima consulta, não nome a nome
+            indiceAutocompletar.invalidar();
+            RelatorioImportacao relatorio;
+            try {
+                relatorio = new ImportadorCatalogo(this).importar(arquivoCategorias, arquivoProdutos);
+            } catch (IOException | RuntimeException e) {
+                metricas.registrar(MetricasCatalogo.Operacao.IMPORTAR, inicio, false, 0);
+                throw e;
+            }
+            publicarVersao();
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.recarregado());
+            }
+            if (diario != null) {
+                diario.consolidar(this);
+            }
+            // linhas recusadas contam como falha; as categorias importadas são as montadas e indexadas
+            metricas.registrar(MetricasCatalogo.Operacao.IMPORTAR, inicio, relatorio.getQuantidadeErros() == 0,
+                    relatorio.getCategoriasImportadas());
+            return relatorio;
+        }
+    }
+
+    /**
+     * Anexa ao catálogo uma subárvore montada pela importação, com tamanhos e
+     * resumos já somados, e indexa suas categorias.
+     *
+     * @param pai  Categoria existente que recebe a subárvore, ou {@code null}
+     *             para anexá-la à raiz (ou torná-la a raiz, se o catálogo
+     *             estiver vazio)
+     * @param topo Raiz da subárvore importada
+     */
+    void anexarImportada(Categoria pai, Categoria topo) {
+        if (pai != null) {
+            pai.adicionarFilho(topo);
+        } else if (raiz == null) {
+            RotulosIntervalo.tornarRaiz(topo);
+            raiz = topo;
         } else {
-            List<Categoria> filhos = atual.getFilhos();
-            if (filhos != null) {
-                for (Categoria filho : filhos) {
-                    percorrerParaGerarNavegacao(filho);
+            raiz.adicionarFilho(topo);
+        }
+        for (Categoria atual : PercursoArvore.preOrdem(topo)) {
+            indexarCategoria(atual);
+        }
+        if (topo.getPai() != null) {
+            cacheNavegacao.invalidarRotas(topo.getPai());
+        }
+    }
+
+    // ALTERAÇÕES EM LOTE
+
+    /**
+     * Aplica as alterações do lote de uma vez: ou todas entram no catálogo,
+     * ou nenhuma.
+     *
+     * Antes de alterar qualquer coisa, o lote inteiro é validado em ordem
+     * (ver {@link SimulacaoLote}): categorias e pais não encontrados,
+     * ciclos, remoção da raiz, códigos de categoria repetidos (no catálogo
+     * ou no próprio lote), produtos com o código de outro já cadastrado e
+     * desassociações de produtos que não estão na categoria. Se alguma
+     * alteração for recusada, o catálogo não é alterado e o resultado traz o
+     * motivo de cada recusa.
+     *
+     * As alterações válidas são aplicadas com o catálogo inteiro travado,
+     * sem buscas por nome nem mensagens por alteração. As associações somam
+     * o produto só ao resumo da categoria, e os resumos das ancestrais são
+     * atualizados de uma vez, nível a nível (ver {@link ResumosPendentes}),
+     * antes da próxima alteração que mova, remova ou desassocie algo e ao
+     * fim do lote. A versão é publicada
+     * e as métricas são registradas uma vez só, e o cache de navegação é
+     * descartado uma vez se a árvore mudou. Com um diário aberto, o lote é
+     * gravado como um único registro, reaplicado inteiro ou descartado
+     * inteiro na reabertura. Com o fluxo de eventos ativo, os eventos do lote
+     * são publicados juntos, com sequências seguidas, só depois de todas as
+     * alterações aplicadas.
+     *
+     * Se a aplicação falhar no meio (por exemplo, com o diário indisponível),
+     * as alterações já feitas são desfeitas na ordem inversa, nas mesmas
+     * posições entre irmãs e entre os produtos, e a exceção é relançada.
+     * Produtos cadastrados pelo lote continuam cadastrados e, com nomes ou
+     * códigos repetidos, a busca pode passar a encontrar outra homônima.
+     *
+     * @param lote Alterações a aplicar
+     * @return Situação de cada alteração do lote
+     */
+    @SuppressWarnings("try")
+    public ResultadoLote aplicarLote(LoteCatalogo lote) {
+        long inicio = metricas.iniciar();
+        ResultadoLote resultado = new ResultadoLote(lote.tamanho());
+        List<SimulacaoLote.Passo> passos;
+        boolean estrutura;
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            SimulacaoLote simulacao = new SimulacaoLote(this);
+            passos = simulacao.simular(lote, resultado);
+            if (resultado.getQuantidadeRecusadas() > 0) {
+                LOG.info(() -> "Lote de " + lote.tamanho() + " alterações recusado: "
+                        + resultado.getQuantidadeRecusadas() + " inválidas (a primeira, "
+                        + resultado.getErros().get(0) + ")");
+                metricas.registrar(MetricasCatalogo.Operacao.APLICAR_LOTE, inicio, false, 0);
+                return resultado;
+            }
+            if (simulacao.getCategoriasCriadasOuRemovidas() >= MINIMO_LOTE_AUTOCOMPLETAR) {
+                indiceAutocompletar.invalidar();
+            }
+            estrutura = aplicarPassos(passos);
+            resultado.aplicado();
+            if (estrutura) {
+                cacheNavegacao.limpar();
+            }
+            publicarVersao();
+        }
+        LOG.fine(() -> "Lote de " + lote.tamanho() + " alterações aplicado");
+        metricas.registrar(MetricasCatalogo.Operacao.APLICAR_LOTE, inicio, true, passos.size());
+        return resultado;
+    }
+
+    /**
+     * Aplica os passos validados em ordem, registrando cada um no lote do
+     * diário antes de aplicá-lo. Se um passo falhar, desfaz os anteriores.
+     *
+     * @return {@code true} se algum passo criou, moveu ou removeu categorias
+     */
+    private boolean aplicarPassos(List<SimulacaoLote.Passo> passos) {
+        if (diario != null) {
+            diario.iniciarLote();
+        }
+        ResumosPendentes pendentes = new ResumosPendentes();
+        List<EventoCatalogo> novosEventos = (eventos != null) ? new ArrayList<>(passos.size()) : null;
+        int aplicados = 0;
+        boolean estrutura = false;
+        try {
+            for (SimulacaoLote.Passo passo : passos) {
+                aplicarPasso(passo, pendentes, novosEventos);
+                aplicados++;
+                estrutura |= passo.tipo != LoteCatalogo.Tipo.ASSOCIAR_PRODUTO
+                        && passo.tipo != LoteCatalogo.Tipo.DESASSOCIAR_PRODUTO;
+            }
+            pendentes.propagar();
+            if (diario != null) {
+                diario.confirmarLote();
+            }
+            if (novosEventos != null) {
+                eventos.publicar(novosEventos);
+            }
+            return estrutura;
+        } catch (RuntimeException | Error e) {
+            if (diario != null) {
+                diario.descartarLote();
+            }
+            pendentes.propagar();
+            for (int i = aplicados - 1; i >= 0; i--) {
+                desfazerPasso(passos.get(i));
+            }
+            if (aplicados > 0) {
+                cacheNavegacao.limpar();
+                publicarVersao();
+            }
+            int desfeitos = aplicados;
+            LOG.info(() -> "Lote de " + passos.size() + " alterações desfeito depois de " + desfeitos
+                    + " aplicadas: " + e);
+            throw e;
+        }
+    }
+
+    /**
+     * Aplica um passo validado.
+     *
+     * @param novosEventos Lista onde os eventos do passo são acrescentados,
+     *                     ou {@code null} se o fluxo de eventos não estiver
+     *                     ativo
+     */
+    private void aplicarPasso(SimulacaoLote.Passo passo, ResumosPendentes pendentes,
+            List<EventoCatalogo> novosEventos) {
+        Categoria categoria = passo.categoria;
+        boolean soCriaOuAssocia = passo.tipo == LoteCatalogo.Tipo.ASSOCIAR_PRODUTO || passo.criada;
+        if (!soCriaOuAssocia) {
+            // mover, remover e desassociar leem os resumos das ancestrais
+            pendentes.propagar();
+        }
+        switch (passo.tipo) {
+            case INSERIR_CATEGORIA:
+                if (diario != null) {
+                    diario.inserirCategoria(categoria.getNome(), categoria.getCodigo(), categoria.getDescricao());
+                }
+                if (raiz == null) {
+                    raiz = categoria;
+                } else {
+                    raiz.adicionarFilho(categoria);
+                }
+                indexarCategoria(categoria);
+                if (novosEventos != null) {
+                    novosEventos.add(EventoCatalogo.categoria(EventoCatalogo.Tipo.CATEGORIA_CRIADA, categoria, null));
+                }
+                break;
+            case DEFINIR_SUBCATEGORIA:
+                if (diario != null) {
+                    diario.definirSubcategoria(passo.pai, passo.criada ? null : categoria, categoria.getNome());
+                }
+                passo.paiAnterior = categoria.getPai();
+                passo.posicaoAnterior = categoria.posicaoEntreIrmas();
+                List<String> caminhoAnterior = (novosEventos != null && !passo.criada)
+                        ? EventoCatalogo.caminho(categoria) : null;
+                passo.pai.adicionarFilho(categoria);
+                if (passo.criada) {
+                    indexarCategoria(categoria);
+                }
+                if (novosEventos != null) {
+                    novosEventos.add(EventoCatalogo.categoria(passo.criada ? EventoCatalogo.Tipo.CATEGORIA_CRIADA
+                            : EventoCatalogo.Tipo.CATEGORIA_MOVIDA, categoria, caminhoAnterior));
+                }
+                break;
+            case ASSOCIAR_PRODUTO:
+                if (diario != null) {
+                    diario.associarProduto(categoria, passo.produto);
+                }
+                if (passo.criada) {
+                    registrarProduto(passo.produto);
+                    if (novosEventos != null) {
+                        novosEventos.add(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_CRIADO, passo.produto,
+                                null));
+                    }
+                }
+                passo.semEfeito = !pendentes.associar(categoria, passo.produto);
+                if (novosEventos != null && !passo.semEfeito) {
+                    novosEventos.add(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_ASSOCIADO, passo.produto,
+                            categoria));
+                }
+                break;
+            case DESASSOCIAR_PRODUTO:
+                if (diario != null) {
+                    diario.desassociarProduto(categoria, passo.produto);
+                }
+                passo.posicaoAnterior = categoria.posicaoDoProduto(passo.produto);
+                categoria.removerProduto(passo.produto);
+                if (novosEventos != null) {
+                    novosEventos.add(EventoCatalogo.produto(EventoCatalogo.Tipo.PRODUTO_DESASSOCIADO, passo.produto,
+                            categoria));
+                }
+                break;
+            default:
+                if (diario != null) {
+                    diario.removerCategoria(categoria);
+                }
+                if (novosEventos != null) {
+                    novosEventos.add(EventoCatalogo.categoria(EventoCatalogo.Tipo.CATEGORIA_REMOVIDA, categoria, null));
+                }
+                passo.paiAnterior = categoria.getPai();
+                passo.posicaoAnterior = categoria.posicaoEntreIrmas();
+                passo.paiAnterior.removerFilho(categoria);
+                desindexarSubarvore(categoria);
+                break;
+        }
+    }
+
+    /**
+     * Desfaz um passo já aplicado, depois de desfeitos todos os seguintes.
+     */
+    private void desfazerPasso(SimulacaoLote.Passo passo) {
+        Categoria categoria = passo.categoria;
+        switch (passo.tipo) {
+            case INSERIR_CATEGORIA:
+                if (categoria == raiz) {
+                    raiz = null;
+                } else {
+                    raiz.removerFilho(categoria);
+                }
+                desindexarSubarvore(categoria);
+                break;
+            case DEFINIR_SUBCATEGORIA:
+                passo.pai.removerFilho(categoria);
+                if (passo.criada) {
+                    desindexarSubarvore(categoria);
+                } else {
+                    passo.paiAnterior.reinserirFilho(passo.posicaoAnterior, categoria);
+                }
+                break;
+            case ASSOCIAR_PRODUTO:
+                if (!passo.semEfeito) {
+                    categoria.removerProduto(passo.produto);
+                }
+                break;
+            case DESASSOCIAR_PRODUTO:
+                categoria.reinserirProduto(passo.posicaoAnterior, passo.produto);
+                break;
+            default:
+                passo.paiAnterior.reinserirFilho(passo.posicaoAnterior, categoria);
+                synchronized (travaIndices) {
+                    for (Categoria atual : PercursoArvore.preOrdem(categoria)) {
+                        indexarCategoria(atual);
+                        for (Produto produto : atual.getProdutos()) {
+                            produto.adicionarCategoria(atual);
+                        }
+                    }
                 }
+                break;
+        }
+    }
+
+    // PERSISTÊNCIA
+
+    /**
+     * Grava o catálogo inteiro (árvore, produtos cadastrados e associações)
+     * em um snapshot binário. O arquivo é substituído de uma vez, sem deixar
+     * versão parcial em caso de falha.
+     *
+     * @param arquivo Caminho do arquivo de snapshot
+     * @throws IOException se a gravação falhar
+     */
+    @SuppressWarnings("try")
+    public void salvarSnapshot(Path arquivo) throws IOException {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            SnapshotCatalogo.salvar(raiz, produtosCadastrados.todos(), arquivo);
+        }
+    }
+
+    /**
+     * Substitui o conteúdo do catálogo pelo de um snapshot gravado com
+     * {@link #salvarSnapshot(Path)}. O arquivo é mapeado em memória e só as
+     * categorias são criadas na carga; cada produto é lido do arquivo quando
+     * for usado pela primeira vez. Com um diário aberto, o conteúdo carregado
+     * vira o novo ponto de partida do diário.
+     *
+     * @param arquivo Caminho do arquivo de snapshot
+     * @throws IOException se o arquivo não puder ser lido ou for inválido;
+     *                     nesse caso o catálogo atual não é alterado
+     */
+    @SuppressWarnings("try")
+    public void carregarSnapshot(Path arquivo) throws IOException {
+        SnapshotCatalogo snapshot = SnapshotCatalogo.abrir(arquivo);
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (raiz != null) {
+                desindexarSubarvore(raiz);
+            }
+            synchronized (travaIndices) {
+                produtosCadastrados.carregar(snapshot);
+                indiceMarcas.limpar();
+            }
+            indicePrecos.limpar();
+            raiz = snapshot.montarArvore(observador);
+            reindexarArvore();
+            republicarVersao();
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.recarregado());
+            }
+            if (diario != null) {
+                diario.consolidar(this);
+            }
+        }
+    }
+
+    /**
+     * Passa a registrar as alterações do catálogo em um diário na pasta
+     * informada, com o limite de compactação padrão (64 MB por segmento).
+     *
+     * @param diretorio Pasta do diário e dos snapshots
+     * @throws IOException se a pasta não puder ser lida ou estiver inconsistente
+     * @see #abrirDiario(Path, long)
+     */
+    public void abrirDiario(Path diretorio) throws IOException {
+        abrirDiario(diretorio, DiarioCatalogo.LIMITE_COMPACTACAO_PADRAO);
+    }
+
+    /**
+     * Passa a registrar as alterações do catálogo em um diário na pasta
+     * informada. Se a pasta já tiver um diário, o catálogo é recuperado dele
+     * (último snapshot mais as alterações seguintes), descartando o conteúdo
+     * atual; se estiver vazia, o conteúdo atual é gravado como ponto de
+     * partida.
+     *
+     * Cada inserção, associação, remoção e alteração por setter é registrada
+     * e sincronizada com o disco em lote, a cada poucos milissegundos; use
+     * {@link #sincronizarDiario()} para esperar a sincronização. Quando o
+     * diário passa de {@code limiteCompactacao} bytes, ele é compactado em um
+     * snapshot novo em segundo plano.
+     *
+     * @param diretorio         Pasta do diário e dos snapshots
+     * @param limiteCompactacao Tamanho, em bytes, que dispara a compactação
+     * @throws IOException se a pasta não puder ser lida ou estiver inconsistente
+     * @throws IllegalStateException se já houver um diário aberto
+     */
+    @SuppressWarnings("try")
+    public void abrirDiario(Path diretorio, long limiteCompactacao) throws IOException {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (diario != null) {
+                throw new IllegalStateException("O catálogo já está usando um diário");
+            }
+            // a recuperação carrega um snapshot e reaplica alterações: um único
+            // evento de recarga no lugar dos eventos de cada uma
+            FluxoEventos fluxo = eventos;
+            Categoria raizAnterior = raiz;
+            eventos = null;
+            try {
+                diario = DiarioCatalogo.abrir(diretorio, limiteCompactacao, this);
+            } finally {
+                eventos = fluxo;
+            }
+            if (fluxo != null && raiz != raizAnterior) {
+                fluxo.publicar(EventoCatalogo.recarregado());
+            }
+            publicarVersao();
+        }
+    }
+
+    /**
+     * Garante que todas as alterações feitas até agora estão gravadas no
+     * disco. Não faz nada se não houver diário aberto.
+     *
+     * @throws IOException se a gravação do diário falhar
+     */
+    public void sincronizarDiario() throws IOException {
+        if (diario != null) {
+            diario.sincronizar();
+        }
+    }
+
+    /**
+     * Sincroniza e fecha o diário, esperando a compactação em andamento.
+     * Depois disso o catálogo continua utilizável, sem registrar alterações.
+     *
+     * @throws IOException se a gravação do diário falhar
+     */
+    @SuppressWarnings("try")
+    public void fecharDiario() throws IOException {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (diario != null) {
+                DiarioCatalogo aberto = diario;
+                diario = null;
+                aberto.fechar();
+            }
+        }
+    }
+
+    // LEITURA CONCORRENTE
+
+    /**
+     * Passa a publicar uma versão imutável do catálogo a cada alteração,
+     * para leitura concorrente com {@link #getVersaoPublicada()}. A primeira
+     * versão é montada na hora, percorrendo o catálogo inteiro; as seguintes
+     * copiam só as categorias alteradas e suas ancestrais. Não faz nada se
+     * já estiver ativa.
+     *
+     * As alterações continuam devendo partir de uma thread por vez, a menos
+     * que a escrita concorrente esteja ativa ({@link #ativarEscritaConcorrente()});
+     * as leituras das versões publicadas podem ser feitas de qualquer thread.
+     * Cada operação pública de alteração (e cada setter de uma categoria ou
+     * produto do catálogo) publica uma versão ao terminar. Alterações feitas
+     * direto em {@link Categoria}, sem passar pelo catálogo, só aparecem na
+     * versão publicada pela próxima operação.
+     */
+    @SuppressWarnings("try")
+    public void ativarLeituraConcorrente() {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (publicador == null) {
+                publicador = new PublicadorVersoes();
+                republicarVersao();
+            }
+        }
+    }
+
+    /**
+     * Retorna a versão publicada mais recente do catálogo. Pode ser chamado
+     * de qualquer thread, sem travas; a versão devolvida não muda, mesmo que
+     * o catálogo seja alterado em seguida.
+     *
+     * @return Versão imutável do catálogo
+     * @throws IllegalStateException se a leitura concorrente não estiver ativa
+     */
+    public VersaoCatalogo getVersaoPublicada() {
+        PublicadorVersoes ativo = publicador;
+        if (ativo == null) {
+            throw new IllegalStateException("A leitura concorrente não está ativa");
+        }
+        return ativo.atual();
+    }
+
+    /**
+     * Publica as alterações feitas desde a última versão, se a leitura
+     * concorrente estiver ativa. Com a escrita concorrente, a publicação
+     * trava o catálogo inteiro, já que percorre o caminho das alterações de
+     * todas as threads.
+     */
+    @SuppressWarnings("try")
+    private void publicarVersao() {
+        if (publicador != null) {
+            try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+                publicador.publicar(raiz);
+            }
+        }
+    }
+
+    /**
+     * Publica a árvore inteira de novo, depois que a raiz foi substituída.
+     */
+    @SuppressWarnings("try")
+    private void republicarVersao() {
+        if (publicador != null) {
+            try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+                publicador.reconstruir(raiz, produtosCadastrados.todos());
+            }
+        }
+    }
+
+    // FLUXO DE EVENTOS
+
+    /**
+     * Passa a publicar um evento para cada alteração do catálogo, guardando
+     * os {@value FluxoEventos#CAPACIDADE_PADRAO} mais recentes. Não faz nada
+     * se já estiver ativo.
+     *
+     * @see #ativarEventos(int)
+     */
+    public void ativarEventos() {
+        ativarEventos(FluxoEventos.CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Passa a publicar um evento ({@link EventoCatalogo}) para cada alteração
+     * do catálogo, para quem mantém uma cópia derivada dele (índice de busca,
+     * cache de páginas) aplicar só o que mudou, em vez de percorrer o
+     * catálogo inteiro. Não faz nada se já estiver ativo.
+     *
+     * Os eventos são publicados pelas operações de alteração, pelos setters
+     * de categorias e produtos do catálogo e por {@link #aplicarLote(LoteCatalogo)}
+     * (todos os eventos do lote juntos), depois de a alteração ser feita e
+     * antes de a operação terminar, com sequências crescentes e sem buracos.
+     * Substituições do conteúdo inteiro (troca da raiz, snapshot, importação,
+     * recuperação do diário) publicam um único
+     * {@link EventoCatalogo.Tipo#CATALOGO_RECARREGADO}. Alterações feitas
+     * direto em {@link Categoria}, sem passar pelo catálogo, não geram eventos.
+     *
+     * O fluxo é um anel com os eventos mais recentes: quem altera o catálogo
+     * nunca espera quem lê, e uma assinatura que fica mais de
+     * {@code capacidade} eventos para trás é avisada de que perdeu eventos
+     * (ver {@link AssinaturaEventos}). As sequências recomeçam de 1 a cada
+     * execução.
+     *
+     * @param capacidade Quantidade de eventos guardados, arredondada para a
+     *                   potência de 2 seguinte
+     * @throws IllegalArgumentException se a capacidade não for positiva
+     */
+    @SuppressWarnings("try")
+    public void ativarEventos(int capacidade) {
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (eventos == null) {
+                eventos = new FluxoEventos(capacidade);
+            }
+        }
+    }
+
+    /**
+     * Assina o fluxo de eventos a partir do próximo evento publicado.
+     *
+     * @return Assinatura, lida com {@link AssinaturaEventos#receber(int)}
+     * @throws IllegalStateException se o fluxo de eventos não estiver ativo
+     */
+    public AssinaturaEventos assinarEventos() {
+        FluxoEventos fluxo = fluxoAtivo();
+        return new AssinaturaEventos(fluxo, fluxo.getProxima());
+    }
+
+    /**
+     * Assina o fluxo de eventos a partir de uma sequência, para retomar a
+     * leitura de onde uma assinatura anterior parou
+     * ({@link AssinaturaEventos#getSequencia()}).
+     *
+     * @param sequencia Sequência do primeiro evento a receber
+     * @return Assinatura, lida com {@link AssinaturaEventos#receber(int)}
+     * @throws IllegalStateException se o fluxo de eventos não estiver ativo
+     *                               ou se os eventos a partir da sequência
+     *                               já foram descartados; nesse caso a cópia
+     *                               derivada deve ser refeita a partir do
+     *                               catálogo
+     * @throws IllegalArgumentException se a sequência for menor que 1 ou
+     *                                  ainda não tiver sido publicada (nem
+     *                                  for a próxima)
+     */
+    public AssinaturaEventos assinarEventos(long sequencia) {
+        FluxoEventos fluxo = fluxoAtivo();
+        if (sequencia < 1 || sequencia > fluxo.getProxima()) {
+            throw new IllegalArgumentException("Sequência de evento inválida: " + sequencia + " (a próxima é "
+                    + fluxo.getProxima() + ")");
+        }
+        AssinaturaEventos assinatura = new AssinaturaEventos(fluxo, sequencia);
+        if (assinatura.isAtrasada()) {
+            throw assinatura.eventosDescartados();
+        }
+        return assinatura;
+    }
+
+    private FluxoEventos fluxoAtivo() {
+        FluxoEventos fluxo = eventos;
+        if (fluxo == null) {
+            throw new IllegalStateException("O fluxo de eventos não está ativo");
+        }
+        return fluxo;
+    }
+
+    // ESCRITA CONCORRENTE
+
+    /**
+     * Passa a aceitar alterações de várias threads ao mesmo tempo, com travas
+     * hierárquicas sobre as categorias (ver {@link TravasSubarvore}). Não faz
+     * nada se já estiver ativa.
+     *
+     * {@link #associarProduto(String, Produto)},
+     * {@link #desassociarProduto(String, Produto)} e
+     * {@link #definirSubcategoria(String, String)} travam só as subárvores
+     * que alteram (a categoria, ou o pai novo e o pai atual da filha) e rodam
+     * em paralelo quando elas são disjuntas; mover uma categoria de um ramo
+     * para outro trava os dois ramos. {@link #inserirProduto(String, String, double, String)}
+     * não trava nenhuma subárvore. As demais alterações (inserção de
+     * categoria, remoção, importação, snapshot, diário, troca da raiz)
+     * travam o catálogo inteiro e esperam as que estão em andamento, assim
+     * como a publicação de cada versão, se a leitura concorrente estiver
+     * ativa.
+     *
+     * Consultas e setters de categorias e produtos do catálogo não passam
+     * pelas travas e só devem ser feitos quando nenhuma alteração estiver em
+     * andamento. Para ler enquanto outras threads alteram o catálogo, use as
+     * versões publicadas ({@link #ativarLeituraConcorrente()}).
+     */
+    public synchronized void ativarEscritaConcorrente() {
+        // sem a trava, duas threads ativando juntas poderiam criar dois
+        // conjuntos de travas, que não se excluem
+        if (travas == null) {
+            travas = new TravasSubarvore();
+        }
+    }
+
+    /**
+     * Trava as subárvores das categorias informadas, se a escrita
+     * concorrente estiver ativa (ver {@link TravasSubarvore#travar}).
+     *
+     * @return Travamento, ou {@code null} se a escrita concorrente não
+     *         estiver ativa
+     */
+    private TravasSubarvore.Travamento travar(Categoria... alvos) {
+        TravasSubarvore ativas = travas;
+        return (ativas != null) ? ativas.travar(raiz, alvos) : null;
+    }
+
+    /**
+     * Trava o catálogo inteiro, se a escrita concorrente estiver ativa. O
+     * travamento costuma ser só o recurso de um try-with-resources que não o
+     * cita no corpo; os métodos que fazem isso levam
+     * {@code @SuppressWarnings("try")}.
+     *
+     * @return Travamento, ou {@code null} se a escrita concorrente não
+     *         estiver ativa
+     */
+    private TravasSubarvore.Travamento travarCatalogo() {
+        TravasSubarvore ativas = travas;
+        return (ativas != null) ? ativas.travarCatalogo() : null;
+    }
+
+    /**
+     * Trava o que é preciso para pôr {@code filho} como última filha de
+     * {@code pai}: a subárvore do pai e a do pai atual da filha, de onde ela
+     * sai. Se a folga de rótulos do pai não bastar, a renumeração pode
+     * alcançar outros ramos, e o catálogo inteiro é travado.
+     *
+     * @param filho Categoria existente, ou {@code null} para uma nova
+     * @return Travamento, ou {@code null} se a escrita concorrente não
+     *         estiver ativa
+     */
+    private TravasSubarvore.Travamento travarSubordinacao(Categoria pai, Categoria filho) {
+        TravasSubarvore ativas = travas;
+        if (ativas == null) {
+            return null;
+        }
+        for (;;) {
+            Categoria origem = origem(filho);
+            TravasSubarvore.Travamento trava = ativas.travar(raiz, pai, origem);
+            if (origem(filho) != origem) {
+                // a filha foi movida antes de a trava do pai antigo ser obtida
+                trava.close();
+                continue;
+            }
+            if (!RotulosIntervalo.cabe(pai, filho)) {
+                trava.close();
+                return ativas.travarCatalogo();
+            }
+            return trava;
+        }
+    }
+
+    /**
+     * Categoria cuja subárvore muda quando {@code filho} sai do lugar: o pai
+     * atual, ou ela mesma se não tiver pai.
+     */
+    private static Categoria origem(Categoria filho) {
+        if (filho == null) {
+            return null;
+        }
+        return (filho.getPai() != null) ? filho.getPai() : filho;
+    }
+
+    // PERCURSO PARALELO
+
+    /**
+     * Passa a dividir os percursos da árvore inteira ({@link #listarArvore()},
+     * {@link #exportarArvore(Appendable, RenderizadorArvore.Formato)} e
+     * {@link #gerarArvoresDeNavegacao()}) entre as threads do pool comum
+     * ({@link ForkJoinPool#commonPool()}).
+     */
+    public void ativarPercursoParalelo() {
+        ativarPercursoParalelo(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Passa a dividir os percursos da árvore inteira entre as threads do
+     * pool informado. A árvore é cortada em trechos pelo tamanho das
+     * subárvores (ver {@link PercursoParalelo}), e a saída é a mesma do
+     * percurso sequencial, na mesma ordem. Árvores pequenas continuam sendo
+     * percorridas só pela thread que chama.
+     *
+     * Como as demais consultas, os percursos não devem rodar junto com
+     * alterações do catálogo.
+     *
+     * @param pool Pool onde os trechos são processados
+     */
+    public void ativarPercursoParalelo(ForkJoinPool pool) {
+        poolPercurso = pool;
+    }
+
+    /**
+     * Volta a fazer os percursos da árvore inteira só na thread que chama.
+     */
+    public void desativarPercursoParalelo() {
+        poolPercurso = null;
+    }
+
+    // MÉTRICAS
+
+    /**
+     * Passa a contar as chamadas das operações públicas de consulta e
+     * alteração, com as falhas, as categorias visitadas e uma amostra das
+     * durações (ver {@link MetricasCatalogo}). Desligadas, as métricas
+     * custam uma leitura de campo por operação.
+     */
+    public void ativarMetricas() {
+        metricas.setAtiva(true);
+    }
+
+    /**
+     * Para de contar as operações, mantendo o que já foi contado.
+     */
+    public void desativarMetricas() {
+        metricas.setAtiva(false);
+    }
+
+    /**
+     * Retorna as métricas em texto: uma linha por operação já chamada, com
+     * chamadas, falhas, categorias visitadas por chamada e os percentis de
+     * duração, seguida da forma da árvore e dos contadores do cache de
+     * navegação.
+     *
+     * @return Relatório das métricas
+     */
+    public String relatorioMetricas() {
+        return metricas.relatorio();
+    }
+
+    /**
+     * Ativa as métricas e as registra no servidor JMX da plataforma, com o
+     * nome {@code CatalogoCategorias:type=Metricas,name=<nome>}, onde
+     * ferramentas como o JConsole podem lê-las.
+     *
+     * @param nome Nome que distingue este catálogo dos outros da JVM
+     * @return Nome com que as métricas foram registradas, para removê-las
+     *         com {@link javax.management.MBeanServer#unregisterMBean}
+     * @throws JMException se o nome for inválido ou já estiver registrado
+     */
+    public ObjectName registrarMetricasJmx(String nome) throws JMException {
+        ObjectName nomeJmx = new ObjectName("CatalogoCategorias:type=Metricas,name=" + ObjectName.quote(nome));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metricas, nomeJmx);
+        ativarMetricas();
+        return nomeJmx;
+    }
+
+    /**
+     * Retorna os contadores do cache de caminhos e rotas de navegação:
+     * acertos, falhas, descartes por falta de espaço, invalidações e
+     * quantidades de caminhos e subárvores guardados. Os contadores são
+     * mantidos mesmo com as métricas desligadas.
+     *
+     * @return Mapa nome para valor
+     */
+    public Map<String, Long> estatisticasCacheNavegacao() {
+        return cacheNavegacao.estatisticas();
+    }
+
+    /**
+     * Retorna as métricas do catálogo, ativas ou não.
+     */
+    MetricasCatalogo getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Mede a forma atual da árvore. Com a leitura concorrente ativa, percorre
+     * a versão publicada, sem travas; senão, percorre a árvore, travando o
+     * catálogo se a escrita concorrente estiver ativa.
+     *
+     * @return Forma da árvore
+     */
+    @SuppressWarnings("try")
+    MetricasCatalogo.Forma medirForma() {
+        PublicadorVersoes ativo = publicador;
+        if (ativo != null) {
+            VersaoCatalogo versao = ativo.atual();
+            return MetricasCatalogo.Forma.medir(versao.getRaiz(), versao.getQuantidadeProdutos());
+        }
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            int cadastrados;
+            synchronized (travaIndices) {
+                cadastrados = produtosCadastrados.todos().size();
             }
+            return MetricasCatalogo.Forma.medir(raiz, cadastrados);
         }
     }
 
@@ -335,19 +2034,42 @@ public class CatalogoControll {
 
     /**
      * Define a categoria raiz da árvore de categorias.
+     * Os índices de busca são reconstruídos a partir da nova raiz. Com um
+     * diário aberto, o catálogo inteiro é gravado como snapshot novo, já que
+     * a árvore recebida não passou pelo diário.
      *
      * @param raiz Nova categoria raiz do catálogo
+     * @throws UncheckedIOException se a gravação do snapshot do diário falhar
      */
+    @SuppressWarnings("try")
     public void setRaiz(Categoria raiz) {
-        this.raiz = raiz;
+        try (TravasSubarvore.Travamento trava = travarCatalogo()) {
+            if (this.raiz != null) {
+                desindexarSubarvore(this.raiz);
+            }
+            this.raiz = raiz;
+            reindexarArvore();
+            republicarVersao();
+            if (eventos != null) {
+                eventos.publicar(EventoCatalogo.recarregado());
+            }
+            if (diario != null) {
+                try {
+                    diario.consolidar(this);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Falha ao gravar o snapshot do diário", e);
+                }
+            }
+        }
     }
 
     /**
-     * Retorna a lista auxiliar com todos os produtos cadastrados no catálogo.
+     * Retorna todos os produtos cadastrados no catálogo, sem repetições,
+     * na ordem de cadastro.
      *
-     * @return Lista de produtos cadastrados
+     * @return Lista somente leitura dos produtos cadastrados
      */
     public List<Produto> getProdutosCadastrados() {
-        return produtosCadastrados;
+        return Collections.unmodifiableList(produtosCadastrados.todos());
     }
 }
@@ -1,11 +1,16 @@
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 /**
  * Representa uma categoria do catálogo, que pode conter subcategorias
  * e produtos associados, formando uma estrutura em árvore.
  *
  * Cada categoria conhece seu pai, seus filhos e a lista de produtos
- * diretamente associados a ela.
+ * diretamente associados a ela. As duas listas são guardadas em vetores
+ * ({@link ListaFilhos}), e as filhas podem ser buscadas pelo nome
+ * ({@link #buscarFilho(String)}).
  *
  * @author Matheus Pereira Rodrigues 
  * @since 2025
@@ -15,8 +20,91 @@ public class Categoria {
     private String codigo;
     private String descricao;
     private Categoria pai;
-    private List<Categoria> filhos;
-    private List<Produto> produtos;
+    /**
+     * Profundidade da categoria na árvore (0 para a raiz), mantida em cache
+     * e atualizada apenas na subárvore movida quando o pai muda.
+     */
+    private int nivel;
+    private final ListaFilhos<Categoria> filhos = new ListaFilhos<>(false);
+    private final ListaFilhos<Produto> produtos = new ListaFilhos<>(true);
+
+    /**
+     * Primeira filha com cada nome, criado na primeira busca por nome feita
+     * quando a categoria tem mais de {@link ListaFilhos#LIMIAR_TABELA}
+     * filhas; antes disso, a busca percorre a lista. {@link #homonimas} conta
+     * as filhas que ficaram fora do mapa por repetirem o nome de uma irmã
+     * anterior.
+     */
+    private Map<String, Categoria> filhasPorNome;
+    private int homonimas;
+
+    /**
+     * Raiz da árvore à qual esta categoria pertence (ela mesma, se não
+     * tiver pai). Atualizada junto com o nível.
+     */
+    private Categoria raizArvore;
+
+    /**
+     * Quantidade de categorias na subárvore, incluindo esta.
+     */
+    int tamanho;
+
+    /**
+     * Rótulos de intervalo aninhado, mantidos por {@link RotulosIntervalo}.
+     */
+    long entrada;
+    long saida;
+
+    /**
+     * Resumo dos produtos da subárvore (quantidade, preços e marcas),
+     * atualizado ao longo do caminho até a raiz a cada alteração.
+     *
+     * Com a escrita concorrente, threads que alteram subárvores disjuntas
+     * atualizam as mesmas ancestrais; por isso o resumo, o tamanho, a versão
+     * e o contador de modificações de cada categoria do caminho são
+     * alterados com o monitor do resumo, uma categoria por vez.
+     */
+    final AgregadoProdutos agregado = new AgregadoProdutos();
+
+    /**
+     * Trava hierárquica da subárvore, usada com a escrita concorrente (ver
+     * {@link TravasSubarvore}).
+     */
+    final TravasSubarvore.Trava trava = new TravasSubarvore.Trava();
+
+    /**
+     * Versão da subárvore: incrementada sempre que produtos, preços, marcas
+     * ou subcategorias abaixo desta categoria mudam (e, com a leitura
+     * concorrente ativa, também nomes e códigos; ver {@link #marcarAlterada()}).
+     * Usada para saber se um resultado derivado da subárvore (índice, cache)
+     * ainda é válido.
+     */
+    long versao;
+
+    /**
+     * Última cópia imutável desta categoria publicada para leitura
+     * concorrente, mantida por {@link PublicadorVersoes}.
+     */
+    VersaoCategoria publicada;
+
+    /**
+     * Contador de alterações de estrutura (filhos e produtos) da árvore.
+     * Só é incrementado na raiz; serve para invalidar índices derivados.
+     */
+    long modificacoes;
+
+    /**
+     * Observador avisado quando nome, código ou descrição mudam.
+     * Preenchido pelo {@link CatalogoControll} que gerencia esta categoria.
+     */
+    ObservadorCatalogo observador;
+
+    /**
+     * Snapshot de onde os produtos desta categoria ainda precisam ser lidos,
+     * e a posição da categoria nele; {@code null} depois da leitura.
+     */
+    SnapshotCatalogo origem;
+    int posicaoOrigem;
     
     //Construtor 
 
@@ -29,8 +117,9 @@ public class Categoria {
      */
     public Categoria(String nome) {
         this.nome = nome;
-        this.filhos = new LinkedList<>();
-        this.produtos = new LinkedList<>();
+        this.raizArvore = this;
+        this.tamanho = 1;
+        RotulosIntervalo.tornarRaiz(this);
     }
 
 /**
@@ -44,19 +133,42 @@ public class Categoria {
         this.nome = nome;
         this.codigo = codigo;
         this.descricao = descricao;
-        this.filhos = new LinkedList<>();
-        this.produtos = new LinkedList<>();
+        this.raizArvore = this;
+        this.tamanho = 1;
+        RotulosIntervalo.tornarRaiz(this);
     }
     //METODOS:
 
     /**
      * Adiciona uma subcategoria (filho) desta categoria.
+     * Se a categoria já tiver outro pai, ela é retirada dele antes,
+     * de forma que a subárvore seja movida em uma única atualização.
      *
      * @param filho Categoria filha a ser adicionada
+     * @throws IllegalArgumentException se {@code filho} for esta categoria ou
+     *                                  uma de suas ancestrais (criaria um ciclo)
      */
     public void adicionarFilho(Categoria filho) {
-        filho.setPai(this);
-        this.filhos.add(filho);
+        if (filho == this || filho.isAncestralDe(this)) {
+            throw new IllegalArgumentException("A categoria '" + filho.nome
+                    + "' não pode ser subcategoria de '" + this.nome + "': formaria um ciclo");
+        }
+        if (filho.pai != null) {
+            filho.pai.desvincular(filho);
+        }
+        Categoria irmaAnterior = this.filhos.isEmpty() ? null : this.filhos.get(this.filhos.size() - 1);
+        this.filhos.acrescentar(filho);
+        indexarNome(filho);
+        filho.pai = this;
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.tamanho += filho.tamanho;
+                atual.agregado.somar(filho.agregado);
+                atual.versao++;
+            }
+        }
+        contarModificacao();
+        RotulosIntervalo.encaixar(this, filho, irmaAnterior);
     }
 
      /**
@@ -67,18 +179,66 @@ public class Categoria {
      * @param filho Categoria filha que será removida
      */
     public void removerFilho(Categoria filho) {
-        if (this.filhos.remove(filho)) {
-            filho.setPai(null);
+        if (filho.pai == this) {
+            desvincular(filho);
+            RotulosIntervalo.tornarRaiz(filho);
         }
     }
 
+    /**
+     * Retira a subcategoria da lista de filhos e desconta o tamanho e o
+     * resumo de produtos dela das ancestrais. Os rótulos da subárvore são
+     * refeitos por quem chama.
+     *
+     * @param filho Subcategoria direta desta categoria
+     */
+    private void desvincular(Categoria filho) {
+        this.filhos.retirarEm(filho.posicaoEntreIrmas());
+        retirarNome(filho, filho.nome);
+        filho.pai = null;
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.tamanho -= filho.tamanho;
+                atual.agregado.subtrair(filho.agregado, atual);
+                atual.versao++;
+            }
+        }
+        contarModificacao();
+    }
+
+    /**
+     * Verifica se esta categoria é ancestral (direta ou indireta) de outra,
+     * comparando os rótulos de intervalo. Custa O(1).
+     *
+     * @param outra Categoria a ser testada
+     * @return {@code true} se {@code outra} estiver na subárvore desta
+     *         categoria (e não for ela mesma)
+     */
+    public boolean isAncestralDe(Categoria outra) {
+        return outra.raizArvore == this.raizArvore
+                && this.entrada < outra.entrada
+                && outra.saida < this.saida;
+    }
+
     /**
      * Adiciona um produto diretamente a esta categoria.
+     * Se o produto já estiver associado a esta categoria, nada é feito.
      *
      * @param produto Produto a ser associado à categoria
      */
     public void adicionarProduto(Produto produto) {
-        this.produtos.add(produto);
+        if (produto.pertenceA(this)) {
+            return;
+        }
+        produtos().acrescentar(produto);
+        produto.adicionarCategoria(this);
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.agregado.adicionar(produto.getPreco(), produto.getMarca());
+                atual.versao++;
+            }
+        }
+        contarModificacao();
     }
 
     /**
@@ -87,7 +247,119 @@ public class Categoria {
      * @param produto Produto a ser removido
      */
     public void removerProduto(Produto produto) {
-        this.produtos.remove(produto);
+        if (produtos().retirar(produto)) {
+            produto.removerCategoria(this);
+            for (Categoria atual = this; atual != null; atual = atual.pai) {
+                synchronized (atual.agregado) {
+                    atual.agregado.remover(produto.getPreco(), produto.getMarca(), atual);
+                    atual.versao++;
+                }
+            }
+            contarModificacao();
+        }
+    }
+
+    /**
+     * Incrementa o contador de modificações da raiz da árvore.
+     */
+    private void contarModificacao() {
+        synchronized (raizArvore.agregado) {
+            raizArvore.modificacoes++;
+        }
+    }
+
+    /**
+     * Atualiza os resumos desta categoria e das ancestrais depois que o preço
+     * de um produto associado a ela mudou.
+     *
+     * @param anterior Preço antes da alteração
+     * @param novo     Preço atual do produto
+     */
+    void precoAlterado(double anterior, double novo) {
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.agregado.trocarPreco(anterior, novo, atual);
+                atual.versao++;
+            }
+        }
+    }
+
+    /**
+     * Atualiza os resumos desta categoria e das ancestrais depois que a marca
+     * de um produto associado a ela mudou.
+     *
+     * @param anterior Marca antes da alteração
+     * @param nova     Marca atual do produto
+     */
+    void marcaAlterada(String anterior, String nova) {
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.agregado.trocarMarca(anterior, nova);
+                atual.versao++;
+            }
+        }
+    }
+
+    /**
+     * Incrementa a versão desta categoria e das ancestrais sem mexer nos
+     * resumos, para alterações que não passam por eles (nome, código ou
+     * descrição da categoria, nome ou código de um produto) mas tornam
+     * desatualizadas as cópias publicadas da subárvore.
+     */
+    void marcarAlterada() {
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.versao++;
+            }
+        }
+    }
+
+    // RESUMO DOS PRODUTOS DA SUBÁRVORE
+
+    /**
+     * Retorna quantos produtos estão associados a esta categoria e às suas
+     * descendentes (um produto em duas categorias conta duas vezes). O(1).
+     *
+     * @return Quantidade de produtos da subárvore
+     */
+    public int getQuantidadeProdutosSubarvore() {
+        return agregado.getQuantidade();
+    }
+
+    /**
+     * Retorna a soma dos preços dos produtos da subárvore. O(1).
+     *
+     * @return Soma dos preços
+     */
+    public double getSomaPrecosSubarvore() {
+        return agregado.getSoma();
+    }
+
+    /**
+     * Retorna o menor preço entre os produtos da subárvore. O(1).
+     *
+     * @return Menor preço, ou {@link Double#NaN} se não houver produtos
+     */
+    public double getMenorPrecoSubarvore() {
+        return agregado.getMenor();
+    }
+
+    /**
+     * Retorna o maior preço entre os produtos da subárvore. O(1).
+     *
+     * @return Maior preço, ou {@link Double#NaN} se não houver produtos
+     */
+    public double getMaiorPrecoSubarvore() {
+        return agregado.getMaior();
+    }
+
+    /**
+     * Retorna quantas marcas distintas aparecem nos produtos da subárvore. O(1).
+     *
+     * @return Quantidade de marcas distintas
+     */
+    public int getQuantidadeMarcasSubarvore() {
+        return agregado.getQuantidadeMarcas();
     }
 
 /**
@@ -103,14 +375,351 @@ public class Categoria {
     /**
      * Obtém o nível da categoria na árvore.
      * A raiz está no nível 0; seus filhos diretos no nível 1; e assim por diante.
+     * O valor fica em cache, então a consulta é O(1).
      *
      * @return Nível da categoria na hierarquia
      */
     public int getNivel() {
-        if (this.pai == null) {
-            return 0;
+        return nivel;
+    }
+
+    /**
+     * Retorna a posição desta categoria na lista de filhos do pai. As irmãs
+     * estão em ordem crescente de rótulo de entrada, então a busca é binária.
+     *
+     * @return Posição entre as irmãs, ou -1 se a categoria não tiver pai
+     */
+    int posicaoEntreIrmas() {
+        if (pai == null) {
+            return -1;
+        }
+        List<Categoria> irmas = pai.filhos;
+        int baixo = 0;
+        int alto = irmas.size() - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            long entradaMeio = irmas.get(meio).entrada;
+            if (entradaMeio < entrada) {
+                baixo = meio + 1;
+            } else if (entradaMeio > entrada) {
+                alto = meio - 1;
+            } else if (irmas.get(meio) == this) {
+                return meio;
+            } else {
+                break;
+            }
+        }
+        return irmas.indexOf(this);
+    }
+
+    // BUSCA DE FILHAS POR NOME
+
+    /**
+     * Busca uma subcategoria direta pelo nome exato. Em categorias com
+     * muitas filhas a busca usa um mapa por nome, em O(1), montado na
+     * primeira busca e mantido a partir daí.
+     *
+     * @param nome Nome da subcategoria (pode ser nulo)
+     * @return Primeira filha com o nome, ou {@code null} se não houver
+     */
+    public Categoria buscarFilho(String nome) {
+        if (filhasPorNome == null && filhos.size() > ListaFilhos.LIMIAR_TABELA) {
+            filhasPorNome = new HashMap<>();
+            homonimas = 0;
+            for (int i = 0; i < filhos.size(); i++) {
+                incluirNome(filhos.get(i));
+            }
+        }
+        if (filhasPorNome != null) {
+            return filhasPorNome.get(nome);
         }
-        return this.pai.getNivel() + 1;
+        return primeiraComNome(nome);
+    }
+
+    private Categoria primeiraComNome(String nome) {
+        for (int i = 0; i < filhos.size(); i++) {
+            Categoria filho = filhos.get(i);
+            if (Objects.equals(filho.nome, nome)) {
+                return filho;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inclui no mapa por nome, se ele existir, uma filha recém-acrescentada
+     * ao fim da lista.
+     */
+    private void indexarNome(Categoria filho) {
+        if (filhasPorNome != null) {
+            incluirNome(filho);
+        }
+    }
+
+    /**
+     * Inclui a filha no mapa, a menos que uma irmã anterior já tenha o
+     * mesmo nome.
+     */
+    private void incluirNome(Categoria filho) {
+        if (filhasPorNome.putIfAbsent(filho.nome, filho) != null) {
+            homonimas++;
+        }
+    }
+
+    /**
+     * Retira uma filha do mapa por nome, pondo no lugar dela a primeira irmã
+     * homônima, se houver.
+     *
+     * @param filho Filha que saiu da lista ou trocou de nome
+     * @param nome  Nome com que ela estava no mapa
+     */
+    private void retirarNome(Categoria filho, String nome) {
+        if (filhasPorNome == null) {
+            return;
+        }
+        if (filhasPorNome.get(nome) != filho) {
+            homonimas--;
+            return;
+        }
+        filhasPorNome.remove(nome);
+        if (homonimas > 0) {
+            Categoria outra = primeiraComNome(nome);
+            if (outra != null) {
+                filhasPorNome.put(nome, outra);
+                homonimas--;
+            }
+        }
+    }
+
+    /**
+     * Atualiza o mapa por nome depois que uma filha trocou de nome.
+     */
+    private void filhaRenomeada(Categoria filho, String anterior) {
+        if (filhasPorNome == null) {
+            return;
+        }
+        retirarNome(filho, anterior);
+        Categoria atual = filhasPorNome.get(filho.nome);
+        if (atual == null) {
+            filhasPorNome.put(filho.nome, filho);
+            return;
+        }
+        homonimas++;
+        if (filhos.posicao(filho) < filhos.posicao(atual)) {
+            filhasPorNome.put(filho.nome, filho);
+        }
+    }
+
+    /**
+     * Retorna os ancestrais desta categoria, da raiz até ela própria.
+     * Como o nível está em cache, o vetor é alocado já no tamanho exato.
+     *
+     * @return Vetor com a raiz na posição 0 e esta categoria na última
+     */
+    public Categoria[] getAncestrais() {
+        Categoria[] caminho = new Categoria[nivel + 1];
+        Categoria atual = this;
+        for (int i = nivel; i >= 0; i--) {
+            caminho[i] = atual;
+            atual = atual.pai;
+        }
+        return caminho;
+    }
+
+    /**
+     * Monta o caminho (breadcrumb) da raiz até esta categoria, com os nomes
+     * separados pelo separador informado. O tamanho do texto é calculado
+     * antes, e os nomes são copiados do fim para o começo em um único buffer.
+     *
+     * @param separador Texto colocado entre os nomes, por exemplo {@code " > "}
+     * @return Caminho da raiz até esta categoria
+     */
+    public String montarCaminho(String separador) {
+        int tamanho = nivel * separador.length();
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            tamanho += String.valueOf(atual.nome).length();
+        }
+        char[] texto = new char[tamanho];
+        int fim = tamanho;
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            String nomeAtual = String.valueOf(atual.nome);
+            fim -= nomeAtual.length();
+            nomeAtual.getChars(0, nomeAtual.length(), texto, fim);
+            if (atual.pai != null) {
+                fim -= separador.length();
+                separador.getChars(0, separador.length(), texto, fim);
+            }
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Retorna a raiz da árvore à qual esta categoria pertence, em O(1).
+     *
+     * @return Raiz da árvore (esta categoria, se não tiver pai)
+     */
+    public Categoria getRaizArvore() {
+        return raizArvore;
+    }
+
+    /**
+     * Retorna a quantidade de categorias na subárvore, incluindo esta.
+     *
+     * @return Tamanho da subárvore
+     */
+    public int getTamanhoSubarvore() {
+        return tamanho;
+    }
+
+    /**
+     * Recalcula o nível e a raiz em cache a partir do pai. Chamado pelo
+     * percurso de {@link RotulosIntervalo}, que visita os pais antes dos filhos.
+     */
+    void atualizarPosicao() {
+        if (pai == null) {
+            nivel = 0;
+            raizArvore = this;
+        } else {
+            nivel = pai.nivel + 1;
+            raizArvore = pai.raizArvore;
+        }
+    }
+
+    /**
+     * Anexa uma filha durante a montagem em lote da árvore (carga de
+     * snapshot, importação), apenas ligando as listas. Tamanhos, resumos e rótulos
+     * devem ser calculados por quem monta a árvore, ao final.
+     *
+     * @param filho Categoria recém-criada, sem pai
+     */
+    void anexarCarregada(Categoria filho) {
+        filhos.acrescentar(filho);
+        indexarNome(filho);
+        filho.pai = this;
+    }
+
+    /**
+     * Associa um produto durante a montagem em lote, somando-o só ao resumo
+     * desta categoria. Os resumos das ancestrais devem ser somados por quem
+     * monta a árvore, antes de anexá-la.
+     *
+     * @param produto Produto a ser associado
+     * @return {@code true} se o produto ainda não estava na categoria
+     */
+    boolean adicionarProdutoCarregado(Produto produto) {
+        if (produto.pertenceA(this)) {
+            return false;
+        }
+        produtos().acrescentar(produto);
+        produto.adicionarCategoria(this);
+        agregado.adicionar(produto.getPreco(), produto.getMarca());
+        return true;
+    }
+
+    /**
+     * Retorna a lista de produtos, lendo-a do snapshot na primeira vez se a
+     * categoria veio de um.
+     */
+    private ListaFilhos<Produto> produtos() {
+        if (origem != null) {
+            SnapshotCatalogo snapshot = origem;
+            origem = null;
+            snapshot.lerProdutos(posicaoOrigem, produtos);
+        }
+        return produtos;
+    }
+
+    // ALTERAÇÕES EM LOTE
+
+    /**
+     * Associa um produto somando-o só ao resumo desta categoria; os resumos
+     * das ancestrais ficam para {@link ResumosPendentes#propagar()}.
+     *
+     * @param produto Produto a ser associado
+     * @return {@code true} se o produto ainda não estava na categoria
+     */
+    boolean adicionarProdutoAdiado(Produto produto) {
+        if (produto.pertenceA(this)) {
+            return false;
+        }
+        produtos().acrescentar(produto);
+        produto.adicionarCategoria(this);
+        synchronized (agregado) {
+            agregado.adicionar(produto.getPreco(), produto.getMarca());
+            versao++;
+        }
+        contarModificacao();
+        return true;
+    }
+
+    /**
+     * Soma ao resumo desta categoria o dos produtos associados abaixo dela
+     * com {@link #adicionarProdutoAdiado(Produto)}, sem subir às ancestrais.
+     *
+     * @param resumo Resumo dos produtos associados na subárvore
+     */
+    void somarResumo(AgregadoProdutos resumo) {
+        synchronized (agregado) {
+            agregado.somar(resumo);
+            versao++;
+        }
+    }
+
+    // DESFAZER ALTERAÇÕES
+
+    /**
+     * Põe de volta, na posição que ocupava entre as irmãs, uma subcategoria
+     * retirada desta categoria, somando tamanho e resumo às ancestrais.
+     * Usado para desfazer um lote que falhou no meio ({@link CatalogoControll#aplicarLote(LoteCatalogo)});
+     * renumera o interior desta categoria.
+     *
+     * @param posicao Posição que a subcategoria tinha entre as irmãs
+     * @param filho   Categoria sem pai
+     */
+    void reinserirFilho(int posicao, Categoria filho) {
+        this.filhos.inserirEm(posicao, filho);
+        // refeito na próxima busca, com a filha já na posição certa
+        filhasPorNome = null;
+        filho.pai = this;
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.tamanho += filho.tamanho;
+                atual.agregado.somar(filho.agregado);
+                atual.versao++;
+            }
+        }
+        contarModificacao();
+        RotulosIntervalo.reencaixar(this);
+    }
+
+    /**
+     * Associa de volta, na posição que ocupava, um produto retirado desta
+     * categoria.
+     *
+     * @param posicao Posição que o produto tinha na lista
+     * @param produto Produto que não está na categoria
+     */
+    void reinserirProduto(int posicao, Produto produto) {
+        produtos().inserirEm(posicao, produto);
+        produto.adicionarCategoria(this);
+        for (Categoria atual = this; atual != null; atual = atual.pai) {
+            synchronized (atual.agregado) {
+                atual.agregado.adicionar(produto.getPreco(), produto.getMarca());
+                atual.versao++;
+            }
+        }
+        contarModificacao();
+    }
+
+    /**
+     * Retorna a posição do produto (comparado por identidade) na lista de
+     * produtos desta categoria.
+     *
+     * @param produto Produto procurado
+     * @return Posição, ou -1 se o produto não estiver na categoria
+     */
+    int posicaoDoProduto(Produto produto) {
+        return produtos().posicao(produto);
     }
 
     //Getters e setters
@@ -130,7 +739,14 @@ public class Categoria {
      * @param nome Novo nome da categoria
      */
     public void setNome(String nome) {
+        String anterior = this.nome;
         this.nome = nome;
+        if (pai != null) {
+            pai.filhaRenomeada(this, anterior);
+        }
+        if (observador != null) {
+            observador.categoriaAlterada(this, ObservadorCatalogo.Campo.NOME, anterior);
+        }
     }
 
     /**
@@ -148,7 +764,11 @@ public class Categoria {
      * @param codigo Novo código da categoria
      */
     public void setCodigo(String codigo) {
+        String anterior = this.codigo;
         this.codigo = codigo;
+        if (observador != null) {
+            observador.categoriaAlterada(this, ObservadorCatalogo.Campo.CODIGO, anterior);
+        }
     }
 
     /**
@@ -166,7 +786,11 @@ public class Categoria {
      * @param descricao Nova descrição da categoria
      */
     public void setDescricao(String descricao) {
+        String anterior = this.descricao;
         this.descricao = descricao;
+        if (observador != null) {
+            observador.categoriaAlterada(this, ObservadorCatalogo.Campo.DESCRICAO, anterior);
+        }
     }
 
     /**
@@ -180,17 +804,25 @@ public class Categoria {
 
     /**
      * Define a categoria pai desta categoria.
+     * Equivale a {@code pai.adicionarFilho(this)}, ou a retirar a categoria do
+     * pai atual quando {@code pai} for {@code null}.
      *
      * @param pai Nova categoria pai
      */
     public void setPai(Categoria pai) {
-        this.pai = pai;
+        if (pai != null) {
+            pai.adicionarFilho(this);
+        } else if (this.pai != null) {
+            this.pai.removerFilho(this);
+        }
     }
 
 /**
-     * Retorna a lista de subcategorias (filhos) desta categoria.
+     * Retorna a lista de subcategorias (filhos) desta categoria. A lista só
+     * pode ser lida; para alterá-la, use {@link #adicionarFilho(Categoria)},
+     * {@link #removerFilho(Categoria)} ou {@link #setFilhos(List)}.
      *
-     * @return Lista de categorias filhas
+     * @return Lista de categorias filhas, somente leitura
      */
     public List<Categoria> getFilhos() {
         return filhos;
@@ -198,28 +830,47 @@ public class Categoria {
 
     /**
      * Substitui a lista de subcategorias desta categoria.
+     * As filhas antigas ficam sem pai e as novas são adicionadas uma a uma,
+     * na ordem da lista, com {@link #adicionarFilho(Categoria)}.
      *
      * @param filhos Nova lista de categorias filhas
      */
     public void setFilhos(List<Categoria> filhos) {
-        this.filhos = filhos;
+        List<Categoria> novas = new ArrayList<>(filhos);
+        for (Categoria filho : new ArrayList<>(this.filhos)) {
+            removerFilho(filho);
+        }
+        for (Categoria filho : novas) {
+            adicionarFilho(filho);
+        }
     }
     
      /**
      * Retorna a lista de produtos associados diretamente a esta categoria.
+     * A lista só pode ser lida; para alterá-la, use
+     * {@link #adicionarProduto(Produto)}, {@link #removerProduto(Produto)} ou
+     * {@link #setProdutos(List)}.
      *
-     * @return Lista de produtos da categoria
+     * @return Lista de produtos da categoria, somente leitura
      */
     public List<Produto> getProdutos() {
-        return produtos;
+        return produtos();
     }
 
     /**
      * Substitui a lista de produtos associados à categoria.
+     * Os produtos antigos são removidos e os novos adicionados um a um, com
+     * {@link #removerProduto(Produto)} e {@link #adicionarProduto(Produto)}.
      *
      * @param produtos Nova lista de produtos da categoria
      */
     public void setProdutos(List<Produto> produtos) {
-        this.produtos = produtos;
+        List<Produto> novos = new ArrayList<>(produtos);
+        for (Produto produto : new ArrayList<>(produtos())) {
+            removerProduto(produto);
+        }
+        for (Produto produto : novos) {
+            adicionarProduto(produto);
+        }
     }
 }
@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de identificadores de produto (inteiros não negativos) que
+ * escolhe a representação pela densidade: um vetor ordenado de {@code int}
+ * enquanto tem poucos elementos em relação ao maior identificador, e um
+ * {@link BitSet} quando o vetor passaria a ocupar mais que os bits.
+ *
+ * Com isso a memória fica perto de min(4 bytes por elemento, 1 bit por
+ * identificador até o maior): uma faceta com 50 produtos num catálogo de
+ * um milhão ocupa 200 bytes, e não 125 KB.
+ *
+ * @since 2025
+ */
+final class ConjuntoIds {
+
+    /**
+     * Bits que um elemento ocupa no vetor ordenado.
+     */
+    private static final int BITS_POR_ELEMENTO = Integer.SIZE;
+
+    /**
+     * Abaixo deste tamanho o vetor é sempre usado: é pequeno de qualquer forma.
+     */
+    private static final int TAMANHO_MINIMO_DENSO = 64;
+
+    private static final int[] VAZIO = new int[0];
+
+    /**
+     * Elementos em ordem crescente, nas primeiras {@code tamanho} posições;
+     * {@code null} na representação densa.
+     */
+    private int[] ordenados = VAZIO;
+
+    /**
+     * Elementos como bits; {@code null} na representação esparsa.
+     */
+    private BitSet bits;
+
+    private int tamanho;
+
+    /**
+     * Cria um conjunto vazio.
+     */
+    ConjuntoIds() {
+    }
+
+    /**
+     * Cria o conjunto com os identificadores informados, que podem vir
+     * repetidos e fora de ordem.
+     *
+     * @param ids        Vetor com os identificadores nas primeiras posições
+     *                   (é reordenado)
+     * @param quantidade Quantidade de posições usadas em {@code ids}
+     * @param maior      Maior identificador presente
+     * @return Conjunto novo
+     */
+    static ConjuntoIds de(int[] ids, int quantidade, int maior) {
+        ConjuntoIds conjunto = new ConjuntoIds();
+        if (compensaBits(quantidade, maior)) {
+            BitSet bits = new BitSet(maior + 1);
+            for (int i = 0; i < quantidade; i++) {
+                bits.set(ids[i]);
+            }
+            conjunto.bits = bits;
+            conjunto.ordenados = null;
+            conjunto.tamanho = bits.cardinality();
+            return conjunto;
+        }
+        Arrays.sort(ids, 0, quantidade);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (distintos == 0 || ids[i] != ids[distintos - 1]) {
+                ids[distintos++] = ids[i];
+            }
+        }
+        conjunto.ordenados = Arrays.copyOf(ids, distintos);
+        conjunto.tamanho = distintos;
+        return conjunto;
+    }
+
+    /**
+     * Retorna a quantidade de elementos.
+     */
+    int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Verifica se o conjunto contém o identificador; O(1) na representação
+     * densa e O(log n) na esparsa.
+     */
+    boolean contem(int id) {
+        if (bits != null) {
+            return bits.get(id);
+        }
+        return Arrays.binarySearch(ordenados, 0, tamanho, id) >= 0;
+    }
+
+    /**
+     * Acrescenta o identificador. Identificadores maiores que todos os
+     * presentes (o caso comum, já que o registro os atribui em ordem) entram
+     * no fim do vetor, sem deslocamento.
+     *
+     * @return {@code true} se ele não estava no conjunto
+     */
+    boolean adicionar(int id) {
+        if (bits != null) {
+            if (bits.get(id)) {
+                return false;
+            }
+            bits.set(id);
+            tamanho++;
+            return true;
+        }
+        int posicao = (tamanho == 0 || ordenados[tamanho - 1] < id)
+                ? tamanho : Arrays.binarySearch(ordenados, 0, tamanho, id);
+        if (posicao >= 0 && posicao < tamanho) {
+            return false;
+        }
+        if (posicao < 0) {
+            posicao = -posicao - 1;
+        }
+        if (tamanho == ordenados.length) {
+            ordenados = Arrays.copyOf(ordenados, Math.max(8, tamanho + (tamanho >> 1)));
+        }
+        System.arraycopy(ordenados, posicao, ordenados, posicao + 1, tamanho - posicao);
+        ordenados[posicao] = id;
+        tamanho++;
+        if (compensaBits(tamanho, ordenados[tamanho - 1])) {
+            tornarDenso();
+        }
+        return true;
+    }
+
+    /**
+     * Retira o identificador.
+     *
+     * @return {@code true} se ele estava no conjunto
+     */
+    boolean remover(int id) {
+        if (bits != null) {
+            if (!bits.get(id)) {
+                return false;
+            }
+            bits.clear(id);
+            tamanho--;
+            // com folga, para não alternar a cada inclusão e remoção
+            if ((long) tamanho * BITS_POR_ELEMENTO * 2 < bits.length()) {
+                tornarEsparso();
+            }
+            return true;
+        }
+        int posicao = Arrays.binarySearch(ordenados, 0, tamanho, id);
+        if (posicao < 0) {
+            return false;
+        }
+        System.arraycopy(ordenados, posicao + 1, ordenados, posicao, tamanho - posicao - 1);
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * Executa a ação para cada elemento, em ordem crescente.
+     */
+    void paraCada(IntConsumer acao) {
+        if (bits != null) {
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                acao.accept(id);
+            }
+        } else {
+            for (int i = 0; i < tamanho; i++) {
+                acao.accept(ordenados[i]);
+            }
+        }
+    }
+
+    /**
+     * Executa a ação, em ordem crescente, para cada elemento que também está
+     * no outro conjunto. Percorre o menor dos dois e consulta o maior; com
+     * os dois densos, cruza os bits palavra a palavra.
+     */
+    void paraCadaEmComum(ConjuntoIds outro, IntConsumer acao) {
+        if (bits != null && outro.bits != null) {
+            BitSet comuns = (BitSet) bits.clone();
+            comuns.and(outro.bits);
+            for (int id = comuns.nextSetBit(0); id >= 0; id = comuns.nextSetBit(id + 1)) {
+                acao.accept(id);
+            }
+            return;
+        }
+        ConjuntoIds menor = (tamanho <= outro.tamanho) ? this : outro;
+        ConjuntoIds maior = (menor == this) ? outro : this;
+        menor.paraCada(id -> {
+            if (maior.contem(id)) {
+                acao.accept(id);
+            }
+        });
+    }
+
+    /**
+     * Informa se o conjunto está na representação de bits.
+     */
+    boolean isDenso() {
+        return bits != null;
+    }
+
+    private void tornarDenso() {
+        BitSet novos = new BitSet(ordenados[tamanho - 1] + 1);
+        for (int i = 0; i < tamanho; i++) {
+            novos.set(ordenados[i]);
+        }
+        bits = novos;
+        ordenados = null;
+    }
+
+    private void tornarEsparso() {
+        int[] novos = new int[Math.max(8, tamanho)];
+        int i = 0;
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            novos[i++] = id;
+        }
+        ordenados = novos;
+        bits = null;
+    }
+
+    /**
+     * Verifica se {@code tamanho} elementos, sendo {@code maior} o maior
+     * deles, ocupam menos como bits do que como vetor.
+     */
+    private static boolean compensaBits(int tamanho, int maior) {
+        return tamanho >= TAMANHO_MINIMO_DENSO && (long) tamanho * BITS_POR_ELEMENTO > maior + 1L;
+    }
+}
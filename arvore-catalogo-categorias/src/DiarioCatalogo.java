@@ -0,0 +1,955 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Diário das alterações do catálogo (write-ahead log), para que nada do que
+ * foi feito depois do último snapshot se perca.
+ *
+ * A pasta do diário guarda snapshots {@code snapshot-N.bin} e segmentos
+ * {@code diario-N.log}; o snapshot N já contém o efeito de todos os
+ * segmentos até N. Na abertura, o catálogo é carregado do snapshot mais
+ * recente e os segmentos seguintes são reaplicados em ordem.
+ *
+ * Formato do segmento (little-endian):
+ * <pre>
+ * cabeçalho   mágico "CATJ" e versão (int)
+ * registros   tamanho do conteúdo (int), CRC-32 do conteúdo (int) e o
+ *             conteúdo: tipo da operação (byte) e argumentos
+ * </pre>
+ * Textos são gravados como tamanho (int, -1 para null) e bytes UTF-8;
+ * categorias, pelo caminho de posições entre irmãs desde a raiz; produtos,
+ * pelo código. Um lote ({@link CatalogoControll#aplicarLote(LoteCatalogo)})
+ * vira um único registro com a quantidade de alterações (int) e, para cada
+ * uma, o tamanho (int) e o conteúdo: na reabertura, ou ele é reaplicado
+ * inteiro, ou é descartado inteiro.
+ *
+ * Os registros vão para um buffer em memória e são escritos e sincronizados
+ * com o disco em lote, a cada {@link #INTERVALO_SINCRONIZACAO_MS} ms ou em
+ * {@link #sincronizar()}: um único fsync cobre todas as alterações do
+ * intervalo. Uma queda perde no máximo esse intervalo, e o registro
+ * incompleto no fim do último segmento é descartado na abertura.
+ *
+ * Quando o segmento atual passa do limite de compactação, ele é fechado e uma
+ * tarefa em segundo plano carrega o último snapshot em um catálogo separado,
+ * reaplica os segmentos fechados e grava um snapshot novo, apagando depois os
+ * arquivos substituídos. O catálogo em uso não é tocado pela tarefa.
+ *
+ * Só passam pelo diário as operações do {@link CatalogoControll} e os setters
+ * de categorias da árvore e de produtos cadastrados. Mudanças feitas direto
+ * na estrutura ({@link Categoria#adicionarFilho(Categoria)},
+ * {@link Categoria#adicionarProduto(Produto)}...) só ficam gravadas no
+ * próximo snapshot completo, como o feito por
+ * {@link CatalogoControll#setRaiz(Categoria)}.
+ *
+ * @since 2025
+ */
+final class DiarioCatalogo {
+
+    /**
+     * Tamanho a partir do qual o segmento atual é compactado, por padrão.
+     */
+    static final long LIMITE_COMPACTACAO_PADRAO = 64L << 20;
+
+    /**
+     * Maior limite de compactação aceito (o segmento é lido inteiro na
+     * reaplicação).
+     */
+    static final long LIMITE_COMPACTACAO_MAXIMO = 1L << 30;
+
+    /**
+     * Intervalo entre as sincronizações em lote com o disco.
+     */
+    static final long INTERVALO_SINCRONIZACAO_MS = 50;
+
+    private static final int MAGICO = 0x4341544A;
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 2 * Integer.BYTES;
+    private static final int TAMANHO_CABECALHO_REGISTRO = 2 * Integer.BYTES;
+
+    /**
+     * Quantidade de bytes pendentes que faz o buffer ser escrito no arquivo
+     * (sem sincronizar) antes do próximo intervalo.
+     */
+    private static final int MAXIMO_PENDENTE = 1 << 20;
+
+    private static final Logger LOG = Logger.getLogger(DiarioCatalogo.class.getName());
+
+    private static final Pattern NOME_SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final Pattern NOME_SEGMENTO = Pattern.compile("diario-(\\d+)\\.log");
+
+    // TIPOS DE REGISTRO
+
+    private static final byte INSERIR_CATEGORIA = 1;
+    private static final byte INSERIR_PRODUTO = 2;
+    private static final byte DEFINIR_SUBCATEGORIA = 3;
+    private static final byte ASSOCIAR_PRODUTO = 4;
+    private static final byte DESASSOCIAR_PRODUTO = 5;
+    private static final byte REMOVER_CATEGORIA = 6;
+    private static final byte ALTERAR_CATEGORIA = 7;
+    private static final byte ALTERAR_PRODUTO = 8;
+    private static final byte LOTE = 9;
+
+    private static final ObservadorCatalogo.Campo[] CAMPOS = ObservadorCatalogo.Campo.values();
+
+    private final Path diretorio;
+    private final long limiteCompactacao;
+
+    /**
+     * Trava de quem escreve no arquivo (sincronização, rotação e
+     * fechamento). Sempre obtida antes da trava do próprio diário.
+     */
+    private final Object escrita = new Object();
+
+    /**
+     * Segmento atual, aberto para escrita, e seu número.
+     */
+    private FileChannel canal;
+    private long segmento;
+
+    /**
+     * Bytes já escritos no segmento atual e quantos deles já foram
+     * sincronizados com o disco.
+     */
+    private volatile long tamanhoEscrito;
+    private long tamanhoSincronizado;
+
+    /**
+     * Registros ainda não escritos (protegido pela trava do diário) e o
+     * buffer trocado com ele a cada escrita (protegido por {@link #escrita}).
+     */
+    private ByteBuffer pendente = novoBuffer(64 << 10);
+    private ByteBuffer reserva = novoBuffer(64 << 10);
+
+    /**
+     * Trava de quem monta um registro; obtida antes de {@link #escrita} e da
+     * trava do próprio diário. Com a escrita concorrente no catálogo, várias
+     * threads registram alterações ao mesmo tempo.
+     */
+    private final Object montagem = new Object();
+
+    /**
+     * Registro em montagem, protegido por {@link #montagem}.
+     */
+    private ByteBuffer registro = novoBuffer(256);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Registros do lote em andamento (tamanho e conteúdo de cada um, sem
+     * CRC), ou {@code null} fora de um lote; protegido por {@link #montagem}.
+     */
+    private ByteBuffer lote;
+    private int registrosLote;
+
+    /**
+     * Falha da escrita em segundo plano; depois dela o diário não aceita
+     * mais registros.
+     */
+    private volatile IOException falha;
+
+    /**
+     * Trava da limpeza de arquivos antigos, usada pela compactação e pela
+     * consolidação.
+     */
+    private final Object limpeza = new Object();
+
+    private final ScheduledExecutorService sincronizador;
+    private final ExecutorService compactador;
+    private Future<?> compactacao;
+
+    private DiarioCatalogo(Path diretorio, long limiteCompactacao, FileChannel canal, long segmento) throws IOException {
+        this.diretorio = diretorio;
+        this.limiteCompactacao = limiteCompactacao;
+        this.canal = canal;
+        this.segmento = segmento;
+        this.tamanhoEscrito = canal.position();
+        this.tamanhoSincronizado = tamanhoEscrito;
+        this.sincronizador = Executors.newSingleThreadScheduledExecutor(threads("diario-catalogo-sincronizador"));
+        this.compactador = Executors.newSingleThreadExecutor(threads("diario-catalogo-compactador"));
+        sincronizador.scheduleWithFixedDelay(this::sincronizarEmSegundoPlano, INTERVALO_SINCRONIZACAO_MS,
+                INTERVALO_SINCRONIZACAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // ABERTURA E FECHAMENTO
+
+    /**
+     * Abre (ou cria) o diário da pasta informada e recupera o catálogo: o
+     * conteúdo atual do catálogo é substituído pelo último snapshot da pasta
+     * mais os segmentos seguintes. Se a pasta estiver vazia, o conteúdo atual
+     * vira o snapshot inicial.
+     *
+     * @param diretorio         Pasta do diário
+     * @param limiteCompactacao Tamanho do segmento que dispara a compactação
+     * @param catalogo          Catálogo recuperado, ainda sem diário
+     * @return Diário pronto para receber registros
+     * @throws IOException se a pasta não puder ser lida ou tiver arquivos
+     *                     inconsistentes
+     */
+    static DiarioCatalogo abrir(Path diretorio, long limiteCompactacao, CatalogoControll catalogo)
+            throws IOException {
+        if (limiteCompactacao <= 0 || limiteCompactacao > LIMITE_COMPACTACAO_MAXIMO) {
+            throw new IllegalArgumentException("limiteCompactacao deve estar entre 1 e "
+                    + LIMITE_COMPACTACAO_MAXIMO + ": " + limiteCompactacao);
+        }
+        Files.createDirectories(diretorio);
+        TreeMap<Long, Path> snapshots = listar(diretorio, NOME_SNAPSHOT);
+        TreeMap<Long, Path> segmentos = listar(diretorio, NOME_SEGMENTO);
+        long base;
+        if (snapshots.isEmpty()) {
+            if (!segmentos.isEmpty()) {
+                throw new IOException("Diário sem snapshot de base: " + diretorio);
+            }
+            base = 0;
+            catalogo.salvarSnapshot(caminhoSnapshot(diretorio, base));
+        } else {
+            base = snapshots.lastKey();
+            catalogo.carregarSnapshot(snapshots.get(base));
+        }
+
+        long atual = base;
+        long tamanhoValido = -1;
+        Map<Long, Path> seguintes = segmentos.tailMap(base, false);
+        for (Map.Entry<Long, Path> entrada : seguintes.entrySet()) {
+            if (entrada.getKey() != atual + 1) {
+                throw new IOException("Segmento do diário faltando: " + caminhoSegmento(diretorio, atual + 1));
+            }
+            atual = entrada.getKey();
+            tamanhoValido = reaplicar(entrada.getValue(), catalogo, atual == segmentos.lastKey());
+        }
+
+        FileChannel canal;
+        if (tamanhoValido < 0) {
+            canal = criarSegmento(caminhoSegmento(diretorio, ++atual));
+        } else {
+            // descarta o registro incompleto deixado por uma queda
+            canal = FileChannel.open(caminhoSegmento(diretorio, atual), StandardOpenOption.WRITE);
+            canal.truncate(tamanhoValido);
+            canal.position(tamanhoValido);
+            if (tamanhoValido == 0) {
+                escreverCabecalho(canal);
+            }
+        }
+        DiarioCatalogo diario = new DiarioCatalogo(diretorio, limiteCompactacao, canal, atual);
+        diario.apagarAnteriores(base);
+        return diario;
+    }
+
+    /**
+     * Espera a compactação em andamento, sincroniza o que estiver pendente e
+     * fecha o segmento atual.
+     *
+     * @throws IOException se a última escrita ou a sincronização falhar
+     */
+    void fechar() throws IOException {
+        sincronizador.shutdown();
+        compactador.shutdown();
+        try {
+            sincronizador.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            compactador.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido ao fechar o diário");
+        }
+        synchronized (escrita) {
+            try {
+                verificarFalha();
+                descarregar(true);
+            } finally {
+                canal.close();
+            }
+        }
+    }
+
+    /**
+     * Escreve e sincroniza com o disco todos os registros feitos até agora,
+     * sem esperar o próximo intervalo.
+     *
+     * @throws IOException se a escrita falhar
+     */
+    void sincronizar() throws IOException {
+        verificarFalha();
+        descarregar(true);
+    }
+
+    /**
+     * Grava o estado atual do catálogo como snapshot e descarta os segmentos
+     * anteriores. Usado quando o catálogo muda de um jeito que o diário não
+     * registra (troca da raiz, carga de outro snapshot).
+     *
+     * @param catalogo Catálogo deste diário
+     * @throws IOException se a gravação falhar
+     */
+    void consolidar(CatalogoControll catalogo) throws IOException {
+        aguardarCompactacao();
+        long fechado = rotacionar();
+        catalogo.salvarSnapshot(caminhoSnapshot(diretorio, fechado));
+        apagarAnteriores(fechado);
+    }
+
+    // REGISTROS
+
+    void inserirCategoria(String nome, String codigo, String descricao) {
+        synchronized (montagem) {
+            iniciar(INSERIR_CATEGORIA);
+            texto(nome);
+            texto(codigo);
+            texto(descricao);
+            gravar();
+        }
+    }
+
+    void inserirProduto(Produto produto) {
+        synchronized (montagem) {
+            iniciar(INSERIR_PRODUTO);
+            texto(produto.getNome());
+            texto(produto.getCodigo());
+            decimal(produto.getPreco());
+            texto(produto.getMarca());
+            gravar();
+        }
+    }
+
+    /**
+     * Registra a subordinação antes de ela ser aplicada, enquanto a filha
+     * (se já existir) ainda está no lugar antigo.
+     */
+    void definirSubcategoria(Categoria pai, Categoria filho, String nomeFilho) {
+        synchronized (montagem) {
+            iniciar(DEFINIR_SUBCATEGORIA);
+            caminho(pai);
+            if (filho != null) {
+                garantir(1).put((byte) 1);
+                caminho(filho);
+            } else {
+                garantir(1).put((byte) 0);
+                texto(nomeFilho);
+            }
+            gravar();
+        }
+    }
+
+    void associarProduto(Categoria categoria, Produto produto) {
+        synchronized (montagem) {
+            iniciar(ASSOCIAR_PRODUTO);
+            caminho(categoria);
+            texto(produto.getNome());
+            texto(produto.getCodigo());
+            decimal(produto.getPreco());
+            texto(produto.getMarca());
+            gravar();
+        }
+    }
+
+    void desassociarProduto(Categoria categoria, Produto produto) {
+        synchronized (montagem) {
+            iniciar(DESASSOCIAR_PRODUTO);
+            caminho(categoria);
+            texto(produto.getCodigo());
+            gravar();
+        }
+    }
+
+    void removerCategoria(Categoria categoria) {
+        synchronized (montagem) {
+            iniciar(REMOVER_CATEGORIA);
+            caminho(categoria);
+            gravar();
+        }
+    }
+
+    void categoriaAlterada(Categoria categoria, ObservadorCatalogo.Campo campo) {
+        synchronized (montagem) {
+            iniciar(ALTERAR_CATEGORIA);
+            caminho(categoria);
+            garantir(1).put((byte) campo.ordinal());
+            switch (campo) {
+                case NOME:
+                    texto(categoria.getNome());
+                    break;
+                case CODIGO:
+                    texto(categoria.getCodigo());
+                    break;
+                case DESCRICAO:
+                    texto(categoria.getDescricao());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Campo de categoria sem registro: " + campo);
+            }
+            gravar();
+        }
+    }
+
+    /**
+     * @param codigo Código pelo qual o produto era encontrado antes da
+     *               alteração (o anterior, se o próprio código mudou)
+     */
+    void produtoAlterado(Produto produto, String codigo, ObservadorCatalogo.Campo campo) {
+        synchronized (montagem) {
+            iniciar(ALTERAR_PRODUTO);
+            texto(codigo);
+            garantir(1).put((byte) campo.ordinal());
+            switch (campo) {
+                case NOME:
+                    texto(produto.getNome());
+                    break;
+                case CODIGO:
+                    texto(produto.getCodigo());
+                    break;
+                case PRECO:
+                    decimal(produto.getPreco());
+                    break;
+                case MARCA:
+                    texto(produto.getMarca());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Campo de produto sem registro: " + campo);
+            }
+            gravar();
+        }
+    }
+
+    // LOTES
+
+    /**
+     * Passa a guardar os registros seguintes em separado, até
+     * {@link #confirmarLote()} ou {@link #descartarLote()}. Os registros são
+     * montados como de costume, um antes de cada alteração.
+     */
+    void iniciarLote() {
+        synchronized (montagem) {
+            lote = novoBuffer(64 << 10);
+            registrosLote = 0;
+        }
+    }
+
+    /**
+     * Junta os registros do lote em um só e o passa para o buffer pendente,
+     * sem escrever no arquivo: se esta chamada terminar sem exceção, o lote
+     * está no diário. Uma falha ao escrever depois fica guardada e aparece na
+     * próxima operação, como as da sincronização em segundo plano.
+     */
+    void confirmarLote() {
+        int pendentes;
+        synchronized (montagem) {
+            ByteBuffer registros = lote;
+            int quantidade = registrosLote;
+            lote = null;
+            if (quantidade == 0) {
+                return;
+            }
+            iniciar(LOTE);
+            garantir(Integer.BYTES).putInt(quantidade);
+            registros.flip();
+            garantir(registros.remaining()).put(registros);
+            pendentes = enfileirar();
+            // não guarda o buffer do tamanho do lote para os registros seguintes
+            registro = novoBuffer(256);
+        }
+        try {
+            descarregarSeNecessario(pendentes);
+        } catch (IOException e) {
+            falha = e;
+        }
+    }
+
+    /**
+     * Descarta os registros do lote, que não chegam ao diário.
+     */
+    void descartarLote() {
+        synchronized (montagem) {
+            lote = null;
+        }
+    }
+
+    // REAPLICAÇÃO
+
+    /**
+     * Reaplica no catálogo os registros de um segmento.
+     *
+     * @param arquivo          Segmento do diário
+     * @param catalogo         Catálogo no estado anterior ao segmento
+     * @param tolerarIncompleto Se um registro incompleto ou corrompido encerra
+     *                         a leitura (fim do último segmento) em vez de ser
+     *                         tratado como erro
+     * @return Tamanho da parte válida do segmento
+     * @throws IOException se o segmento não puder ser lido ou não corresponder
+     *                     ao catálogo
+     */
+    private static long reaplicar(Path arquivo, CatalogoControll catalogo, boolean tolerarIncompleto)
+            throws IOException {
+        ByteBuffer dados;
+        try (FileChannel leitura = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = leitura.size();
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Segmento do diário grande demais: " + arquivo);
+            }
+            dados = ByteBuffer.allocate((int) tamanho).order(ByteOrder.LITTLE_ENDIAN);
+            while (dados.hasRemaining() && leitura.read(dados) >= 0) {
+                // lê até o fim
+            }
+            dados.flip();
+        }
+        if (dados.limit() < TAMANHO_CABECALHO) {
+            if (tolerarIncompleto) {
+                return 0;
+            }
+            throw new IOException("Segmento do diário incompleto: " + arquivo);
+        }
+        if (dados.getInt(0) != MAGICO || dados.getInt(4) != VERSAO) {
+            throw new IOException("Arquivo não é um segmento do diário: " + arquivo);
+        }
+        CRC32 verificador = new CRC32();
+        int posicao = TAMANHO_CABECALHO;
+        while (posicao < dados.limit()) {
+            int inicio = posicao + TAMANHO_CABECALHO_REGISTRO;
+            int tamanho = (dados.limit() - posicao >= TAMANHO_CABECALHO_REGISTRO) ? dados.getInt(posicao) : -1;
+            boolean valido = tamanho > 0 && tamanho <= dados.limit() - inicio;
+            if (valido) {
+                verificador.reset();
+                verificador.update(dados.array(), inicio, tamanho);
+                valido = (int) verificador.getValue() == dados.getInt(posicao + Integer.BYTES);
+            }
+            if (!valido) {
+                if (tolerarIncompleto) {
+                    return posicao;
+                }
+                throw new IOException("Registro inválido na posição " + posicao + " de " + arquivo);
+            }
+            ByteBuffer conteudo = dados.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            conteudo.limit(inicio + tamanho).position(inicio);
+            try {
+                aplicar(conteudo, catalogo);
+            } catch (RuntimeException e) {
+                throw new IOException("Registro na posição " + posicao + " de " + arquivo
+                        + " não corresponde ao catálogo", e);
+            }
+            posicao = inicio + tamanho;
+        }
+        return posicao;
+    }
+
+    private static void aplicar(ByteBuffer conteudo, CatalogoControll catalogo) {
+        byte tipo = conteudo.get();
+        switch (tipo) {
+            case INSERIR_CATEGORIA:
+                catalogo.inserirCategoria(lerTexto(conteudo), lerTexto(conteudo), lerTexto(conteudo));
+                break;
+            case INSERIR_PRODUTO:
+                catalogo.inserirProduto(lerTexto(conteudo), lerTexto(conteudo), conteudo.getDouble(),
+                        lerTexto(conteudo));
+                break;
+            case DEFINIR_SUBCATEGORIA: {
+                Categoria pai = lerCategoria(conteudo, catalogo);
+                boolean existente = conteudo.get() != 0;
+                Categoria filho = existente ? lerCategoria(conteudo, catalogo) : null;
+                catalogo.subordinar(pai, filho, existente ? null : lerTexto(conteudo));
+                break;
+            }
+            case ASSOCIAR_PRODUTO: {
+                Categoria categoria = lerCategoria(conteudo, catalogo);
+                String nome = lerTexto(conteudo);
+                String codigo = lerTexto(conteudo);
+                double preco = conteudo.getDouble();
+                String marca = lerTexto(conteudo);
+                Produto produto = catalogo.produtoCadastrado(codigo);
+                catalogo.associar(categoria, (produto != null) ? produto : new Produto(nome, codigo, preco, marca));
+                break;
+            }
+            case DESASSOCIAR_PRODUTO: {
+                Categoria categoria = lerCategoria(conteudo, catalogo);
+                Produto produto = catalogo.produtoCadastrado(lerTexto(conteudo));
+                if (produto != null) {
+                    categoria.removerProduto(produto);
+                }
+                break;
+            }
+            case REMOVER_CATEGORIA:
+                catalogo.retirar(lerCategoria(conteudo, catalogo));
+                break;
+            case ALTERAR_CATEGORIA: {
+                Categoria categoria = lerCategoria(conteudo, catalogo);
+                ObservadorCatalogo.Campo campo = CAMPOS[conteudo.get()];
+                String valor = lerTexto(conteudo);
+                if (campo == ObservadorCatalogo.Campo.NOME) {
+                    categoria.setNome(valor);
+                } else if (campo == ObservadorCatalogo.Campo.CODIGO) {
+                    categoria.setCodigo(valor);
+                } else {
+                    categoria.setDescricao(valor);
+                }
+                break;
+            }
+            case LOTE: {
+                int quantidade = conteudo.getInt();
+                for (int i = 0; i < quantidade; i++) {
+                    int tamanho = conteudo.getInt();
+                    int fim = conteudo.position() + tamanho;
+                    ByteBuffer registro = conteudo.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                    registro.limit(fim);
+                    aplicar(registro, catalogo);
+                    conteudo.position(fim);
+                }
+                break;
+            }
+            case ALTERAR_PRODUTO: {
+                String codigo = lerTexto(conteudo);
+                Produto produto = catalogo.produtoCadastrado(codigo);
+                if (produto == null) {
+                    throw new IllegalStateException("Produto não cadastrado: " + codigo);
+                }
+                ObservadorCatalogo.Campo campo = CAMPOS[conteudo.get()];
+                if (campo == ObservadorCatalogo.Campo.PRECO) {
+                    produto.setPreco(conteudo.getDouble());
+                } else if (campo == ObservadorCatalogo.Campo.NOME) {
+                    produto.setNome(lerTexto(conteudo));
+                } else if (campo == ObservadorCatalogo.Campo.CODIGO) {
+                    produto.setCodigo(lerTexto(conteudo));
+                } else {
+                    produto.setMarca(lerTexto(conteudo));
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Tipo de registro desconhecido: " + tipo);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer conteudo) {
+        int tamanho = conteudo.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        String texto = new String(conteudo.array(), conteudo.position(), tamanho, StandardCharsets.UTF_8);
+        conteudo.position(conteudo.position() + tamanho);
+        return texto;
+    }
+
+    private static Categoria lerCategoria(ByteBuffer conteudo, CatalogoControll catalogo) {
+        Categoria atual = catalogo.getRaiz();
+        int profundidade = conteudo.getInt();
+        for (int i = 0; i < profundidade && atual != null; i++) {
+            int posicao = conteudo.getInt();
+            List<Categoria> filhos = atual.getFilhos();
+            atual = (posicao >= 0 && posicao < filhos.size()) ? filhos.get(posicao) : null;
+        }
+        if (atual == null) {
+            throw new IllegalStateException("Categoria do registro não existe na árvore");
+        }
+        return atual;
+    }
+
+    // ESCRITA
+
+    private void iniciar(byte tipo) {
+        verificarDisponivel();
+        registro.clear();
+        registro.position(TAMANHO_CABECALHO_REGISTRO);
+        registro.put(tipo);
+    }
+
+    private void texto(String texto) {
+        if (texto == null) {
+            garantir(Integer.BYTES).putInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        garantir(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private void decimal(double valor) {
+        garantir(Double.BYTES).putDouble(valor);
+    }
+
+    private void caminho(Categoria categoria) {
+        int[] posicoes = new int[categoria.getNivel()];
+        Categoria atual = categoria;
+        for (int i = posicoes.length - 1; i >= 0; i--) {
+            posicoes[i] = atual.posicaoEntreIrmas();
+            atual = atual.getPai();
+        }
+        garantir(Integer.BYTES * (posicoes.length + 1)).putInt(posicoes.length);
+        for (int posicao : posicoes) {
+            registro.putInt(posicao);
+        }
+    }
+
+    private ByteBuffer garantir(int bytes) {
+        if (registro.remaining() < bytes) {
+            registro = crescer(registro, bytes);
+        }
+        return registro;
+    }
+
+    /**
+     * Fecha o registro em montagem (tamanho e CRC) e o passa para o buffer
+     * pendente, ou para o lote em andamento. Se o segmento passou do limite,
+     * dispara a compactação.
+     */
+    private void gravar() {
+        if (lote != null) {
+            int tamanho = registro.position() - TAMANHO_CABECALHO_REGISTRO;
+            if (lote.remaining() < Integer.BYTES + tamanho) {
+                lote = crescer(lote, Integer.BYTES + tamanho);
+            }
+            lote.putInt(tamanho).put(registro.array(), TAMANHO_CABECALHO_REGISTRO, tamanho);
+            registrosLote++;
+            return;
+        }
+        int pendentes = enfileirar();
+        try {
+            descarregarSeNecessario(pendentes);
+        } catch (IOException e) {
+            falha = e;
+            throw new UncheckedIOException("Falha ao gravar o diário do catálogo", e);
+        }
+    }
+
+    /**
+     * Fecha o registro em montagem e o passa para o buffer pendente.
+     *
+     * @return Quantidade de bytes pendentes
+     */
+    private int enfileirar() {
+        int tamanho = registro.position() - TAMANHO_CABECALHO_REGISTRO;
+        crc.reset();
+        crc.update(registro.array(), TAMANHO_CABECALHO_REGISTRO, tamanho);
+        registro.putInt(0, tamanho);
+        registro.putInt(Integer.BYTES, (int) crc.getValue());
+        registro.flip();
+        synchronized (this) {
+            if (pendente.remaining() < registro.remaining()) {
+                pendente = crescer(pendente, registro.remaining());
+            }
+            pendente.put(registro);
+            return pendente.position();
+        }
+    }
+
+    private void descarregarSeNecessario(int pendentes) throws IOException {
+        if (pendentes >= MAXIMO_PENDENTE) {
+            descarregar(false);
+        }
+        if (tamanhoEscrito + pendentes >= limiteCompactacao && (compactacao == null || compactacao.isDone())) {
+            long fechado = rotacionar();
+            compactacao = compactador.submit(() -> compactar(fechado));
+        }
+    }
+
+    /**
+     * Escreve o buffer pendente no segmento atual e, se pedido, sincroniza o
+     * segmento com o disco. Os registros feitos durante a escrita ficam no
+     * outro buffer, para a próxima vez.
+     */
+    private void descarregar(boolean forcar) throws IOException {
+        synchronized (escrita) {
+            ByteBuffer lote;
+            synchronized (this) {
+                lote = pendente;
+                pendente = reserva;
+            }
+            lote.flip();
+            try {
+                while (lote.hasRemaining()) {
+                    tamanhoEscrito += canal.write(lote);
+                }
+            } finally {
+                lote.clear();
+                reserva = lote;
+            }
+            if (forcar && tamanhoSincronizado != tamanhoEscrito) {
+                canal.force(false);
+                tamanhoSincronizado = tamanhoEscrito;
+            }
+        }
+    }
+
+    private void sincronizarEmSegundoPlano() {
+        if (falha != null) {
+            return;
+        }
+        try {
+            descarregar(true);
+        } catch (IOException e) {
+            falha = e;
+        }
+    }
+
+    /**
+     * Fecha o segmento atual (já sincronizado) e passa a escrever no próximo.
+     *
+     * @return Número do segmento fechado
+     */
+    private long rotacionar() throws IOException {
+        synchronized (escrita) {
+            descarregar(true);
+            FileChannel proximo = criarSegmento(caminhoSegmento(diretorio, segmento + 1));
+            canal.close();
+            canal = proximo;
+            tamanhoEscrito = proximo.position();
+            tamanhoSincronizado = tamanhoEscrito;
+            return segmento++;
+        }
+    }
+
+    // COMPACTAÇÃO
+
+    /**
+     * Monta, em um catálogo separado, o estado até o segmento informado e o
+     * grava como snapshot. Roda na thread do compactador.
+     */
+    private void compactar(long ate) {
+        try {
+            TreeMap<Long, Path> snapshots = listar(diretorio, NOME_SNAPSHOT);
+            Long base = snapshots.floorKey(ate);
+            if (base == null) {
+                throw new IOException("Diário sem snapshot de base: " + diretorio);
+            }
+            CatalogoControll copia = new CatalogoControll();
+            copia.carregarSnapshot(snapshots.get(base));
+            for (long numero = base + 1; numero <= ate; numero++) {
+                reaplicar(caminhoSegmento(diretorio, numero), copia, false);
+            }
+            copia.salvarSnapshot(caminhoSnapshot(diretorio, ate));
+            apagarAnteriores(ate);
+        } catch (IOException | RuntimeException e) {
+            // os segmentos continuam valendo; a próxima compactação tenta de novo
+            LOG.log(Level.WARNING, "Falha ao compactar o diário do catálogo", e);
+        }
+    }
+
+    private void aguardarCompactacao() throws IOException {
+        if (compactacao == null) {
+            return;
+        }
+        try {
+            compactacao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido esperando a compactação do diário");
+        } catch (ExecutionException e) {
+            // compactar trata as próprias falhas
+        }
+    }
+
+    /**
+     * Apaga os snapshots anteriores ao informado e os segmentos já contidos
+     * nele. Arquivos que não puderem ser apagados agora (por exemplo, ainda
+     * mapeados em outro sistema) ficam para a próxima vez.
+     */
+    private void apagarAnteriores(long snapshot) throws IOException {
+        synchronized (limpeza) {
+            for (Path arquivo : listar(diretorio, NOME_SNAPSHOT).headMap(snapshot, false).values()) {
+                apagar(arquivo);
+            }
+            for (Path arquivo : listar(diretorio, NOME_SEGMENTO).headMap(snapshot, true).values()) {
+                apagar(arquivo);
+            }
+        }
+    }
+
+    // AUXILIARES
+
+    private void verificarFalha() throws IOException {
+        if (falha != null) {
+            throw new IOException("Diário do catálogo indisponível após falha de escrita", falha);
+        }
+    }
+
+    private void verificarDisponivel() {
+        if (falha != null) {
+            throw new UncheckedIOException("Diário do catálogo indisponível após falha de escrita", falha);
+        }
+    }
+
+    private static FileChannel criarSegmento(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            escreverCabecalho(canal);
+            canal.force(true);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        return canal;
+    }
+
+    private static void escreverCabecalho(FileChannel canal) throws IOException {
+        ByteBuffer cabecalho = novoBuffer(TAMANHO_CABECALHO).putInt(MAGICO).putInt(VERSAO);
+        cabecalho.flip();
+        while (cabecalho.hasRemaining()) {
+            canal.write(cabecalho);
+        }
+    }
+
+    private static TreeMap<Long, Path> listar(Path diretorio, Pattern padrao) throws IOException {
+        TreeMap<Long, Path> arquivos = new TreeMap<>();
+        try (DirectoryStream<Path> conteudo = Files.newDirectoryStream(diretorio)) {
+            for (Path arquivo : conteudo) {
+                Matcher nome = padrao.matcher(arquivo.getFileName().toString());
+                if (nome.matches()) {
+                    arquivos.put(Long.parseLong(nome.group(1)), arquivo);
+                }
+            }
+        }
+        return arquivos;
+    }
+
+    private static Path caminhoSnapshot(Path diretorio, long numero) {
+        return diretorio.resolve(String.format("snapshot-%010d.bin", numero));
+    }
+
+    private static Path caminhoSegmento(Path diretorio, long numero) {
+        return diretorio.resolve(String.format("diario-%010d.log", numero));
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            // fica para a próxima limpeza
+        }
+    }
+
+    private static ByteBuffer novoBuffer(int capacidade) {
+        return ByteBuffer.allocate(capacidade).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer crescer(ByteBuffer atual, int minimoLivre) {
+        int capacidade = Math.max(atual.capacity() * 2, atual.position() + minimoLivre);
+        ByteBuffer maior = novoBuffer(capacidade);
+        atual.flip();
+        maior.put(atual);
+        return maior;
+    }
+
+    private static ThreadFactory threads(String nome) {
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, nome);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,397 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Alteração do catálogo publicada no fluxo de eventos
+ * ({@link CatalogoControll#ativarEventos()}), para quem mantém uma cópia
+ * derivada do catálogo (índice de busca, cache de páginas) e quer aplicar só
+ * o que mudou.
+ *
+ * Cada evento tem um número de sequência, crescente e sem buracos a partir
+ * de 1, e guarda cópias dos dados no momento da alteração (nomes, códigos,
+ * caminho, preço), não referências aos objetos do catálogo: pode ser lido de
+ * qualquer thread e não muda depois de publicado. Os eventos de categoria
+ * trazem nome, código, descrição e caminho; os de criação, associação e
+ * desassociação de produto trazem todos os dados do produto, e os de
+ * alteração de um campo do produto, só o código e o campo alterado. Os
+ * campos que não se aplicam ao evento ficam {@code null} (ou {@code NaN},
+ * nos preços).
+ *
+ * @since 2025
+ */
+public final class EventoCatalogo {
+
+    /**
+     * Tipo da alteração.
+     */
+    public enum Tipo {
+        /**
+         * Categoria criada (inserida ou definida como subcategoria nova).
+         */
+        CATEGORIA_CRIADA,
+
+        /**
+         * Categoria existente posta sob outro pai, com a sua subárvore; traz
+         * o caminho anterior e o novo.
+         */
+        CATEGORIA_MOVIDA,
+
+        /**
+         * Categoria removida com toda a sua subárvore; só o topo gera evento.
+         */
+        CATEGORIA_REMOVIDA,
+
+        /**
+         * Nome da categoria alterado; traz o caminho anterior e o novo.
+         */
+        CATEGORIA_RENOMEADA,
+
+        /**
+         * Código da categoria alterado; o anterior fica em
+         * {@link #getValorAnterior()}.
+         */
+        CATEGORIA_CODIGO_ALTERADO,
+
+        /**
+         * Descrição da categoria alterada; a anterior fica em
+         * {@link #getValorAnterior()}.
+         */
+        CATEGORIA_DESCRICAO_ALTERADA,
+
+        /**
+         * Produto cadastrado no catálogo (por inserção ou na primeira
+         * associação).
+         */
+        PRODUTO_CRIADO,
+
+        /**
+         * Produto associado a uma categoria.
+         */
+        PRODUTO_ASSOCIADO,
+
+        /**
+         * Produto retirado de uma categoria; continua cadastrado.
+         */
+        PRODUTO_DESASSOCIADO,
+
+        /**
+         * Preço do produto alterado; o anterior fica em
+         * {@link #getPrecoAnterior()}.
+         */
+        PRODUTO_REPRECIFICADO,
+
+        /**
+         * Nome do produto alterado; o anterior fica em
+         * {@link #getValorAnterior()}.
+         */
+        PRODUTO_RENOMEADO,
+
+        /**
+         * Código do produto alterado; o anterior fica em
+         * {@link #getValorAnterior()}.
+         */
+        PRODUTO_CODIGO_ALTERADO,
+
+        /**
+         * Marca do produto alterada; a anterior fica em
+         * {@link #getValorAnterior()}.
+         */
+        PRODUTO_MARCA_ALTERADA,
+
+        /**
+         * O conteúdo do catálogo foi substituído de uma vez (troca da raiz,
+         * carga de snapshot, importação, recuperação do diário), sem eventos
+         * por alteração: as cópias derivadas devem ser refeitas a partir do
+         * catálogo.
+         */
+        CATALOGO_RECARREGADO
+    }
+
+    /**
+     * Atribuída por {@link FluxoEventos} na publicação, antes de o evento
+     * ficar visível para as assinaturas.
+     */
+    long sequencia;
+
+    private final Tipo tipo;
+    private final String categoria;
+    private final String codigoCategoria;
+    private final String descricaoCategoria;
+    private final List<String> caminho;
+    private final List<String> caminhoAnterior;
+    private final String produto;
+    private final String nomeProduto;
+    private final String marca;
+    private final double preco;
+    private final double precoAnterior;
+    private final String valorAnterior;
+
+    private EventoCatalogo(Tipo tipo, Categoria categoria, List<String> caminhoAnterior, Produto produto,
+            String valorAnterior, double precoAnterior) {
+        this(tipo, categoria, caminhoAnterior, produto.getCodigo(), produto.getNome(), produto.getMarca(),
+                produto.getPreco(), valorAnterior, precoAnterior);
+    }
+
+    private EventoCatalogo(Tipo tipo, Categoria categoria, List<String> caminhoAnterior, String produto,
+            String nomeProduto, String marca, double preco, String valorAnterior, double precoAnterior) {
+        this.tipo = tipo;
+        if (categoria != null) {
+            this.categoria = categoria.getNome();
+            this.codigoCategoria = categoria.getCodigo();
+            this.descricaoCategoria = categoria.getDescricao();
+            this.caminho = caminho(categoria);
+        } else {
+            this.categoria = null;
+            this.codigoCategoria = null;
+            this.descricaoCategoria = null;
+            this.caminho = null;
+        }
+        this.caminhoAnterior = caminhoAnterior;
+        this.produto = produto;
+        this.nomeProduto = nomeProduto;
+        this.marca = marca;
+        this.preco = preco;
+        this.valorAnterior = valorAnterior;
+        this.precoAnterior = precoAnterior;
+    }
+
+    // CRIAÇÃO
+
+    /**
+     * Cria o evento de criação, movimentação ou remoção de uma categoria,
+     * lendo os dados dela no estado atual.
+     *
+     * @param caminhoAnterior Caminho antes de a categoria ser movida, ou
+     *                        {@code null}
+     */
+    static EventoCatalogo categoria(Tipo tipo, Categoria categoria, List<String> caminhoAnterior) {
+        return new EventoCatalogo(tipo, categoria, caminhoAnterior, null, null, null, Double.NaN, null, Double.NaN);
+    }
+
+    /**
+     * Cria o evento de criação, associação ou desassociação de um produto,
+     * lendo os dados dele no estado atual.
+     *
+     * @param categoria Categoria da associação ou desassociação, ou
+     *                  {@code null}
+     */
+    static EventoCatalogo produto(Tipo tipo, Produto produto, Categoria categoria) {
+        return new EventoCatalogo(tipo, categoria, null, produto, null, Double.NaN);
+    }
+
+    /**
+     * Cria o evento da alteração de um campo de categoria por setter.
+     *
+     * @param valorAnterior Valor recebido por {@link ObservadorCatalogo#categoriaAlterada}
+     */
+    static EventoCatalogo categoriaAlterada(Categoria categoria, ObservadorCatalogo.Campo campo,
+            Object valorAnterior) {
+        switch (campo) {
+            case NOME:
+                String[] anterior = caminho(categoria).toArray(new String[0]);
+                anterior[anterior.length - 1] = (String) valorAnterior;
+                return categoriaAlterada(Tipo.CATEGORIA_RENOMEADA, categoria,
+                        Collections.unmodifiableList(Arrays.asList(anterior)), valorAnterior);
+            case CODIGO:
+                return categoriaAlterada(Tipo.CATEGORIA_CODIGO_ALTERADO, categoria, null, valorAnterior);
+            default:
+                return categoriaAlterada(Tipo.CATEGORIA_DESCRICAO_ALTERADA, categoria, null, valorAnterior);
+        }
+    }
+
+    /**
+     * Cria o evento da alteração de um campo de produto por setter.
+     *
+     * @param valorAnterior Valor recebido por {@link ObservadorCatalogo#produtoAlterado}
+     */
+    static EventoCatalogo produtoAlterado(Produto produto, ObservadorCatalogo.Campo campo, Object valorAnterior) {
+        // só o código e o campo alterado: ler os demais do armazém custaria mais que o próprio setter
+        String codigo = produto.getCodigo();
+        switch (campo) {
+            case PRECO:
+                return new EventoCatalogo(Tipo.PRODUTO_REPRECIFICADO, null, null, codigo, null, null,
+                        produto.getPreco(), null, (Double) valorAnterior);
+            case NOME:
+                return new EventoCatalogo(Tipo.PRODUTO_RENOMEADO, null, null, codigo, produto.getNome(), null,
+                        Double.NaN, (String) valorAnterior, Double.NaN);
+            case CODIGO:
+                return new EventoCatalogo(Tipo.PRODUTO_CODIGO_ALTERADO, null, null, codigo, null, null,
+                        Double.NaN, (String) valorAnterior, Double.NaN);
+            default:
+                return new EventoCatalogo(Tipo.PRODUTO_MARCA_ALTERADA, null, null, codigo, null,
+                        produto.getMarca(), Double.NaN, (String) valorAnterior, Double.NaN);
+        }
+    }
+
+    /**
+     * Cria o evento de substituição do conteúdo do catálogo.
+     */
+    static EventoCatalogo recarregado() {
+        return new EventoCatalogo(Tipo.CATALOGO_RECARREGADO, null, null, null, null, null, Double.NaN, null,
+                Double.NaN);
+    }
+
+    private static EventoCatalogo categoriaAlterada(Tipo tipo, Categoria categoria, List<String> caminhoAnterior,
+            Object valorAnterior) {
+        return new EventoCatalogo(tipo, categoria, caminhoAnterior, null, null, null, Double.NaN,
+                (String) valorAnterior, Double.NaN);
+    }
+
+    /**
+     * Retorna os nomes das categorias da raiz até a informada, no estado
+     * atual da árvore.
+     *
+     * @param categoria Categoria da árvore
+     * @return Lista somente leitura, com a raiz na posição 0
+     */
+    static List<String> caminho(Categoria categoria) {
+        Categoria[] ancestrais = categoria.getAncestrais();
+        String[] nomes = new String[ancestrais.length];
+        for (int i = 0; i < ancestrais.length; i++) {
+            nomes[i] = ancestrais[i].getNome();
+        }
+        return Collections.unmodifiableList(Arrays.asList(nomes));
+    }
+
+    // LEITURA
+
+    /**
+     * Retorna o número de sequência do evento no fluxo.
+     *
+     * @return Sequência, a partir de 1
+     */
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    /**
+     * Retorna o tipo da alteração.
+     *
+     * @return Tipo do evento
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna o nome da categoria alterada, ou da categoria onde o produto
+     * foi associado ou desassociado (o nome novo, se ela foi renomeada).
+     *
+     * @return Nome da categoria, ou {@code null} se o evento não envolve
+     *         categoria
+     */
+    public String getCategoria() {
+        return categoria;
+    }
+
+    /**
+     * Retorna o código da categoria (o novo, se ele foi alterado).
+     *
+     * @return Código da categoria, ou {@code null}
+     */
+    public String getCodigoCategoria() {
+        return codigoCategoria;
+    }
+
+    /**
+     * Retorna a descrição da categoria (a nova, se ela foi alterada).
+     *
+     * @return Descrição da categoria, ou {@code null}
+     */
+    public String getDescricaoCategoria() {
+        return descricaoCategoria;
+    }
+
+    /**
+     * Retorna os nomes das categorias da raiz até a categoria do evento,
+     * depois da alteração (na remoção, o caminho que ela tinha).
+     *
+     * @return Lista somente leitura, ou {@code null} se o evento não envolve
+     *         categoria
+     */
+    public List<String> getCaminho() {
+        return caminho;
+    }
+
+    /**
+     * Retorna o caminho da categoria antes de ela ser movida ou renomeada.
+     *
+     * @return Lista somente leitura, ou {@code null} para os demais tipos
+     */
+    public List<String> getCaminhoAnterior() {
+        return caminhoAnterior;
+    }
+
+    /**
+     * Retorna o código do produto (o novo, se ele foi alterado).
+     *
+     * @return Código do produto, ou {@code null} se o evento não envolve
+     *         produto
+     */
+    public String getProduto() {
+        return produto;
+    }
+
+    /**
+     * Retorna o nome do produto.
+     *
+     * @return Nome do produto, ou {@code null}
+     */
+    public String getNomeProduto() {
+        return nomeProduto;
+    }
+
+    /**
+     * Retorna a marca do produto.
+     *
+     * @return Marca do produto, ou {@code null}
+     */
+    public String getMarca() {
+        return marca;
+    }
+
+    /**
+     * Retorna o preço do produto (o novo, se ele foi alterado).
+     *
+     * @return Preço, ou {@code NaN} se o evento não envolve produto
+     */
+    public double getPreco() {
+        return preco;
+    }
+
+    /**
+     * Retorna o preço do produto antes de {@link Tipo#PRODUTO_REPRECIFICADO}.
+     *
+     * @return Preço anterior, ou {@code NaN} para os demais tipos
+     */
+    public double getPrecoAnterior() {
+        return precoAnterior;
+    }
+
+    /**
+     * Retorna o valor anterior do campo alterado (código ou descrição da
+     * categoria; nome, código ou marca do produto; nome da categoria
+     * renomeada).
+     *
+     * @return Valor anterior, ou {@code null} para os demais tipos
+     */
+    public String getValorAnterior() {
+        return valorAnterior;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder().append('#').append(sequencia).append(' ').append(tipo);
+        if (caminho != null) {
+            texto.append(' ').append(String.join(" > ", caminho));
+        }
+        if (produto != null) {
+            texto.append(" produto ").append(produto);
+        }
+        if (valorAnterior != null) {
+            texto.append(" (antes: ").append(valorAnterior).append(')');
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Anel de tamanho fixo com os eventos mais recentes do catálogo
+ * ({@link EventoCatalogo}), lido pelas {@link AssinaturaEventos}.
+ *
+ * Quem altera o catálogo nunca espera as assinaturas: cada evento recebe a
+ * próxima sequência e ocupa a posição {@code sequencia % capacidade},
+ * sobrescrevendo o evento de {@code capacidade} sequências antes, e só então
+ * a sequência publicada avança. A publicação passa por um monitor curto, só
+ * para que eventos de threads diferentes (com a escrita concorrente) saiam
+ * em ordem e sem buracos.
+ *
+ * A leitura não trava nada: uma assinatura lê a posição da sequência que
+ * espera e confere a sequência do evento encontrado. Se ela for maior, o
+ * evento esperado já foi sobrescrito e a assinatura ficou para trás (ver
+ * {@link AssinaturaEventos#isAtrasada()}); como os eventos são imutáveis,
+ * o que foi lido com a sequência certa está inteiro.
+ *
+ * @since 2025
+ */
+final class FluxoEventos {
+
+    /**
+     * Capacidade usada por {@link CatalogoControll#ativarEventos()}.
+     */
+    static final int CAPACIDADE_PADRAO = 1 << 16;
+
+    private final AtomicReferenceArray<EventoCatalogo> anel;
+    private final int mascara;
+
+    /**
+     * Sequência do próximo evento a publicar; todos os anteriores já estão
+     * no anel.
+     */
+    private volatile long proxima = 1;
+
+    /**
+     * Cria um fluxo vazio.
+     *
+     * @param capacidade Quantidade de eventos guardados, arredondada para a
+     *                   potência de 2 seguinte
+     * @throws IllegalArgumentException se a capacidade não for positiva
+     */
+    FluxoEventos(int capacidade) {
+        if (capacidade <= 0 || capacidade > 1 << 30) {
+            throw new IllegalArgumentException("Capacidade do fluxo de eventos inválida: " + capacidade);
+        }
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+        this.anel = new AtomicReferenceArray<>(tamanho);
+        this.mascara = tamanho - 1;
+    }
+
+    // PUBLICAÇÃO
+
+    /**
+     * Publica um evento com a próxima sequência.
+     *
+     * @param evento Evento ainda sem sequência
+     */
+    synchronized void publicar(EventoCatalogo evento) {
+        long sequencia = proxima;
+        evento.sequencia = sequencia;
+        anel.set((int) sequencia & mascara, evento);
+        proxima = sequencia + 1;
+    }
+
+    /**
+     * Publica os eventos em ordem, com sequências seguidas, sem eventos de
+     * outras threads no meio.
+     *
+     * @param eventos Eventos ainda sem sequência
+     */
+    synchronized void publicar(List<EventoCatalogo> eventos) {
+        for (EventoCatalogo evento : eventos) {
+            publicar(evento);
+        }
+    }
+
+    // LEITURA
+
+    /**
+     * Retorna a sequência que o próximo evento publicado vai receber.
+     *
+     * @return Próxima sequência (1 se nada foi publicado)
+     */
+    long getProxima() {
+        return proxima;
+    }
+
+    /**
+     * Retorna a sequência do evento mais antigo ainda no anel.
+     *
+     * @return Primeira sequência disponível (igual a {@link #getProxima()}
+     *         se o anel estiver vazio)
+     */
+    long getPrimeira() {
+        return Math.max(1, proxima - capacidade());
+    }
+
+    int capacidade() {
+        return mascara + 1;
+    }
+
+    /**
+     * Lê o evento de uma sequência já publicada.
+     *
+     * @param sequencia Sequência menor que {@link #getProxima()}
+     * @return Evento, ou {@code null} se ele já foi sobrescrito
+     */
+    EventoCatalogo ler(long sequencia) {
+        EventoCatalogo evento = anel.get((int) sequencia & mascara);
+        return (evento != null && evento.sequencia == sequencia) ? evento : null;
+    }
+}
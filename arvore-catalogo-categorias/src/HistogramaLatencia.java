@@ -0,0 +1,141 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências em nanossegundos, com faixas de largura
+ * logarítmica no estilo do HdrHistogram: cada potência de dois é dividida em
+ * {@value #SUBFAIXAS} subfaixas iguais, então o erro de um percentil é de no
+ * máximo 1/{@value #SUBFAIXAS} do valor (cerca de 6%), de nanossegundos a
+ * horas, com um vetor fixo de contadores.
+ *
+ * Registrar um valor incrementa um contador da faixa e a soma, sem travas;
+ * pode ser feito de várias threads ao mesmo tempo. As leituras
+ * ({@link #percentil(double)}, {@link #getQuantidade()}) somam os contadores
+ * no momento da chamada e podem não incluir os registros em andamento.
+ *
+ * @since 2025
+ */
+final class HistogramaLatencia {
+
+    private static final int BITS_SUBFAIXA = 4;
+    static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+    /**
+     * Valores abaixo deste limite têm uma faixa cada um.
+     */
+    private static final int LIMITE_EXATO = 2 * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray((64 - BITS_SUBFAIXA + 1) * SUBFAIXAS);
+    private final AtomicLong soma = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra uma medição.
+     *
+     * @param nanossegundos Duração medida; valores negativos contam como zero
+     */
+    void registrar(long nanossegundos) {
+        long valor = Math.max(0, nanossegundos);
+        contagens.incrementAndGet(faixa(valor));
+        soma.addAndGet(valor);
+        long atual = maximo.get();
+        while (valor > atual && !maximo.compareAndSet(atual, valor)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de medições registradas.
+     */
+    long getQuantidade() {
+        long quantidade = 0;
+        for (int i = 0; i < contagens.length(); i++) {
+            quantidade += contagens.get(i);
+        }
+        return quantidade;
+    }
+
+    /**
+     * Retorna a média das medições, ou zero se não houver nenhuma.
+     */
+    double getMedia() {
+        long quantidade = getQuantidade();
+        return (quantidade == 0) ? 0 : soma.get() / (double) quantidade;
+    }
+
+    /**
+     * Retorna a maior medição registrada (exata), ou zero se não houver
+     * nenhuma.
+     */
+    long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Retorna o menor valor que é maior ou igual à fração {@code p} das
+     * medições, arredondado para cima até o fim da faixa (sem passar do
+     * máximo registrado).
+     *
+     * @param p Fração entre 0 e 1 (0,99 para o p99)
+     * @return Percentil em nanossegundos, ou zero se não houver medições
+     */
+    long percentil(double p) {
+        long[] copia = new long[contagens.length()];
+        long quantidade = 0;
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = contagens.get(i);
+            quantidade += copia[i];
+        }
+        if (quantidade == 0) {
+            return 0;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(p * quantidade));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= posicao) {
+                return Math.min(fimDaFaixa(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Zera as medições. Registros feitos durante a chamada podem ser
+     * mantidos ou descartados.
+     */
+    void zerar() {
+        for (int i = 0; i < contagens.length(); i++) {
+            contagens.set(i, 0);
+        }
+        soma.set(0);
+        maximo.set(0);
+    }
+
+    // FAIXAS
+
+    /**
+     * Faixa de um valor não negativo: o próprio valor abaixo de
+     * {@link #LIMITE_EXATO}; acima, a potência de dois seguida dos
+     * {@link #BITS_SUBFAIXA} bits logo abaixo do mais alto.
+     */
+    static int faixa(long valor) {
+        if (valor < LIMITE_EXATO) {
+            return (int) valor;
+        }
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBFAIXA;
+        return (deslocamento + 1) * SUBFAIXAS + (int) ((valor >>> deslocamento) & (SUBFAIXAS - 1));
+    }
+
+    /**
+     * Maior valor que cai na faixa informada.
+     */
+    static long fimDaFaixa(int faixa) {
+        if (faixa < LIMITE_EXATO) {
+            return faixa;
+        }
+        int deslocamento = faixa / SUBFAIXAS - 1;
+        long inicio = (long) (SUBFAIXAS + faixa % SUBFAIXAS) << deslocamento;
+        return inicio + (1L << deslocamento) - 1;
+    }
+}
@@ -0,0 +1,907 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Importação em lote de categorias e produtos a partir de arquivos CSV ou
+ * JSONL (um objeto JSON por linha), sem as buscas por nome nem as mensagens
+ * das operações unitárias do {@link CatalogoControll}.
+ *
+ * Categorias: campos {@code codigo}, {@code nome}, {@code descricao} e
+ * {@code pai} (código da categoria pai, nova ou já existente; vazio para
+ * categorias de topo). Produtos: {@code codigo}, {@code nome}, {@code preco},
+ * {@code marca} e {@code categorias} (códigos separados por {@code |} no CSV,
+ * ou uma lista no JSONL). No CSV a primeira linha é o cabeçalho, com as
+ * colunas em qualquer ordem; campos entre aspas seguem a RFC 4180, sem
+ * quebra de linha dentro do campo.
+ *
+ * O arquivo é dividido em blocos terminados em quebra de linha, lidos e
+ * convertidos em paralelo. As categorias novas são ligadas pelo código do
+ * pai em uma única passada e recebem os produtos ainda fora da árvore; só
+ * então tamanhos e resumos são somados de baixo para cima, e cada subárvore
+ * nova é anexada ao catálogo de uma vez. Linhas com erro são ignoradas e
+ * relatadas pelo número da linha, sem interromper a importação.
+ *
+ * @since 2025
+ */
+final class ImportadorCatalogo {
+
+    /**
+     * Formato de arquivo aceito, escolhido pela extensão.
+     */
+    enum Formato {
+        CSV,
+        JSONL;
+
+        /**
+         * Deduz o formato pela extensão do arquivo.
+         *
+         * @param arquivo Arquivo de entrada
+         * @return Formato correspondente
+         * @throws IllegalArgumentException se a extensão não for reconhecida
+         */
+        static Formato doArquivo(Path arquivo) {
+            String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (nome.endsWith(".csv")) {
+                return CSV;
+            }
+            if (nome.endsWith(".jsonl") || nome.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Formato de arquivo não suportado (use .csv, .jsonl ou .ndjson): "
+                    + arquivo);
+        }
+    }
+
+    /**
+     * Tamanho aproximado de cada bloco lido em paralelo.
+     */
+    private static final int TAMANHO_BLOCO = 4 << 20;
+
+    // CAMPOS
+
+    private static final int CODIGO = 0;
+    private static final int NOME = 1;
+    private static final int DESCRICAO = 2;
+    private static final int PAI = 3;
+    private static final int PRECO = 2;
+    private static final int MARCA = 3;
+    private static final int CATEGORIAS = 4;
+
+    private static final Esquema ESQUEMA_CATEGORIAS =
+            new Esquema(new String[] {"codigo", "nome", "descricao", "pai"}, 2, -1, -1, PAI);
+    private static final Esquema ESQUEMA_PRODUTOS =
+            new Esquema(new String[] {"codigo", "nome", "preco", "marca", "categorias"}, 3, PRECO, CATEGORIAS, MARCA);
+
+    /**
+     * Campos de um tipo de linha: nomes, quantos dos primeiros são
+     * obrigatórios, qual é numérico, qual aceita lista e qual se repete
+     * muito entre as linhas (uma só instância de cada valor por bloco, o que
+     * poupa memória e o cálculo de hash nos resumos por marca).
+     */
+    private static final class Esquema {
+        final String[] campos;
+        final int obrigatorios;
+        final int numerico;
+        final int lista;
+        final int repetido;
+
+        Esquema(String[] campos, int obrigatorios, int numerico, int lista, int repetido) {
+            this.campos = campos;
+            this.obrigatorios = obrigatorios;
+            this.numerico = numerico;
+            this.lista = lista;
+            this.repetido = repetido;
+        }
+
+        /**
+         * Posição do campo com o nome informado, sem diferenciar maiúsculas
+         * nem acentos ("Preço" equivale a "preco"), ou -1.
+         */
+        int indice(String nome) {
+            String simples = Normalizer.normalize(nome.trim(), Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+            return Arrays.asList(campos).indexOf(simples);
+        }
+    }
+
+    /**
+     * Linha de dados convertida: número da linha e valor de cada campo do
+     * esquema ({@code String}, {@code Double} no campo numérico ou
+     * {@code List<String>} no campo de lista), {@code null} se vazio.
+     */
+    private static final class Linha {
+        long numero;
+        final Object[] valores;
+
+        Linha(long numero, Object[] valores) {
+            this.numero = numero;
+            this.valores = valores;
+        }
+
+        String texto(int campo) {
+            return (String) valores[campo];
+        }
+    }
+
+    /**
+     * Resultado da leitura de um bloco, com números de linha relativos ao
+     * início do bloco.
+     */
+    private static final class Bloco {
+        final List<Linha> linhas = new ArrayList<>();
+        final List<Linha> erros = new ArrayList<>();
+        long quantidadeLinhas;
+    }
+
+    private final CatalogoControll catalogo;
+    private final RelatorioImportacao relatorio = new RelatorioImportacao();
+
+    /**
+     * Categorias novas que entraram na árvore, pelo código normalizado.
+     */
+    private final Map<String, Categoria> novas = new HashMap<>();
+
+    /**
+     * Categoria já existente no catálogo sob a qual cada subárvore nova será
+     * anexada (ausente para subárvores de topo).
+     */
+    private final Map<Categoria, Categoria> paisExistentes = new IdentityHashMap<>();
+
+    ImportadorCatalogo(CatalogoControll catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    /**
+     * Lê os dois arquivos e aplica o conteúdo ao catálogo. Os arquivos são
+     * lidos por inteiro antes de qualquer alteração, de modo que um arquivo
+     * ilegível não deixa o catálogo pela metade.
+     *
+     * @param arquivoCategorias Arquivo de categorias, ou {@code null}
+     * @param arquivoProdutos   Arquivo de produtos, ou {@code null}
+     * @return Relatório da importação
+     * @throws IOException se um arquivo não puder ser lido ou não tiver o
+     *                     cabeçalho esperado
+     */
+    RelatorioImportacao importar(Path arquivoCategorias, Path arquivoProdutos) throws IOException {
+        // os erros de categorias vêm antes dos de produtos no relatório
+        if (arquivoCategorias != null) {
+            relatorio.arquivo(arquivoCategorias);
+        }
+        if (arquivoProdutos != null) {
+            relatorio.arquivo(arquivoProdutos);
+        }
+        List<Linha> categorias = (arquivoCategorias != null)
+                ? ler(arquivoCategorias, ESQUEMA_CATEGORIAS)
+                : Collections.emptyList();
+        List<Linha> produtos = (arquivoProdutos != null)
+                ? ler(arquivoProdutos, ESQUEMA_PRODUTOS)
+                : Collections.emptyList();
+
+        List<Categoria> topos = montarCategorias(arquivoCategorias, categorias);
+        associarProdutos(arquivoProdutos, produtos);
+        for (Categoria topo : topos) {
+            somarSubarvore(topo);
+            catalogo.anexarImportada(paisExistentes.get(topo), topo);
+        }
+        return relatorio;
+    }
+
+    // MONTAGEM
+
+    /**
+     * Cria as categorias novas e as liga pelo código do pai. Categorias que
+     * não alcançam um topo (pai inexistente, pai recusado ou ciclo entre
+     * categorias novas) são recusadas.
+     *
+     * @return Raízes das subárvores novas, na ordem do arquivo
+     */
+    private List<Categoria> montarCategorias(Path arquivo, List<Linha> linhas) {
+        Map<String, Categoria> criadas = new HashMap<>();
+        Categoria[] categorias = new Categoria[linhas.size()];
+        for (int i = 0; i < linhas.size(); i++) {
+            Linha linha = linhas.get(i);
+            String codigo = linha.texto(CODIGO);
+            String chave = IndiceCategorias.normalizar(codigo);
+            if (catalogo.buscarCategoriaPorCodigo(codigo) != null) {
+                relatorio.erro(arquivo, linha.numero, "já existe uma categoria com o código '" + codigo + "'");
+            } else if (criadas.containsKey(chave)) {
+                relatorio.erro(arquivo, linha.numero, "código '" + codigo + "' repetido no arquivo");
+            } else {
+                categorias[i] = new Categoria(linha.texto(NOME), codigo, linha.texto(DESCRICAO));
+                criadas.put(chave, categorias[i]);
+            }
+        }
+
+        List<Categoria> topos = new ArrayList<>();
+        for (int i = 0; i < linhas.size(); i++) {
+            Categoria categoria = categorias[i];
+            if (categoria == null) {
+                continue;
+            }
+            String codigoPai = linhas.get(i).texto(PAI);
+            Categoria pai = (codigoPai != null) ? criadas.get(IndiceCategorias.normalizar(codigoPai)) : null;
+            if (pai != null) {
+                pai.anexarCarregada(categoria);
+                continue;
+            }
+            if (codigoPai != null) {
+                pai = catalogo.buscarCategoriaPorCodigo(codigoPai);
+                if (pai == null) {
+                    relatorio.erro(arquivo, linhas.get(i).numero, "categoria pai '" + codigoPai + "' não encontrada");
+                    categorias[i] = null;
+                    continue;
+                }
+                paisExistentes.put(categoria, pai);
+            }
+            topos.add(categoria);
+        }
+
+        for (Categoria topo : topos) {
+            for (Categoria categoria : PercursoArvore.preOrdem(topo)) {
+                novas.put(IndiceCategorias.normalizar(categoria.getCodigo()), categoria);
+                relatorio.categoriaImportada();
+            }
+        }
+        for (int i = 0; i < linhas.size(); i++) {
+            Categoria categoria = categorias[i];
+            if (categoria != null && novas.get(IndiceCategorias.normalizar(categoria.getCodigo())) != categoria) {
+                relatorio.erro(arquivo, linhas.get(i).numero, "categoria pai '" + linhas.get(i).texto(PAI)
+                        + "' não foi importada (ciclo ou pai recusado)");
+            }
+        }
+        return topos;
+    }
+
+    /**
+     * Cadastra os produtos novos e os associa às categorias. Nas categorias
+     * novas, ainda fora da árvore, só o resumo da própria categoria é
+     * atualizado; nas já existentes, a associação é a normal.
+     *
+     * As categorias da linha são resolvidas antes do cadastro: um produto
+     * novo cujas categorias informadas não existem é recusado, em vez de
+     * ficar cadastrado sem categoria. Sem a coluna de categorias, o produto
+     * é só cadastrado.
+     */
+    private void associarProdutos(Path arquivo, List<Linha> linhas) {
+        // poucos códigos de categoria se repetem em muitas linhas: evita normalizar a cada uma
+        Map<String, Categoria> novasPorCodigoLido = new HashMap<>();
+        List<Categoria> novasDaLinha = new ArrayList<>();
+        List<Categoria> existentesDaLinha = new ArrayList<>();
+        List<String> naoEncontradas = new ArrayList<>();
+        for (Linha linha : linhas) {
+            @SuppressWarnings("unchecked")
+            List<String> codigosCategoria = (List<String>) linha.valores[CATEGORIAS];
+            novasDaLinha.clear();
+            existentesDaLinha.clear();
+            naoEncontradas.clear();
+            if (codigosCategoria != null) {
+                for (String codigoCategoria : codigosCategoria) {
+                    Categoria categoria = novasPorCodigoLido.computeIfAbsent(codigoCategoria,
+                            codigoLido -> novas.get(IndiceCategorias.normalizar(codigoLido)));
+                    if (categoria != null) {
+                        novasDaLinha.add(categoria);
+                    } else if ((categoria = catalogo.buscarCategoriaPorCodigo(codigoCategoria)) != null) {
+                        existentesDaLinha.add(categoria);
+                    } else {
+                        naoEncontradas.add(codigoCategoria);
+                    }
+                }
+            }
+
+            String codigo = linha.texto(CODIGO);
+            Produto produto = catalogo.produtoCadastrado(codigo);
+            if (produto == null && !naoEncontradas.isEmpty()
+                    && novasDaLinha.isEmpty() && existentesDaLinha.isEmpty()) {
+                relatorio.erro(arquivo, linha.numero, "produto '" + codigo + "' não cadastrado: "
+                        + ((naoEncontradas.size() == 1) ? "categoria '" + naoEncontradas.get(0) + "' não encontrada"
+                                : "categorias " + naoEncontradas + " não encontradas"));
+                continue;
+            }
+            for (String codigoCategoria : naoEncontradas) {
+                relatorio.erro(arquivo, linha.numero, "categoria '" + codigoCategoria + "' não encontrada");
+            }
+            if (produto == null) {
+                produto = new Produto(linha.texto(NOME), codigo, (Double) linha.valores[PRECO], linha.texto(MARCA));
+                catalogo.registrarProduto(produto);
+                relatorio.produtoImportado();
+            }
+            for (Categoria categoria : novasDaLinha) {
+                if (categoria.adicionarProdutoCarregado(produto)) {
+                    relatorio.associacaoImportada();
+                }
+            }
+            for (Categoria categoria : existentesDaLinha) {
+                if (!produto.pertenceA(categoria)) {
+                    categoria.adicionarProduto(produto);
+                    relatorio.associacaoImportada();
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma tamanhos e resumos de uma subárvore nova de baixo para cima.
+     */
+    private static void somarSubarvore(Categoria topo) {
+        List<Categoria> ordem = new ArrayList<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(topo)) {
+            ordem.add(categoria);
+        }
+        // em pré-ordem as filhas vêm depois do pai: somar de trás para frente
+        for (int i = ordem.size() - 1; i > 0; i--) {
+            Categoria categoria = ordem.get(i);
+            categoria.getPai().tamanho += categoria.tamanho;
+            categoria.getPai().agregado.somar(categoria.agregado);
+        }
+    }
+
+    // LEITURA
+
+    /**
+     * Lê um arquivo inteiro, em blocos paralelos, e devolve as linhas
+     * válidas na ordem do arquivo. Linhas inválidas vão para o relatório.
+     */
+    private List<Linha> ler(Path arquivo, Esquema esquema) throws IOException {
+        Formato formato = Formato.doArquivo(arquivo);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long inicio = comecaComBom(canal) ? 3 : 0;
+            long primeiraLinha = 1;
+            int[] colunas = null;
+            if (formato == Formato.CSV) {
+                long fimCabecalho = fimDaLinha(canal, inicio, tamanho);
+                byte[] cabecalho = lerTrecho(canal, inicio, fimCabecalho);
+                colunas = mapearColunas(arquivo, cabecalho, esquema);
+                inicio = fimCabecalho;
+                primeiraLinha = 2;
+            }
+
+            List<long[]> trechos = new ArrayList<>();
+            while (inicio < tamanho) {
+                long fim = (tamanho - inicio > TAMANHO_BLOCO) ? fimDaLinha(canal, inicio + TAMANHO_BLOCO, tamanho) : tamanho;
+                if (fim - inicio > Integer.MAX_VALUE - 8) {
+                    throw new IOException("Linha longa demais em " + arquivo);
+                }
+                trechos.add(new long[] {inicio, fim});
+                inicio = fim;
+            }
+
+            int[] mapa = colunas;
+            List<Bloco> blocos;
+            try {
+                blocos = IntStream.range(0, trechos.size()).parallel()
+                        .mapToObj(i -> lerBloco(canal, trechos.get(i), formato, esquema, mapa))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            List<Linha> linhas = new ArrayList<>();
+            long deslocamento = primeiraLinha;
+            for (Bloco bloco : blocos) {
+                for (Linha linha : bloco.linhas) {
+                    linha.numero += deslocamento;
+                    linhas.add(linha);
+                }
+                for (Linha erro : bloco.erros) {
+                    relatorio.erro(arquivo, erro.numero + deslocamento, erro.texto(0));
+                }
+                relatorio.linhasLidas(bloco.linhas.size() + bloco.erros.size());
+                deslocamento += bloco.quantidadeLinhas;
+            }
+            return linhas;
+        }
+    }
+
+    /**
+     * Lê e converte as linhas de um trecho do arquivo. Roda em paralelo com
+     * os outros blocos; erros de linha ficam no bloco, com a mensagem no
+     * primeiro valor.
+     */
+    private static Bloco lerBloco(FileChannel canal, long[] trecho, Formato formato, Esquema esquema, int[] mapa) {
+        byte[] dados;
+        try {
+            dados = lerTrecho(canal, trecho[0], trecho[1]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Bloco bloco = new Bloco();
+        LeitorJson json = (formato == Formato.JSONL) ? new LeitorJson(dados, esquema) : null;
+        Map<String, String> repetidos = new HashMap<>();
+        int posicao = 0;
+        long linha = 0;
+        while (posicao < dados.length) {
+            int quebra = posicao;
+            while (quebra < dados.length && dados[quebra] != '\n') {
+                quebra++;
+            }
+            int fim = (quebra > posicao && dados[quebra - 1] == '\r') ? quebra - 1 : quebra;
+            if (!emBranco(dados, posicao, fim)) {
+                try {
+                    Object[] valores = (json != null)
+                            ? json.lerObjeto(posicao, fim)
+                            : lerCsv(dados, posicao, fim, mapa, esquema.campos.length);
+                    validar(valores, esquema, repetidos);
+                    bloco.linhas.add(new Linha(linha, valores));
+                } catch (IllegalArgumentException e) {
+                    bloco.erros.add(new Linha(linha, new Object[] {e.getMessage()}));
+                }
+            }
+            linha++;
+            posicao = quebra + 1;
+        }
+        bloco.quantidadeLinhas = linha;
+        return bloco;
+    }
+
+    /**
+     * Confere os campos obrigatórios, converte o numérico e o de lista e
+     * troca o valor do campo repetido pela instância já vista no bloco.
+     */
+    private static void validar(Object[] valores, Esquema esquema, Map<String, String> repetidos) {
+        for (int campo = 0; campo < valores.length; campo++) {
+            Object valor = valores[campo];
+            if ("".equals(valor)) {
+                valores[campo] = valor = null;
+            }
+            if (valor == null) {
+                if (campo < esquema.obrigatorios) {
+                    throw new IllegalArgumentException("campo obrigatório vazio: " + esquema.campos[campo]);
+                }
+            } else if (campo == esquema.numerico) {
+                valores[campo] = numero(esquema.campos[campo], valor);
+            } else if (campo == esquema.lista) {
+                valores[campo] = (valor instanceof List) ? valor : separar((String) valor);
+            } else if (valor instanceof List) {
+                throw new IllegalArgumentException("campo '" + esquema.campos[campo] + "' não aceita lista");
+            } else if (campo == esquema.repetido) {
+                valores[campo] = repetidos.computeIfAbsent((String) valor, texto -> texto);
+            }
+        }
+    }
+
+    private static Double numero(String campo, Object valor) {
+        if (!(valor instanceof String)) {
+            throw new IllegalArgumentException("campo '" + campo + "' deve ser um número");
+        }
+        double numero;
+        try {
+            numero = Double.parseDouble(((String) valor).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("campo '" + campo + "' deve ser um número: " + valor);
+        }
+        if (!(numero >= 0) || Double.isInfinite(numero)) {
+            throw new IllegalArgumentException("campo '" + campo + "' deve ser um número não negativo: " + valor);
+        }
+        return numero;
+    }
+
+    /**
+     * Separa uma lista de códigos do CSV ("a|b|c"), ignorando itens vazios.
+     */
+    private static List<String> separar(String valor) {
+        List<String> itens = new ArrayList<>();
+        int inicio = 0;
+        while (inicio <= valor.length()) {
+            int fim = valor.indexOf('|', inicio);
+            if (fim < 0) {
+                fim = valor.length();
+            }
+            String item = valor.substring(inicio, fim).trim();
+            if (!item.isEmpty()) {
+                itens.add(item);
+            }
+            inicio = fim + 1;
+        }
+        return itens;
+    }
+
+    // CSV
+
+    /**
+     * Lê o cabeçalho do CSV e devolve, para cada coluna do arquivo, o campo
+     * correspondente do esquema (ou -1 para colunas ignoradas).
+     */
+    private static int[] mapearColunas(Path arquivo, byte[] cabecalho, Esquema esquema) throws IOException {
+        int fim = cabecalho.length;
+        while (fim > 0 && (cabecalho[fim - 1] == '\n' || cabecalho[fim - 1] == '\r')) {
+            fim--;
+        }
+        List<String> nomes;
+        try {
+            nomes = camposCsv(cabecalho, 0, fim);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Cabeçalho inválido em " + arquivo + ": " + e.getMessage());
+        }
+        int[] mapa = new int[nomes.size()];
+        boolean[] presentes = new boolean[esquema.campos.length];
+        for (int coluna = 0; coluna < mapa.length; coluna++) {
+            mapa[coluna] = esquema.indice(nomes.get(coluna));
+            if (mapa[coluna] >= 0) {
+                presentes[mapa[coluna]] = true;
+            }
+        }
+        for (int campo = 0; campo < esquema.obrigatorios; campo++) {
+            if (!presentes[campo]) {
+                throw new IOException("Coluna obrigatória '" + esquema.campos[campo] + "' ausente no cabeçalho de "
+                        + arquivo);
+            }
+        }
+        return mapa;
+    }
+
+    private static Object[] lerCsv(byte[] dados, int inicio, int fim, int[] mapa, int quantidadeCampos) {
+        Object[] valores = new Object[quantidadeCampos];
+        List<String> campos = camposCsv(dados, inicio, fim);
+        for (int coluna = 0; coluna < campos.size() && coluna < mapa.length; coluna++) {
+            if (mapa[coluna] >= 0) {
+                valores[mapa[coluna]] = campos.get(coluna);
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Separa uma linha CSV em campos. Aspas duplas delimitam campos com
+     * vírgulas; duas aspas seguidas dentro delas representam uma aspa.
+     */
+    private static List<String> camposCsv(byte[] dados, int inicio, int fim) {
+        List<String> campos = new ArrayList<>(8);
+        int posicao = inicio;
+        while (true) {
+            if (posicao < fim && dados[posicao] == '"') {
+                StringBuilder campo = new StringBuilder();
+                int trecho = ++posicao;
+                while (true) {
+                    if (posicao >= fim) {
+                        throw new IllegalArgumentException("aspas sem fechamento");
+                    }
+                    if (dados[posicao] == '"') {
+                        campo.append(new String(dados, trecho, posicao - trecho, StandardCharsets.UTF_8));
+                        posicao++;
+                        if (posicao < fim && dados[posicao] == '"') {
+                            campo.append('"');
+                            trecho = ++posicao;
+                            continue;
+                        }
+                        break;
+                    }
+                    posicao++;
+                }
+                if (posicao < fim && dados[posicao] != ',') {
+                    throw new IllegalArgumentException("texto depois das aspas de fechamento");
+                }
+                campos.add(campo.toString());
+            } else {
+                int separador = posicao;
+                while (separador < fim && dados[separador] != ',') {
+                    separador++;
+                }
+                campos.add(new String(dados, posicao, separador - posicao, StandardCharsets.UTF_8));
+                posicao = separador;
+            }
+            if (posicao >= fim) {
+                return campos;
+            }
+            posicao++;
+        }
+    }
+
+    // JSONL
+
+    /**
+     * Leitor de objetos JSON de uma linha, direto sobre os bytes do bloco.
+     * Aceita textos, números, booleanos, null e listas; objetos aninhados
+     * e chaves desconhecidas são ignorados.
+     */
+    private static final class LeitorJson {
+        private final byte[] dados;
+        private final Esquema esquema;
+
+        /**
+         * Campo do esquema de cada chave já vista no bloco.
+         */
+        private final Map<String, Integer> campos = new HashMap<>();
+        private int posicao;
+        private int inicio;
+        private int fim;
+
+        LeitorJson(byte[] dados, Esquema esquema) {
+            this.dados = dados;
+            this.esquema = esquema;
+        }
+
+        Object[] lerObjeto(int inicio, int fim) {
+            this.inicio = inicio;
+            this.posicao = inicio;
+            this.fim = fim;
+            Object[] valores = new Object[esquema.campos.length];
+            espacos();
+            esperar('{');
+            espacos();
+            if (atual() == '}') {
+                posicao++;
+            } else {
+                while (true) {
+                    espacos();
+                    String chave = texto();
+                    espacos();
+                    esperar(':');
+                    espacos();
+                    Object valor = valor();
+                    int campo = campos.computeIfAbsent(chave, esquema::indice);
+                    if (campo >= 0) {
+                        valores[campo] = valor;
+                    }
+                    espacos();
+                    byte separador = proximo();
+                    if (separador == '}') {
+                        break;
+                    }
+                    if (separador != ',') {
+                        throw erro("esperado ',' ou '}'");
+                    }
+                }
+            }
+            espacos();
+            if (posicao < fim) {
+                throw erro("conteúdo depois do objeto");
+            }
+            return valores;
+        }
+
+        private Object valor() {
+            byte inicial = atual();
+            switch (inicial) {
+                case '"':
+                    return texto();
+                case '[':
+                    return lista();
+                case '{':
+                    ignorarObjeto();
+                    return null;
+                case 't':
+                    return literal("true");
+                case 'f':
+                    return literal("false");
+                case 'n':
+                    literal("null");
+                    return null;
+                default:
+                    int comeco = posicao;
+                    while (posicao < fim && "+-.0123456789eE".indexOf(dados[posicao]) >= 0) {
+                        posicao++;
+                    }
+                    if (comeco == posicao) {
+                        throw erro("valor inválido");
+                    }
+                    return new String(dados, comeco, posicao - comeco, StandardCharsets.US_ASCII);
+            }
+        }
+
+        private List<String> lista() {
+            esperar('[');
+            List<String> itens = new ArrayList<>();
+            espacos();
+            if (atual() == ']') {
+                posicao++;
+                return itens;
+            }
+            while (true) {
+                espacos();
+                Object item = valor();
+                if (item instanceof List) {
+                    throw erro("lista dentro de lista");
+                }
+                if (item != null) {
+                    itens.add((String) item);
+                }
+                espacos();
+                byte separador = proximo();
+                if (separador == ']') {
+                    return itens;
+                }
+                if (separador != ',') {
+                    throw erro("esperado ',' ou ']'");
+                }
+            }
+        }
+
+        private void ignorarObjeto() {
+            esperar('{');
+            espacos();
+            if (atual() == '}') {
+                posicao++;
+                return;
+            }
+            while (true) {
+                espacos();
+                texto();
+                espacos();
+                esperar(':');
+                espacos();
+                valor();
+                espacos();
+                byte separador = proximo();
+                if (separador == '}') {
+                    return;
+                }
+                if (separador != ',') {
+                    throw erro("esperado ',' ou '}'");
+                }
+            }
+        }
+
+        private String texto() {
+            esperar('"');
+            StringBuilder escapado = null;
+            int trecho = posicao;
+            while (true) {
+                if (posicao >= fim) {
+                    throw erro("texto sem fechamento");
+                }
+                byte atual = dados[posicao];
+                if (atual == '"') {
+                    String final_ = new String(dados, trecho, posicao - trecho, StandardCharsets.UTF_8);
+                    posicao++;
+                    return (escapado == null) ? final_ : escapado.append(final_).toString();
+                }
+                if (atual != '\\') {
+                    posicao++;
+                    continue;
+                }
+                if (escapado == null) {
+                    escapado = new StringBuilder();
+                }
+                escapado.append(new String(dados, trecho, posicao - trecho, StandardCharsets.UTF_8));
+                posicao++;
+                byte codigo = proximo();
+                switch (codigo) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        escapado.append((char) codigo);
+                        break;
+                    case 'b':
+                        escapado.append('\b');
+                        break;
+                    case 'f':
+                        escapado.append('\f');
+                        break;
+                    case 'n':
+                        escapado.append('\n');
+                        break;
+                    case 'r':
+                        escapado.append('\r');
+                        break;
+                    case 't':
+                        escapado.append('\t');
+                        break;
+                    case 'u':
+                        if (fim - posicao < 4) {
+                            throw erro("escape \\u incompleto");
+                        }
+                        try {
+                            escapado.append((char) Integer.parseInt(
+                                    new String(dados, posicao, 4, StandardCharsets.US_ASCII), 16));
+                        } catch (NumberFormatException e) {
+                            throw erro("escape \\u inválido");
+                        }
+                        posicao += 4;
+                        break;
+                    default:
+                        throw erro("escape inválido");
+                }
+                trecho = posicao;
+            }
+        }
+
+        private String literal(String esperado) {
+            for (int i = 0; i < esperado.length(); i++) {
+                if (proximo() != esperado.charAt(i)) {
+                    throw erro("valor inválido");
+                }
+            }
+            return esperado;
+        }
+
+        private void espacos() {
+            while (posicao < fim && (dados[posicao] == ' ' || dados[posicao] == '\t' || dados[posicao] == '\r')) {
+                posicao++;
+            }
+        }
+
+        private void esperar(char caractere) {
+            if (proximo() != caractere) {
+                posicao--;
+                throw erro("esperado '" + caractere + "'");
+            }
+        }
+
+        private byte atual() {
+            if (posicao >= fim) {
+                throw erro("fim inesperado da linha");
+            }
+            return dados[posicao];
+        }
+
+        private byte proximo() {
+            byte atual = atual();
+            posicao++;
+            return atual;
+        }
+
+        private IllegalArgumentException erro(String mensagem) {
+            return new IllegalArgumentException("JSON inválido na coluna " + (posicao - inicio + 1) + ": " + mensagem);
+        }
+    }
+
+    // AUXILIARES
+
+    private static boolean comecaComBom(FileChannel canal) throws IOException {
+        if (canal.size() < 3) {
+            return false;
+        }
+        byte[] inicio = lerTrecho(canal, 0, 3);
+        return inicio[0] == (byte) 0xEF && inicio[1] == (byte) 0xBB && inicio[2] == (byte) 0xBF;
+    }
+
+    /**
+     * Posição logo depois da primeira quebra de linha a partir de
+     * {@code inicio}, ou o tamanho do arquivo se não houver.
+     */
+    private static long fimDaLinha(FileChannel canal, long inicio, long tamanho) throws IOException {
+        ByteBuffer janela = ByteBuffer.allocate(64 << 10);
+        long posicao = inicio;
+        while (posicao < tamanho) {
+            janela.clear();
+            int lidos = canal.read(janela, posicao);
+            if (lidos < 0) {
+                break;
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (janela.get(i) == '\n') {
+                    return posicao + i + 1;
+                }
+            }
+            posicao += lidos;
+        }
+        return tamanho;
+    }
+
+    private static byte[] lerTrecho(FileChannel canal, long inicio, long fim) throws IOException {
+        byte[] dados = new byte[(int) (fim - inicio)];
+        ByteBuffer destino = ByteBuffer.wrap(dados);
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, inicio + destino.position()) < 0) {
+                throw new IOException("Arquivo encurtado durante a leitura");
+            }
+        }
+        return dados;
+    }
+
+    private static boolean emBranco(byte[] dados, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            if (dados[i] != ' ' && dados[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
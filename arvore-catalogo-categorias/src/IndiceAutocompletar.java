@@ -0,0 +1,584 @@
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Índice de autocompletar sobre os nomes de categorias e produtos.
+ *
+ * Os nomes são "dobrados" antes de entrar no índice: acentos e cedilha são
+ * removidos, as letras vão para minúsculas e qualquer sequência de símbolos
+ * vira um único espaço, de modo que "eletro" encontra "Eletrônicos". Além do
+ * nome inteiro, são indexados os trechos que começam em cada uma das
+ * palavras seguintes (até {@value #MAXIMO_PALAVRAS} por nome), para que
+ * "dell" também encontre "Notebook Dell".
+ *
+ * A estrutura é uma árvore de prefixos compactada (radix trie): cada nó
+ * guarda um trecho de rótulo como intervalo de uma das chaves inseridas, sem
+ * criar strings novas. Cada nó também guarda a melhor pontuação da sua
+ * subárvore, o que permite buscar as k melhores sugestões por ordem de
+ * prioridade, visitando só os ramos que ainda podem entrar no resultado.
+ *
+ * A ordem das sugestões é: menos erros de digitação, categorias antes de
+ * produtos, nome que começa pelo texto antes de palavra do meio, nomes mais
+ * curtos e, por fim, ordem alfabética do texto dobrado.
+ *
+ * @since 2025
+ */
+class IndiceAutocompletar {
+
+    /**
+     * Maior número de erros de digitação aceito em uma consulta aproximada.
+     */
+    static final int MAXIMO_ERROS = 2;
+
+    /**
+     * Quantidade de palavras de um nome que podem iniciar uma chave.
+     */
+    private static final int MAXIMO_PALAVRAS = 4;
+
+    /**
+     * Letras digitadas necessárias para cada erro aceito; evita que textos
+     * curtos casem com o catálogo inteiro.
+     */
+    private static final int LETRAS_POR_ERRO = 4;
+
+    private static final No[] SEM_FILHOS = new No[0];
+
+    private No raiz = new No("", 0, 0);
+
+    /**
+     * Indica que o conteúdo foi descartado e precisa ser reconstruído antes
+     * da próxima consulta; enquanto isso, inclusões e remoções são ignoradas.
+     */
+    private boolean desatualizado;
+
+    /**
+     * Nó da árvore. O rótulo da aresta que chega ao nó é o trecho
+     * {@code [inicio, fim)} de {@code fonte}.
+     */
+    private static final class No {
+        final String fonte;
+        int inicio;
+        final int fim;
+
+        /**
+         * Filhos ordenados pelo primeiro caractere do rótulo.
+         */
+        No[] filhos = SEM_FILHOS;
+        int quantidadeFilhos;
+
+        /**
+         * Entradas cuja chave termina exatamente neste nó.
+         */
+        Entrada entradas;
+
+        /**
+         * Maior pontuação entre as entradas deste nó e de seus descendentes.
+         */
+        int melhor = Integer.MIN_VALUE;
+
+        No(String fonte, int inicio, int fim) {
+            this.fonte = fonte;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        int tamanho() {
+            return fim - inicio;
+        }
+
+        char caractere(int posicao) {
+            return fonte.charAt(inicio + posicao);
+        }
+    }
+
+    /**
+     * Categoria ou produto associado a uma chave. O nome de um produto não
+     * é guardado aqui: ele é lido do próprio produto, que o mantém no
+     * {@link ArmazemProdutos} do catálogo.
+     */
+    private static final class Entrada {
+        final Object alvo;
+        private final String nome;
+        final int pontuacao;
+        Entrada proxima;
+
+        Entrada(Object alvo, String nome, int pontuacao) {
+            this.alvo = alvo;
+            this.nome = (alvo instanceof Produto) ? null : nome;
+            this.pontuacao = pontuacao;
+        }
+
+        String nome() {
+            return (alvo instanceof Produto) ? ((Produto) alvo).getNome() : nome;
+        }
+
+        Sugestao paraSugestao(int erros) {
+            if (alvo instanceof Categoria) {
+                return new Sugestao(nome, (Categoria) alvo, null, erros);
+            }
+            return new Sugestao(nome(), null, (Produto) alvo, erros);
+        }
+    }
+
+    /**
+     * Item da fila de prioridade da busca: um nó ainda não expandido ou uma
+     * entrada pronta para entrar no resultado.
+     */
+    private static final class Item implements Comparable<Item> {
+        final int erros;
+        final int pontuacao;
+        final String caminho;
+        final No no;
+        final Entrada entrada;
+
+        Item(int erros, int pontuacao, String caminho, No no, Entrada entrada) {
+            this.erros = erros;
+            this.pontuacao = pontuacao;
+            this.caminho = caminho;
+            this.no = no;
+            this.entrada = entrada;
+        }
+
+        @Override
+        public int compareTo(Item outro) {
+            if (erros != outro.erros) {
+                return Integer.compare(erros, outro.erros);
+            }
+            if (pontuacao != outro.pontuacao) {
+                return Integer.compare(outro.pontuacao, pontuacao);
+            }
+            int comparacao = caminho.compareTo(outro.caminho);
+            if (comparacao != 0) {
+                return comparacao;
+            }
+            if (entrada == null || outro.entrada == null) {
+                // entradas de um nó saem antes da expansão de nós com o mesmo caminho
+                return (entrada == null ? 1 : 0) - (outro.entrada == null ? 1 : 0);
+            }
+            return entrada.nome().compareTo(outro.entrada.nome());
+        }
+    }
+
+    /**
+     * Nó pendente da busca aproximada, com a linha da matriz de distância de
+     * edição calculada até o fim do seu rótulo.
+     */
+    private static final class Quadro {
+        final No no;
+        final int[] linha;
+        final String caminho;
+        final int menorErro;
+
+        Quadro(No no, int[] linha, String caminho, int menorErro) {
+            this.no = no;
+            this.linha = linha;
+            this.caminho = caminho;
+            this.menorErro = menorErro;
+        }
+    }
+
+    // NORMALIZAÇÃO
+
+    /**
+     * Remove acentos, passa para minúsculas e reduz cada sequência de
+     * caracteres que não são letras nem dígitos a um único espaço.
+     *
+     * @param texto Texto original
+     * @return Texto dobrado, sem espaços nas pontas (vazio se {@code null})
+     */
+    static String dobrar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder dobrado = new StringBuilder(decomposto.length());
+        boolean separar = false;
+        for (int i = 0; i < decomposto.length(); i++) {
+            char caractere = decomposto.charAt(i);
+            if (Character.getType(caractere) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(caractere)) {
+                if (separar && dobrado.length() > 0) {
+                    dobrado.append(' ');
+                }
+                separar = false;
+                dobrado.append(Character.toLowerCase(caractere));
+            } else {
+                separar = true;
+            }
+        }
+        return dobrado.toString();
+    }
+
+    // MANUTENÇÃO
+
+    /**
+     * Indexa o nome de uma categoria ou produto.
+     *
+     * @param nome Nome a indexar
+     * @param alvo {@link Categoria} ou {@link Produto} dono do nome
+     */
+    void adicionar(String nome, Object alvo) {
+        if (desatualizado) {
+            return;
+        }
+        String chave = dobrar(nome);
+        boolean categoria = alvo instanceof Categoria;
+        int inicio = 0;
+        for (int palavra = 0; palavra < MAXIMO_PALAVRAS && inicio >= 0 && !chave.isEmpty(); palavra++) {
+            inserir(chave, inicio, new Entrada(alvo, nome, pontuacao(categoria, palavra == 0, chave.length())));
+            inicio = proximaPalavra(chave, inicio);
+        }
+    }
+
+    /**
+     * Remove do índice o nome de uma categoria ou produto.
+     *
+     * @param nome Nome usado quando o alvo foi indexado
+     * @param alvo {@link Categoria} ou {@link Produto} dono do nome
+     */
+    void remover(String nome, Object alvo) {
+        if (desatualizado) {
+            return;
+        }
+        String chave = dobrar(nome);
+        int inicio = 0;
+        for (int palavra = 0; palavra < MAXIMO_PALAVRAS && inicio >= 0 && !chave.isEmpty(); palavra++) {
+            removerChave(chave, inicio, alvo);
+            inicio = proximaPalavra(chave, inicio);
+        }
+    }
+
+    /**
+     * Remove todas as entradas do índice, que volta a aceitar inclusões.
+     */
+    void limpar() {
+        raiz = new No("", 0, 0);
+        desatualizado = false;
+    }
+
+    /**
+     * Descarta o conteúdo e adia a reconstrução para quando o índice for
+     * consultado de novo (ver {@link #isDesatualizado()}).
+     */
+    void invalidar() {
+        raiz = new No("", 0, 0);
+        desatualizado = true;
+    }
+
+    /**
+     * Indica se o índice precisa ser reconstruído antes de ser consultado.
+     *
+     * @return {@code true} depois de {@link #invalidar()} e até {@link #limpar()}
+     */
+    boolean isDesatualizado() {
+        return desatualizado;
+    }
+
+    // CONSULTAS
+
+    /**
+     * Retorna as melhores sugestões para o texto digitado.
+     *
+     * @param texto       Início do nome (ou de uma palavra do nome)
+     * @param limite      Quantidade máxima de sugestões
+     * @param maximoErros Erros de digitação aceitos (0 a {@value #MAXIMO_ERROS}),
+     *                    limitados a um para cada {@value #LETRAS_POR_ERRO}
+     *                    letras digitadas
+     * @return Sugestões da melhor para a pior, sem repetir categoria ou produto
+     */
+    List<Sugestao> sugerir(String texto, int limite, int maximoErros) {
+        String consulta = dobrar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Item> fila = new PriorityQueue<>();
+        int erros = Math.min(maximoErros, consulta.length() / LETRAS_POR_ERRO);
+        if (erros <= 0) {
+            localizar(consulta, fila);
+        } else {
+            localizarAproximado(consulta, erros, fila);
+        }
+        return coletar(fila, limite);
+    }
+
+    // AUXILIARES
+
+    /**
+     * Insere a chave a partir da posição {@code i}, descendo pelos nós já
+     * existentes e dividindo a aresta em que a chave diverge.
+     */
+    private void inserir(String chave, int i, Entrada entrada) {
+        No no = raiz;
+        while (true) {
+            no.melhor = Math.max(no.melhor, entrada.pontuacao);
+            if (i == chave.length()) {
+                entrada.proxima = no.entradas;
+                no.entradas = entrada;
+                return;
+            }
+            int posicao = buscarFilho(no, chave.charAt(i));
+            if (posicao < 0) {
+                No folha = new No(chave, i, chave.length());
+                folha.melhor = entrada.pontuacao;
+                folha.entradas = entrada;
+                inserirFilho(no, -posicao - 1, folha);
+                return;
+            }
+            No filho = no.filhos[posicao];
+            int comum = prefixoComum(filho, chave, i);
+            if (comum < filho.tamanho()) {
+                No meio = new No(filho.fonte, filho.inicio, filho.inicio + comum);
+                filho.inicio += comum;
+                meio.filhos = new No[] {filho};
+                meio.quantidadeFilhos = 1;
+                meio.melhor = filho.melhor;
+                no.filhos[posicao] = meio;
+                filho = meio;
+            }
+            no = filho;
+            i += comum;
+        }
+    }
+
+    /**
+     * Remove a entrada do alvo na chave informada, recalculando a melhor
+     * pontuação do caminho e descartando nós que ficaram vazios.
+     */
+    private void removerChave(String chave, int i, Object alvo) {
+        List<No> caminho = new ArrayList<>();
+        No no = raiz;
+        while (true) {
+            caminho.add(no);
+            if (i == chave.length()) {
+                break;
+            }
+            int posicao = buscarFilho(no, chave.charAt(i));
+            if (posicao < 0) {
+                return;
+            }
+            No filho = no.filhos[posicao];
+            int comum = prefixoComum(filho, chave, i);
+            if (comum < filho.tamanho()) {
+                return;
+            }
+            no = filho;
+            i += comum;
+        }
+        Entrada anterior = null;
+        Entrada atual = no.entradas;
+        while (atual != null && atual.alvo != alvo) {
+            anterior = atual;
+            atual = atual.proxima;
+        }
+        if (atual == null) {
+            return;
+        }
+        if (anterior == null) {
+            no.entradas = atual.proxima;
+        } else {
+            anterior.proxima = atual.proxima;
+        }
+        for (int k = caminho.size() - 1; k >= 0; k--) {
+            No passo = caminho.get(k);
+            recalcular(passo);
+            if (k > 0 && passo.entradas == null && passo.quantidadeFilhos == 0) {
+                removerFilho(caminho.get(k - 1), passo);
+            }
+        }
+    }
+
+    /**
+     * Desce pela consulta exata e põe na fila o nó cuja subárvore contém
+     * todas as chaves que começam pela consulta.
+     */
+    private void localizar(String consulta, PriorityQueue<Item> fila) {
+        StringBuilder caminho = new StringBuilder();
+        No no = raiz;
+        int i = 0;
+        while (i < consulta.length()) {
+            int posicao = buscarFilho(no, consulta.charAt(i));
+            if (posicao < 0) {
+                return;
+            }
+            No filho = no.filhos[posicao];
+            int comparar = Math.min(filho.tamanho(), consulta.length() - i);
+            if (prefixoComum(filho, consulta, i) < comparar) {
+                return;
+            }
+            caminho.append(filho.fonte, filho.inicio, filho.fim);
+            no = filho;
+            i += comparar;
+        }
+        fila.add(new Item(0, no.melhor, caminho.toString(), no, null));
+    }
+
+    /**
+     * Percorre a árvore calculando a distância de edição entre a consulta e
+     * cada prefixo das chaves, e põe na fila os nós em que essa distância
+     * fica dentro do limite. Ramos em que todas as distâncias já passaram
+     * do limite são abandonados.
+     */
+    private void localizarAproximado(String consulta, int maximoErros, PriorityQueue<Item> fila) {
+        int colunas = consulta.length() + 1;
+        int[] inicial = new int[colunas];
+        for (int j = 0; j < colunas; j++) {
+            inicial[j] = j;
+        }
+        Deque<Quadro> pilha = new ArrayDeque<>();
+        pilha.push(new Quadro(raiz, inicial, "", Integer.MAX_VALUE));
+        while (!pilha.isEmpty()) {
+            Quadro quadro = pilha.pop();
+            for (int k = 0; k < quadro.no.quantidadeFilhos; k++) {
+                No filho = quadro.no.filhos[k];
+                String caminho = quadro.caminho + filho.fonte.substring(filho.inicio, filho.fim);
+                int[] linha = quadro.linha;
+                int menorErro = quadro.menorErro;
+                boolean viavel = true;
+                for (int p = 0; p < filho.tamanho() && viavel; p++) {
+                    linha = proximaLinha(linha, consulta, filho.caractere(p));
+                    int erro = linha[colunas - 1];
+                    if (erro <= maximoErros && erro < menorErro) {
+                        fila.add(new Item(erro, filho.melhor, caminho, filho, null));
+                        menorErro = erro;
+                    }
+                    viavel = menorErro > 0 && minimo(linha) <= maximoErros;
+                }
+                if (viavel) {
+                    pilha.push(new Quadro(filho, linha, caminho, menorErro));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retira da fila as melhores entradas, expandindo os nós conforme
+     * necessário, até juntar {@code limite} alvos distintos.
+     */
+    private List<Sugestao> coletar(PriorityQueue<Item> fila, int limite) {
+        List<Sugestao> resultado = new ArrayList<>(Math.min(limite, 16));
+        Set<Object> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!fila.isEmpty() && resultado.size() < limite) {
+            Item item = fila.poll();
+            if (item.entrada != null) {
+                if (vistos.add(item.entrada.alvo)) {
+                    resultado.add(item.entrada.paraSugestao(item.erros));
+                }
+                continue;
+            }
+            No no = item.no;
+            for (Entrada entrada = no.entradas; entrada != null; entrada = entrada.proxima) {
+                fila.add(new Item(item.erros, entrada.pontuacao, item.caminho, null, entrada));
+            }
+            for (int k = 0; k < no.quantidadeFilhos; k++) {
+                No filho = no.filhos[k];
+                String caminho = item.caminho + filho.fonte.substring(filho.inicio, filho.fim);
+                fila.add(new Item(item.erros, filho.melhor, caminho, filho, null));
+            }
+        }
+        return resultado;
+    }
+
+    private static int[] proximaLinha(int[] linha, String consulta, char caractere) {
+        int[] proxima = new int[linha.length];
+        proxima[0] = linha[0] + 1;
+        for (int j = 1; j < linha.length; j++) {
+            int troca = linha[j - 1] + (consulta.charAt(j - 1) == caractere ? 0 : 1);
+            proxima[j] = Math.min(troca, Math.min(linha[j], proxima[j - 1]) + 1);
+        }
+        return proxima;
+    }
+
+    private static int minimo(int[] linha) {
+        int menor = Integer.MAX_VALUE;
+        for (int valor : linha) {
+            menor = Math.min(menor, valor);
+        }
+        return menor;
+    }
+
+    /**
+     * Pontuação de uma entrada: quanto maior, mais cedo ela aparece.
+     */
+    private static int pontuacao(boolean categoria, boolean inicioDoNome, int tamanho) {
+        int pontuacao = (1 << 20) - Math.min(tamanho, (1 << 20) - 1);
+        if (inicioDoNome) {
+            pontuacao += 1 << 21;
+        }
+        if (categoria) {
+            pontuacao += 1 << 22;
+        }
+        return pontuacao;
+    }
+
+    /**
+     * Retorna o início da palavra seguinte à que começa em {@code atual},
+     * ou -1 se não houver.
+     */
+    private static int proximaPalavra(String chave, int atual) {
+        int espaco = chave.indexOf(' ', atual);
+        return espaco < 0 ? -1 : espaco + 1;
+    }
+
+    private static int prefixoComum(No no, String chave, int i) {
+        int limite = Math.min(no.tamanho(), chave.length() - i);
+        int comum = 0;
+        while (comum < limite && no.caractere(comum) == chave.charAt(i + comum)) {
+            comum++;
+        }
+        return comum;
+    }
+
+    private static int buscarFilho(No no, char caractere) {
+        int baixo = 0;
+        int alto = no.quantidadeFilhos - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            char primeiro = no.filhos[meio].caractere(0);
+            if (primeiro < caractere) {
+                baixo = meio + 1;
+            } else if (primeiro > caractere) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -baixo - 1;
+    }
+
+    private static void inserirFilho(No no, int posicao, No filho) {
+        if (no.quantidadeFilhos == no.filhos.length) {
+            No[] maior = new No[Math.max(2, no.filhos.length * 2)];
+            System.arraycopy(no.filhos, 0, maior, 0, no.quantidadeFilhos);
+            no.filhos = maior;
+        }
+        System.arraycopy(no.filhos, posicao, no.filhos, posicao + 1, no.quantidadeFilhos - posicao);
+        no.filhos[posicao] = filho;
+        no.quantidadeFilhos++;
+    }
+
+    private static void removerFilho(No no, No filho) {
+        int posicao = buscarFilho(no, filho.caractere(0));
+        System.arraycopy(no.filhos, posicao + 1, no.filhos, posicao, no.quantidadeFilhos - posicao - 1);
+        no.filhos[--no.quantidadeFilhos] = null;
+    }
+
+    private static void recalcular(No no) {
+        int melhor = Integer.MIN_VALUE;
+        for (Entrada entrada = no.entradas; entrada != null; entrada = entrada.proxima) {
+            melhor = Math.max(melhor, entrada.pontuacao);
+        }
+        for (int k = 0; k < no.quantidadeFilhos; k++) {
+            melhor = Math.max(melhor, no.filhos[k].melhor);
+        }
+        no.melhor = melhor;
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice em memória que associa uma chave textual (nome ou código) às
+ * categorias do catálogo, permitindo buscas em tempo constante.
+ *
+ * As chaves são normalizadas para minúsculas com {@link Locale#ROOT}, o que
+ * mantém a busca case insensitive sem depender do idioma da JVM.
+ * Quando mais de uma categoria possui a mesma chave, a primeira indexada é a
+ * retornada pela busca; as demais ficam guardadas como homônimas e assumem o
+ * lugar da principal caso ela seja removida do índice.
+ *
+ * @since 2025
+ */
+class IndiceCategorias {
+
+    /**
+     * Categoria principal de cada chave normalizada.
+     */
+    private final Map<String, Categoria> principais;
+
+    /**
+     * Categorias adicionais que compartilham a mesma chave da principal.
+     * Só existe entrada aqui para chaves repetidas.
+     */
+    private final Map<String, Deque<Categoria>> homonimas;
+
+    /**
+     * Cria um índice vazio.
+     */
+    IndiceCategorias() {
+        this.principais = new HashMap<>();
+        this.homonimas = new HashMap<>();
+    }
+
+    /**
+     * Normaliza uma chave para uso no índice.
+     *
+     * @param chave Nome ou código informado
+     * @return Chave normalizada ou {@code null} se a chave for nula
+     */
+    static String normalizar(String chave) {
+        return chave == null ? null : chave.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexa uma categoria pela chave informada.
+     *
+     * @param chave     Nome ou código da categoria (ignorado se for nulo)
+     * @param categoria Categoria a ser indexada
+     */
+    void adicionar(String chave, Categoria categoria) {
+        String normalizada = normalizar(chave);
+        if (normalizada == null) {
+            return;
+        }
+        Categoria atual = principais.putIfAbsent(normalizada, categoria);
+        if (atual != null && atual != categoria) {
+            homonimas.computeIfAbsent(normalizada, k -> new ArrayDeque<>()).addLast(categoria);
+        }
+    }
+
+    /**
+     * Remove do índice a associação entre a chave e a categoria informadas.
+     *
+     * @param chave     Nome ou código sob o qual a categoria foi indexada
+     * @param categoria Categoria a ser removida
+     */
+    void remover(String chave, Categoria categoria) {
+        String normalizada = normalizar(chave);
+        if (normalizada == null) {
+            return;
+        }
+        Deque<Categoria> extras = homonimas.get(normalizada);
+        if (principais.get(normalizada) == categoria) {
+            if (extras == null) {
+                principais.remove(normalizada);
+                return;
+            }
+            principais.put(normalizada, extras.pollFirst());
+        } else if (extras != null) {
+            extras.remove(categoria);
+        }
+        if (extras != null && extras.isEmpty()) {
+            homonimas.remove(normalizada);
+        }
+    }
+
+    /**
+     * Busca a categoria associada à chave informada.
+     *
+     * @param chave Nome ou código procurado
+     * @return Categoria encontrada ou {@code null} se não existir
+     */
+    Categoria buscar(String chave) {
+        String normalizada = normalizar(chave);
+        return normalizada == null ? null : principais.get(normalizada);
+    }
+
+    /**
+     * Retorna todas as categorias associadas à chave, na ordem em que a busca
+     * as encontraria: a principal e depois as homônimas, cada uma assumindo
+     * o lugar da anterior se ela for removida.
+     *
+     * @param chave Nome ou código procurado
+     * @return Lista (vazia se não houver nenhuma), que não acompanha o índice
+     */
+    List<Categoria> buscarTodas(String chave) {
+        String normalizada = normalizar(chave);
+        Categoria principal = (normalizada == null) ? null : principais.get(normalizada);
+        if (principal == null) {
+            return Collections.emptyList();
+        }
+        Deque<Categoria> extras = homonimas.get(normalizada);
+        if (extras == null) {
+            return Collections.singletonList(principal);
+        }
+        List<Categoria> todas = new ArrayList<>(extras.size() + 1);
+        todas.add(principal);
+        todas.addAll(extras);
+        return todas;
+    }
+
+    /**
+     * Remove todas as entradas do índice.
+     */
+    void limpar() {
+        principais.clear();
+        homonimas.clear();
+    }
+}
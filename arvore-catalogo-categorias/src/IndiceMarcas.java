@@ -0,0 +1,453 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de facetas por marca, para a navegação "Apple (120), Dell (87)..."
+ * dentro de uma categoria.
+ *
+ * Cada marca recebe um código inteiro (dicionário de marcas) e cada produto
+ * usa o identificador denso atribuído pelo {@link RegistroProdutos}. O índice mantém, por marca, o
+ * conjunto dos produtos daquela marca e, por subárvore consultada, o
+ * conjunto dos produtos da subárvore junto com a contagem por marca.
+ * A listagem filtrada por marca é a interseção dos dois conjuntos.
+ *
+ * Os conjuntos são {@link ConjuntoIds}: vetores ordenados de identificadores
+ * enquanto são esparsos e conjuntos de bits quando ficam densos. Uma
+ * faceta pequena num catálogo grande ocupa memória proporcional aos seus
+ * produtos, e não ao maior identificador do catálogo.
+ *
+ * Um produto associado a mais de uma categoria da mesma subárvore é contado
+ * uma única vez. Produtos sem marca ({@code null}) ficam no dicionário, para
+ * que a troca de marca os mova de conjunto, mas não aparecem nas consultas.
+ *
+ * O conjunto de uma subárvore é montado na primeira consulta, percorrendo
+ * só a subárvore, e guardado com a {@link Categoria#versao} dela. Depois
+ * disso, como no {@link IndicePrecos}, o catálogo avisa associações,
+ * desassociações, mudanças de marca e de preço e categorias movidas,
+ * criadas ou retiradas, e os conjuntos das subárvores afetadas são
+ * corrigidos na hora. Se a versão andou mais do que o aviso explica, o
+ * conjunto daquela subárvore é descartado e remontado na consulta
+ * seguinte. Só as subárvores consultadas mais recentemente ficam em
+ * memória.
+ *
+ * Consultas de threads diferentes alteram a ordem de uso e os conjuntos das
+ * subárvores, e o catálogo sincroniza marcas ao mesmo tempo; todos os
+ * métodos usam o monitor do índice.
+ *
+ * @since 2025
+ */
+class IndiceMarcas {
+
+    /**
+     * Quantidade máxima de subárvores mantidas em memória.
+     */
+    private static final int MAXIMO_SUBARVORES = 256;
+
+    /**
+     * Fonte dos identificadores dos produtos.
+     */
+    private final RegistroProdutos registro;
+
+    /**
+     * Dicionário de marcas: marca para código e código para marca.
+     */
+    private final Map<String, Integer> codigosMarca = new HashMap<>();
+    private final List<String> marcas = new ArrayList<>();
+
+    /**
+     * Produtos de cada marca, indexados pelo código da marca.
+     */
+    private final List<ConjuntoIds> produtosPorMarca = new ArrayList<>();
+
+    /**
+     * Código da marca de cada produto, indexado pelo identificador; -1 para
+     * produtos que o índice ainda não viu.
+     */
+    private int[] marcaPorProduto = vazio(16);
+
+    /**
+     * Conjuntos por subárvore, do menos ao mais recentemente usado.
+     */
+    private final Map<Categoria, Faceta> facetas;
+
+    /**
+     * Produtos de uma subárvore e contagem por código de marca, com a versão
+     * da subárvore que refletem. As contagens podem ser mais curtas que o
+     * dicionário: as marcas que faltam estão zeradas.
+     */
+    private final class Faceta {
+        final Categoria topo;
+        long versao;
+        final ConjuntoIds produtos;
+        int[] contagens;
+
+        Faceta(Categoria topo, long versao, ConjuntoIds produtos, int[] contagens) {
+            this.topo = topo;
+            this.versao = versao;
+            this.produtos = produtos;
+            this.contagens = contagens;
+        }
+
+        void incluir(int id) {
+            produtos.adicionar(id);
+            contar(marcaPorProduto[id], 1);
+        }
+
+        /**
+         * @return {@code false} se o produto não estava no conjunto
+         */
+        boolean excluir(int id) {
+            if (!produtos.remover(id)) {
+                return false;
+            }
+            contar(marcaPorProduto[id], -1);
+            return true;
+        }
+
+        void contar(int codigo, int delta) {
+            if (codigo >= contagens.length) {
+                contagens = Arrays.copyOf(contagens, marcas.size());
+            }
+            contagens[codigo] += delta;
+        }
+    }
+
+    /**
+     * Cria o índice, ainda sem nenhuma subárvore.
+     *
+     * @param registro Registro que atribui os identificadores
+     */
+    IndiceMarcas(RegistroProdutos registro) {
+        this.registro = registro;
+        this.facetas = new LinkedHashMap<Categoria, Faceta>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Categoria, Faceta> maisAntiga) {
+                return size() > MAXIMO_SUBARVORES;
+            }
+        };
+    }
+
+    // MANUTENÇÃO
+
+    /**
+     * Põe o produto no conjunto da sua marca atual, tirando-o do conjunto da
+     * marca anterior se ela mudou desde a última vez.
+     *
+     * @param produto Produto novo ou com marca alterada
+     * @return Identificador do produto
+     */
+    synchronized int sincronizar(Produto produto) {
+        int id = registro.identificar(produto);
+        if (id >= marcaPorProduto.length) {
+            int[] maior = vazio(Math.max(id + 1, marcaPorProduto.length * 2));
+            System.arraycopy(marcaPorProduto, 0, maior, 0, marcaPorProduto.length);
+            marcaPorProduto = maior;
+        }
+        int codigo = codigoMarca(produto.getMarca());
+        int anterior = marcaPorProduto[id];
+        if (anterior != codigo) {
+            if (anterior >= 0) {
+                produtosPorMarca.get(anterior).remover(id);
+            }
+            produtosPorMarca.get(codigo).adicionar(id);
+            marcaPorProduto[id] = codigo;
+        }
+        return id;
+    }
+
+    /**
+     * Inclui o produto nos conjuntos das subárvores que contêm a categoria,
+     * depois de ele ter sido associado a ela.
+     *
+     * @param categoria Categoria que recebeu o produto
+     * @param produto   Produto associado
+     */
+    synchronized void produtoAssociado(Categoria categoria, Produto produto) {
+        int id = sincronizar(produto);
+        for (Iterator<Faceta> iterador = facetas.values().iterator(); iterador.hasNext();) {
+            Faceta faceta = iterador.next();
+            if (!naSubarvore(faceta.topo, categoria)) {
+                continue;
+            }
+            long versao = faceta.topo.versao;
+            if (faceta.versao != versao - 1) {
+                iterador.remove();
+                continue;
+            }
+            // com mais de uma categoria na subárvore, o produto já estava no conjunto
+            if (produto.categoriasNaSubarvore(faceta.topo) == 1) {
+                faceta.incluir(id);
+            }
+            faceta.versao = versao;
+        }
+    }
+
+    /**
+     * Tira o produto dos conjuntos das subárvores que contêm a categoria e
+     * nas quais ele não está por outra categoria, depois de ele ter sido
+     * desassociado dela.
+     *
+     * @param categoria Categoria de onde o produto saiu
+     * @param produto   Produto desassociado
+     */
+    synchronized void produtoDesassociado(Categoria categoria, Produto produto) {
+        int id = sincronizar(produto);
+        for (Iterator<Faceta> iterador = facetas.values().iterator(); iterador.hasNext();) {
+            Faceta faceta = iterador.next();
+            if (!naSubarvore(faceta.topo, categoria)) {
+                continue;
+            }
+            long versao = faceta.topo.versao;
+            if (faceta.versao != versao - 1
+                    || (produto.categoriasNaSubarvore(faceta.topo) == 0 && !faceta.excluir(id))) {
+                iterador.remove();
+                continue;
+            }
+            faceta.versao = versao;
+        }
+    }
+
+    /**
+     * Põe o produto no conjunto da marca nova e passa a contagem das
+     * subárvores onde ele está de uma marca para a outra, depois de a marca
+     * ter mudado.
+     *
+     * @param produto Produto alterado
+     */
+    synchronized void marcaAlterada(Produto produto) {
+        int id = registro.identificar(produto);
+        int anterior = (id < marcaPorProduto.length) ? marcaPorProduto[id] : -1;
+        int codigo = marcaPorProduto[sincronizar(produto)];
+        for (Iterator<Faceta> iterador = facetas.values().iterator(); iterador.hasNext();) {
+            Faceta faceta = iterador.next();
+            // a versão avança uma vez por categoria do produto
+            int associacoes = produto.categoriasNaSubarvore(faceta.topo);
+            if (associacoes == 0) {
+                continue;
+            }
+            long versao = faceta.topo.versao;
+            if (faceta.versao != versao - associacoes || anterior < 0 || !faceta.produtos.contem(id)) {
+                iterador.remove();
+                continue;
+            }
+            faceta.contar(anterior, -1);
+            faceta.contar(codigo, 1);
+            faceta.versao = versao;
+        }
+    }
+
+    /**
+     * Acompanha a versão das subárvores onde o produto está, depois de o
+     * preço ter mudado; os conjuntos não mudam.
+     *
+     * @param produto Produto alterado
+     */
+    synchronized void precoAlterado(Produto produto) {
+        for (Iterator<Faceta> iterador = facetas.values().iterator(); iterador.hasNext();) {
+            Faceta faceta = iterador.next();
+            int associacoes = produto.categoriasNaSubarvore(faceta.topo);
+            if (associacoes == 0) {
+                continue;
+            }
+            long versao = faceta.topo.versao;
+            if (faceta.versao != versao - associacoes) {
+                iterador.remove();
+            } else {
+                faceta.versao = versao;
+            }
+        }
+    }
+
+    /**
+     * Corrige os conjuntos das subárvores que ganharam ou perderam a
+     * categoria, depois de ela ter sido posta sob outro pai, criada ou
+     * retirada da árvore. Os produtos da subárvore da categoria entram nos
+     * conjuntos que passaram a contê-la e saem dos que deixaram de contê-la,
+     * se não estiverem neles por outra categoria; os produtos da subárvore
+     * só são percorridos se algum conjunto mudar.
+     *
+     * @param categoria   Categoria movida, nova ou retirada
+     * @param paiAnterior Pai antes da alteração, ou {@code null} se ela não
+     *                    estava na árvore
+     */
+    synchronized void categoriaMovida(Categoria categoria, Categoria paiAnterior) {
+        Categoria pai = categoria.getPai();
+        int[] movidos = null;
+        for (Iterator<Faceta> iterador = facetas.values().iterator(); iterador.hasNext();) {
+            Faceta faceta = iterador.next();
+            // sair do pai anterior e entrar no novo avançam a versão uma vez cada
+            boolean antes = paiAnterior != null && naSubarvore(faceta.topo, paiAnterior);
+            boolean depois = pai != null && naSubarvore(faceta.topo, pai);
+            int avancos = (antes ? 1 : 0) + (depois ? 1 : 0);
+            if (avancos == 0) {
+                continue;
+            }
+            long versao = faceta.topo.versao;
+            if (faceta.versao != versao - avancos) {
+                iterador.remove();
+                continue;
+            }
+            if (antes != depois) {
+                if (movidos == null) {
+                    movidos = produtosDaSubarvore(categoria);
+                }
+                corrigir(faceta, movidos, depois);
+            }
+            faceta.versao = versao;
+        }
+    }
+
+    /**
+     * Descarta o que foi indexado, para quando os identificadores do
+     * registro são refeitos.
+     */
+    synchronized void limpar() {
+        codigosMarca.clear();
+        marcas.clear();
+        produtosPorMarca.clear();
+        marcaPorProduto = vazio(16);
+        facetas.clear();
+    }
+
+    // CONSULTAS
+
+    /**
+     * Conta os produtos distintos da subárvore por marca.
+     *
+     * @param categoria Topo da subárvore consultada
+     * @return Mapa marca para quantidade, da marca mais frequente para a
+     *         menos frequente (empates em ordem alfabética), sem marcas
+     *         zeradas e sem os produtos sem marca
+     */
+    synchronized Map<String, Integer> contarPorMarca(Categoria categoria) {
+        int[] contagens = facetaAtualizada(categoria).contagens;
+        List<Integer> codigos = new ArrayList<>();
+        for (int codigo = 0; codigo < contagens.length; codigo++) {
+            if (contagens[codigo] > 0 && marcas.get(codigo) != null) {
+                codigos.add(codigo);
+            }
+        }
+        codigos.sort((a, b) -> contagens[a] != contagens[b]
+                ? Integer.compare(contagens[b], contagens[a])
+                : marcas.get(a).compareTo(marcas.get(b)));
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (int codigo : codigos) {
+            resultado.put(marcas.get(codigo), contagens[codigo]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Lista os produtos distintos da subárvore que são da marca informada.
+     *
+     * @param categoria Topo da subárvore consultada
+     * @param marca     Marca procurada (comparação exata)
+     * @return Lista na ordem de cadastro dos produtos; vazia se a marca for
+     *         {@code null}
+     */
+    synchronized List<Produto> listarPorMarca(Categoria categoria, String marca) {
+        Integer codigo = (marca != null) ? codigosMarca.get(marca) : null;
+        if (codigo == null) {
+            return Collections.emptyList();
+        }
+        Faceta faceta = facetaAtualizada(categoria);
+        if (codigo >= faceta.contagens.length || faceta.contagens[codigo] == 0) {
+            return Collections.emptyList();
+        }
+        List<Produto> resultado = new ArrayList<>(faceta.contagens[codigo]);
+        faceta.produtos.paraCadaEmComum(produtosPorMarca.get(codigo), id -> resultado.add(registro.produto(id)));
+        return resultado;
+    }
+
+    // AUXILIARES
+
+    /**
+     * Retorna o conjunto da subárvore, remontando-o se a versão mudou.
+     * Produtos alterados sem passar pelo catálogo têm a marca sincronizada
+     * durante a remontagem.
+     */
+    private Faceta facetaAtualizada(Categoria categoria) {
+        Faceta faceta = facetas.get(categoria);
+        if (faceta != null && faceta.versao == categoria.versao) {
+            return faceta;
+        }
+        // lida antes do percurso: uma alteração durante ele deixa a faceta velha
+        long versao = categoria.versao;
+        int[] ids = produtosDaSubarvore(categoria);
+        int maior = -1;
+        for (int id : ids) {
+            maior = Math.max(maior, id);
+        }
+        ConjuntoIds conjunto = ConjuntoIds.de(ids, ids.length, maior);
+        int[] contagens = new int[marcas.size()];
+        conjunto.paraCada(id -> contagens[marcaPorProduto[id]]++);
+        faceta = new Faceta(categoria, versao, conjunto, contagens);
+        facetas.put(categoria, faceta);
+        return faceta;
+    }
+
+    /**
+     * Identificadores dos produtos associados às categorias da subárvore,
+     * percorrendo só ela; um produto em mais de uma categoria se repete.
+     */
+    private int[] produtosDaSubarvore(Categoria topo) {
+        int[] ids = new int[16];
+        int quantidade = 0;
+        for (Categoria atual : PercursoArvore.preOrdem(topo)) {
+            for (Produto produto : atual.getProdutos()) {
+                if (quantidade == ids.length) {
+                    ids = Arrays.copyOf(ids, quantidade * 2);
+                }
+                ids[quantidade++] = sincronizar(produto);
+            }
+        }
+        return Arrays.copyOf(ids, quantidade);
+    }
+
+    /**
+     * Inclui na faceta os produtos de uma subárvore que passou a fazer parte
+     * dela, ou exclui os que deixaram de estar nela por qualquer categoria.
+     * Os identificadores podem vir repetidos.
+     */
+    private void corrigir(Faceta faceta, int[] ids, boolean incluir) {
+        for (int id : ids) {
+            if (incluir) {
+                if (!faceta.produtos.contem(id)) {
+                    faceta.incluir(id);
+                }
+            } else if (faceta.produtos.contem(id) && registro.produto(id).categoriasNaSubarvore(faceta.topo) == 0) {
+                faceta.excluir(id);
+            }
+        }
+    }
+
+    private static boolean naSubarvore(Categoria topo, Categoria categoria) {
+        return categoria == topo || topo.isAncestralDe(categoria);
+    }
+
+    /**
+     * Retorna o código da marca, incluindo-a no dicionário se for nova.
+     */
+    private int codigoMarca(String marca) {
+        Integer codigo = codigosMarca.get(marca);
+        if (codigo == null) {
+            codigo = marcas.size();
+            codigosMarca.put(marca, codigo);
+            marcas.add(marca);
+            produtosPorMarca.add(new ConjuntoIds());
+        }
+        return codigo;
+    }
+
+    private static int[] vazio(int tamanho) {
+        int[] vetor = new int[tamanho];
+        Arrays.fill(vetor, -1);
+        return vetor;
+    }
+}
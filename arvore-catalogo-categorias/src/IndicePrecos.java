@@ -0,0 +1,382 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de preços por subárvore, para consultas do tipo "produtos de
+ * Notebooks e abaixo entre R$ 3000 e R$ 8000, ordenados por preço".
+ *
+ * Para cada categoria consultada é mantido um par de vetores ordenados por
+ * (preço, código): os preços em um {@code double[]} primitivo e os produtos
+ * na mesma ordem. Uma consulta faz duas buscas binárias e copia o trecho
+ * encontrado, em O(log n + k). Um produto associado a mais de uma categoria
+ * da subárvore aparece uma única vez.
+ *
+ * Os vetores são montados na primeira consulta, percorrendo só a subárvore,
+ * e guardados junto com a {@link Categoria#versao} dela. Depois disso, o
+ * {@link CatalogoControll} avisa cada associação, desassociação e mudança de
+ * preço, código ou marca, e os vetores das subárvores afetadas são
+ * corrigidos na hora: o produto entra, sai ou muda de posição, em O(log n)
+ * para achar a posição mais o deslocamento do trecho seguinte. A versão
+ * continua sendo conferida: se ela andou mais do que o aviso explica (por
+ * exemplo, uma categoria movida, ou um produto associado direto pela
+ * {@link Categoria}), os vetores daquela subárvore são descartados e
+ * remontados na consulta seguinte. Só as subárvores consultadas mais
+ * recentemente ficam em memória.
+ *
+ * Consultas e avisos podem vir de threads diferentes; todos os métodos usam
+ * o monitor do índice.
+ *
+ * @since 2025
+ */
+class IndicePrecos {
+
+    /**
+     * Quantidade máxima de subárvores mantidas em memória.
+     */
+    private static final int MAXIMO_SUBARVORES = 256;
+
+    private static final Comparator<String> POR_CODIGO = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final Comparator<Produto> POR_PRECO_E_CODIGO = Comparator
+            .comparingDouble(Produto::getPreco)
+            .thenComparing(Produto::getCodigo, POR_CODIGO);
+
+    /**
+     * Vetores ordenados por subárvore, do menos ao mais recentemente usado.
+     */
+    private final Map<Categoria, Faixa> faixas;
+
+    /**
+     * Produtos de uma subárvore ordenados por preço, com a versão da
+     * subárvore que eles refletem. Os vetores têm folga no fim, como num
+     * {@link ArrayList}; só as primeiras {@code tamanho} posições valem.
+     */
+    private static final class Faixa {
+        final Categoria topo;
+        long versao;
+        double[] precos;
+        Produto[] produtos;
+        int tamanho;
+
+        Faixa(Categoria topo, long versao, Produto[] produtos) {
+            this.topo = topo;
+            this.versao = versao;
+            this.produtos = produtos;
+            this.tamanho = produtos.length;
+            this.precos = new double[produtos.length];
+            for (int i = 0; i < produtos.length; i++) {
+                precos[i] = produtos[i].getPreco();
+            }
+        }
+
+        /**
+         * Retorna a posição do produto, procurado pela chave (preço, código)
+         * com que ele foi posto no vetor, ou -1 se ele não estiver lá.
+         */
+        int posicao(Produto produto, double preco, String codigo) {
+            for (int i = primeiraPosicao(preco, codigo, false); i < tamanho; i++) {
+                if (produtos[i] == produto) {
+                    return i;
+                }
+                if (comparar(i, preco, codigo) != 0) {
+                    break;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Põe o produto na posição da chave (preço, código) atual dele.
+         */
+        void inserir(Produto produto) {
+            double preco = produto.getPreco();
+            int posicao = primeiraPosicao(preco, produto.getCodigo(), true);
+            if (tamanho == produtos.length) {
+                int capacidade = Math.max(16, tamanho + (tamanho >> 1));
+                precos = Arrays.copyOf(precos, capacidade);
+                produtos = Arrays.copyOf(produtos, capacidade);
+            }
+            System.arraycopy(precos, posicao, precos, posicao + 1, tamanho - posicao);
+            System.arraycopy(produtos, posicao, produtos, posicao + 1, tamanho - posicao);
+            precos[posicao] = preco;
+            produtos[posicao] = produto;
+            tamanho++;
+        }
+
+        void retirarEm(int posicao) {
+            System.arraycopy(precos, posicao + 1, precos, posicao, tamanho - posicao - 1);
+            System.arraycopy(produtos, posicao + 1, produtos, posicao, tamanho - posicao - 1);
+            tamanho--;
+            produtos[tamanho] = null;
+        }
+
+        /**
+         * Busca binária pela primeira posição com chave maior ou igual à
+         * informada ({@code depoisDasIguais} falso) ou maior que ela
+         * (verdadeiro).
+         */
+        private int primeiraPosicao(double preco, String codigo, boolean depoisDasIguais) {
+            int baixo = 0;
+            int alto = tamanho;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                int comparacao = comparar(meio, preco, codigo);
+                if (comparacao < 0 || (depoisDasIguais && comparacao == 0)) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return baixo;
+        }
+
+        private int comparar(int posicao, double preco, String codigo) {
+            int comparacao = Double.compare(precos[posicao], preco);
+            return (comparacao != 0) ? comparacao : POR_CODIGO.compare(produtos[posicao].getCodigo(), codigo);
+        }
+    }
+
+    /**
+     * Cria o índice, ainda sem nenhuma subárvore.
+     */
+    IndicePrecos() {
+        this.faixas = new LinkedHashMap<Categoria, Faixa>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Categoria, Faixa> maisAntiga) {
+                return size() > MAXIMO_SUBARVORES;
+            }
+        };
+    }
+
+    // CONSULTAS
+
+    /**
+     * Retorna os produtos da subárvore com preço entre os limites
+     * informados (inclusive), em ordem crescente de preço.
+     *
+     * @param categoria    Topo da subárvore consultada
+     * @param precoMinimo  Menor preço aceito
+     * @param precoMaximo  Maior preço aceito
+     * @return Lista somente leitura, ordenada por preço e depois por código
+     */
+    synchronized List<Produto> buscar(Categoria categoria, double precoMinimo, double precoMaximo) {
+        if (!(precoMinimo <= precoMaximo)) {
+            return Collections.emptyList();
+        }
+        Faixa faixa = faixaAtualizada(categoria);
+        int inicio = primeiroMaiorOuIgual(faixa.precos, faixa.tamanho, precoMinimo);
+        int fim = primeiroMaior(faixa.precos, faixa.tamanho, precoMaximo);
+        if (inicio >= fim) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(faixa.produtos, inicio, fim)));
+    }
+
+    // MANUTENÇÃO
+
+    /**
+     * Inclui o produto nos vetores das subárvores que contêm a categoria,
+     * depois de ele ter sido associado a ela.
+     *
+     * @param categoria Categoria que recebeu o produto
+     * @param produto   Produto associado
+     */
+    synchronized void produtoAssociado(Categoria categoria, Produto produto) {
+        for (Iterator<Faixa> iterador = faixas.values().iterator(); iterador.hasNext();) {
+            Faixa faixa = iterador.next();
+            if (!naSubarvore(faixa.topo, categoria)) {
+                continue;
+            }
+            long versao = faixa.topo.versao;
+            if (faixa.versao != versao - 1) {
+                iterador.remove();
+                continue;
+            }
+            // já estava na subárvore por outra categoria
+            if (produto.categoriasNaSubarvore(faixa.topo) == 1) {
+                faixa.inserir(produto);
+            }
+            faixa.versao = versao;
+        }
+    }
+
+    /**
+     * Tira o produto dos vetores das subárvores que contêm a categoria e
+     * onde ele não está em nenhuma outra, depois de ele ter sido
+     * desassociado dela.
+     *
+     * @param categoria Categoria de onde o produto saiu
+     * @param produto   Produto desassociado
+     */
+    synchronized void produtoDesassociado(Categoria categoria, Produto produto) {
+        for (Iterator<Faixa> iterador = faixas.values().iterator(); iterador.hasNext();) {
+            Faixa faixa = iterador.next();
+            if (!naSubarvore(faixa.topo, categoria)) {
+                continue;
+            }
+            long versao = faixa.topo.versao;
+            if (faixa.versao != versao - 1) {
+                iterador.remove();
+                continue;
+            }
+            if (produto.categoriasNaSubarvore(faixa.topo) == 0) {
+                int posicao = faixa.posicao(produto, produto.getPreco(), produto.getCodigo());
+                if (posicao < 0) {
+                    iterador.remove();
+                    continue;
+                }
+                faixa.retirarEm(posicao);
+            }
+            faixa.versao = versao;
+        }
+    }
+
+    /**
+     * Muda o produto de posição nos vetores das subárvores onde ele está,
+     * depois de o preço ter mudado.
+     *
+     * @param produto  Produto alterado
+     * @param anterior Preço antes da alteração
+     */
+    synchronized void precoAlterado(Produto produto, double anterior) {
+        String codigo = produto.getCodigo();
+        for (Iterator<Faixa> iterador = faixas.values().iterator(); iterador.hasNext();) {
+            Faixa faixa = iterador.next();
+            // Produto#setPreco avança a versão uma vez por categoria do produto
+            int associacoes = produto.categoriasNaSubarvore(faixa.topo);
+            if (associacoes == 0) {
+                continue;
+            }
+            long versao = faixa.topo.versao;
+            int posicao = (faixa.versao == versao - associacoes) ? faixa.posicao(produto, anterior, codigo) : -1;
+            if (posicao < 0) {
+                iterador.remove();
+                continue;
+            }
+            faixa.retirarEm(posicao);
+            faixa.inserir(produto);
+            faixa.versao = versao;
+        }
+    }
+
+    /**
+     * Muda o produto de posição entre os de mesmo preço, depois de o código
+     * ter mudado. O código não passa pela versão das categorias.
+     *
+     * @param produto  Produto alterado
+     * @param anterior Código antes da alteração
+     */
+    synchronized void codigoAlterado(Produto produto, String anterior) {
+        for (Iterator<Faixa> iterador = faixas.values().iterator(); iterador.hasNext();) {
+            Faixa faixa = iterador.next();
+            if (faixa.versao != faixa.topo.versao || produto.categoriasNaSubarvore(faixa.topo) == 0) {
+                continue;
+            }
+            int posicao = faixa.posicao(produto, produto.getPreco(), anterior);
+            if (posicao < 0) {
+                iterador.remove();
+                continue;
+            }
+            faixa.retirarEm(posicao);
+            faixa.inserir(produto);
+        }
+    }
+
+    /**
+     * Acompanha a versão das subárvores onde o produto está, depois de a
+     * marca ter mudado; a ordem dos vetores não muda.
+     *
+     * @param produto Produto alterado
+     */
+    synchronized void marcaAlterada(Produto produto) {
+        for (Iterator<Faixa> iterador = faixas.values().iterator(); iterador.hasNext();) {
+            Faixa faixa = iterador.next();
+            int associacoes = produto.categoriasNaSubarvore(faixa.topo);
+            if (associacoes == 0) {
+                continue;
+            }
+            long versao = faixa.topo.versao;
+            if (faixa.versao != versao - associacoes) {
+                iterador.remove();
+            } else {
+                faixa.versao = versao;
+            }
+        }
+    }
+
+    /**
+     * Descarta todos os vetores guardados.
+     */
+    synchronized void limpar() {
+        faixas.clear();
+    }
+
+    // AUXILIARES
+
+    /**
+     * Retorna os vetores da subárvore, remontando-os se a versão mudou. O
+     * produto que aparece em mais de uma categoria entra uma vez só.
+     */
+    private Faixa faixaAtualizada(Categoria categoria) {
+        Faixa faixa = faixas.get(categoria);
+        if (faixa != null && faixa.versao == categoria.versao) {
+            return faixa;
+        }
+        // lida antes do percurso: uma alteração durante ele deixa a faixa velha
+        long versao = categoria.versao;
+        Set<Produto> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Produto> distintos = new ArrayList<>();
+        for (Categoria atual : PercursoArvore.preOrdem(categoria)) {
+            for (Produto produto : atual.getProdutos()) {
+                if (vistos.add(produto)) {
+                    distintos.add(produto);
+                }
+            }
+        }
+        Produto[] produtos = distintos.toArray(new Produto[0]);
+        Arrays.sort(produtos, POR_PRECO_E_CODIGO);
+        faixa = new Faixa(categoria, versao, produtos);
+        faixas.put(categoria, faixa);
+        return faixa;
+    }
+
+    private static boolean naSubarvore(Categoria topo, Categoria categoria) {
+        return categoria == topo || topo.isAncestralDe(categoria);
+    }
+
+    private static int primeiroMaiorOuIgual(double[] precos, int tamanho, double limite) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (precos[meio] < limite) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static int primeiroMaior(double[] precos, int tamanho, double limite) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (precos[meio] <= limite) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Vetor plano com os produtos da árvore na ordem de pré-ordem das categorias.
+ *
+ * Como os rótulos de intervalo seguem a mesma ordem, os produtos de qualquer
+ * subárvore ocupam um trecho contíguo do vetor, localizado com duas buscas
+ * binárias sobre os rótulos de entrada das categorias donas. O vetor é
+ * reconstruído de forma preguiçosa, apenas quando a estrutura da árvore muda
+ * (ver {@link Categoria#modificacoes}); renumerações de rótulos não o
+ * invalidam, pois preservam a ordem.
+ *
+ * Cada reconstrução gera um vetor novo, que não é mais alterado, publicado
+ * num campo volátil: consultas de threads diferentes leem o vetor atual sem
+ * trava, e só a reconstrução usa o monitor do índice.
+ *
+ * @since 2025
+ */
+class IndiceSubarvore {
+
+    /**
+     * Vetor montado para uma raiz, com o contador de modificações da
+     * árvore no momento da montagem. Não é alterado depois de publicado.
+     */
+    private static final class Vetor {
+        final Categoria raiz;
+        final long modificacoes;
+
+        /**
+         * Categoria dona de cada posição do vetor de produtos.
+         */
+        final Categoria[] donos;
+        final Produto[] produtos;
+
+        Vetor(Categoria raiz, long modificacoes, Categoria[] donos, Produto[] produtos) {
+            this.raiz = raiz;
+            this.modificacoes = modificacoes;
+            this.donos = donos;
+            this.produtos = produtos;
+        }
+
+        boolean atualizado(Categoria raizAtual) {
+            return raiz == raizAtual && modificacoes == raizAtual.modificacoes;
+        }
+    }
+
+    private volatile Vetor vetor;
+
+    /**
+     * Retorna os produtos associados à categoria e a todas as suas
+     * descendentes, na ordem de pré-ordem das categorias.
+     *
+     * @param categoria Topo da subárvore consultada
+     * @return Lista somente leitura (vista sobre um vetor que não muda mais;
+     *         reflete a árvore do momento da consulta)
+     */
+    List<Produto> produtosDaSubarvore(Categoria categoria) {
+        Vetor atual = atualizar(categoria.getRaizArvore());
+        int inicio = primeiroComEntradaMaiorOuIgual(atual.donos, categoria.entrada);
+        int fim = primeiroComEntradaMaiorOuIgual(atual.donos, categoria.saida);
+        return Collections.unmodifiableList(Arrays.asList(atual.produtos).subList(inicio, fim));
+    }
+
+    /**
+     * Retorna o vetor da árvore, reconstruindo-o se ela mudou desde a
+     * última consulta.
+     *
+     * @param raizAtual Raiz da árvore consultada
+     */
+    private Vetor atualizar(Categoria raizAtual) {
+        Vetor atual = vetor;
+        if (atual != null && atual.atualizado(raizAtual)) {
+            return atual;
+        }
+        synchronized (this) {
+            atual = vetor;
+            if (atual != null && atual.atualizado(raizAtual)) {
+                return atual;
+            }
+            // lido antes do percurso: uma alteração durante ele deixa o vetor velho
+            long modificacoes = raizAtual.modificacoes;
+            List<Categoria> novosDonos = new ArrayList<>();
+            List<Produto> novosProdutos = new ArrayList<>();
+            for (Categoria categoria : PercursoArvore.preOrdem(raizAtual)) {
+                for (Produto produto : categoria.getProdutos()) {
+                    novosDonos.add(categoria);
+                    novosProdutos.add(produto);
+                }
+            }
+            atual = new Vetor(raizAtual, modificacoes, novosDonos.toArray(new Categoria[0]),
+                    novosProdutos.toArray(new Produto[0]));
+            vetor = atual;
+            return atual;
+        }
+    }
+
+    /**
+     * Busca binária pela primeira posição cuja categoria dona tem rótulo de
+     * entrada maior ou igual ao informado.
+     */
+    private static int primeiroComEntradaMaiorOuIgual(Categoria[] donos, long rotulo) {
+        int baixo = 0;
+        int alto = donos.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (donos[meio].entrada < rotulo) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Lista das subcategorias ou dos produtos de uma categoria, guardada num
+ * vetor. Para quem está fora da {@link Categoria} ela só pode ser lida; a
+ * categoria altera a lista com {@link #acrescentar(Object)} e
+ * {@link #retirar(Object)} (e, ao desfazer uma retirada,
+ * {@link #inserirEm(int, Object)}).
+ *
+ * Na lista de produtos, cada elemento recebe, ao entrar, um número de ordem
+ * maior que o de todos os anteriores, guardado num vetor paralelo e,
+ * portanto, crescente. Quando a lista passa de {@link #LIMIAR_TABELA}
+ * elementos, ela mantém também uma tabela de hash aberta (pela identidade do
+ * elemento) com esses números: a posição de um produto é achada pela tabela
+ * e por uma busca binária no vetor de ordens, sem percorrer a lista nem
+ * chamar {@code equals}. A lista de filhas não precisa disso, porque as
+ * irmãs já estão em ordem crescente de rótulo de entrada (ver
+ * {@link Categoria#posicaoEntreIrmas()}).
+ *
+ * Retirar um elemento só desloca o restante do vetor, mantendo a ordem de
+ * inclusão.
+ *
+ * @param <T> Tipo dos elementos ({@link Categoria} ou {@link Produto})
+ * @since 2025
+ */
+final class ListaFilhos<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * Quantidade de elementos a partir da qual a lista mantém a tabela de
+     * posições; abaixo dela, percorrer o vetor é mais barato.
+     */
+    static final int LIMIAR_TABELA = 32;
+
+    private static final Object[] VAZIO = new Object[0];
+    private static final int[] SEM_ORDENS = new int[0];
+    private static final int REMOVIDO = -1;
+
+    private Object[] elementos = VAZIO;
+    private int[] ordens = SEM_ORDENS;
+    private int quantidade;
+    private int proximaOrdem;
+
+    /**
+     * Tabela de posições: cada entrada guarda o número de ordem mais um de
+     * um elemento, 0 se nunca foi usada ou {@link #REMOVIDO}. Fica
+     * {@code null} enquanto a lista for pequena.
+     */
+    private int[] tabela;
+    private int usadasTabela;
+
+    private final boolean indexada;
+
+    /**
+     * Cria uma lista vazia.
+     *
+     * @param indexada Se a lista deve manter a tabela de posições quando
+     *                 passar de {@link #LIMIAR_TABELA} elementos
+     */
+    ListaFilhos(boolean indexada) {
+        this.indexada = indexada;
+    }
+
+    // LEITURA
+
+    @Override
+    public T get(int posicao) {
+        if (posicao < 0 || posicao >= quantidade) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + ", tamanho " + quantidade);
+        }
+        return elemento(posicao);
+    }
+
+    @Override
+    public int size() {
+        return quantidade;
+    }
+
+    @Override
+    public boolean contains(Object elemento) {
+        return posicao(elemento) >= 0;
+    }
+
+    /**
+     * Posição do elemento (comparado por identidade) na lista.
+     *
+     * @param elemento Elemento procurado
+     * @return Posição, ou -1 se o elemento não estiver na lista
+     */
+    int posicao(Object elemento) {
+        if (tabela == null) {
+            for (int i = 0; i < quantidade; i++) {
+                if (elementos[i] == elemento) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mascara = tabela.length - 1;
+        for (int vaga = espalhar(elemento) & mascara; tabela[vaga] != 0; vaga = (vaga + 1) & mascara) {
+            if (tabela[vaga] != REMOVIDO) {
+                int posicao = Arrays.binarySearch(ordens, 0, quantidade, tabela[vaga] - 1);
+                if (elementos[posicao] == elemento) {
+                    return posicao;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // ALTERAÇÃO
+
+    /**
+     * Acrescenta o elemento ao final da lista.
+     *
+     * @param elemento Elemento que ainda não está na lista
+     */
+    void acrescentar(T elemento) {
+        if (proximaOrdem == Integer.MAX_VALUE) {
+            renumerar();
+        }
+        if (quantidade == elementos.length) {
+            int capacidade = Math.max(4, quantidade + (quantidade >> 1));
+            elementos = Arrays.copyOf(elementos, capacidade);
+            ordens = Arrays.copyOf(ordens, capacidade);
+        }
+        int ordem = proximaOrdem++;
+        elementos[quantidade] = elemento;
+        ordens[quantidade] = ordem;
+        quantidade++;
+        modCount++;
+        if (tabela != null) {
+            incluirNaTabela(elemento, ordem);
+        } else if (indexada && quantidade > LIMIAR_TABELA) {
+            refazerTabela();
+        }
+    }
+
+    /**
+     * Insere o elemento na posição informada, deslocando os seguintes. As
+     * ordens são renumeradas, em O(n): usado só para desfazer uma retirada.
+     *
+     * @param posicao  Posição de 0 até o tamanho da lista
+     * @param elemento Elemento que ainda não está na lista
+     */
+    void inserirEm(int posicao, T elemento) {
+        if (quantidade == elementos.length) {
+            int capacidade = Math.max(4, quantidade + (quantidade >> 1));
+            elementos = Arrays.copyOf(elementos, capacidade);
+            ordens = Arrays.copyOf(ordens, capacidade);
+        }
+        System.arraycopy(elementos, posicao, elementos, posicao + 1, quantidade - posicao);
+        elementos[posicao] = elemento;
+        quantidade++;
+        modCount++;
+        renumerar();
+        if (tabela == null && indexada && quantidade > LIMIAR_TABELA) {
+            refazerTabela();
+        }
+    }
+
+    /**
+     * Retira o elemento da lista, mantendo a ordem dos demais.
+     *
+     * @param elemento Elemento a retirar
+     * @return {@code true} se o elemento estava na lista
+     */
+    boolean retirar(Object elemento) {
+        int posicao = posicao(elemento);
+        if (posicao < 0) {
+            return false;
+        }
+        retirarEm(posicao);
+        return true;
+    }
+
+    /**
+     * Retira o elemento da posição informada, mantendo a ordem dos demais.
+     *
+     * @param posicao Posição de um elemento da lista
+     */
+    void retirarEm(int posicao) {
+        if (tabela != null) {
+            int mascara = tabela.length - 1;
+            int vaga = espalhar(elementos[posicao]) & mascara;
+            while (tabela[vaga] != ordens[posicao] + 1) {
+                vaga = (vaga + 1) & mascara;
+            }
+            tabela[vaga] = REMOVIDO;
+        }
+        quantidade--;
+        System.arraycopy(elementos, posicao + 1, elementos, posicao, quantidade - posicao);
+        System.arraycopy(ordens, posicao + 1, ordens, posicao, quantidade - posicao);
+        elementos[quantidade] = null;
+        modCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elemento(int posicao) {
+        return (T) elementos[posicao];
+    }
+
+    // TABELA DE POSIÇÕES
+
+    private void incluirNaTabela(Object elemento, int ordem) {
+        int mascara = tabela.length - 1;
+        int vaga = espalhar(elemento) & mascara;
+        while (tabela[vaga] > 0) {
+            vaga = (vaga + 1) & mascara;
+        }
+        if (tabela[vaga] == 0) {
+            usadasTabela++;
+        }
+        tabela[vaga] = ordem + 1;
+        if (usadasTabela * 2 > tabela.length) {
+            refazerTabela();
+        }
+    }
+
+    /**
+     * Refaz a tabela com folga para o dobro dos elementos, descartando as
+     * marcas de remoção.
+     */
+    private void refazerTabela() {
+        int tamanho = 16;
+        while (tamanho < quantidade * 4) {
+            tamanho <<= 1;
+        }
+        tabela = new int[tamanho];
+        usadasTabela = 0;
+        int mascara = tamanho - 1;
+        for (int i = 0; i < quantidade; i++) {
+            int vaga = espalhar(elementos[i]) & mascara;
+            while (tabela[vaga] != 0) {
+                vaga = (vaga + 1) & mascara;
+            }
+            tabela[vaga] = ordens[i] + 1;
+            usadasTabela++;
+        }
+    }
+
+    /**
+     * Renumera as ordens a partir de zero quando os números se esgotam.
+     */
+    private void renumerar() {
+        for (int i = 0; i < quantidade; i++) {
+            ordens[i] = i;
+        }
+        proximaOrdem = quantidade;
+        if (tabela != null) {
+            refazerTabela();
+        }
+    }
+
+    private static int espalhar(Object elemento) {
+        int hash = System.identityHashCode(elemento);
+        return hash ^ (hash >>> 16);
+    }
+}
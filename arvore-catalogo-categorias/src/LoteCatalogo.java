@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lista de alterações a aplicar no catálogo de uma vez, com
+ * {@link CatalogoControll#aplicarLote(LoteCatalogo)}: ou todas entram, ou
+ * nenhuma.
+ *
+ * Cada método acrescenta uma alteração ao fim da lista e tem o mesmo
+ * efeito do método de mesmo nome do {@link CatalogoControll}, com os nomes
+ * resolvidos no estado deixado pelas alterações anteriores do próprio lote.
+ * Os métodos devolvem o próprio lote, para encadear as chamadas. O lote pode
+ * ser aplicado mais de uma vez, inclusive em catálogos diferentes.
+ *
+ * @since 2025
+ */
+public final class LoteCatalogo {
+
+    /**
+     * Tipo de uma alteração do lote.
+     */
+    enum Tipo {
+        INSERIR_CATEGORIA,
+        DEFINIR_SUBCATEGORIA,
+        ASSOCIAR_PRODUTO,
+        DESASSOCIAR_PRODUTO,
+        REMOVER_CATEGORIA
+    }
+
+    /**
+     * Alteração do lote, com os argumentos do método correspondente.
+     */
+    static final class Alteracao {
+        final Tipo tipo;
+
+        /**
+         * Nome da categoria alterada: a inserida, o pai, a que recebe ou
+         * perde o produto, ou a removida.
+         */
+        final String nome;
+
+        /**
+         * Código da categoria inserida ou nome da subcategoria.
+         */
+        final String argumento;
+        final String descricao;
+        final Produto produto;
+
+        Alteracao(Tipo tipo, String nome, String argumento, String descricao, Produto produto) {
+            this.tipo = tipo;
+            this.nome = nome;
+            this.argumento = argumento;
+            this.descricao = descricao;
+            this.produto = produto;
+        }
+    }
+
+    private final List<Alteracao> alteracoes = new ArrayList<>();
+
+    /**
+     * Cria um lote vazio.
+     */
+    public LoteCatalogo() {
+    }
+
+    /**
+     * Acrescenta a inserção de uma categoria de nível 0 (ou da raiz, se o
+     * catálogo estiver vazio). No lote, a inserção é recusada se já houver
+     * outra categoria com o mesmo código.
+     *
+     * @param nome            Nome da categoria a ser criada
+     * @param categoriaCodigo Código identificador da categoria
+     * @param descricao       Descrição textual da categoria
+     * @return Este lote
+     * @see CatalogoControll#inserirCategoria(String, String, String)
+     */
+    public LoteCatalogo inserirCategoria(String nome, String categoriaCodigo, String descricao) {
+        alteracoes.add(new Alteracao(Tipo.INSERIR_CATEGORIA, nome, categoriaCodigo, descricao, null));
+        return this;
+    }
+
+    /**
+     * Acrescenta a definição de uma subcategoria, criada se ainda não
+     * existir.
+     *
+     * @param nomePai   Nome da categoria que será o pai
+     * @param nomeFilho Nome da categoria que será a subcategoria
+     * @return Este lote
+     * @see CatalogoControll#definirSubcategoria(String, String)
+     */
+    public LoteCatalogo definirSubcategoria(String nomePai, String nomeFilho) {
+        alteracoes.add(new Alteracao(Tipo.DEFINIR_SUBCATEGORIA, nomePai, nomeFilho, null, null));
+        return this;
+    }
+
+    /**
+     * Acrescenta a associação de um produto a uma categoria.
+     *
+     * @param nomeCategoria Nome da categoria onde o produto será associado
+     * @param produto       Produto a ser associado
+     * @return Este lote
+     * @see CatalogoControll#associarProduto(String, Produto)
+     */
+    public LoteCatalogo associarProduto(String nomeCategoria, Produto produto) {
+        alteracoes.add(new Alteracao(Tipo.ASSOCIAR_PRODUTO, nomeCategoria, null, null, produto));
+        return this;
+    }
+
+    /**
+     * Acrescenta a desassociação de um produto. No lote, ela é recusada se o
+     * produto não estiver associado à categoria.
+     *
+     * @param nomeCategoria Nome da categoria de onde o produto será retirado
+     * @param produto       Produto a ser desassociado
+     * @return Este lote
+     * @see CatalogoControll#desassociarProduto(String, Produto)
+     */
+    public LoteCatalogo desassociarProduto(String nomeCategoria, Produto produto) {
+        alteracoes.add(new Alteracao(Tipo.DESASSOCIAR_PRODUTO, nomeCategoria, null, null, produto));
+        return this;
+    }
+
+    /**
+     * Acrescenta a remoção de uma categoria e de toda a sua subárvore.
+     *
+     * @param nome Nome da categoria a ser removida
+     * @return Este lote
+     * @see CatalogoControll#removerCategoria(String)
+     */
+    public LoteCatalogo removerCategoria(String nome) {
+        alteracoes.add(new Alteracao(Tipo.REMOVER_CATEGORIA, nome, null, null, null));
+        return this;
+    }
+
+    /**
+     * Retorna a quantidade de alterações do lote.
+     *
+     * @return Quantidade de alterações
+     */
+    public int tamanho() {
+        return alteracoes.size();
+    }
+
+    /**
+     * Retorna as alterações na ordem em que foram acrescentadas.
+     */
+    List<Alteracao> getAlteracoes() {
+        return Collections.unmodifiableList(alteracoes);
+    }
+}
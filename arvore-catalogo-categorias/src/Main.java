@@ -24,6 +24,10 @@ public class Main {
      * @param args Argumentos de linha de comando (não utilizados)
      */
     public static void main(String[] args) {
+        // avisos do catálogo no console só com a mensagem, sem data e origem
+        if (System.getProperty("java.util.logging.SimpleFormatter.format") == null) {
+            System.setProperty("java.util.logging.SimpleFormatter.format", "%5$s%n");
+        }
         CatalogoControll controle = new CatalogoControll();
 
         Scanner input = new Scanner(System.in);
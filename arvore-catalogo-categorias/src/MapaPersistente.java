@@ -0,0 +1,256 @@
+import java.util.Arrays;
+
+/**
+ * Mapa imutável de texto para valor, organizado como uma árvore de hash com
+ * 32 ramos por nível. Cada inclusão ou remoção devolve um mapa novo que
+ * copia só os nós do caminho até a chave (no máximo sete) e compartilha o
+ * resto com o mapa anterior, que continua válido.
+ *
+ * Usado pelas versões publicadas do catálogo ({@link VersaoCatalogo}), em
+ * que cada alteração gera um mapa novo sem afetar os leitores da versão
+ * anterior. Valores nulos não são aceitos.
+ *
+ * @param <V> Tipo dos valores
+ * @since 2025
+ */
+final class MapaPersistente<V> {
+
+    private static final int BITS = 5;
+    private static final int MASCARA = (1 << BITS) - 1;
+
+    private static final MapaPersistente<Object> VAZIO = new MapaPersistente<>(null, 0);
+
+    /**
+     * Nó interno: {@code mapa} marca as posições ocupadas e {@code itens}
+     * guarda, na ordem dos bits, uma {@link Folha}, uma {@link Colisao} ou
+     * outro {@code No}.
+     */
+    private static final class No {
+        final int mapa;
+        final Object[] itens;
+
+        No(int mapa, Object[] itens) {
+            this.mapa = mapa;
+            this.itens = itens;
+        }
+    }
+
+    private static final class Folha {
+        final String chave;
+        final int hash;
+        final Object valor;
+
+        Folha(String chave, int hash, Object valor) {
+            this.chave = chave;
+            this.hash = hash;
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Chaves diferentes com o mesmo hash de 32 bits.
+     */
+    private static final class Colisao {
+        final int hash;
+        final Folha[] folhas;
+
+        Colisao(int hash, Folha[] folhas) {
+            this.hash = hash;
+            this.folhas = folhas;
+        }
+    }
+
+    private final Object raiz;
+    private final int tamanho;
+
+    private MapaPersistente(Object raiz, int tamanho) {
+        this.raiz = raiz;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Retorna o mapa vazio.
+     *
+     * @param <V> Tipo dos valores
+     * @return Mapa sem chaves
+     */
+    @SuppressWarnings("unchecked")
+    static <V> MapaPersistente<V> vazio() {
+        return (MapaPersistente<V>) VAZIO;
+    }
+
+    /**
+     * Retorna a quantidade de chaves.
+     *
+     * @return Tamanho do mapa
+     */
+    int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Busca o valor associado à chave.
+     *
+     * @param chave Chave procurada
+     * @return Valor, ou {@code null} se a chave não estiver no mapa
+     */
+    @SuppressWarnings("unchecked")
+    V buscar(String chave) {
+        int hash = chave.hashCode();
+        Object atual = raiz;
+        for (int deslocamento = 0; atual instanceof No; deslocamento += BITS) {
+            No no = (No) atual;
+            int bit = bit(hash, deslocamento);
+            if ((no.mapa & bit) == 0) {
+                return null;
+            }
+            atual = no.itens[indice(no.mapa, bit)];
+        }
+        if (atual instanceof Folha) {
+            Folha folha = (Folha) atual;
+            return (folha.hash == hash && folha.chave.equals(chave)) ? (V) folha.valor : null;
+        }
+        if (atual instanceof Colisao && ((Colisao) atual).hash == hash) {
+            for (Folha folha : ((Colisao) atual).folhas) {
+                if (folha.chave.equals(chave)) {
+                    return (V) folha.valor;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna um mapa com a chave associada ao valor, substituindo o valor
+     * anterior se houver.
+     *
+     * @param chave Chave
+     * @param valor Valor (não nulo)
+     * @return Mapa novo (este mapa não muda)
+     */
+    MapaPersistente<V> com(String chave, V valor) {
+        V anterior = buscar(chave);
+        if (anterior == valor) {
+            return this;
+        }
+        int novoTamanho = (anterior == null) ? tamanho + 1 : tamanho;
+        return new MapaPersistente<>(incluir(raiz, new Folha(chave, chave.hashCode(), valor), 0), novoTamanho);
+    }
+
+    /**
+     * Retorna um mapa sem a chave, desde que ela ainda esteja associada ao
+     * valor esperado (comparado por identidade). Assim uma remoção atrasada
+     * não apaga um valor que já foi substituído.
+     *
+     * @param chave    Chave a remover
+     * @param esperado Valor que a chave deve ter para ser removida
+     * @return Mapa novo, ou este mesmo se nada mudou
+     */
+    MapaPersistente<V> sem(String chave, V esperado) {
+        if (esperado == null || buscar(chave) != esperado) {
+            return this;
+        }
+        return new MapaPersistente<>(excluir(raiz, chave, chave.hashCode(), 0), tamanho - 1);
+    }
+
+    // OPERAÇÕES NOS NÓS
+
+    private static Object incluir(Object atual, Folha nova, int deslocamento) {
+        if (atual == null) {
+            return nova;
+        }
+        if (atual instanceof Folha) {
+            Folha folha = (Folha) atual;
+            if (folha.hash == nova.hash) {
+                return folha.chave.equals(nova.chave)
+                        ? nova
+                        : new Colisao(nova.hash, new Folha[] {folha, nova});
+            }
+            // hashes diferentes se separam em algum nível até o sétimo
+            No no = new No(bit(folha.hash, deslocamento), new Object[] {folha});
+            return incluir(no, nova, deslocamento);
+        }
+        if (atual instanceof Colisao) {
+            Colisao colisao = (Colisao) atual;
+            if (colisao.hash != nova.hash) {
+                No no = new No(bit(colisao.hash, deslocamento), new Object[] {colisao});
+                return incluir(no, nova, deslocamento);
+            }
+            Folha[] folhas = colisao.folhas;
+            for (int i = 0; i < folhas.length; i++) {
+                if (folhas[i].chave.equals(nova.chave)) {
+                    folhas = folhas.clone();
+                    folhas[i] = nova;
+                    return new Colisao(colisao.hash, folhas);
+                }
+            }
+            folhas = Arrays.copyOf(folhas, folhas.length + 1);
+            folhas[folhas.length - 1] = nova;
+            return new Colisao(colisao.hash, folhas);
+        }
+        No no = (No) atual;
+        int bit = bit(nova.hash, deslocamento);
+        int posicao = indice(no.mapa, bit);
+        if ((no.mapa & bit) == 0) {
+            Object[] itens = new Object[no.itens.length + 1];
+            System.arraycopy(no.itens, 0, itens, 0, posicao);
+            itens[posicao] = nova;
+            System.arraycopy(no.itens, posicao, itens, posicao + 1, no.itens.length - posicao);
+            return new No(no.mapa | bit, itens);
+        }
+        Object[] itens = no.itens.clone();
+        itens[posicao] = incluir(no.itens[posicao], nova, deslocamento + BITS);
+        return new No(no.mapa, itens);
+    }
+
+    /**
+     * Remove a chave, que deve existir. Nós que ficam com um único item que
+     * não é outro nó são substituídos por esse item.
+     */
+    private static Object excluir(Object atual, String chave, int hash, int deslocamento) {
+        if (atual instanceof Folha) {
+            return null;
+        }
+        if (atual instanceof Colisao) {
+            Folha[] folhas = ((Colisao) atual).folhas;
+            Folha[] restantes = new Folha[folhas.length - 1];
+            int j = 0;
+            for (Folha folha : folhas) {
+                if (!folha.chave.equals(chave)) {
+                    restantes[j++] = folha;
+                }
+            }
+            return (restantes.length == 1) ? restantes[0] : new Colisao(hash, restantes);
+        }
+        No no = (No) atual;
+        int bit = bit(hash, deslocamento);
+        int posicao = indice(no.mapa, bit);
+        Object filho = excluir(no.itens[posicao], chave, hash, deslocamento + BITS);
+        if (filho == null) {
+            if (no.itens.length == 1) {
+                return null;
+            }
+            Object[] itens = new Object[no.itens.length - 1];
+            System.arraycopy(no.itens, 0, itens, 0, posicao);
+            System.arraycopy(no.itens, posicao + 1, itens, posicao, itens.length - posicao);
+            if (itens.length == 1 && !(itens[0] instanceof No)) {
+                return itens[0];
+            }
+            return new No(no.mapa & ~bit, itens);
+        }
+        if (no.itens.length == 1 && !(filho instanceof No)) {
+            return filho;
+        }
+        Object[] itens = no.itens.clone();
+        itens[posicao] = filho;
+        return new No(no.mapa, itens);
+    }
+
+    private static int bit(int hash, int deslocamento) {
+        return 1 << ((hash >>> deslocamento) & MASCARA);
+    }
+
+    private static int indice(int mapa, int bit) {
+        return Integer.bitCount(mapa & (bit - 1));
+    }
+}
@@ -0,0 +1,424 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas das operações de um {@link CatalogoControll}: chamadas, falhas,
+ * categorias visitadas e histograma de durações de cada operação pública,
+ * mais a forma da árvore (quantidade de categorias, profundidade, maior
+ * quantidade de filhas e produtos por categoria).
+ *
+ * Cada operação instrumentada chama {@link #iniciar()} ao começar e
+ * {@link #registrar(Operacao, long, boolean, int)} ao terminar. Desligadas
+ * (o padrão), as métricas custam uma leitura de campo por operação. Ligadas,
+ * toda chamada e toda falha são contadas, mas só uma a cada
+ * {@link #getAmostragem()} chamadas, sorteada, tem a duração e as categorias
+ * visitadas medidas: ler o relógio custa dezenas de nanossegundos, mais do
+ * que várias das consultas medidas. Os percentis e as médias saem da
+ * amostra, que não depende do ritmo das chamadas.
+ *
+ * Os contadores aceitam registros de várias threads ao mesmo tempo, sem
+ * travas. A forma da árvore é calculada percorrendo a versão publicada, se
+ * a leitura concorrente estiver ativa, ou a própria árvore (ver
+ * {@link CatalogoControll#medirForma()}), e é guardada por
+ * {@link #VALIDADE_FORMA_NANOS} nanossegundos.
+ *
+ * @since 2025
+ */
+final class MetricasCatalogo implements MetricasCatalogoMXBean {
+
+    /**
+     * Operações públicas do catálogo que são medidas, com o nome do método.
+     */
+    enum Operacao {
+        INSERIR_CATEGORIA("inserirCategoria"),
+        INSERIR_PRODUTO("inserirProduto"),
+        BUSCAR_CATEGORIA_POR_CODIGO("buscarCategoriaPorCodigo"),
+        BUSCAR_PRODUTO("buscarProduto"),
+        DEFINIR_SUBCATEGORIA("definirSubcategoria"),
+        ASSOCIAR_PRODUTO("associarProduto"),
+        DESASSOCIAR_PRODUTO("desassociarProduto"),
+        LISTAR_PRODUTOS_DA_SUBARVORE("listarProdutosDaSubarvore"),
+        BUSCAR_PRODUTOS_POR_FAIXA_DE_PRECO("buscarProdutosPorFaixaDePreco"),
+        CONTAR_PRODUTOS_POR_MARCA("contarProdutosPorMarca"),
+        LISTAR_PRODUTOS_POR_MARCA("listarProdutosPorMarca"),
+        AUTOCOMPLETAR("autocompletar"),
+        BUSCAR_CAMINHO_COMPLETO("buscarCaminhoCompleto"),
+        LISTAR_ROTAS_DA_SUBARVORE("listarRotasDaSubarvore"),
+        REMOVER_CATEGORIA("removerCategoria"),
+        LISTAR_ARVORE("listarArvore"),
+        EXPORTAR_ARVORE("exportarArvore"),
+        GERAR_ARVORES_DE_NAVEGACAO("gerarArvoresDeNavegacao"),
+        IMPORTAR("importar"),
+        APLICAR_LOTE("aplicarLote");
+
+        private final String metodo;
+
+        Operacao(String metodo) {
+            this.metodo = metodo;
+        }
+
+        String getMetodo() {
+            return metodo;
+        }
+    }
+
+    /**
+     * Valor de {@link #iniciar()} com as métricas desligadas: a chamada não
+     * é registrada.
+     */
+    static final long DESLIGADA = Long.MIN_VALUE;
+
+    /**
+     * Valor de {@link #iniciar()} para uma chamada contada, mas fora da
+     * amostra de durações.
+     */
+    static final long SEM_DURACAO = Long.MIN_VALUE + 1;
+
+    static final int AMOSTRAGEM_PADRAO = 16;
+    static final long VALIDADE_FORMA_NANOS = 1_000_000_000L;
+
+    /**
+     * Contadores de uma operação.
+     */
+    private static final class Contadores {
+        final LongAdder chamadas = new LongAdder();
+        final LongAdder falhas = new LongAdder();
+        final HistogramaLatencia duracoes = new HistogramaLatencia();
+
+        /**
+         * Categorias visitadas nas chamadas da amostra de durações.
+         */
+        final LongAdder categoriasVisitadas = new LongAdder();
+
+        double mediaCategoriasVisitadas() {
+            long amostradas = duracoes.getQuantidade();
+            return (amostradas == 0) ? 0 : categoriasVisitadas.sum() / (double) amostradas;
+        }
+    }
+
+    private final CatalogoControll catalogo;
+    private final Contadores[] contadores = new Contadores[Operacao.values().length];
+
+    private volatile boolean ativa;
+
+    /**
+     * Amostragem menos um: a duração é medida quando os bits sorteados sob
+     * a máscara são todos zero.
+     */
+    private volatile int mascaraAmostragem = AMOSTRAGEM_PADRAO - 1;
+
+    private volatile Forma forma;
+
+    /**
+     * Cria as métricas desligadas de um catálogo.
+     *
+     * @param catalogo Catálogo cuja forma é informada
+     */
+    MetricasCatalogo(CatalogoControll catalogo) {
+        this.catalogo = catalogo;
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new Contadores();
+        }
+    }
+
+    // REGISTRO
+
+    /**
+     * Marca o início de uma operação.
+     *
+     * @return Instante de início, {@link #DESLIGADA} ou {@link #SEM_DURACAO},
+     *         para repassar a {@link #registrar(Operacao, long, boolean, int)}
+     */
+    long iniciar() {
+        if (!ativa) {
+            return DESLIGADA;
+        }
+        if ((ThreadLocalRandom.current().nextInt() & mascaraAmostragem) != 0) {
+            return SEM_DURACAO;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra o fim de uma operação.
+     *
+     * @param operacao            Operação que terminou
+     * @param inicio              Valor devolvido por {@link #iniciar()}
+     * @param sucesso             {@code false} se o alvo não foi encontrado ou
+     *                            a operação foi recusada
+     * @param categoriasVisitadas Categorias percorridas ou alteradas pela
+     *                            operação (nas buscas por índice, a achada)
+     */
+    void registrar(Operacao operacao, long inicio, boolean sucesso, int categoriasVisitadas) {
+        if (inicio == DESLIGADA) {
+            return;
+        }
+        Contadores daOperacao = contadores[operacao.ordinal()];
+        daOperacao.chamadas.increment();
+        if (!sucesso) {
+            daOperacao.falhas.increment();
+        }
+        if (inicio != SEM_DURACAO) {
+            daOperacao.duracoes.registrar(System.nanoTime() - inicio);
+            daOperacao.categoriasVisitadas.add(categoriasVisitadas);
+        }
+    }
+
+    // CONFIGURAÇÃO
+
+    @Override
+    public boolean isAtiva() {
+        return ativa;
+    }
+
+    @Override
+    public void setAtiva(boolean ativa) {
+        this.ativa = ativa;
+    }
+
+    @Override
+    public int getAmostragem() {
+        return mascaraAmostragem + 1;
+    }
+
+    @Override
+    public void setAmostragem(int amostragem) {
+        if (amostragem < 1) {
+            throw new IllegalArgumentException("Amostragem deve ser pelo menos 1: " + amostragem);
+        }
+        mascaraAmostragem = Integer.highestOneBit(amostragem) - 1;
+    }
+
+    // OPERAÇÕES
+
+    @Override
+    public Map<String, Long> getChamadas() {
+        Map<String, Long> valores = new LinkedHashMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            long chamadas = contadores[operacao.ordinal()].chamadas.sum();
+            if (chamadas > 0) {
+                valores.put(operacao.getMetodo(), chamadas);
+            }
+        }
+        return valores;
+    }
+
+    @Override
+    public Map<String, Long> getFalhas() {
+        Map<String, Long> valores = new LinkedHashMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            Contadores daOperacao = contadores[operacao.ordinal()];
+            if (daOperacao.chamadas.sum() > 0) {
+                valores.put(operacao.getMetodo(), daOperacao.falhas.sum());
+            }
+        }
+        return valores;
+    }
+
+    @Override
+    public Map<String, Double> getMediaCategoriasVisitadas() {
+        return porOperacao(Contadores::mediaCategoriasVisitadas);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaMediaMicros() {
+        return porOperacao(contadores -> contadores.duracoes.getMedia() / 1_000);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaP50Micros() {
+        return porOperacao(contadores -> contadores.duracoes.percentil(0.5) / 1_000.0);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaP99Micros() {
+        return porOperacao(contadores -> contadores.duracoes.percentil(0.99) / 1_000.0);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaP999Micros() {
+        return porOperacao(contadores -> contadores.duracoes.percentil(0.999) / 1_000.0);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciaMaximaMicros() {
+        return porOperacao(contadores -> contadores.duracoes.getMaximo() / 1_000.0);
+    }
+
+    /**
+     * Aplica a função aos contadores de cada operação já chamada.
+     */
+    private Map<String, Double> porOperacao(ToDoubleFunction<Contadores> funcao) {
+        Map<String, Double> valores = new LinkedHashMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            Contadores daOperacao = contadores[operacao.ordinal()];
+            if (daOperacao.chamadas.sum() > 0) {
+                valores.put(operacao.getMetodo(), funcao.applyAsDouble(daOperacao));
+            }
+        }
+        return valores;
+    }
+
+    @Override
+    public Map<String, Long> getCacheNavegacao() {
+        return catalogo.estatisticasCacheNavegacao();
+    }
+
+    // FORMA DA ÁRVORE
+
+    @Override
+    public int getCategorias() {
+        return forma().categorias;
+    }
+
+    @Override
+    public int getProfundidadeMaxima() {
+        return forma().profundidadeMaxima;
+    }
+
+    @Override
+    public int getMaiorQuantidadeFilhas() {
+        return forma().maiorQuantidadeFilhas;
+    }
+
+    @Override
+    public double getMediaProdutosPorCategoria() {
+        Forma atual = forma();
+        return (atual.categorias == 0) ? 0 : atual.associacoes / (double) atual.categorias;
+    }
+
+    @Override
+    public int getMaiorQuantidadeProdutos() {
+        return forma().maiorQuantidadeProdutos;
+    }
+
+    @Override
+    public int getProdutosCadastrados() {
+        return forma().produtosCadastrados;
+    }
+
+    /**
+     * Retorna a forma calculada há menos de {@link #VALIDADE_FORMA_NANOS},
+     * ou calcula de novo.
+     */
+    private Forma forma() {
+        Forma atual = forma;
+        if (atual == null || System.nanoTime() - atual.instante > VALIDADE_FORMA_NANOS) {
+            atual = catalogo.medirForma();
+            forma = atual;
+        }
+        return atual;
+    }
+
+    // AÇÕES
+
+    @Override
+    public String relatorio() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format(Locale.ROOT, "%-30s %10s %8s %10s %10s %10s %10s %10s %10s%n", "operação",
+                "chamadas", "falhas", "cat/op", "média µs", "p50 µs", "p99 µs", "p99,9 µs", "máx µs"));
+        for (Operacao operacao : Operacao.values()) {
+            Contadores daOperacao = contadores[operacao.ordinal()];
+            long chamadas = daOperacao.chamadas.sum();
+            if (chamadas == 0) {
+                continue;
+            }
+            HistogramaLatencia duracoes = daOperacao.duracoes;
+            texto.append(String.format(Locale.ROOT, "%-30s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operacao.getMetodo(), chamadas, daOperacao.falhas.sum(),
+                    daOperacao.mediaCategoriasVisitadas(), duracoes.getMedia() / 1_000,
+                    duracoes.percentil(0.5) / 1_000.0, duracoes.percentil(0.99) / 1_000.0,
+                    duracoes.percentil(0.999) / 1_000.0, duracoes.getMaximo() / 1_000.0));
+        }
+        Forma atual = forma();
+        texto.append(atual.categorias).append(" categorias, profundidade máxima ").append(atual.profundidadeMaxima)
+                .append(", até ").append(atual.maiorQuantidadeFilhas).append(" filhas por categoria, ")
+                .append(String.format(Locale.ROOT, "%.2f", getMediaProdutosPorCategoria()))
+                .append(" produtos por categoria (até ").append(atual.maiorQuantidadeProdutos).append("), ")
+                .append(atual.produtosCadastrados).append(" produtos cadastrados").append(System.lineSeparator())
+                .append("cache de navegação: ").append(getCacheNavegacao());
+        return texto.toString();
+    }
+
+    @Override
+    public void zerar() {
+        for (Contadores daOperacao : contadores) {
+            daOperacao.chamadas.reset();
+            daOperacao.falhas.reset();
+            daOperacao.categoriasVisitadas.reset();
+            daOperacao.duracoes.zerar();
+        }
+    }
+
+    /**
+     * Forma da árvore em um instante: quantidades e máximos calculados em um
+     * único percurso.
+     */
+    static final class Forma {
+        final long instante = System.nanoTime();
+        int categorias;
+        int profundidadeMaxima;
+        int maiorQuantidadeFilhas;
+        long associacoes;
+        int maiorQuantidadeProdutos;
+        final int produtosCadastrados;
+
+        private Forma(int produtosCadastrados) {
+            this.produtosCadastrados = produtosCadastrados;
+        }
+
+        private void contar(int nivel, int filhas, int produtos) {
+            categorias++;
+            profundidadeMaxima = Math.max(profundidadeMaxima, nivel);
+            maiorQuantidadeFilhas = Math.max(maiorQuantidadeFilhas, filhas);
+            associacoes += produtos;
+            maiorQuantidadeProdutos = Math.max(maiorQuantidadeProdutos, produtos);
+        }
+
+        /**
+         * Mede a árvore viva a partir da raiz, que pode ser {@code null}.
+         */
+        static Forma medir(Categoria raiz, int produtosCadastrados) {
+            Forma forma = new Forma(produtosCadastrados);
+            if (raiz != null) {
+                for (Categoria categoria : PercursoArvore.preOrdem(raiz)) {
+                    forma.contar(categoria.getNivel() - raiz.getNivel(), categoria.getFilhos().size(),
+                            categoria.getProdutos().size());
+                }
+            }
+            return forma;
+        }
+
+        /**
+         * Mede uma versão publicada a partir da raiz, que pode ser
+         * {@code null}. As cópias não guardam o nível, que é contado no
+         * percurso.
+         */
+        static Forma medir(VersaoCategoria raiz, int produtosCadastrados) {
+            Forma forma = new Forma(produtosCadastrados);
+            if (raiz == null) {
+                return forma;
+            }
+            Deque<VersaoCategoria> pendentes = new ArrayDeque<>();
+            Deque<Integer> niveis = new ArrayDeque<>();
+            pendentes.push(raiz);
+            niveis.push(0);
+            while (!pendentes.isEmpty()) {
+                VersaoCategoria categoria = pendentes.pop();
+                int nivel = niveis.pop();
+                forma.contar(nivel, categoria.getFilhas().size(), categoria.getProdutos().size());
+                for (VersaoCategoria filha : categoria.getFilhas()) {
+                    pendentes.push(filha);
+                    niveis.push(nivel + 1);
+                }
+            }
+            return forma;
+        }
+    }
+}
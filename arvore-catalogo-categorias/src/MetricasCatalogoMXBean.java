@@ -0,0 +1,134 @@
+import java.util.Map;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas de um {@link CatalogoControll},
+ * registrada por {@link CatalogoControll#registrarMetricasJmx(String)}.
+ *
+ * Os mapas têm uma entrada por operação já chamada, com o nome do método
+ * público correspondente. A forma da árvore é recalculada no máximo uma vez
+ * por segundo.
+ *
+ * @since 2025
+ */
+public interface MetricasCatalogoMXBean {
+
+    // CONFIGURAÇÃO
+
+    /**
+     * Indica se as operações do catálogo estão sendo contadas.
+     */
+    boolean isAtiva();
+
+    /**
+     * Liga ou desliga a contagem das operações, sem zerar o que já foi
+     * contado.
+     */
+    void setAtiva(boolean ativa);
+
+    /**
+     * Retorna de quantas em quantas chamadas, em média, uma tem a duração
+     * medida.
+     */
+    int getAmostragem();
+
+    /**
+     * Define de quantas em quantas chamadas, em média, uma tem a duração
+     * medida; arredondado para uma potência de dois. Com 1, todas são
+     * medidas.
+     */
+    void setAmostragem(int amostragem);
+
+    // OPERAÇÕES
+
+    /**
+     * Chamadas de cada operação.
+     */
+    Map<String, Long> getChamadas();
+
+    /**
+     * Chamadas de cada operação que não encontraram o alvo ou foram
+     * recusadas.
+     */
+    Map<String, Long> getFalhas();
+
+    /**
+     * Média de categorias visitadas por chamada de cada operação.
+     */
+    Map<String, Double> getMediaCategoriasVisitadas();
+
+    /**
+     * Duração média, em microssegundos, das chamadas medidas.
+     */
+    Map<String, Double> getLatenciaMediaMicros();
+
+    /**
+     * Mediana da duração, em microssegundos.
+     */
+    Map<String, Double> getLatenciaP50Micros();
+
+    /**
+     * Percentil 99 da duração, em microssegundos.
+     */
+    Map<String, Double> getLatenciaP99Micros();
+
+    /**
+     * Percentil 99,9 da duração, em microssegundos.
+     */
+    Map<String, Double> getLatenciaP999Micros();
+
+    /**
+     * Maior duração medida, em microssegundos.
+     */
+    Map<String, Double> getLatenciaMaximaMicros();
+
+    /**
+     * Contadores do cache de caminhos e rotas de navegação (ver
+     * {@link CatalogoControll#estatisticasCacheNavegacao()}).
+     */
+    Map<String, Long> getCacheNavegacao();
+
+    // FORMA DA ÁRVORE
+
+    /**
+     * Quantidade de categorias na árvore.
+     */
+    int getCategorias();
+
+    /**
+     * Maior nível de uma categoria (a raiz tem nível 0).
+     */
+    int getProfundidadeMaxima();
+
+    /**
+     * Maior quantidade de filhas diretas de uma categoria.
+     */
+    int getMaiorQuantidadeFilhas();
+
+    /**
+     * Média de produtos associados diretamente a cada categoria.
+     */
+    double getMediaProdutosPorCategoria();
+
+    /**
+     * Maior quantidade de produtos associados diretamente a uma categoria.
+     */
+    int getMaiorQuantidadeProdutos();
+
+    /**
+     * Quantidade de produtos cadastrados.
+     */
+    int getProdutosCadastrados();
+
+    // AÇÕES
+
+    /**
+     * Retorna as métricas em texto, uma linha por operação seguida da forma
+     * da árvore e dos contadores do cache de navegação.
+     */
+    String relatorio();
+
+    /**
+     * Zera as contagens e as durações de todas as operações.
+     */
+    void zerar();
+}
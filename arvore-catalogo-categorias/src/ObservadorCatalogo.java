@@ -0,0 +1,39 @@
+/**
+ * Recebe avisos de alterações feitas diretamente nos objetos do catálogo
+ * (por exemplo, via setters de {@link Categoria} e {@link Produto}), para
+ * que as estruturas auxiliares do {@link CatalogoControll} continuem
+ * consistentes.
+ *
+ * @since 2025
+ */
+interface ObservadorCatalogo {
+
+    /**
+     * Campos cuja alteração é notificada ao observador.
+     */
+    enum Campo {
+        NOME,
+        CODIGO,
+        DESCRICAO,
+        PRECO,
+        MARCA
+    }
+
+    /**
+     * Chamado depois que um campo de uma categoria foi alterado.
+     *
+     * @param categoria     Categoria alterada
+     * @param campo         Campo que mudou
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    void categoriaAlterada(Categoria categoria, Campo campo, Object valorAnterior);
+
+    /**
+     * Chamado depois que um campo de um produto foi alterado.
+     *
+     * @param produto       Produto alterado
+     * @param campo         Campo que mudou
+     * @param valorAnterior Valor do campo antes da alteração
+     */
+    void produtoAlterado(Produto produto, Campo campo, Object valorAnterior);
+}
@@ -0,0 +1,304 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Motor de percurso da árvore de categorias.
+ *
+ * Todos os percursos usam uma pilha (ou fila) explícita em vez de recursão,
+ * de modo que árvores muito profundas (por exemplo, cadeias com milhares de
+ * níveis) não causam {@link StackOverflowError}. A memória auxiliar é
+ * proporcional à profundidade (percursos em profundidade) ou à largura
+ * (percurso em largura) da árvore.
+ *
+ * A árvore não deve ser alterada durante um percurso.
+ *
+ * @since 2025
+ */
+public final class PercursoArvore {
+
+    /**
+     * Iterador vazio usado quando o visitante pede para pular as subcategorias.
+     */
+    private static final Iterator<Categoria> SEM_FILHOS = Collections.emptyIterator();
+
+    private PercursoArvore() {
+    }
+
+    // ITERADORES
+
+    /**
+     * Percorre a subárvore em pré-ordem: cada categoria aparece antes
+     * de suas subcategorias, que seguem a ordem de inserção.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Iterable que cria um novo iterador a cada uso
+     */
+    public static Iterable<Categoria> preOrdem(Categoria raiz) {
+        return () -> new IteradorPreOrdem(raiz);
+    }
+
+    /**
+     * Percorre a subárvore em pós-ordem: cada categoria aparece depois
+     * de todas as suas subcategorias.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Iterable que cria um novo iterador a cada uso
+     */
+    public static Iterable<Categoria> posOrdem(Categoria raiz) {
+        return () -> new IteradorPosOrdem(raiz);
+    }
+
+    /**
+     * Percorre a subárvore em largura: nível por nível, a partir da raiz.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Iterable que cria um novo iterador a cada uso
+     */
+    public static Iterable<Categoria> emLargura(Categoria raiz) {
+        return () -> new IteradorLargura(raiz);
+    }
+
+    /**
+     * Percorre as rotas de navegação da subárvore: para cada categoria folha,
+     * em pré-ordem, entrega a lista de categorias da raiz informada até ela.
+     * Cada rota é montada a partir do prefixo do pai durante um único
+     * percurso, e só a rota atual fica em memória.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Iterable que cria um novo iterador a cada uso; cada rota
+     *         entregue é uma lista somente leitura
+     */
+    public static Iterable<List<Categoria>> rotasAteFolhas(Categoria raiz) {
+        return () -> new IteradorRotas(raiz);
+    }
+
+    // VISITANTE
+
+    /**
+     * Percorre a subárvore em profundidade avisando o visitante ao entrar e
+     * ao sair de cada categoria. O visitante pode pular as subcategorias de
+     * um nó ou encerrar o percurso a qualquer momento.
+     *
+     * @param raiz       Raiz da subárvore (pode ser {@code null})
+     * @param visitante  Visitante que recebe as categorias
+     * @return {@code true} se o percurso chegou ao fim,
+     *         {@code false} se foi encerrado pelo visitante
+     */
+    public static boolean percorrer(Categoria raiz, VisitanteCategoria visitante) {
+        if (raiz == null) {
+            return true;
+        }
+        Deque<Categoria> caminho = new ArrayDeque<>();
+        Deque<Iterator<Categoria>> pendentes = new ArrayDeque<>();
+        if (!entrar(raiz, visitante, caminho, pendentes)) {
+            return false;
+        }
+        while (!caminho.isEmpty()) {
+            Iterator<Categoria> filhos = pendentes.peek();
+            if (filhos.hasNext()) {
+                if (!entrar(filhos.next(), visitante, caminho, pendentes)) {
+                    return false;
+                }
+            } else {
+                pendentes.pop();
+                if (visitante.sair(caminho.pop()) == VisitanteCategoria.Decisao.ENCERRAR) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entra em uma categoria durante {@link #percorrer}, empilhando-a junto
+     * com o iterador das subcategorias que ainda serão visitadas.
+     *
+     * @return {@code false} se o visitante pediu para encerrar
+     */
+    private static boolean entrar(Categoria categoria, VisitanteCategoria visitante,
+            Deque<Categoria> caminho, Deque<Iterator<Categoria>> pendentes) {
+        VisitanteCategoria.Decisao decisao = visitante.entrar(categoria);
+        if (decisao == VisitanteCategoria.Decisao.ENCERRAR) {
+            return false;
+        }
+        caminho.push(categoria);
+        pendentes.push(decisao == VisitanteCategoria.Decisao.PULAR_FILHOS
+                ? SEM_FILHOS
+                : categoria.getFilhos().iterator());
+        return true;
+    }
+
+    // IMPLEMENTAÇÕES DOS ITERADORES
+
+    /**
+     * Pré-ordem com pilha explícita. Os filhos são empilhados do último para
+     * o primeiro, para que saiam da pilha na ordem original.
+     */
+    private static final class IteradorPreOrdem implements Iterator<Categoria> {
+        private final Deque<Categoria> pilha = new ArrayDeque<>();
+
+        IteradorPreOrdem(Categoria raiz) {
+            if (raiz != null) {
+                pilha.push(raiz);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pilha.isEmpty();
+        }
+
+        @Override
+        public Categoria next() {
+            if (pilha.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Categoria atual = pilha.pop();
+            List<Categoria> filhos = atual.getFilhos();
+            ListIterator<Categoria> it = filhos.listIterator(filhos.size());
+            while (it.hasPrevious()) {
+                pilha.push(it.previous());
+            }
+            return atual;
+        }
+    }
+
+    /**
+     * Pós-ordem com pilha explícita de categorias e de iteradores dos filhos
+     * ainda não visitados.
+     */
+    private static final class IteradorPosOrdem implements Iterator<Categoria> {
+        private final Deque<Categoria> caminho = new ArrayDeque<>();
+        private final Deque<Iterator<Categoria>> pendentes = new ArrayDeque<>();
+
+        IteradorPosOrdem(Categoria raiz) {
+            if (raiz != null) {
+                caminho.push(raiz);
+                pendentes.push(raiz.getFilhos().iterator());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !caminho.isEmpty();
+        }
+
+        @Override
+        public Categoria next() {
+            if (caminho.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Iterator<Categoria> filhos = pendentes.peek();
+            while (filhos.hasNext()) {
+                Categoria filho = filhos.next();
+                caminho.push(filho);
+                filhos = filho.getFilhos().iterator();
+                pendentes.push(filhos);
+            }
+            pendentes.pop();
+            return caminho.pop();
+        }
+    }
+
+    /**
+     * Percurso em largura com fila explícita.
+     */
+    private static final class IteradorLargura implements Iterator<Categoria> {
+        private final Deque<Categoria> fila = new ArrayDeque<>();
+
+        IteradorLargura(Categoria raiz) {
+            if (raiz != null) {
+                fila.add(raiz);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !fila.isEmpty();
+        }
+
+        @Override
+        public Categoria next() {
+            Categoria atual = fila.poll();
+            if (atual == null) {
+                throw new NoSuchElementException();
+            }
+            fila.addAll(atual.getFilhos());
+            return atual;
+        }
+    }
+
+    /**
+     * Rotas até as folhas com pilha explícita. O caminho atual é mantido em
+     * uma lista que cresce e encolhe junto com a pilha, e é copiado apenas
+     * quando uma folha é alcançada.
+     */
+    private static final class IteradorRotas implements Iterator<List<Categoria>> {
+        private final List<Categoria> caminho = new ArrayList<>();
+        private final Deque<Iterator<Categoria>> pendentes = new ArrayDeque<>();
+        private List<Categoria> proxima;
+
+        IteradorRotas(Categoria raiz) {
+            if (raiz == null) {
+                return;
+            }
+            caminho.add(raiz);
+            if (raiz.isFolha()) {
+                proxima = copiarCaminho();
+            } else {
+                pendentes.push(raiz.getFilhos().iterator());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (proxima == null) {
+                avancar();
+            }
+            return proxima != null;
+        }
+
+        @Override
+        public List<Categoria> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Categoria> rota = proxima;
+            proxima = null;
+            return rota;
+        }
+
+        /**
+         * Continua o percurso até a próxima folha (ou até o fim da árvore).
+         */
+        private void avancar() {
+            while (!pendentes.isEmpty()) {
+                Iterator<Categoria> filhos = pendentes.peek();
+                if (!filhos.hasNext()) {
+                    pendentes.pop();
+                    caminho.remove(caminho.size() - 1);
+                    continue;
+                }
+                Categoria filho = filhos.next();
+                caminho.add(filho);
+                if (filho.isFolha()) {
+                    proxima = copiarCaminho();
+                    caminho.remove(caminho.size() - 1);
+                    return;
+                }
+                pendentes.push(filho.getFilhos().iterator());
+            }
+        }
+
+        private List<Categoria> copiarCaminho() {
+            return Collections.unmodifiableList(Arrays.asList(caminho.toArray(new Categoria[0])));
+        }
+    }
+}
@@ -0,0 +1,473 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Percursos da árvore de categorias divididos entre várias threads.
+ *
+ * Há duas formas de dividir o trabalho, ambas guiadas pelo tamanho das
+ * subárvores, que cada categoria mantém em O(1):
+ * <ul>
+ * <li>{@link Spliterator}s de categorias e de produtos em pré-ordem, para
+ * {@code parallelStream()}: cada divisão entrega um prefixo da sequência,
+ * cortado entre irmãs de forma que as duas metades tenham pesos próximos
+ * mesmo em árvores assimétricas; cadeias de filha única são descidas até
+ * a primeira categoria com mais de uma filha;</li>
+ * <li>{@link #particionar(Categoria, int)}, que corta a árvore em trechos
+ * consecutivos da saída em pré-ordem (linha da categoria, subárvores
+ * inteiras, produtos da categoria depois das filhas) com peso até um grão
+ * calculado pelo tamanho da árvore e pela quantidade de threads, e
+ * {@link #processarEmOrdem}, que processa os trechos num
+ * {@link ForkJoinPool} e entrega os resultados na ordem da árvore.</li>
+ * </ul>
+ * O peso de uma subárvore é a quantidade de categorias mais a de
+ * associações de produtos. Trechos e divisões com peso menor que
+ * {@value #GRAO_MINIMO} não são divididos: com menos trabalho que isso, a
+ * tarefa custa mais que o ganho.
+ *
+ * Como em {@link PercursoArvore}, nada usa recursão, e a árvore não deve
+ * ser alterada durante um percurso.
+ *
+ * @since 2025
+ */
+public final class PercursoParalelo {
+
+    /**
+     * Menor peso dividido entre threads.
+     */
+    static final int GRAO_MINIMO = 1024;
+
+    /**
+     * Maior peso de um trecho, para que os resultados à espera de entrega
+     * ocupem pouca memória mesmo em árvores muito grandes.
+     */
+    static final int GRAO_MAXIMO = 16_384;
+
+    /**
+     * Trechos por thread: mais trechos que threads deixam as threads que
+     * terminam antes roubarem trabalho das outras.
+     */
+    private static final int TRECHOS_POR_THREAD = 8;
+
+    private PercursoParalelo() {
+    }
+
+    // SPLITERATORS
+
+    /**
+     * Retorna as categorias da subárvore em pré-ordem, na mesma ordem de
+     * {@link PercursoArvore#preOrdem(Categoria)}, num spliterator que se
+     * divide pelo tamanho das subárvores.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Spliterator ordenado e com tamanho exato
+     */
+    public static Spliterator<Categoria> categorias(Categoria raiz) {
+        return new SpliteratorCategorias(raiz);
+    }
+
+    /**
+     * Retorna os produtos associados às categorias da subárvore: as
+     * categorias em pré-ordem e, em cada uma, os produtos na ordem da
+     * associação. Um produto associado a várias categorias aparece uma vez
+     * para cada uma. O spliterator se divide pela quantidade de associações
+     * das subárvores.
+     *
+     * @param raiz Raiz da subárvore (pode ser {@code null})
+     * @return Spliterator ordenado e com tamanho exato
+     */
+    public static Spliterator<Produto> produtos(Categoria raiz) {
+        return new SpliteratorProdutos(raiz);
+    }
+
+    /**
+     * Stream das categorias da subárvore em pré-ordem (ver
+     * {@link #categorias(Categoria)}).
+     *
+     * @param raiz     Raiz da subárvore (pode ser {@code null})
+     * @param paralelo Se o stream deve ser paralelo
+     * @return Stream ordenado das categorias
+     */
+    public static Stream<Categoria> streamCategorias(Categoria raiz, boolean paralelo) {
+        return StreamSupport.stream(categorias(raiz), paralelo);
+    }
+
+    /**
+     * Stream dos produtos associados às categorias da subárvore (ver
+     * {@link #produtos(Categoria)}).
+     *
+     * @param raiz     Raiz da subárvore (pode ser {@code null})
+     * @param paralelo Se o stream deve ser paralelo
+     * @return Stream ordenado dos produtos
+     */
+    public static Stream<Produto> streamProdutos(Categoria raiz, boolean paralelo) {
+        return StreamSupport.stream(produtos(raiz), paralelo);
+    }
+
+    // TRECHOS
+
+    /**
+     * Peso de uma subárvore: categorias mais associações de produtos.
+     */
+    static long peso(Categoria raiz) {
+        return (long) raiz.getTamanhoSubarvore() + raiz.getQuantidadeProdutosSubarvore();
+    }
+
+    /**
+     * Retorna o grão da divisão de uma árvore entre as threads: o peso
+     * dividido por {@value #TRECHOS_POR_THREAD} trechos por thread, entre
+     * {@value #GRAO_MINIMO} e {@value #GRAO_MAXIMO}.
+     *
+     * @param raiz        Raiz da árvore
+     * @param paralelismo Quantidade de threads
+     * @return Peso máximo de um trecho
+     */
+    static int grao(Categoria raiz, int paralelismo) {
+        long porTrecho = peso(raiz) / ((long) Math.max(1, paralelismo) * TRECHOS_POR_THREAD);
+        return (int) Math.max(GRAO_MINIMO, Math.min(GRAO_MAXIMO, porTrecho));
+    }
+
+    /**
+     * Trecho consecutivo da saída de um percurso em pré-ordem: uma sequência
+     * de passos, cada um com uma categoria.
+     */
+    static final class Trecho {
+
+        enum Tipo {
+            /** A linha da categoria, antes das filhas. */
+            ENTRADA,
+            /** A subárvore inteira da categoria. */
+            SUBARVORE,
+            /** Os produtos da categoria, depois das filhas. */
+            SAIDA
+        }
+
+        final List<Tipo> tipos = new ArrayList<>();
+        final List<Categoria> categorias = new ArrayList<>();
+        long peso;
+
+        private void adicionar(Tipo tipo, Categoria categoria, long pesoPasso) {
+            tipos.add(tipo);
+            categorias.add(categoria);
+            peso += pesoPasso;
+        }
+    }
+
+    /**
+     * Corta a árvore em trechos consecutivos. Subárvores com peso até o grão
+     * ficam inteiras; as maiores viram um passo de entrada, os passos das
+     * filhas e um passo de saída. Os passos são juntados em trechos
+     * enquanto a soma dos pesos couber no grão.
+     *
+     * @param raiz Raiz da árvore (pode ser {@code null})
+     * @param grao Peso máximo de um trecho, se não tiver um único passo
+     * @return Trechos na ordem da árvore
+     */
+    static List<Trecho> particionar(Categoria raiz, int grao) {
+        List<Trecho> trechos = new ArrayList<>();
+        PercursoArvore.percorrer(raiz, new VisitanteCategoria() {
+            @Override
+            public Decisao entrar(Categoria categoria) {
+                long peso = peso(categoria);
+                if (peso > grao) {
+                    adicionar(Trecho.Tipo.ENTRADA, categoria, 1);
+                    return Decisao.CONTINUAR;
+                }
+                adicionar(Trecho.Tipo.SUBARVORE, categoria, peso);
+                return Decisao.PULAR_FILHOS;
+            }
+
+            @Override
+            public Decisao sair(Categoria categoria) {
+                if (peso(categoria) > grao) {
+                    adicionar(Trecho.Tipo.SAIDA, categoria, categoria.getProdutos().size());
+                }
+                return Decisao.CONTINUAR;
+            }
+
+            private void adicionar(Trecho.Tipo tipo, Categoria categoria, long peso) {
+                Trecho ultimo = trechos.isEmpty() ? null : trechos.get(trechos.size() - 1);
+                if (ultimo == null || ultimo.peso + peso > grao) {
+                    ultimo = new Trecho();
+                    trechos.add(ultimo);
+                }
+                ultimo.adicionar(tipo, categoria, peso);
+            }
+        });
+        return trechos;
+    }
+
+    /**
+     * Processa os trechos em tarefas do pool e entrega os resultados na
+     * ordem dos trechos, na thread que chamou. No máximo
+     * {@value #TRECHOS_POR_THREAD} trechos por thread do pool ficam em
+     * andamento ou à espera de entrega ao mesmo tempo.
+     *
+     * Se um trecho ou a entrega falhar, as tarefas ainda não iniciadas são
+     * canceladas e a exceção é propagada.
+     *
+     * @param pool      Pool onde os trechos são processados
+     * @param trechos   Trechos, na ordem em que os resultados são entregues
+     * @param processar Processamento de um trecho, chamado de qualquer thread
+     * @param entregar  Recebe cada resultado, na ordem
+     */
+    static <R> void processarEmOrdem(ForkJoinPool pool, List<Trecho> trechos,
+            Function<Trecho, R> processar, Consumer<R> entregar) {
+        int janela = Math.max(1, pool.getParallelism()) * TRECHOS_POR_THREAD;
+        Deque<ForkJoinTask<R>> pendentes = new ArrayDeque<>();
+        try {
+            for (Trecho trecho : trechos) {
+                pendentes.add(pool.submit(() -> processar.apply(trecho)));
+                if (pendentes.size() >= janela) {
+                    entregar.accept(pendentes.poll().join());
+                }
+            }
+            while (!pendentes.isEmpty()) {
+                entregar.accept(pendentes.poll().join());
+            }
+        } finally {
+            for (ForkJoinTask<R> pendente : pendentes) {
+                pendente.cancel(false);
+            }
+        }
+    }
+
+    // IMPLEMENTAÇÃO DOS SPLITERATORS
+
+    /**
+     * Base dos spliterators: entrega as categorias de um prefixo (uma
+     * cadeia de ancestrais já visitadas pela divisão) e depois as subárvores
+     * de um intervalo de irmãs, em pré-ordem com pilha explícita.
+     *
+     * Só divide antes de começar uma subárvore: com a pilha em uso,
+     * {@link #trySplit()} retorna {@code null}.
+     */
+    private abstract static class SpliteratorArvore<T> implements Spliterator<T> {
+        private List<Categoria> prefixo;
+        private int posicaoPrefixo;
+        private long pesoPrefixo;
+        private List<Categoria> irmas;
+        private int inicio;
+        private int fim;
+        private final Deque<Categoria> pilha = new ArrayDeque<>();
+
+        /**
+         * Peso do que falta entregar; exato até a primeira entrega.
+         */
+        long restante;
+
+        SpliteratorArvore(Categoria raiz) {
+            this(new ArrayList<>(), 0, (raiz != null) ? Collections.singletonList(raiz) : Collections.emptyList(),
+                    0, (raiz != null) ? 1 : 0);
+            this.restante = (raiz != null) ? pesoSubarvore(raiz) : 0;
+        }
+
+        SpliteratorArvore(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas, int inicio, int fim) {
+            this.prefixo = prefixo;
+            this.pesoPrefixo = pesoPrefixo;
+            this.irmas = irmas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        /**
+         * Peso de uma subárvore inteira.
+         */
+        abstract long pesoSubarvore(Categoria raiz);
+
+        /**
+         * Peso de uma categoria sem as filhas.
+         */
+        abstract long pesoProprio(Categoria categoria);
+
+        /**
+         * Cria o spliterator do prefixo separado por uma divisão.
+         */
+        abstract SpliteratorArvore<T> dividido(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas,
+                int inicio, int fim, long peso);
+
+        /**
+         * Avança para a próxima categoria em pré-ordem.
+         *
+         * @return Categoria, ou {@code null} no fim
+         */
+        final Categoria proximaCategoria() {
+            if (posicaoPrefixo < prefixo.size()) {
+                Categoria categoria = prefixo.get(posicaoPrefixo++);
+                pesoPrefixo -= pesoProprio(categoria);
+                return categoria;
+            }
+            if (pilha.isEmpty()) {
+                if (inicio == fim) {
+                    return null;
+                }
+                pilha.push(irmas.get(inicio++));
+            }
+            Categoria atual = pilha.pop();
+            List<Categoria> filhos = atual.getFilhos();
+            ListIterator<Categoria> it = filhos.listIterator(filhos.size());
+            while (it.hasPrevious()) {
+                pilha.push(it.previous());
+            }
+            return atual;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (!pilha.isEmpty() || restante < 2L * GRAO_MINIMO) {
+                return null;
+            }
+            // uma única subárvore: desce pelas filhas únicas até achar irmãs
+            while (fim - inicio == 1) {
+                Categoria unica = irmas.get(inicio);
+                if (unica.getFilhos().isEmpty()) {
+                    return null;
+                }
+                prefixo.add(unica);
+                pesoPrefixo += pesoProprio(unica);
+                irmas = unica.getFilhos();
+                inicio = 0;
+                fim = irmas.size();
+            }
+            if (fim - inicio < 2) {
+                return null;
+            }
+            // corta entre irmãs perto da metade do peso, deixando ao menos uma de cada lado
+            long alvo = restante / 2 - pesoPrefixo;
+            int meio = inicio + 1;
+            long pesoEsquerda = pesoSubarvore(irmas.get(inicio));
+            while (meio < fim - 1 && pesoEsquerda + pesoSubarvore(irmas.get(meio)) <= alvo) {
+                pesoEsquerda += pesoSubarvore(irmas.get(meio));
+                meio++;
+            }
+            List<Categoria> prefixoSeparado = new ArrayList<>(prefixo.subList(posicaoPrefixo, prefixo.size()));
+            SpliteratorArvore<T> esquerda = dividido(prefixoSeparado, pesoPrefixo, irmas, inicio, meio,
+                    pesoPrefixo + pesoEsquerda);
+            restante -= esquerda.restante;
+            prefixo = new ArrayList<>();
+            posicaoPrefixo = 0;
+            pesoPrefixo = 0;
+            inicio = meio;
+            return esquerda;
+        }
+
+        @Override
+        public long estimateSize() {
+            return restante;
+        }
+    }
+
+    private static final class SpliteratorCategorias extends SpliteratorArvore<Categoria> {
+
+        SpliteratorCategorias(Categoria raiz) {
+            super(raiz);
+        }
+
+        private SpliteratorCategorias(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas, int inicio,
+                int fim, long peso) {
+            super(prefixo, pesoPrefixo, irmas, inicio, fim);
+            this.restante = peso;
+        }
+
+        @Override
+        long pesoSubarvore(Categoria raiz) {
+            return raiz.getTamanhoSubarvore();
+        }
+
+        @Override
+        long pesoProprio(Categoria categoria) {
+            return 1;
+        }
+
+        @Override
+        SpliteratorArvore<Categoria> dividido(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas,
+                int inicio, int fim, long peso) {
+            return new SpliteratorCategorias(prefixo, pesoPrefixo, irmas, inicio, fim, peso);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Categoria> acao) {
+            Categoria categoria = proximaCategoria();
+            if (categoria == null) {
+                return false;
+            }
+            restante--;
+            acao.accept(categoria);
+            return true;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | DISTINCT;
+        }
+    }
+
+    private static final class SpliteratorProdutos extends SpliteratorArvore<Produto> {
+
+        /**
+         * Produtos da categoria atual ainda não entregues.
+         */
+        private Iterator<Produto> atuais = Collections.emptyIterator();
+
+        SpliteratorProdutos(Categoria raiz) {
+            super(raiz);
+        }
+
+        private SpliteratorProdutos(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas, int inicio,
+                int fim, long peso) {
+            super(prefixo, pesoPrefixo, irmas, inicio, fim);
+            this.restante = peso;
+        }
+
+        @Override
+        long pesoSubarvore(Categoria raiz) {
+            return raiz.getQuantidadeProdutosSubarvore();
+        }
+
+        @Override
+        long pesoProprio(Categoria categoria) {
+            return categoria.getProdutos().size();
+        }
+
+        @Override
+        SpliteratorArvore<Produto> dividido(List<Categoria> prefixo, long pesoPrefixo, List<Categoria> irmas,
+                int inicio, int fim, long peso) {
+            return new SpliteratorProdutos(prefixo, pesoPrefixo, irmas, inicio, fim, peso);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Produto> acao) {
+            while (!atuais.hasNext()) {
+                Categoria categoria = proximaCategoria();
+                if (categoria == null) {
+                    return false;
+                }
+                atuais = categoria.getProdutos().iterator();
+            }
+            restante--;
+            acao.accept(atuais.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<Produto> trySplit() {
+            return atuais.hasNext() ? null : super.trySplit();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -1,16 +1,78 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * Representa um produto do catálogo, com nome, código, preço e marca.
  * Esta classe é usada para armazenar as informações básicas de cada item.
+ * Depois de cadastrado num catálogo, o produto guarda só a sua posição no
+ * {@link ArmazemProdutos} do catálogo, onde ficam os dados.
  *
  * @author Matheus Pereira Rodrigues
  * @author Pedro Lucas Dos Santos Xavier
  * @since 2025
  */
 public class Produto {
-    private String nome;
-    private String codigo;
-    private double preco;
-    private String marca;
+
+    /**
+     * Dados de um produto que ainda não está num {@link ArmazemProdutos}.
+     */
+    private static final class Dados {
+        String nome;
+        String codigo;
+        long centavos;
+        String marca;
+
+        Dados(String nome, String codigo, long centavos, String marca) {
+            this.nome = nome;
+            this.codigo = codigo;
+            this.centavos = centavos;
+            this.marca = marca;
+        }
+    }
+
+    /**
+     * Dados do produto enquanto ele não é cadastrado (produto recém-criado
+     * ou lido de um snapshot). Ao ser cadastrado, os dados passam para as
+     * colunas de um {@link ArmazemProdutos} e este campo fica nulo; a
+     * escrita volátil publica o armazém e a posição para quem ler depois.
+     */
+    private volatile Dados dados;
+
+    /**
+     * Armazém com os dados do produto cadastrado e a posição dele ali.
+     */
+    private ArmazemProdutos armazem;
+    private int posicao;
+
+    /**
+     * Categorias às quais este produto está associado (índice reverso).
+     * Mantida por {@link Categoria#adicionarProduto(Produto)} e
+     * {@link Categoria#removerProduto(Produto)}; criada só na primeira associação.
+     * Alterada com o monitor do produto, já que, com a escrita concorrente,
+     * categorias de ramos diferentes podem recebê-lo ao mesmo tempo.
+     */
+    private List<Categoria> categorias;
+
+    /**
+     * Observador avisado quando algum campo do produto muda.
+     * Preenchido pelo {@link CatalogoControll} que registrou o produto.
+     */
+    ObservadorCatalogo observador;
+
+    /**
+     * Identificador inteiro denso do produto dentro do catálogo, usado como
+     * posição nos conjuntos de bits das facetas. Vale -1 até o produto ser
+     * registrado.
+     */
+    int id = -1;
+
+    /**
+     * Última cópia imutável deste produto publicada para leitura
+     * concorrente, mantida por {@link PublicadorVersoes}.
+     */
+    VersaoProduto publicada;
 
     //construtor 
 
@@ -23,12 +85,52 @@ public class Produto {
      * @param marca  Marca do produto
      */
     public Produto(String nome, String codigo, double preco, String marca){
-        
-        
-        this.nome=nome;
-        this.codigo=codigo;
-        this.preco=preco;
-        this.marca=marca;
+        this.dados = new Dados(nome, codigo, ArmazemProdutos.centavos(preco), marca);
+    }
+
+    /**
+     * Passa os dados do produto para o armazém, que a partir daí é a única
+     * cópia deles. Não faz nada se o produto já estiver num armazém.
+     *
+     * @param destino Armazém do catálogo que cadastrou o produto
+     */
+    void armazenar(ArmazemProdutos destino) {
+        Dados atuais = dados;
+        if (atuais == null) {
+            return;
+        }
+        posicao = destino.adicionar(atuais.nome, atuais.codigo, atuais.centavos, atuais.marca);
+        armazem = destino;
+        dados = null;
+    }
+
+    /**
+     * Verifica se o código do produto é igual ao informado, sem criar o
+     * texto do código quando o produto está num armazém.
+     *
+     * @param codigo Código comparado
+     * @return {@code true} se os códigos forem iguais
+     */
+    boolean temCodigo(String codigo) {
+        Dados atuais = dados;
+        if (atuais != null) {
+            return (atuais.codigo == null) ? codigo == null : atuais.codigo.equals(codigo);
+        }
+        return armazem.codigoIgual(posicao, codigo);
+    }
+
+    /**
+     * Verifica se o outro produto tem o mesmo nome, preço e marca que este.
+     * Usado para aceitar, no lugar do produto cadastrado, uma instância nova
+     * criada com os mesmos dados (por exemplo, digitados de novo no menu).
+     *
+     * @param outro Produto comparado
+     * @return {@code true} se nome, preço e marca forem iguais
+     */
+    boolean mesmosDados(Produto outro) {
+        return Objects.equals(getNome(), outro.getNome())
+                && getPreco() == outro.getPreco()
+                && Objects.equals(getMarca(), outro.getMarca());
     }
 
     //Getters e setters
@@ -39,7 +141,8 @@ public class Produto {
      * @return Nome do produto
      */
     public String getNome() {
-        return nome;
+        Dados atuais = dados;
+        return (atuais != null) ? atuais.nome : armazem.nome(posicao);
     }
 
     /**
@@ -48,7 +151,16 @@ public class Produto {
      * @param nome Novo nome do produto
      */ 
     public void setNome(String nome) {
-        this.nome = nome;
+        String anterior = getNome();
+        Dados atuais = dados;
+        if (atuais != null) {
+            atuais.nome = nome;
+        } else {
+            armazem.alterarNome(posicao, nome);
+        }
+        if (observador != null) {
+            observador.produtoAlterado(this, ObservadorCatalogo.Campo.NOME, anterior);
+        }
     }
 
     /**
@@ -57,7 +169,8 @@ public class Produto {
      * @return Código do produto
      */
     public String getCodigo() {
-        return codigo;
+        Dados atuais = dados;
+        return (atuais != null) ? atuais.codigo : armazem.codigo(posicao);
     }
  /**
      * Define o código do produto.
@@ -65,25 +178,53 @@ public class Produto {
      * @param codigo Novo código do produto
      */
     public void setCodigo(String codigo) {
-        this.codigo = codigo;
+        String anterior = getCodigo();
+        Dados atuais = dados;
+        if (atuais != null) {
+            atuais.codigo = codigo;
+        } else {
+            armazem.alterarCodigo(posicao, codigo);
+        }
+        if (observador != null) {
+            observador.produtoAlterado(this, ObservadorCatalogo.Campo.CODIGO, anterior);
+        }
     }
 
     /**
-     * Retorna o preço do produto.
+     * Retorna o preço do produto, guardado em centavos.
      *
      * @return Preço do produto
      */
     public double getPreco() {
-        return preco;
+        Dados atuais = dados;
+        return ArmazemProdutos.preco((atuais != null) ? atuais.centavos : armazem.centavos(posicao));
     }
 
     /**
-     * Define o preço do produto.
+     * Define o preço do produto, arredondado para o centavo mais próximo.
+     * Os resumos de preço das categorias que contêm o produto (e das
+     * ancestrais delas) são atualizados.
      *
      * @param preco Novo preço do produto
      */
     public void setPreco(double preco) {
-        this.preco = preco;
+        double anterior = getPreco();
+        long centavos = ArmazemProdutos.centavos(preco);
+        Dados atuais = dados;
+        if (atuais != null) {
+            atuais.centavos = centavos;
+        } else {
+            armazem.alterarCentavos(posicao, centavos);
+        }
+        double atual = ArmazemProdutos.preco(centavos);
+        if (categorias != null) {
+            for (Categoria categoria : categorias) {
+                categoria.precoAlterado(anterior, atual);
+            }
+        }
+        if (observador != null) {
+            observador.produtoAlterado(this, ObservadorCatalogo.Campo.PRECO, anterior);
+        }
     }
 
      /**
@@ -92,15 +233,98 @@ public class Produto {
      * @return Marca do produto
      */
     public String getMarca() {
-        return marca;
+        Dados atuais = dados;
+        return (atuais != null) ? atuais.marca : armazem.marca(posicao);
     }
 
     /**
      * Define a marca do produto.
+     * A contagem de marcas das categorias que contêm o produto (e das
+     * ancestrais delas) é atualizada.
      *
      * @param marca Nova marca do produto
      */
     public void setMarca(String marca) {
-        this.marca = marca;
+        String anterior = getMarca();
+        Dados atuais = dados;
+        if (atuais != null) {
+            atuais.marca = marca;
+        } else {
+            armazem.alterarMarca(posicao, marca);
+        }
+        if (categorias != null) {
+            for (Categoria categoria : categorias) {
+                categoria.marcaAlterada(anterior, marca);
+            }
+        }
+        if (observador != null) {
+            observador.produtoAlterado(this, ObservadorCatalogo.Campo.MARCA, anterior);
+        }
+    }
+
+    // ÍNDICE REVERSO DE CATEGORIAS
+
+    /**
+     * Retorna as categorias às quais este produto está associado.
+     *
+     * @return Lista somente leitura das categorias do produto
+     */
+    public List<Categoria> getCategorias() {
+        if (categorias == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(categorias);
+    }
+
+    /**
+     * Verifica se o produto está associado diretamente à categoria informada.
+     *
+     * @param categoria Categoria a ser verificada
+     * @return {@code true} se o produto estiver na categoria
+     */
+    synchronized boolean pertenceA(Categoria categoria) {
+        return categorias != null && categorias.contains(categoria);
+    }
+
+    /**
+     * Conta as categorias do produto que estão na subárvore informada,
+     * incluindo o próprio topo.
+     *
+     * @param topo Topo da subárvore
+     * @return Quantidade de categorias do produto na subárvore
+     */
+    synchronized int categoriasNaSubarvore(Categoria topo) {
+        int quantidade = 0;
+        if (categorias != null) {
+            for (Categoria categoria : categorias) {
+                if (categoria == topo || topo.isAncestralDe(categoria)) {
+                    quantidade++;
+                }
+            }
+        }
+        return quantidade;
+    }
+
+    /**
+     * Registra a categoria no índice reverso do produto.
+     *
+     * @param categoria Categoria que passou a conter o produto
+     */
+    synchronized void adicionarCategoria(Categoria categoria) {
+        if (categorias == null) {
+            categorias = new ArrayList<>(1);
+        }
+        categorias.add(categoria);
+    }
+
+    /**
+     * Remove a categoria do índice reverso do produto.
+     *
+     * @param categoria Categoria que deixou de conter o produto
+     */
+    synchronized void removerCategoria(Categoria categoria) {
+        if (categorias != null) {
+            categorias.remove(categoria);
+        }
     }
 }
@@ -0,0 +1,223 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publica versões imutáveis do catálogo ({@link VersaoCatalogo}) para
+ * leitores concorrentes.
+ *
+ * Cada categoria guarda a cópia imutável publicada por último
+ * ({@link Categoria#publicada}). Na publicação, a árvore é percorrida a
+ * partir da raiz descendo só pelas categorias cuja {@link Categoria#versao}
+ * mudou desde a cópia; as demais são reaproveitadas sem visitar as filhas.
+ * Como toda alteração incrementa a versão ao longo do caminho até a raiz,
+ * só esse caminho é copiado e o custo fica proporcional à profundidade (e
+ * à quantidade de filhas e produtos diretos de cada categoria copiada), não
+ * ao tamanho do catálogo. Os índices por código são mapas persistentes,
+ * atualizados da mesma forma.
+ *
+ * Os métodos, exceto {@link #atual()}, devem ser chamados pela thread que
+ * altera o catálogo. A versão é trocada em uma {@link AtomicReference}, o
+ * que basta para que os leitores a vejam completa.
+ *
+ * @since 2025
+ */
+final class PublicadorVersoes {
+
+    private final AtomicReference<VersaoCatalogo> atual = new AtomicReference<>();
+
+    // ESTADO DE QUEM ESCREVE
+
+    private MapaPersistente<VersaoCategoria> categorias = MapaPersistente.vazio();
+    private MapaPersistente<VersaoProduto> produtos = MapaPersistente.vazio();
+
+    /**
+     * Produtos cadastrados ou alterados desde a última publicação.
+     */
+    private final List<Produto> pendentes = new ArrayList<>();
+
+    /**
+     * Raiz da árvore na publicação em andamento.
+     */
+    private Categoria raiz;
+    private long numero;
+
+    /**
+     * Recalcula a cópia de cada categoria desatualizada ao sair dela, quando
+     * as filhas já foram copiadas.
+     */
+    private final VisitanteCategoria copiador = new VisitanteCategoria() {
+        @Override
+        public Decisao entrar(Categoria categoria) {
+            VersaoCategoria publicada = categoria.publicada;
+            return (publicada != null && publicada.atual()) ? Decisao.PULAR_FILHOS : Decisao.CONTINUAR;
+        }
+
+        @Override
+        public Decisao sair(Categoria categoria) {
+            VersaoCategoria publicada = categoria.publicada;
+            if (publicada == null || !publicada.atual()) {
+                copiar(categoria);
+            }
+            return Decisao.CONTINUAR;
+        }
+    };
+
+    /**
+     * Retorna a versão publicada mais recente. Pode ser chamado de qualquer
+     * thread, sem travas.
+     *
+     * @return Versão atual, ou {@code null} antes da primeira publicação
+     */
+    VersaoCatalogo atual() {
+        return atual.get();
+    }
+
+    /**
+     * Anota um produto cadastrado ou alterado para a próxima publicação.
+     *
+     * @param produto Produto cadastrado no catálogo
+     */
+    void produtoAlterado(Produto produto) {
+        pendentes.add(produto);
+    }
+
+    /**
+     * Publica uma versão nova com as alterações feitas desde a anterior. Não
+     * publica nada se nenhuma alteração chegou à árvore ou aos produtos.
+     *
+     * @param raiz Raiz atual do catálogo (a mesma da publicação anterior, ou
+     *             a primeira categoria de um catálogo que estava vazio)
+     */
+    void publicar(Categoria raiz) {
+        for (Produto produto : pendentes) {
+            VersaoProduto anterior = produto.publicada;
+            VersaoProduto nova = versaoDe(produto);
+            if (anterior != null && anterior != nova && anterior.getCodigo() != null
+                    && !anterior.getCodigo().equals(nova.getCodigo())) {
+                produtos = produtos.sem(anterior.getCodigo(), anterior);
+            }
+            if (nova.getCodigo() != null) {
+                produtos = produtos.com(nova.getCodigo(), nova);
+            }
+            if (anterior != nova) {
+                // nome e código não passam pelos resumos: as categorias precisam saber
+                for (Categoria categoria : produto.getCategorias()) {
+                    categoria.marcarAlterada();
+                }
+            }
+        }
+        pendentes.clear();
+
+        this.raiz = raiz;
+        PercursoArvore.percorrer(raiz, copiador);
+
+        VersaoCatalogo anterior = atual.get();
+        VersaoCategoria copiaRaiz = (raiz != null) ? raiz.publicada : null;
+        if (anterior == null || anterior.getRaiz() != copiaRaiz || !anterior.mesmosIndices(categorias, produtos)) {
+            atual.set(new VersaoCatalogo(++numero, copiaRaiz, categorias, produtos));
+        }
+    }
+
+    /**
+     * Descarta as cópias e os índices e publica a árvore inteira de novo,
+     * para quando a raiz é substituída (snapshot, {@code setRaiz}).
+     *
+     * @param raiz        Nova raiz do catálogo
+     * @param cadastrados Todos os produtos cadastrados
+     */
+    void reconstruir(Categoria raiz, Collection<Produto> cadastrados) {
+        categorias = MapaPersistente.vazio();
+        produtos = MapaPersistente.vazio();
+        pendentes.clear();
+        for (Categoria categoria : PercursoArvore.preOrdem(raiz)) {
+            categoria.publicada = null;
+        }
+        for (Produto produto : cadastrados) {
+            if (produto.getCodigo() != null) {
+                produtos = produtos.com(produto.getCodigo(), versaoDe(produto));
+            }
+        }
+        publicar(raiz);
+    }
+
+    // CÓPIA
+
+    /**
+     * Copia uma categoria cujas filhas já estão publicadas e atualiza o
+     * índice por código, inclusive para as filhas que deixaram o catálogo.
+     */
+    private void copiar(Categoria categoria) {
+        VersaoCategoria anterior = categoria.publicada;
+
+        List<Categoria> filhos = categoria.getFilhos();
+        VersaoCategoria[] filhas = new VersaoCategoria[filhos.size()];
+        int i = 0;
+        for (Categoria filho : filhos) {
+            filhas[i++] = filho.publicada;
+        }
+        List<Produto> produtosDiretos = categoria.getProdutos();
+        VersaoProduto[] copias = new VersaoProduto[produtosDiretos.size()];
+        i = 0;
+        for (Produto produto : produtosDiretos) {
+            copias[i++] = versaoDe(produto);
+        }
+        VersaoCategoria nova = new VersaoCategoria(categoria, filhas, copias);
+        categoria.publicada = nova;
+
+        String chaveAnterior = (anterior != null) ? IndiceCategorias.normalizar(anterior.getCodigo()) : null;
+        String chave = IndiceCategorias.normalizar(nova.getCodigo());
+        if (chaveAnterior != null && !chaveAnterior.equals(chave)) {
+            categorias = categorias.sem(chaveAnterior, anterior);
+        }
+        if (chave != null) {
+            categorias = categorias.com(chave, nova);
+        }
+        if (anterior != null) {
+            for (VersaoCategoria filha : anterior.getFilhas()) {
+                if (filha.categoria.getRaizArvore() != raiz) {
+                    esquecer(filha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tira do índice as cópias de uma subárvore que saiu do catálogo. Partes
+     * dela que foram movidas para outro ponto do catálogo são mantidas.
+     * As categorias esquecidas perdem a cópia, para serem copiadas e
+     * indexadas de novo se voltarem.
+     */
+    private void esquecer(VersaoCategoria topo) {
+        Deque<VersaoCategoria> pilha = new ArrayDeque<>();
+        pilha.push(topo);
+        while (!pilha.isEmpty()) {
+            VersaoCategoria copia = pilha.pop();
+            Categoria categoria = copia.categoria;
+            if (categoria.getRaizArvore() == raiz) {
+                continue;
+            }
+            if (copia.getCodigo() != null) {
+                categorias = categorias.sem(IndiceCategorias.normalizar(copia.getCodigo()), copia);
+            }
+            if (categoria.publicada == copia) {
+                categoria.publicada = null;
+            }
+            for (VersaoCategoria filha : copia.getFilhas()) {
+                pilha.push(filha);
+            }
+        }
+    }
+
+    private static VersaoProduto versaoDe(Produto produto) {
+        VersaoProduto publicada = produto.publicada;
+        if (publicada == null || !publicada.corresponde(produto)) {
+            publicada = new VersaoProduto(produto);
+            produto.publicada = publicada;
+        }
+        return publicada;
+    }
+}
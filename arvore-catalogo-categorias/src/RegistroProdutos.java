@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Registro dos produtos cadastrados em um {@link CatalogoControll}.
+ *
+ * Cada produto recebe um identificador denso ({@link Produto#id}) na ordem
+ * de cadastro, usado como posição em vetores e conjuntos de bits pelos
+ * índices do catálogo. Os dados dos produtos vão para as colunas de um
+ * {@link ArmazemProdutos}, e a busca por código usa uma tabela de
+ * endereçamento aberto com os identificadores, comparando o código
+ * procurado direto com os bytes guardados no armazém.
+ *
+ * Depois de {@link #carregar(SnapshotCatalogo)}, os produtos do snapshot
+ * ocupam os primeiros identificadores e continuam no arquivo mapeado até
+ * serem usados: a busca por código cai no índice ordenado do snapshot, e o
+ * objeto {@link Produto} só é criado quando alguém precisa dele.
+ *
+ * @since 2025
+ */
+class RegistroProdutos {
+
+    /**
+     * Marca de posição vaga na tabela de códigos que já foi ocupada.
+     */
+    private static final int REMOVIDO = -1;
+
+    /**
+     * Tabela de códigos: cada posição guarda o identificador mais um de um
+     * produto cadastrado em memória (ou do snapshot que mudou de código), 0
+     * se nunca foi usada ou {@link #REMOVIDO}. O tamanho é potência de dois
+     * e a tabela fica no máximo pela metade.
+     */
+    private int[] tabelaCodigos = new int[16];
+    private int usadasTabela;
+    private int quantidadeCodigos;
+
+    /**
+     * Colunas com os dados dos produtos cadastrados.
+     */
+    private ArmazemProdutos armazem = new ArmazemProdutos();
+
+    /**
+     * Produtos com identificador a partir de {@link #base}, pelo
+     * identificador menos {@code base}.
+     */
+    private final List<Produto> porId = new ArrayList<>();
+
+    /**
+     * Identificadores que pertencem a produtos cadastrados. Os demais são de
+     * produtos que só receberam identificador para uso dos índices (por
+     * exemplo, associados diretamente a uma categoria, sem o catálogo).
+     */
+    private final BitSet cadastrados = new BitSet();
+
+    /**
+     * Snapshot com os produtos de identificador menor que {@code base}, ou
+     * {@code null}.
+     */
+    private SnapshotCatalogo snapshot;
+    private int base;
+
+    /**
+     * Busca um produto cadastrado pelo código exato.
+     *
+     * @param codigo Código do produto
+     * @return Produto, ou {@code null} se não houver
+     */
+    Produto buscar(String codigo) {
+        int posicao = procurarCodigo(codigo);
+        Produto produto = (tabelaCodigos[posicao] > 0) ? existente(tabelaCodigos[posicao] - 1) : null;
+        if (produto == null && snapshot != null && codigo != null) {
+            int id = snapshot.buscarCodigo(codigo);
+            if (id >= 0) {
+                produto = snapshot.produto(id);
+                // o produto pode ter mudado de código depois da carga
+                if (!codigo.equals(produto.getCodigo())) {
+                    produto = null;
+                }
+            }
+        }
+        return produto;
+    }
+
+    /**
+     * Cadastra o produto, atribuindo um identificador se ainda não tiver.
+     *
+     * @param produto Produto cujo código ainda não está cadastrado
+     */
+    void registrar(Produto produto) {
+        int id = identificar(produto);
+        cadastrados.set(id);
+        indexarCodigo(produto.getCodigo(), id);
+    }
+
+    /**
+     * Retorna o identificador do produto neste registro, atribuindo um novo
+     * (sem cadastrá-lo) se o produto ainda não tiver.
+     *
+     * @param produto Produto qualquer
+     * @return Identificador denso do produto
+     */
+    int identificar(Produto produto) {
+        int id = produto.id;
+        if (id >= 0 && existente(id) == produto) {
+            return id;
+        }
+        id = base + porId.size();
+        porId.add(produto);
+        produto.id = id;
+        produto.armazenar(armazem);
+        return id;
+    }
+
+    /**
+     * Retorna o produto com o identificador informado, criando-o a partir
+     * do snapshot se for o caso.
+     *
+     * @param id Identificador
+     * @return Produto, ou {@code null} se o identificador não existir
+     */
+    Produto produto(int id) {
+        return (id < base) ? snapshot.produto(id) : existente(id);
+    }
+
+    /**
+     * Atualiza o índice por código depois que o código de um produto mudou.
+     *
+     * @param produto  Produto alterado
+     * @param anterior Código antes da alteração
+     */
+    void codigoAlterado(Produto produto, String anterior) {
+        // o produto já tem o código novo: a entrada antiga é achada pelo identificador
+        int mascara = tabelaCodigos.length - 1;
+        for (int posicao = espalhar(anterior) & mascara; tabelaCodigos[posicao] != 0; posicao = (posicao + 1) & mascara) {
+            if (tabelaCodigos[posicao] == produto.id + 1) {
+                tabelaCodigos[posicao] = REMOVIDO;
+                quantidadeCodigos--;
+                break;
+            }
+        }
+        if (produto.id >= 0 && existente(produto.id) == produto && cadastrados.get(produto.id)
+                && tabelaCodigos[procurarCodigo(produto.getCodigo())] <= 0) {
+            indexarCodigo(produto.getCodigo(), produto.id);
+        }
+    }
+
+    /**
+     * Retorna todos os produtos cadastrados, na ordem de cadastro. Produtos
+     * do snapshot ainda não usados são criados nesse momento.
+     *
+     * @return Lista nova com os produtos
+     */
+    List<Produto> todos() {
+        List<Produto> produtos = new ArrayList<>(cadastrados.cardinality());
+        for (int id = cadastrados.nextSetBit(0); id >= 0; id = cadastrados.nextSetBit(id + 1)) {
+            produtos.add(produto(id));
+        }
+        return produtos;
+    }
+
+    /**
+     * Substitui o conteúdo do registro pelos produtos de um snapshot.
+     *
+     * @param snapshot Snapshot carregado
+     */
+    void carregar(SnapshotCatalogo snapshot) {
+        tabelaCodigos = new int[16];
+        usadasTabela = 0;
+        quantidadeCodigos = 0;
+        armazem = new ArmazemProdutos();
+        porId.clear();
+        cadastrados.clear();
+        this.snapshot = snapshot;
+        this.base = snapshot.quantidadeProdutos();
+        cadastrados.set(0, snapshot.quantidadeCadastrados());
+    }
+
+    /**
+     * Retorna o produto já existente em memória com o identificador, sem
+     * criá-lo a partir do snapshot.
+     */
+    private Produto existente(int id) {
+        if (id < base) {
+            return snapshot.materializado(id);
+        }
+        return (id - base < porId.size()) ? porId.get(id - base) : null;
+    }
+
+    // TABELA DE CÓDIGOS
+
+    /**
+     * Procura o código na tabela.
+     *
+     * @return Posição do produto com o código, ou a posição vaga onde ele
+     *         seria incluído
+     */
+    private int procurarCodigo(String codigo) {
+        int mascara = tabelaCodigos.length - 1;
+        int posicao = espalhar(codigo) & mascara;
+        int vaga = -1;
+        for (;;) {
+            int entrada = tabelaCodigos[posicao];
+            if (entrada == 0) {
+                return (vaga >= 0) ? vaga : posicao;
+            }
+            if (entrada == REMOVIDO) {
+                if (vaga < 0) {
+                    vaga = posicao;
+                }
+            } else if (existente(entrada - 1).temCodigo(codigo)) {
+                return posicao;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+    }
+
+    /**
+     * Associa o código ao identificador, substituindo o produto que já
+     * estivesse com o mesmo código.
+     */
+    private void indexarCodigo(String codigo, int id) {
+        int posicao = procurarCodigo(codigo);
+        int entrada = tabelaCodigos[posicao];
+        if (entrada <= 0) {
+            quantidadeCodigos++;
+            if (entrada == 0) {
+                usadasTabela++;
+            }
+        }
+        tabelaCodigos[posicao] = id + 1;
+        if (usadasTabela * 2 > tabelaCodigos.length) {
+            redimensionarTabela();
+        }
+    }
+
+    /**
+     * Refaz a tabela com o dobro da quantidade de códigos de folga,
+     * descartando as marcas de remoção.
+     */
+    private void redimensionarTabela() {
+        int[] anterior = tabelaCodigos;
+        int tamanho = 16;
+        while (tamanho < quantidadeCodigos * 4) {
+            tamanho *= 2;
+        }
+        tabelaCodigos = new int[tamanho];
+        int mascara = tamanho - 1;
+        for (int entrada : anterior) {
+            if (entrada > 0) {
+                int posicao = espalhar(existente(entrada - 1).getCodigo()) & mascara;
+                while (tabelaCodigos[posicao] != 0) {
+                    posicao = (posicao + 1) & mascara;
+                }
+                tabelaCodigos[posicao] = entrada;
+            }
+        }
+        usadasTabela = quantidadeCodigos;
+    }
+
+    private static int espalhar(String codigo) {
+        int hash = (codigo == null) ? 0 : codigo.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
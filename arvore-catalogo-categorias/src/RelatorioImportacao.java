@@ -0,0 +1,185 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote: quantas categorias, produtos e
+ * associações entraram no catálogo e quais linhas foram recusadas.
+ *
+ * @since 2025
+ */
+public final class RelatorioImportacao {
+
+    /**
+     * Quantidade máxima de mensagens de erro guardadas; as demais só são
+     * contadas.
+     */
+    static final int MAXIMO_ERROS_GUARDADOS = 1000;
+
+    /**
+     * Linha recusada. Os erros chegam fora de ordem (a montagem das
+     * categorias passa mais de uma vez pelo arquivo), então guardam o
+     * arquivo e a linha para serem ordenados.
+     */
+    private static final class Erro {
+        final int arquivo;
+        final long linha;
+        final String mensagem;
+
+        Erro(int arquivo, long linha, String mensagem) {
+            this.arquivo = arquivo;
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+    }
+
+    /**
+     * Ordem dos erros: pelo arquivo, na ordem de {@link #arquivo(Path)}, e pelo número
+     * da linha; erros da mesma linha ficam na ordem em que foram registrados.
+     */
+    private static final Comparator<Erro> ORDEM_ERROS =
+            Comparator.<Erro>comparingInt(erro -> erro.arquivo).thenComparingLong(erro -> erro.linha);
+
+    private int categorias;
+    private int produtos;
+    private int associacoes;
+    private long linhas;
+    private long quantidadeErros;
+    private final List<Path> arquivos = new ArrayList<>();
+    private final List<Erro> erros = new ArrayList<>();
+
+    RelatorioImportacao() {
+    }
+
+    void linhasLidas(long quantidade) {
+        linhas += quantidade;
+    }
+
+    void categoriaImportada() {
+        categorias++;
+    }
+
+    void produtoImportado() {
+        produtos++;
+    }
+
+    void associacaoImportada() {
+        associacoes++;
+    }
+
+    /**
+     * Informa um arquivo da importação, na ordem em que os erros dele devem
+     * aparecer em {@link #getErros()}. Arquivos não informados entram na
+     * ordem do primeiro erro.
+     *
+     * @param arquivo Arquivo de origem
+     * @return Posição do arquivo na ordem
+     */
+    int arquivo(Path arquivo) {
+        int indice = arquivos.indexOf(arquivo);
+        if (indice < 0) {
+            indice = arquivos.size();
+            arquivos.add(arquivo);
+        }
+        return indice;
+    }
+
+    /**
+     * Registra uma linha recusada.
+     *
+     * @param arquivo  Arquivo de origem
+     * @param linha    Número da linha no arquivo (a partir de 1)
+     * @param mensagem Motivo da recusa
+     */
+    void erro(Path arquivo, long linha, String mensagem) {
+        quantidadeErros++;
+        erros.add(new Erro(arquivo(arquivo), linha, mensagem));
+        // com folga, para não ordenar a cada erro
+        if (erros.size() >= 2 * MAXIMO_ERROS_GUARDADOS) {
+            descartarExcedentes();
+        }
+    }
+
+    /**
+     * Ordena os erros e guarda só os {@value #MAXIMO_ERROS_GUARDADOS}
+     * primeiros.
+     */
+    private void descartarExcedentes() {
+        erros.sort(ORDEM_ERROS);
+        if (erros.size() > MAXIMO_ERROS_GUARDADOS) {
+            erros.subList(MAXIMO_ERROS_GUARDADOS, erros.size()).clear();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de categorias novas anexadas ao catálogo.
+     *
+     * @return Quantidade de categorias importadas
+     */
+    public int getCategoriasImportadas() {
+        return categorias;
+    }
+
+    /**
+     * Retorna a quantidade de produtos novos cadastrados. Linhas com o código
+     * de um produto já cadastrado só acrescentam associações.
+     *
+     * @return Quantidade de produtos importados
+     */
+    public int getProdutosImportados() {
+        return produtos;
+    }
+
+    /**
+     * Retorna a quantidade de associações novas entre produto e categoria.
+     *
+     * @return Quantidade de associações importadas
+     */
+    public int getAssociacoesImportadas() {
+        return associacoes;
+    }
+
+    /**
+     * Retorna a quantidade de linhas de dados lidas (sem cabeçalho e linhas
+     * em branco), somando os arquivos.
+     *
+     * @return Quantidade de linhas lidas
+     */
+    public long getLinhasLidas() {
+        return linhas;
+    }
+
+    /**
+     * Retorna a quantidade total de erros, inclusive os que não foram
+     * guardados em {@link #getErros()}.
+     *
+     * @return Quantidade de erros
+     */
+    public long getQuantidadeErros() {
+        return quantidadeErros;
+    }
+
+    /**
+     * Retorna as mensagens de erro no formato {@code "arquivo, linha N:
+     * motivo"}, ordenadas pelo arquivo e pelo número da linha e limitadas às
+     * {@value #MAXIMO_ERROS_GUARDADOS} primeiras nessa ordem.
+     *
+     * @return Lista somente leitura das mensagens
+     */
+    public List<String> getErros() {
+        descartarExcedentes();
+        List<String> mensagens = new ArrayList<>(erros.size());
+        for (Erro erro : erros) {
+            mensagens.add(arquivos.get(erro.arquivo).getFileName() + ", linha " + erro.linha + ": " + erro.mensagem);
+        }
+        return Collections.unmodifiableList(mensagens);
+    }
+
+    @Override
+    public String toString() {
+        return linhas + " linhas lidas: " + categorias + " categorias, " + produtos + " produtos e "
+                + associacoes + " associações importadas, " + quantidadeErros + " erros";
+    }
+}
@@ -0,0 +1,405 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Escreve a árvore de categorias e seus produtos em qualquer destino de texto
+ * ({@link Appendable}, {@link Writer} ou {@link OutputStream}).
+ *
+ * As linhas são montadas em um buffer interno reutilizado e enviadas ao
+ * destino em blocos grandes, em vez de uma escrita por linha. A indentação é
+ * copiada de um único vetor de espaços e os preços são formatados dígito a
+ * dígito, sem {@link String#format}; no formato texto, com o separador
+ * decimal da localidade padrão, como {@code String.format("%.2f")}. Os dois
+ * formatos disponíveis usam o mesmo percurso da árvore.
+ *
+ * Árvores grandes também podem ser escritas por várias threads de um
+ * {@link ForkJoinPool} (ver {@link #renderizar(Categoria, Appendable, ForkJoinPool)}),
+ * com a mesma saída da escrita sequencial.
+ *
+ * Cada instância guarda estado interno; use uma por thread.
+ *
+ * @since 2025
+ */
+public class RenderizadorArvore {
+
+    /**
+     * Formatos de saída suportados.
+     */
+    public enum Formato {
+        /** Listagem hierárquica legível, a mesma exibida pelo menu. */
+        TEXTO,
+        /** Um objeto JSON por linha, para categorias e produtos. */
+        JSON_LINHAS
+    }
+
+    /**
+     * Tamanho a partir do qual o buffer interno é descarregado no destino.
+     */
+    private static final int LIMITE_BUFFER = 1 << 15;
+
+    private static final String QUEBRA_LINHA = System.lineSeparator();
+
+    private final Formato formato;
+
+    /**
+     * Buffer onde as linhas são montadas antes de irem para o destino.
+     */
+    private final StringBuilder buffer;
+
+    /**
+     * Área de cópia usada para repassar o buffer a um {@link Writer}.
+     */
+    private char[] copia;
+
+    /**
+     * Espaços usados na indentação; cresce conforme o nível mais profundo
+     * encontrado, e cada linha copia apenas o trecho de que precisa.
+     */
+    private char[] espacos;
+
+    /**
+     * Dígitos do preço, escritos do fim para o começo.
+     */
+    private final char[] digitos;
+
+    /**
+     * Separador decimal dos preços: o da localidade padrão no texto, ponto
+     * no JSON.
+     */
+    private final char separadorDecimal;
+
+    /**
+     * Cria um renderizador para o formato informado.
+     *
+     * @param formato Formato das linhas geradas
+     */
+    public RenderizadorArvore(Formato formato) {
+        this.formato = formato;
+        this.buffer = new StringBuilder(LIMITE_BUFFER + 1024);
+        this.espacos = new char[64];
+        Arrays.fill(this.espacos, ' ');
+        this.digitos = new char[20];
+        this.separadorDecimal = (formato == Formato.TEXTO)
+                ? DecimalFormatSymbols.getInstance().getDecimalSeparator() : '.';
+    }
+
+    /**
+     * Escreve a subárvore no destino informado.
+     * Se o destino for um {@link Writer}, ele recebe blocos de caracteres e é
+     * descarregado ({@code flush}) ao final, mas não é fechado.
+     *
+     * @param raiz    Raiz da subárvore a ser escrita
+     * @param destino Destino do texto
+     * @throws IOException se o destino falhar ao receber o texto
+     */
+    public void renderizar(Categoria raiz, Appendable destino) throws IOException {
+        buffer.setLength(0);
+        try {
+            escreverSubarvore(raiz, destino);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        descarregar(destino);
+        if (destino instanceof Writer) {
+            ((Writer) destino).flush();
+        }
+    }
+
+    /**
+     * Monta no buffer as linhas da subárvore, descarregando-o no destino
+     * sempre que enche.
+     *
+     * @param raiz    Raiz da subárvore a ser escrita
+     * @param destino Destino do texto, ou {@code null} para manter todo o
+     *                texto no buffer
+     * @throws UncheckedIOException se o destino falhar
+     */
+    private void escreverSubarvore(Categoria raiz, Appendable destino) {
+        PercursoArvore.percorrer(raiz, new VisitanteCategoria() {
+            @Override
+            public Decisao entrar(Categoria categoria) {
+                escreverCategoria(categoria);
+                descarregarSeCheio(destino);
+                return Decisao.CONTINUAR;
+            }
+
+            @Override
+            public Decisao sair(Categoria categoria) {
+                escreverProdutos(categoria, destino);
+                return Decisao.CONTINUAR;
+            }
+        });
+    }
+
+    /**
+     * Monta no buffer as linhas dos produtos associados à categoria.
+     *
+     * @param categoria Categoria cujos produtos são escritos
+     * @param destino   Destino do texto, ou {@code null} para manter todo o
+     *                  texto no buffer
+     */
+    private void escreverProdutos(Categoria categoria, Appendable destino) {
+        for (Produto produto : categoria.getProdutos()) {
+            escreverProduto(categoria, produto);
+            descarregarSeCheio(destino);
+        }
+    }
+
+    /**
+     * Escreve a subárvore no destino informado dividindo o trabalho entre as
+     * threads do pool. A árvore é cortada em trechos pelo tamanho das
+     * subárvores ({@link PercursoParalelo#particionar(Categoria, int)}); cada
+     * trecho é montado por um renderizador próprio, numa tarefa do pool, e
+     * os trechos prontos são enviados ao destino na ordem da árvore, por esta
+     * thread. O texto gerado é idêntico ao de
+     * {@link #renderizar(Categoria, Appendable)}, que é usado diretamente em
+     * árvores pequenas.
+     *
+     * @param raiz    Raiz da subárvore a ser escrita
+     * @param destino Destino do texto
+     * @param pool    Pool onde os trechos são montados
+     * @throws IOException se o destino falhar ao receber o texto
+     */
+    public void renderizar(Categoria raiz, Appendable destino, ForkJoinPool pool) throws IOException {
+        if (raiz == null || PercursoParalelo.peso(raiz) < 2L * PercursoParalelo.GRAO_MINIMO) {
+            renderizar(raiz, destino);
+            return;
+        }
+        List<PercursoParalelo.Trecho> trechos = PercursoParalelo.particionar(raiz,
+                PercursoParalelo.grao(raiz, pool.getParallelism()));
+        try {
+            PercursoParalelo.processarEmOrdem(pool, trechos,
+                    trecho -> new RenderizadorArvore(formato).montarTrecho(trecho),
+                    texto -> {
+                        try {
+                            escrever(texto, destino);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (destino instanceof Writer) {
+            ((Writer) destino).flush();
+        }
+    }
+
+    /**
+     * Escreve a subárvore em um fluxo de bytes usando o charset informado.
+     * O fluxo é descarregado ao final, mas não é fechado.
+     *
+     * @param raiz    Raiz da subárvore a ser escrita
+     * @param destino Fluxo de destino
+     * @param charset Codificação dos caracteres
+     * @throws IOException se o fluxo falhar ao receber os bytes
+     */
+    public void renderizar(Categoria raiz, OutputStream destino, Charset charset) throws IOException {
+        renderizar(raiz, new OutputStreamWriter(destino, charset));
+    }
+
+    // MONTAGEM DAS LINHAS
+
+    /**
+     * Monta o texto de um trecho da árvore, com as mesmas linhas que a
+     * escrita sequencial geraria nessa parte. O texto fica no buffer deste
+     * renderizador, que é devolvido.
+     *
+     * @param trecho Trecho da árvore
+     * @return Texto do trecho
+     */
+    private StringBuilder montarTrecho(PercursoParalelo.Trecho trecho) {
+        buffer.setLength(0);
+        for (int i = 0; i < trecho.categorias.size(); i++) {
+            Categoria categoria = trecho.categorias.get(i);
+            switch (trecho.tipos.get(i)) {
+                case ENTRADA:
+                    escreverCategoria(categoria);
+                    break;
+                case SAIDA:
+                    escreverProdutos(categoria, null);
+                    break;
+                default:
+                    escreverSubarvore(categoria, null);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Monta no buffer a linha de uma categoria.
+     *
+     * @param categoria Categoria sendo escrita
+     */
+    private void escreverCategoria(Categoria categoria) {
+        int nivel = categoria.getNivel();
+        if (formato == Formato.TEXTO) {
+            anexarIndentacao(nivel);
+            buffer.append(nivel == 0 ? "[Raiz] " : "|-- ")
+                    .append("Categoria: ").append(categoria.getNome())
+                    .append(" (Cód: ").append(categoria.getCodigo()).append(')');
+        } else {
+            buffer.append("{\"tipo\":\"categoria\",\"nivel\":").append(nivel);
+            anexarCampoJson("codigo", categoria.getCodigo());
+            anexarCampoJson("nome", categoria.getNome());
+            anexarCampoJson("descricao", categoria.getDescricao());
+            buffer.append('}');
+        }
+        buffer.append(QUEBRA_LINHA);
+    }
+
+    /**
+     * Monta no buffer a linha de um produto associado a uma categoria.
+     *
+     * @param categoria Categoria que contém o produto
+     * @param produto   Produto sendo escrito
+     */
+    private void escreverProduto(Categoria categoria, Produto produto) {
+        if (formato == Formato.TEXTO) {
+            anexarIndentacao(categoria.getNivel() + 1);
+            buffer.append("-> [Produto] ").append(produto.getNome())
+                    .append(" | R$ ");
+            anexarPreco(produto.getPreco());
+            buffer.append(" | Marca: ").append(produto.getMarca());
+        } else {
+            buffer.append("{\"tipo\":\"produto\"");
+            anexarCampoJson("categoria", categoria.getCodigo());
+            anexarCampoJson("codigo", produto.getCodigo());
+            anexarCampoJson("nome", produto.getNome());
+            buffer.append(",\"preco\":");
+            if (Double.isFinite(produto.getPreco())) {
+                anexarPreco(produto.getPreco());
+            } else {
+                buffer.append("null");
+            }
+            anexarCampoJson("marca", produto.getMarca());
+            buffer.append('}');
+        }
+        buffer.append(QUEBRA_LINHA);
+    }
+
+    /**
+     * Anexa a indentação do nível (quatro espaços por nível).
+     *
+     * @param nivel Nível na árvore
+     */
+    private void anexarIndentacao(int nivel) {
+        int tamanho = nivel * 4;
+        if (espacos.length < tamanho) {
+            espacos = new char[Math.max(tamanho, espacos.length * 2)];
+            Arrays.fill(espacos, ' ');
+        }
+        buffer.append(espacos, 0, tamanho);
+    }
+
+    /**
+     * Anexa o preço com duas casas decimais e o separador do formato, sem criar
+     * objetos intermediários. Valores fora da faixa de centavos em
+     * {@code long} são escritos com {@link String#valueOf(double)}.
+     *
+     * @param preco Preço a ser escrito
+     */
+    private void anexarPreco(double preco) {
+        double centavosExatos = preco * 100;
+        if (!(Math.abs(centavosExatos) < Long.MAX_VALUE)) {
+            buffer.append(preco);
+            return;
+        }
+        if (centavosExatos < 0) {
+            buffer.append('-');
+            centavosExatos = -centavosExatos;
+        }
+        long centavos = Math.round(centavosExatos);
+        int pos = digitos.length;
+        digitos[--pos] = (char) ('0' + centavos % 10);
+        centavos /= 10;
+        digitos[--pos] = (char) ('0' + centavos % 10);
+        centavos /= 10;
+        digitos[--pos] = separadorDecimal;
+        do {
+            digitos[--pos] = (char) ('0' + centavos % 10);
+            centavos /= 10;
+        } while (centavos > 0);
+        buffer.append(digitos, pos, digitos.length - pos);
+    }
+
+    /**
+     * Anexa {@code ,"nome":valor} ao objeto JSON em construção.
+     *
+     * @param nome  Nome do campo
+     * @param valor Valor textual (pode ser {@code null})
+     */
+    private void anexarCampoJson(String nome, String valor) {
+        buffer.append(",\"").append(nome).append("\":");
+        if (valor == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer.append('\\').append(c);
+            } else if (c < 0x20) {
+                buffer.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+
+    // ESCRITA NO DESTINO
+
+    private void descarregarSeCheio(Appendable destino) {
+        if (destino != null && buffer.length() >= LIMITE_BUFFER) {
+            try {
+                descarregar(destino);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Envia o conteúdo do buffer ao destino e esvazia o buffer.
+     *
+     * @param destino Destino do texto
+     * @throws IOException se o destino falhar
+     */
+    private void descarregar(Appendable destino) throws IOException {
+        escrever(buffer, destino);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Envia um texto ao destino, em um único bloco.
+     *
+     * @param texto   Texto a ser enviado
+     * @param destino Destino do texto
+     * @throws IOException se o destino falhar
+     */
+    private void escrever(StringBuilder texto, Appendable destino) throws IOException {
+        int tamanho = texto.length();
+        if (tamanho == 0) {
+            return;
+        }
+        if (destino instanceof Writer) {
+            if (copia == null || copia.length < tamanho) {
+                copia = new char[Math.max(tamanho, texto.capacity())];
+            }
+            texto.getChars(0, tamanho, copia, 0);
+            ((Writer) destino).write(copia, 0, tamanho);
+        } else {
+            destino.append(texto);
+        }
+    }
+}
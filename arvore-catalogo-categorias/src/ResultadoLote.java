@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de {@link CatalogoControll#aplicarLote(LoteCatalogo)}: a
+ * situação de cada alteração do lote, na mesma ordem, e o motivo das
+ * recusadas. Se alguma alteração for recusada, nenhuma é aplicada.
+ *
+ * @since 2025
+ */
+public final class ResultadoLote {
+
+    /**
+     * Situação de uma alteração do lote.
+     */
+    public enum Situacao {
+        /**
+         * A alteração foi aplicada ao catálogo.
+         */
+        APLICADA,
+
+        /**
+         * A alteração é inválida no ponto do lote em que aparece (categoria
+         * não encontrada, ciclo, código repetido...).
+         */
+        RECUSADA,
+
+        /**
+         * A alteração é válida, mas não foi aplicada porque outra do lote
+         * foi recusada.
+         */
+        NAO_APLICADA
+    }
+
+    /**
+     * Quantidade máxima de mensagens de erro guardadas em
+     * {@link #getErros()}; as situações e os motivos por alteração são
+     * guardados sempre.
+     */
+    static final int MAXIMO_ERROS_GUARDADOS = 1000;
+
+    private static final Situacao[] SITUACOES = Situacao.values();
+
+    private final byte[] situacoes;
+
+    /**
+     * Motivo de cada alteração recusada, pela posição no lote.
+     */
+    private final String[] motivos;
+    private int recusadas;
+    private boolean aplicado;
+    private final List<String> erros = new ArrayList<>();
+
+    /**
+     * Cria o resultado de um lote, com todas as alterações não aplicadas.
+     *
+     * @param alteracoes Quantidade de alterações do lote
+     */
+    ResultadoLote(int alteracoes) {
+        this.situacoes = new byte[alteracoes];
+        this.motivos = new String[alteracoes];
+        Arrays.fill(situacoes, (byte) Situacao.NAO_APLICADA.ordinal());
+    }
+
+    /**
+     * Registra uma alteração recusada.
+     *
+     * @param alteracao Posição da alteração no lote (a partir de 0)
+     * @param motivo    Motivo da recusa
+     */
+    void recusar(int alteracao, String motivo) {
+        situacoes[alteracao] = (byte) Situacao.RECUSADA.ordinal();
+        motivos[alteracao] = motivo;
+        recusadas++;
+        if (erros.size() < MAXIMO_ERROS_GUARDADOS) {
+            erros.add("alteração " + alteracao + ": " + motivo);
+        }
+    }
+
+    /**
+     * Marca todas as alterações como aplicadas.
+     */
+    void aplicado() {
+        Arrays.fill(situacoes, (byte) Situacao.APLICADA.ordinal());
+        aplicado = true;
+    }
+
+    /**
+     * Indica se o lote foi aplicado.
+     *
+     * @return {@code true} se todas as alterações entraram no catálogo
+     */
+    public boolean isAplicado() {
+        return aplicado;
+    }
+
+    /**
+     * Retorna a quantidade de alterações do lote.
+     *
+     * @return Quantidade de alterações
+     */
+    public int getQuantidadeAlteracoes() {
+        return situacoes.length;
+    }
+
+    /**
+     * Retorna a quantidade de alterações recusadas.
+     *
+     * @return Quantidade de alterações recusadas
+     */
+    public int getQuantidadeRecusadas() {
+        return recusadas;
+    }
+
+    /**
+     * Retorna a situação de uma alteração.
+     *
+     * @param alteracao Posição da alteração no lote (a partir de 0)
+     * @return Situação da alteração
+     */
+    public Situacao getSituacao(int alteracao) {
+        return SITUACOES[situacoes[alteracao]];
+    }
+
+    /**
+     * Retorna o motivo da recusa de uma alteração.
+     *
+     * @param alteracao Posição da alteração no lote (a partir de 0)
+     * @return Motivo, ou {@code null} se a alteração não foi recusada
+     */
+    public String getMotivo(int alteracao) {
+        return motivos[alteracao];
+    }
+
+    /**
+     * Retorna as mensagens de erro no formato {@code "alteração N: motivo"},
+     * limitadas às primeiras {@value #MAXIMO_ERROS_GUARDADOS}.
+     *
+     * @return Lista somente leitura das mensagens
+     */
+    public List<String> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+
+    @Override
+    public String toString() {
+        if (recusadas > 0) {
+            return situacoes.length + " alterações, nenhuma aplicada: " + recusadas + " recusadas";
+        }
+        return situacoes.length + " alterações, " + (aplicado ? "todas aplicadas" : "nenhuma aplicada");
+    }
+}
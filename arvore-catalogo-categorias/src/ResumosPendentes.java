@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumos de produtos ainda não somados às ancestrais, usados por
+ * {@link CatalogoControll#aplicarLote(LoteCatalogo)} para associar muitos
+ * produtos sem percorrer o caminho até a raiz a cada associação.
+ *
+ * Cada associação soma o produto só ao resumo da própria categoria e guarda
+ * a diferença para o pai. {@link #propagar()} desce dos níveis mais fundos
+ * para a raiz: cada categoria pendente soma a diferença acumulada ao seu
+ * resumo e a repassa ao pai, de modo que uma ancestral comum a várias
+ * associações é atualizada uma vez só.
+ *
+ * Enquanto houver diferenças pendentes, os resumos das ancestrais estão
+ * desatualizados; elas devem ser propagadas antes de mover, remover ou
+ * desassociar qualquer coisa e antes de liberar o catálogo.
+ *
+ * @since 2025
+ */
+final class ResumosPendentes {
+
+    /**
+     * Diferença que ainda falta somar ao resumo de cada categoria (e ao das
+     * ancestrais dela).
+     */
+    private final Map<Categoria, AgregadoProdutos> pendentes = new IdentityHashMap<>();
+
+    /**
+     * Categorias pendentes de cada nível.
+     */
+    private final List<List<Categoria>> porNivel = new ArrayList<>();
+
+    /**
+     * Associa o produto à categoria, deixando pendente a atualização dos
+     * resumos das ancestrais.
+     *
+     * @param categoria Categoria da árvore
+     * @param produto   Produto já cadastrado
+     * @return {@code true} se o produto ainda não estava na categoria
+     */
+    boolean associar(Categoria categoria, Produto produto) {
+        if (!categoria.adicionarProdutoAdiado(produto)) {
+            return false;
+        }
+        Categoria pai = categoria.getPai();
+        if (pai != null) {
+            pendente(pai).adicionar(produto.getPreco(), produto.getMarca());
+        }
+        return true;
+    }
+
+    /**
+     * Soma as diferenças pendentes aos resumos, do nível mais fundo para a
+     * raiz.
+     */
+    void propagar() {
+        if (pendentes.isEmpty()) {
+            // clear() percorre a tabela inteira, mesmo vazia
+            return;
+        }
+        for (int nivel = porNivel.size() - 1; nivel >= 0; nivel--) {
+            for (Categoria categoria : porNivel.get(nivel)) {
+                AgregadoProdutos diferenca = pendentes.get(categoria);
+                categoria.somarResumo(diferenca);
+                if (categoria.getPai() != null) {
+                    pendente(categoria.getPai()).somar(diferenca);
+                }
+            }
+            porNivel.get(nivel).clear();
+        }
+        pendentes.clear();
+    }
+
+    private AgregadoProdutos pendente(Categoria categoria) {
+        AgregadoProdutos diferenca = pendentes.get(categoria);
+        if (diferenca == null) {
+            diferenca = new AgregadoProdutos();
+            pendentes.put(categoria, diferenca);
+            int nivel = categoria.getNivel();
+            while (porNivel.size() <= nivel) {
+                porNivel.add(new ArrayList<>());
+            }
+            porNivel.get(nivel).add(categoria);
+        }
+        return diferenca;
+    }
+}
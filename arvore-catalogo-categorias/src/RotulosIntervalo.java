@@ -0,0 +1,172 @@
+import java.util.List;
+
+/**
+ * Mantém os rótulos de intervalo aninhado (numeração de entrada e saída de um
+ * percurso em profundidade) das categorias.
+ *
+ * Cada categoria recebe um par {@code entrada < saida}; o intervalo de uma
+ * descendente fica sempre estritamente dentro do intervalo de suas
+ * ancestrais, e irmãs ocupam intervalos disjuntos na ordem da lista de
+ * filhos. Com isso, testar se uma categoria é ancestral de outra custa O(1).
+ *
+ * Os rótulos são espaçados: ao anexar uma subárvore, ela é numerada dentro da
+ * folga que existe depois da última irmã, sem tocar no restante da árvore.
+ * Só quando essa folga acaba é que a ancestral mais próxima com espaço
+ * suficiente tem o interior renumerado; a árvore inteira só é renumerada
+ * quando nenhuma ancestral abaixo da raiz tem folga.
+ *
+ * @since 2025
+ */
+final class RotulosIntervalo {
+
+    /**
+     * Limite superior do intervalo de uma raiz.
+     */
+    static final long LIMITE = Long.MAX_VALUE / 4;
+
+    /**
+     * Espaço deixado entre rótulos consecutivos ao anexar uma subárvore,
+     * quando a folga permite. Também é o menor espaçamento aceito ao escolher
+     * qual ancestral renumerar.
+     */
+    private static final long PASSO_PADRAO = 1L << 20;
+
+    private RotulosIntervalo() {
+    }
+
+    /**
+     * Rotula uma subárvore que acabou de se tornar uma árvore independente
+     * (categoria recém-criada ou removida do pai).
+     *
+     * @param topo Categoria sem pai
+     */
+    static void tornarRaiz(Categoria topo) {
+        topo.entrada = 0;
+        topo.saida = LIMITE;
+        rotularInterior(topo);
+    }
+
+    /**
+     * Rotula uma subárvore recém-anexada como última filha de {@code pai}.
+     * A subárvore já deve estar na lista de filhos e com o pai definido.
+     *
+     * @param pai            Novo pai da subárvore
+     * @param filho          Raiz da subárvore anexada
+     * @param irmaAnterior   Filha que estava por último antes da anexação,
+     *                       ou {@code null} se {@code pai} não tinha filhos
+     */
+    static void encaixar(Categoria pai, Categoria filho, Categoria irmaAnterior) {
+        long inicio = (irmaAnterior != null) ? irmaAnterior.saida : pai.entrada;
+        long passo = passoFolga(pai, inicio, filho.tamanho);
+        if (passo >= 1) {
+            rotular(filho, inicio, Math.min(passo, PASSO_PADRAO), true);
+            return;
+        }
+        reencaixar(pai);
+    }
+
+    /**
+     * Renumera o interior do pai, ou da primeira ancestral com espaço
+     * suficiente, depois que uma subárvore foi posta entre as filhas (e não
+     * só depois da última).
+     *
+     * @param pai Categoria cuja lista de filhos mudou
+     */
+    static void reencaixar(Categoria pai) {
+        for (Categoria atual = pai; ; atual = atual.getPai()) {
+            if (atual.getPai() == null || passoInterior(atual) >= PASSO_PADRAO) {
+                rotularInterior(atual);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Verifica se {@link #encaixar} rotularia a categoria como última filha
+     * de {@code pai} só dentro da folga depois da última irmã, sem renumerar
+     * nenhuma ancestral. Se a categoria já for filha de {@code pai}, conta
+     * como se tivesse sido retirada antes. Usado pela escrita concorrente
+     * para saber se basta travar as subárvores envolvidas.
+     *
+     * @param pai   Futuro pai
+     * @param filho Categoria a anexar, ou {@code null} para uma categoria nova
+     * @return {@code true} se a folga basta
+     */
+    static boolean cabe(Categoria pai, Categoria filho) {
+        List<Categoria> irmas = pai.getFilhos();
+        int ultima = irmas.size() - 1;
+        if (ultima >= 0 && irmas.get(ultima) == filho) {
+            ultima--;
+        }
+        long inicio = (ultima >= 0) ? irmas.get(ultima).saida : pai.entrada;
+        return passoFolga(pai, inicio, (filho != null) ? filho.tamanho : 1) >= 1;
+    }
+
+    /**
+     * Espaçamento possível entre os rótulos de uma subárvore com a quantidade
+     * de categorias informada, numerada de {@code inicio} até o fim do
+     * intervalo do pai.
+     */
+    private static long passoFolga(Categoria pai, long inicio, int tamanho) {
+        long eventos = 2L * tamanho;
+        return (pai.saida - inicio) / (eventos + 1);
+    }
+
+    /**
+     * Espaçamento que o interior da subárvore teria se fosse renumerado.
+     *
+     * @param topo Categoria cujos rótulos seriam mantidos
+     * @return Passo entre rótulos consecutivos
+     */
+    private static long passoInterior(Categoria topo) {
+        long interior = 2L * (topo.tamanho - 1);
+        return (topo.saida - topo.entrada) / 2 / (interior + 1);
+    }
+
+    /**
+     * Renumera o interior de uma subárvore de forma uniforme, ocupando só a
+     * primeira metade do intervalo do topo. A outra metade fica livre para
+     * novas filhas anexadas ao final, que assim não forçam outra renumeração
+     * logo em seguida.
+     *
+     * @param topo Categoria cujos rótulos são mantidos
+     */
+    private static void rotularInterior(Categoria topo) {
+        rotular(topo, topo.entrada, passoInterior(topo), false);
+    }
+
+    /**
+     * Numera a subárvore em profundidade, a partir de {@code antes + passo},
+     * somando {@code passo} a cada entrada e saída. Aproveita o percurso para
+     * atualizar o nível e a raiz em cache de cada categoria.
+     *
+     * @param topo         Raiz da subárvore
+     * @param antes        Último rótulo ocupado antes da subárvore
+     * @param passo        Espaçamento entre rótulos consecutivos
+     * @param incluirTopo  Se o próprio topo também deve ser renumerado
+     */
+    private static void rotular(Categoria topo, long antes, long passo, boolean incluirTopo) {
+        PercursoArvore.percorrer(topo, new VisitanteCategoria() {
+            private long ultimo = antes;
+
+            @Override
+            public Decisao entrar(Categoria categoria) {
+                categoria.atualizarPosicao();
+                if (categoria != topo || incluirTopo) {
+                    ultimo += passo;
+                    categoria.entrada = ultimo;
+                }
+                return Decisao.CONTINUAR;
+            }
+
+            @Override
+            public Decisao sair(Categoria categoria) {
+                if (categoria != topo || incluirTopo) {
+                    ultimo += passo;
+                    categoria.saida = ultimo;
+                }
+                return Decisao.CONTINUAR;
+            }
+        });
+    }
+}
@@ -0,0 +1,343 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validação das alterações de um {@link LoteCatalogo} antes de qualquer
+ * uma ser aplicada, usada por {@link CatalogoControll#aplicarLote(LoteCatalogo)}.
+ *
+ * As alterações são simuladas em ordem sobre o estado atual do catálogo,
+ * sem tocá-lo: a simulação guarda à parte o pai novo de cada categoria
+ * movida ou criada, as subárvores removidas, as associações alteradas e as
+ * categorias que cada nome ou código passou a indicar. Um nome é resolvido
+ * como o índice do catálogo o resolveria naquele ponto do lote: a primeira
+ * categoria ainda na árvore entre a principal, as homônimas e as criadas
+ * pelo lote, nessa ordem. Ancestrais são conferidas subindo pelos pais
+ * simulados.
+ *
+ * Cada alteração válida vira um {@link Passo} com as categorias já
+ * resolvidas (as criadas pelo lote já existem como objetos, fora da árvore),
+ * e a aplicação não precisa buscar nada de novo. Uma alteração recusada é
+ * registrada no resultado e ignorada pelas seguintes, de modo que todas as
+ * recusas do lote aparecem de uma vez.
+ *
+ * @since 2025
+ */
+final class SimulacaoLote {
+
+    /**
+     * Alteração validada, pronta para ser aplicada. Os campos de
+     * {@code paiAnterior} em diante são preenchidos na aplicação, para que
+     * ela possa ser desfeita.
+     */
+    static final class Passo {
+        final LoteCatalogo.Tipo tipo;
+
+        /**
+         * Categoria inserida, subcategoria, categoria do produto ou
+         * categoria removida.
+         */
+        final Categoria categoria;
+
+        /**
+         * Pai da subcategoria.
+         */
+        final Categoria pai;
+        final Produto produto;
+
+        /**
+         * Se a categoria foi criada pelo lote ou, numa associação, se o
+         * produto ainda precisa ser cadastrado.
+         */
+        final boolean criada;
+
+        Categoria paiAnterior;
+        int posicaoAnterior;
+
+        /**
+         * Se a associação já existia antes do passo.
+         */
+        boolean semEfeito;
+
+        Passo(LoteCatalogo.Tipo tipo, Categoria categoria, Categoria pai, Produto produto, boolean criada) {
+            this.tipo = tipo;
+            this.categoria = categoria;
+            this.pai = pai;
+            this.produto = produto;
+            this.criada = criada;
+        }
+    }
+
+    private final CatalogoControll catalogo;
+    private Categoria raiz;
+
+    /**
+     * Pai simulado das categorias movidas ou criadas pelo lote
+     * ({@code null} para a raiz criada num catálogo vazio).
+     */
+    private final Map<Categoria, Categoria> pais = new IdentityHashMap<>();
+
+    /**
+     * Topos das subárvores removidas pelo lote.
+     */
+    private final Set<Categoria> removidas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Categorias de cada nome e código (normalizados) em que o lote criou
+     * uma categoria, na ordem em que o índice as encontraria.
+     */
+    private final Map<String, List<Categoria>> nomes = new HashMap<>();
+    private final Map<String, List<Categoria>> codigos = new HashMap<>();
+
+    /**
+     * Associações alteradas pelo lote, por produto.
+     */
+    private final Map<Produto, Map<Categoria, Boolean>> associacoes = new IdentityHashMap<>();
+
+    /**
+     * Produtos que o lote vai cadastrar, pelo código.
+     */
+    private final Map<String, Produto> produtosNovos = new HashMap<>();
+
+    private int categoriasCriadasOuRemovidas;
+
+    /**
+     * Prepara a simulação sobre o estado atual do catálogo, que não deve ser
+     * alterado até o lote ser aplicado.
+     *
+     * @param catalogo Catálogo onde o lote será aplicado
+     */
+    SimulacaoLote(CatalogoControll catalogo) {
+        this.catalogo = catalogo;
+        this.raiz = catalogo.getRaiz();
+    }
+
+    /**
+     * Simula as alterações do lote em ordem.
+     *
+     * @param lote      Lote a validar
+     * @param resultado Resultado onde as recusas são registradas
+     * @return Passos das alterações válidas, na ordem do lote
+     */
+    List<Passo> simular(LoteCatalogo lote, ResultadoLote resultado) {
+        List<LoteCatalogo.Alteracao> alteracoes = lote.getAlteracoes();
+        List<Passo> passos = new ArrayList<>(alteracoes.size());
+        for (int i = 0; i < alteracoes.size(); i++) {
+            LoteCatalogo.Alteracao alteracao = alteracoes.get(i);
+            String recusa;
+            switch (alteracao.tipo) {
+                case INSERIR_CATEGORIA:
+                    recusa = inserirCategoria(alteracao, passos);
+                    break;
+                case DEFINIR_SUBCATEGORIA:
+                    recusa = definirSubcategoria(alteracao, passos);
+                    break;
+                case ASSOCIAR_PRODUTO:
+                    recusa = associarProduto(alteracao, passos);
+                    break;
+                case DESASSOCIAR_PRODUTO:
+                    recusa = desassociarProduto(alteracao, passos);
+                    break;
+                default:
+                    recusa = removerCategoria(alteracao, passos);
+                    break;
+            }
+            if (recusa != null) {
+                resultado.recusar(i, recusa);
+            }
+        }
+        return passos;
+    }
+
+    /**
+     * Retorna quantas categorias os passos criam ou removem (contando só o
+     * topo de cada subárvore removida).
+     *
+     * @return Quantidade de categorias criadas ou removidas
+     */
+    int getCategoriasCriadasOuRemovidas() {
+        return categoriasCriadasOuRemovidas;
+    }
+
+    // ALTERAÇÕES
+
+    private String inserirCategoria(LoteCatalogo.Alteracao alteracao, List<Passo> passos) {
+        String codigo = alteracao.argumento;
+        if (codigo != null && buscar(codigos, codigo, false) != null) {
+            return "Já existe uma categoria com o código '" + codigo + "'!";
+        }
+        Categoria nova = new Categoria(alteracao.nome, codigo, alteracao.descricao);
+        pais.put(nova, raiz);
+        if (raiz == null) {
+            raiz = nova; // primeira categoria vira raiz
+        }
+        indexar(nomes, alteracao.nome, nova, true);
+        indexar(codigos, codigo, nova, false);
+        categoriasCriadasOuRemovidas++;
+        passos.add(new Passo(LoteCatalogo.Tipo.INSERIR_CATEGORIA, nova, null, null, true));
+        return null;
+    }
+
+    private String definirSubcategoria(LoteCatalogo.Alteracao alteracao, List<Passo> passos) {
+        String nomePai = alteracao.nome;
+        String nomeFilho = alteracao.argumento;
+        Categoria pai = buscar(nomes, nomePai, true);
+        if (pai == null) {
+            return "Categoria pai '" + nomePai + "' não encontrada!";
+        }
+        Categoria filho = buscar(nomes, nomeFilho, true);
+        if (filho == pai || (filho != null && ancestral(filho, pai))) {
+            return "Categoria '" + nomeFilho + "' não pode ser subcategoria de '" + nomePai
+                    + "': ela é o próprio pai ou uma de suas ancestrais!";
+        }
+        boolean criada = (filho == null);
+        if (criada) {
+            filho = new Categoria(nomeFilho);
+            indexar(nomes, nomeFilho, filho, true);
+            categoriasCriadasOuRemovidas++;
+        }
+        pais.put(filho, pai);
+        passos.add(new Passo(LoteCatalogo.Tipo.DEFINIR_SUBCATEGORIA, filho, pai, null, criada));
+        return null;
+    }
+
+    private String associarProduto(LoteCatalogo.Alteracao alteracao, List<Passo> passos) {
+        Produto produto = alteracao.produto;
+        if (produto == null) {
+            return "Produto não pode ser nulo!";
+        }
+        Categoria categoria = buscar(nomes, alteracao.nome, true);
+        if (categoria == null) {
+            return "Categoria '" + alteracao.nome + "' não encontrada!";
+        }
+        String codigo = produto.getCodigo();
+        Produto cadastrado = produtosNovos.get(codigo);
+        if (cadastrado == null) {
+            cadastrado = catalogo.produtoCadastrado(codigo);
+        }
+        if (cadastrado != null && cadastrado != produto) {
+            if (!cadastrado.mesmosDados(produto)) {
+                return "Já existe outro produto cadastrado com o código '" + codigo + "'!";
+            }
+            produto = cadastrado;
+        }
+        if (cadastrado == null) {
+            produtosNovos.put(codigo, produto);
+        }
+        associacoes.computeIfAbsent(produto, p -> new IdentityHashMap<>()).put(categoria, Boolean.TRUE);
+        passos.add(new Passo(LoteCatalogo.Tipo.ASSOCIAR_PRODUTO, categoria, null, produto, cadastrado == null));
+        return null;
+    }
+
+    private String desassociarProduto(LoteCatalogo.Alteracao alteracao, List<Passo> passos) {
+        Produto produto = alteracao.produto;
+        if (produto == null) {
+            return "Produto não pode ser nulo!";
+        }
+        Categoria categoria = buscar(nomes, alteracao.nome, true);
+        if (categoria == null) {
+            return "Categoria '" + alteracao.nome + "' não encontrada!";
+        }
+        Map<Categoria, Boolean> doProduto = associacoes.get(produto);
+        Boolean simulada = (doProduto != null) ? doProduto.get(categoria) : null;
+        if (!((simulada != null) ? simulada : produto.pertenceA(categoria))) {
+            return "Produto '" + produto.getCodigo() + "' não está associado à categoria '"
+                    + alteracao.nome + "'!";
+        }
+        associacoes.computeIfAbsent(produto, p -> new IdentityHashMap<>()).put(categoria, Boolean.FALSE);
+        passos.add(new Passo(LoteCatalogo.Tipo.DESASSOCIAR_PRODUTO, categoria, null, produto, false));
+        return null;
+    }
+
+    private String removerCategoria(LoteCatalogo.Alteracao alteracao, List<Passo> passos) {
+        Categoria alvo = buscar(nomes, alteracao.nome, true);
+        if (alvo == null) {
+            return "Categoria '" + alteracao.nome + "' não encontrada!";
+        }
+        if (alvo == raiz) {
+            return "Não é possível remover a categoria Raiz.";
+        }
+        removidas.add(alvo);
+        categoriasCriadasOuRemovidas++;
+        passos.add(new Passo(LoteCatalogo.Tipo.REMOVER_CATEGORIA, alvo, null, null, false));
+        return null;
+    }
+
+    // ESTADO SIMULADO
+
+    /**
+     * Resolve um nome ou código como o índice do catálogo o resolveria
+     * depois dos passos já simulados.
+     */
+    private Categoria buscar(Map<String, List<Categoria>> criadas, String chave, boolean porNome) {
+        String normalizada = IndiceCategorias.normalizar(chave);
+        if (normalizada == null) {
+            return null;
+        }
+        List<Categoria> candidatas = criadas.get(normalizada);
+        if (candidatas == null) {
+            candidatas = porNome ? catalogo.categoriasComNome(chave) : catalogo.categoriasComCodigo(chave);
+        }
+        for (Categoria candidata : candidatas) {
+            if (!removida(candidata)) {
+                return candidata;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Acrescenta uma categoria criada pelo lote às categorias da chave,
+     * depois das que o índice já tem.
+     */
+    private void indexar(Map<String, List<Categoria>> criadas, String chave, Categoria categoria, boolean porNome) {
+        String normalizada = IndiceCategorias.normalizar(chave);
+        if (normalizada == null) {
+            return;
+        }
+        criadas.computeIfAbsent(normalizada, k -> new ArrayList<>(
+                porNome ? catalogo.categoriasComNome(chave) : catalogo.categoriasComCodigo(chave)))
+                .add(categoria);
+    }
+
+    private Categoria pai(Categoria categoria) {
+        return pais.containsKey(categoria) ? pais.get(categoria) : categoria.getPai();
+    }
+
+    /**
+     * Verifica se a categoria ou uma de suas ancestrais simuladas foi
+     * removida pelo lote.
+     */
+    private boolean removida(Categoria categoria) {
+        if (removidas.isEmpty()) {
+            return false;
+        }
+        for (Categoria atual = categoria; atual != null; atual = pai(atual)) {
+            if (removidas.contains(atual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se {@code ancestral} está acima de {@code categoria} na árvore
+     * simulada. Sem categorias movidas ou criadas, usa os rótulos de
+     * intervalo, em O(1).
+     */
+    private boolean ancestral(Categoria ancestral, Categoria categoria) {
+        if (pais.isEmpty()) {
+            return ancestral.isAncestralDe(categoria);
+        }
+        for (Categoria atual = pai(categoria); atual != null; atual = pai(atual)) {
+            if (atual == ancestral) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,637 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot binário do catálogo (categorias, produtos e associações), gravado
+ * em um único arquivo e lido por mapeamento em memória.
+ *
+ * Formato (inteiros e decimais em little-endian):
+ * <pre>
+ * cabeçalho        10 int: mágico "CATB", versão, as quantidades abaixo e
+ *                  quantos dos P produtos (os primeiros) são cadastrados;
+ *                  os demais só estão associados a categorias
+ * textos           (T+1) int de deslocamento + bytes UTF-8 (tabela única,
+ *                  sem repetição; -1 representa null)
+ * categorias       C registros de 56 bytes, em pré-ordem: nome, código,
+ *                  descrição, pai, quantidade, primeiro par de marca,
+ *                  quantidade de pares, reservado (int) e soma, menor e
+ *                  maior preço da subárvore (double)
+ * produtos         P registros de 24 bytes: nome, código, marca,
+ *                  reservado (int) e preço (double)
+ * categoria→produtos    (C+1) int de início + A int de produto
+ * produto→categorias    (P+1) int de início + A int de categoria
+ * marcas           M pares (marca, quantidade) com a contagem por marca de
+ *                  cada subárvore
+ * códigos          K int de produto cadastrado, ordenados pelos bytes do
+ *                  código
+ * </pre>
+ *
+ * A carga só cria as categorias: o resumo de cada subárvore já está no
+ * arquivo, e os produtos continuam no mapeamento até alguém pedi-los (lista
+ * de produtos de uma categoria, busca por código, registro completo). Assim
+ * o tempo de abertura depende da quantidade de categorias, não de produtos.
+ * O arquivo mapeado é limitado a 2 GB.
+ *
+ * @since 2025
+ */
+final class SnapshotCatalogo {
+
+    private static final int MAGICO = 0x43415442;
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 10 * Integer.BYTES;
+    private static final int TAMANHO_CATEGORIA = 8 * Integer.BYTES + 3 * Double.BYTES;
+    private static final int TAMANHO_PRODUTO = 4 * Integer.BYTES + Double.BYTES;
+    private static final int SEM_TEXTO = -1;
+    private static final int TAMANHO_BLOCO_ESCRITA = 1 << 20;
+
+    /**
+     * Quantidades gravadas no cabeçalho e posição de cada seção no arquivo.
+     */
+    private static final class Secoes {
+        final int textos;
+        final int bytesTexto;
+        final int categorias;
+        final int produtos;
+        final int associacoes;
+        final int paresMarca;
+        final int codigos;
+        final int cadastrados;
+
+        final long deslocamentosTexto;
+        final long bytes;
+        final long registrosCategoria;
+        final long registrosProduto;
+        final long inicioProdutosDaCategoria;
+        final long produtosDaCategoria;
+        final long inicioCategoriasDoProduto;
+        final long categoriasDoProduto;
+        final long marcas;
+        final long codigosOrdenados;
+        final long tamanhoTotal;
+
+        Secoes(int textos, int bytesTexto, int categorias, int produtos, int associacoes, int paresMarca,
+                int codigos, int cadastrados) {
+            this.textos = textos;
+            this.bytesTexto = bytesTexto;
+            this.categorias = categorias;
+            this.produtos = produtos;
+            this.associacoes = associacoes;
+            this.paresMarca = paresMarca;
+            this.codigos = codigos;
+            this.cadastrados = cadastrados;
+            deslocamentosTexto = TAMANHO_CABECALHO;
+            bytes = deslocamentosTexto + (textos + 1L) * Integer.BYTES;
+            registrosCategoria = bytes + bytesTexto;
+            registrosProduto = registrosCategoria + (long) categorias * TAMANHO_CATEGORIA;
+            inicioProdutosDaCategoria = registrosProduto + (long) produtos * TAMANHO_PRODUTO;
+            produtosDaCategoria = inicioProdutosDaCategoria + (categorias + 1L) * Integer.BYTES;
+            inicioCategoriasDoProduto = produtosDaCategoria + (long) associacoes * Integer.BYTES;
+            categoriasDoProduto = inicioCategoriasDoProduto + (produtos + 1L) * Integer.BYTES;
+            marcas = categoriasDoProduto + (long) associacoes * Integer.BYTES;
+            codigosOrdenados = marcas + 2L * paresMarca * Integer.BYTES;
+            tamanhoTotal = codigosOrdenados + (long) codigos * Integer.BYTES;
+        }
+    }
+
+    private final ByteBuffer dados;
+    private final Secoes secoes;
+
+    /**
+     * Cópia de {@link #dados} usada para ler textos em bloco.
+     */
+    private final ByteBuffer leitor;
+
+    /**
+     * Produtos já criados, pelo identificador (posição no snapshot).
+     */
+    private final Produto[] produtos;
+
+    /**
+     * Categorias criadas por {@link #montarArvore(ObservadorCatalogo)}, na
+     * ordem do arquivo.
+     */
+    private Categoria[] categorias;
+
+    /**
+     * Textos repetidos entre registros (marcas e textos de categorias),
+     * decodificados uma única vez.
+     */
+    private final Map<Integer, String> textosCompartilhados = new HashMap<>();
+
+    private ObservadorCatalogo observador;
+
+    private SnapshotCatalogo(ByteBuffer dados, Secoes secoes) {
+        this.dados = dados;
+        this.secoes = secoes;
+        this.leitor = dados.duplicate();
+        this.produtos = new Produto[secoes.produtos];
+    }
+
+    // GRAVAÇÃO
+
+    /**
+     * Grava o catálogo no arquivo informado. O conteúdo é escrito primeiro em
+     * um arquivo temporário na mesma pasta e depois movido para o destino,
+     * de modo que um snapshot antigo (inclusive um que esteja mapeado) nunca
+     * fica pela metade.
+     *
+     * @param raiz     Raiz da árvore, ou {@code null} para catálogo vazio
+     * @param cadastro Produtos cadastrados, na ordem de cadastro
+     * @param destino  Arquivo de destino
+     * @throws IOException se a escrita falhar ou o snapshot passar de 2 GB
+     */
+    static void salvar(Categoria raiz, List<Produto> cadastro, Path destino) throws IOException {
+        List<Categoria> ordem = new ArrayList<>();
+        if (raiz != null) {
+            for (Categoria categoria : PercursoArvore.preOrdem(raiz)) {
+                ordem.add(categoria);
+            }
+        }
+        Map<Categoria, Integer> posicaoCategoria = new IdentityHashMap<>();
+        for (int i = 0; i < ordem.size(); i++) {
+            posicaoCategoria.put(ordem.get(i), i);
+        }
+
+        // produtos: os cadastrados e os associados direto às categorias
+        List<Produto> lista = new ArrayList<>(cadastro);
+        Map<Produto, Integer> posicaoProduto = new IdentityHashMap<>();
+        for (int i = 0; i < lista.size(); i++) {
+            posicaoProduto.put(lista.get(i), i);
+        }
+        int[] inicioPorCategoria = new int[ordem.size() + 1];
+        List<int[]> produtosPorCategoria = new ArrayList<>(ordem.size());
+        for (int c = 0; c < ordem.size(); c++) {
+            List<Produto> daCategoria = ordem.get(c).getProdutos();
+            int[] posicoes = new int[daCategoria.size()];
+            int k = 0;
+            for (Produto produto : daCategoria) {
+                Integer posicao = posicaoProduto.get(produto);
+                if (posicao == null) {
+                    posicao = lista.size();
+                    lista.add(produto);
+                    posicaoProduto.put(produto, posicao);
+                }
+                posicoes[k++] = posicao;
+            }
+            produtosPorCategoria.add(posicoes);
+            inicioPorCategoria[c + 1] = inicioPorCategoria[c] + posicoes.length;
+        }
+        int associacoes = inicioPorCategoria[ordem.size()];
+
+        // índice inverso, na ordem em que cada produto foi associado
+        int[] inicioPorProduto = new int[lista.size() + 1];
+        int[] categoriasDoProduto = new int[associacoes];
+        int preenchidas = 0;
+        for (int p = 0; p < lista.size(); p++) {
+            for (Categoria categoria : lista.get(p).getCategorias()) {
+                Integer posicao = posicaoCategoria.get(categoria);
+                if (posicao != null && preenchidas < associacoes) {
+                    categoriasDoProduto[preenchidas++] = posicao;
+                }
+            }
+            inicioPorProduto[p + 1] = preenchidas;
+        }
+        if (preenchidas != associacoes) {
+            throw new IllegalStateException("Índice reverso de produtos inconsistente com as categorias");
+        }
+
+        // tabela de textos
+        TabelaTextos textos = new TabelaTextos();
+        int[][] textosCategoria = new int[ordem.size()][];
+        int[] primeiroPar = new int[ordem.size()];
+        List<int[]> pares = new ArrayList<>();
+        for (int c = 0; c < ordem.size(); c++) {
+            Categoria categoria = ordem.get(c);
+            textosCategoria[c] = new int[] {textos.codigo(categoria.getNome()), textos.codigo(categoria.getCodigo()),
+                textos.codigo(categoria.getDescricao())};
+            primeiroPar[c] = pares.size();
+            for (Map.Entry<String, Integer> marca : categoria.agregado.getMarcas().entrySet()) {
+                pares.add(new int[] {textos.codigo(marca.getKey()), marca.getValue()});
+            }
+        }
+        int[][] textosProduto = new int[lista.size()][];
+        for (int p = 0; p < lista.size(); p++) {
+            Produto produto = lista.get(p);
+            textosProduto[p] = new int[] {textos.codigo(produto.getNome()), textos.codigo(produto.getCodigo()),
+                textos.codigo(produto.getMarca())};
+        }
+
+        // produtos ordenados pelos bytes do código, para a busca binária
+        List<Integer> comCodigo = new ArrayList<>(lista.size());
+        for (int p = 0; p < cadastro.size(); p++) {
+            if (textosProduto[p][1] != SEM_TEXTO) {
+                comCodigo.add(p);
+            }
+        }
+        comCodigo.sort((a, b) -> Arrays.compareUnsigned(textos.bytes(textosProduto[a][1]),
+                textos.bytes(textosProduto[b][1])));
+
+        Secoes secoes = new Secoes(textos.quantidade(), textos.tamanhoBytes(), ordem.size(), lista.size(),
+                associacoes, pares.size(), comCodigo.size(), cadastro.size());
+        if (secoes.tamanhoTotal > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot com " + secoes.tamanhoTotal + " bytes passa do limite de 2 GB");
+        }
+
+        Path pasta = destino.toAbsolutePath().getParent();
+        Path temporario = Files.createTempFile(pasta, destino.getFileName().toString(), ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.inteiro(MAGICO);
+            escritor.inteiro(VERSAO);
+            escritor.inteiro(secoes.textos);
+            escritor.inteiro(secoes.bytesTexto);
+            escritor.inteiro(secoes.categorias);
+            escritor.inteiro(secoes.produtos);
+            escritor.inteiro(secoes.associacoes);
+            escritor.inteiro(secoes.paresMarca);
+            escritor.inteiro(secoes.codigos);
+            escritor.inteiro(secoes.cadastrados);
+
+            int deslocamento = 0;
+            escritor.inteiro(deslocamento);
+            for (int t = 0; t < textos.quantidade(); t++) {
+                deslocamento += textos.bytes(t).length;
+                escritor.inteiro(deslocamento);
+            }
+            for (int t = 0; t < textos.quantidade(); t++) {
+                escritor.bytes(textos.bytes(t));
+            }
+
+            for (int c = 0; c < ordem.size(); c++) {
+                Categoria categoria = ordem.get(c);
+                AgregadoProdutos agregado = categoria.agregado;
+                Integer pai = (categoria.getPai() == null) ? null : posicaoCategoria.get(categoria.getPai());
+                escritor.inteiro(textosCategoria[c][0]);
+                escritor.inteiro(textosCategoria[c][1]);
+                escritor.inteiro(textosCategoria[c][2]);
+                escritor.inteiro((c == 0 || pai == null) ? -1 : pai);
+                escritor.inteiro(agregado.getQuantidade());
+                escritor.inteiro(primeiroPar[c]);
+                escritor.inteiro(agregado.getMarcas().size());
+                escritor.inteiro(0);
+                escritor.decimal(agregado.getSoma());
+                escritor.decimal(agregado.getMenor());
+                escritor.decimal(agregado.getMaior());
+            }
+            for (int p = 0; p < lista.size(); p++) {
+                escritor.inteiro(textosProduto[p][0]);
+                escritor.inteiro(textosProduto[p][1]);
+                escritor.inteiro(textosProduto[p][2]);
+                escritor.inteiro(0);
+                escritor.decimal(lista.get(p).getPreco());
+            }
+            for (int inicio : inicioPorCategoria) {
+                escritor.inteiro(inicio);
+            }
+            for (int[] posicoes : produtosPorCategoria) {
+                for (int posicao : posicoes) {
+                    escritor.inteiro(posicao);
+                }
+            }
+            for (int inicio : inicioPorProduto) {
+                escritor.inteiro(inicio);
+            }
+            for (int categoria : categoriasDoProduto) {
+                escritor.inteiro(categoria);
+            }
+            for (int[] par : pares) {
+                escritor.inteiro(par[0]);
+                escritor.inteiro(par[1]);
+            }
+            for (int produto : comCodigo) {
+                escritor.inteiro(produto);
+            }
+            escritor.esvaziar();
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        try {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // LEITURA
+
+    /**
+     * Abre um snapshot, mapeando o arquivo em memória e conferindo o
+     * cabeçalho e o tamanho das seções.
+     *
+     * @param origem Arquivo gravado por {@link #salvar(Categoria, List, Path)}
+     * @return Snapshot pronto para {@link #montarArvore(ObservadorCatalogo)}
+     * @throws IOException se o arquivo não puder ser lido ou não for um
+     *                     snapshot válido
+     */
+    static SnapshotCatalogo abrir(Path origem) throws IOException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo de snapshot inválido: " + origem);
+            }
+            ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho).order(ByteOrder.LITTLE_ENDIAN);
+            if (dados.getInt(0) != MAGICO) {
+                throw new IOException("Arquivo não é um snapshot do catálogo: " + origem);
+            }
+            if (dados.getInt(4) != VERSAO) {
+                throw new IOException("Versão de snapshot não suportada (" + dados.getInt(4) + "): " + origem);
+            }
+            Secoes secoes = new Secoes(dados.getInt(8), dados.getInt(12), dados.getInt(16), dados.getInt(20),
+                    dados.getInt(24), dados.getInt(28), dados.getInt(32), dados.getInt(36));
+            if (secoes.tamanhoTotal != tamanho) {
+                throw new IOException("Snapshot truncado ou corrompido: " + origem);
+            }
+            return new SnapshotCatalogo(dados, secoes);
+        }
+    }
+
+    /**
+     * Cria as categorias do snapshot e monta a árvore. Os resumos de cada
+     * subárvore vêm prontos do arquivo; os produtos ficam para ser lidos
+     * quando cada categoria precisar deles.
+     *
+     * @param observador Observador atribuído aos produtos criados depois
+     * @return Raiz da árvore, ou {@code null} se o snapshot não tiver
+     *         categorias
+     */
+    Categoria montarArvore(ObservadorCatalogo observador) {
+        this.observador = observador;
+        categorias = new Categoria[secoes.categorias];
+        int[] pais = new int[secoes.categorias];
+        for (int c = 0; c < secoes.categorias; c++) {
+            int registro = posicao(secoes.registrosCategoria + (long) c * TAMANHO_CATEGORIA);
+            Categoria categoria = new Categoria(textoCompartilhado(dados.getInt(registro)),
+                    textoCompartilhado(dados.getInt(registro + 4)), textoCompartilhado(dados.getInt(registro + 8)));
+            pais[c] = dados.getInt(registro + 12);
+            Map<String, Integer> marcas = new HashMap<>();
+            int primeiroPar = dados.getInt(registro + 20);
+            int quantidadePares = dados.getInt(registro + 24);
+            for (int m = primeiroPar; m < primeiroPar + quantidadePares; m++) {
+                int par = posicao(secoes.marcas + 8L * m);
+                marcas.put(textoCompartilhado(dados.getInt(par)), dados.getInt(par + 4));
+            }
+            categoria.agregado.carregar(dados.getInt(registro + 16), dados.getDouble(registro + 32),
+                    dados.getDouble(registro + 40), dados.getDouble(registro + 48), marcas);
+            if (inteiro(secoes.inicioProdutosDaCategoria, c + 1) > inteiro(secoes.inicioProdutosDaCategoria, c)) {
+                categoria.origem = this;
+                categoria.posicaoOrigem = c;
+            }
+            if (pais[c] >= 0) {
+                categorias[pais[c]].anexarCarregada(categoria);
+            }
+            categorias[c] = categoria;
+        }
+        // em pré-ordem as filhas vêm depois do pai: somar de trás para frente
+        for (int c = secoes.categorias - 1; c > 0; c--) {
+            if (pais[c] >= 0) {
+                categorias[pais[c]].tamanho += categorias[c].tamanho;
+            }
+        }
+        if (secoes.categorias == 0) {
+            return null;
+        }
+        RotulosIntervalo.tornarRaiz(categorias[0]);
+        return categorias[0];
+    }
+
+    /**
+     * Quantidade de produtos gravados no snapshot.
+     */
+    int quantidadeProdutos() {
+        return secoes.produtos;
+    }
+
+    /**
+     * Quantidade de produtos cadastrados no catálogo gravado; são os
+     * primeiros identificadores do snapshot.
+     */
+    int quantidadeCadastrados() {
+        return secoes.cadastrados;
+    }
+
+    /**
+     * Retorna o produto com o identificador informado, criando-o na
+     * primeira vez. O produto já vem com o índice reverso de categorias.
+     *
+     * @param id Posição do produto no snapshot
+     * @return Produto
+     */
+    Produto produto(int id) {
+        Produto produto = produtos[id];
+        if (produto == null) {
+            int registro = posicao(secoes.registrosProduto + (long) id * TAMANHO_PRODUTO);
+            produto = new Produto(texto(dados.getInt(registro)), texto(dados.getInt(registro + 4)),
+                    dados.getDouble(registro + 16), textoCompartilhado(dados.getInt(registro + 8)));
+            produto.id = id;
+            produto.observador = observador;
+            int fim = inteiro(secoes.inicioCategoriasDoProduto, id + 1);
+            for (int k = inteiro(secoes.inicioCategoriasDoProduto, id); k < fim; k++) {
+                produto.adicionarCategoria(categorias[inteiro(secoes.categoriasDoProduto, k)]);
+            }
+            produtos[id] = produto;
+        }
+        return produto;
+    }
+
+    /**
+     * Retorna o produto com o identificador informado, se já foi criado.
+     *
+     * @param id Posição do produto no snapshot
+     * @return Produto, ou {@code null} se ainda não foi usado
+     */
+    Produto materializado(int id) {
+        return produtos[id];
+    }
+
+    /**
+     * Acrescenta à lista os produtos associados a uma categoria.
+     *
+     * @param categoria Posição da categoria no snapshot
+     * @param destino   Lista de produtos da categoria
+     */
+    void lerProdutos(int categoria, ListaFilhos<Produto> destino) {
+        int fim = inteiro(secoes.inicioProdutosDaCategoria, categoria + 1);
+        for (int k = inteiro(secoes.inicioProdutosDaCategoria, categoria); k < fim; k++) {
+            destino.acrescentar(produto(inteiro(secoes.produtosDaCategoria, k)));
+        }
+    }
+
+    /**
+     * Busca binária pelo código de produto, comparando os bytes UTF-8
+     * direto no arquivo mapeado.
+     *
+     * @param codigo Código procurado
+     * @return Identificador do produto, ou -1 se não houver
+     */
+    int buscarCodigo(String codigo) {
+        byte[] procurado = codigo.getBytes(StandardCharsets.UTF_8);
+        int baixo = 0;
+        int alto = secoes.codigos - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int id = inteiro(secoes.codigosOrdenados, meio);
+            int registro = posicao(secoes.registrosProduto + (long) id * TAMANHO_PRODUTO);
+            int comparacao = compararTexto(dados.getInt(registro + 4), procurado);
+            if (comparacao < 0) {
+                baixo = meio + 1;
+            } else if (comparacao > 0) {
+                alto = meio - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // AUXILIARES
+
+    private int inteiro(long secao, int indice) {
+        return dados.getInt(posicao(secao + 4L * indice));
+    }
+
+    private static int posicao(long deslocamento) {
+        return (int) deslocamento;
+    }
+
+    private int inicioTexto(int codigo) {
+        return posicao(secoes.bytes) + inteiro(secoes.deslocamentosTexto, codigo);
+    }
+
+    private int fimTexto(int codigo) {
+        return posicao(secoes.bytes) + inteiro(secoes.deslocamentosTexto, codigo + 1);
+    }
+
+    private String texto(int codigo) {
+        if (codigo == SEM_TEXTO) {
+            return null;
+        }
+        byte[] bytes = new byte[fimTexto(codigo) - inicioTexto(codigo)];
+        leitor.position(inicioTexto(codigo));
+        leitor.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String textoCompartilhado(int codigo) {
+        if (codigo == SEM_TEXTO) {
+            return null;
+        }
+        return textosCompartilhados.computeIfAbsent(codigo, this::texto);
+    }
+
+    /**
+     * Compara os bytes de um texto do arquivo com os bytes informados, como
+     * sequências de bytes sem sinal.
+     */
+    private int compararTexto(int codigo, byte[] outro) {
+        int inicio = inicioTexto(codigo);
+        int tamanho = fimTexto(codigo) - inicio;
+        int comum = Math.min(tamanho, outro.length);
+        for (int i = 0; i < comum; i++) {
+            int diferenca = Byte.toUnsignedInt(dados.get(inicio + i)) - Byte.toUnsignedInt(outro[i]);
+            if (diferenca != 0) {
+                return diferenca;
+            }
+        }
+        return tamanho - outro.length;
+    }
+
+    /**
+     * Tabela de textos sem repetição usada na gravação.
+     */
+    private static final class TabelaTextos {
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<byte[]> textos = new ArrayList<>();
+        private int tamanhoBytes;
+
+        int codigo(String texto) {
+            if (texto == null) {
+                return SEM_TEXTO;
+            }
+            Integer codigo = codigos.get(texto);
+            if (codigo == null) {
+                byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+                codigo = textos.size();
+                codigos.put(texto, codigo);
+                textos.add(bytes);
+                tamanhoBytes += bytes.length;
+            }
+            return codigo;
+        }
+
+        byte[] bytes(int codigo) {
+            return textos.get(codigo);
+        }
+
+        int quantidade() {
+            return textos.size();
+        }
+
+        int tamanhoBytes() {
+            return tamanhoBytes;
+        }
+    }
+
+    /**
+     * Escrita em blocos de um arquivo, em little-endian.
+     */
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer bloco = ByteBuffer.allocateDirect(TAMANHO_BLOCO_ESCRITA)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void inteiro(int valor) throws IOException {
+            reservar(Integer.BYTES);
+            bloco.putInt(valor);
+        }
+
+        void decimal(double valor) throws IOException {
+            reservar(Double.BYTES);
+            bloco.putDouble(valor);
+        }
+
+        void bytes(byte[] valor) throws IOException {
+            int escritos = 0;
+            while (escritos < valor.length) {
+                reservar(1);
+                int parte = Math.min(bloco.remaining(), valor.length - escritos);
+                bloco.put(valor, escritos, parte);
+                escritos += parte;
+            }
+        }
+
+        void esvaziar() throws IOException {
+            bloco.flip();
+            while (bloco.hasRemaining()) {
+                canal.write(bloco);
+            }
+            bloco.clear();
+        }
+
+        private void reservar(int bytes) throws IOException {
+            if (bloco.remaining() < bytes) {
+                esvaziar();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Resultado de uma consulta de autocompletar: uma categoria ou um produto
+ * cujo nome começa (ou tem uma palavra que começa) pelo texto digitado.
+ *
+ * @since 2025
+ */
+public final class Sugestao {
+
+    private final String nome;
+    private final Categoria categoria;
+    private final Produto produto;
+    private final int erros;
+
+    Sugestao(String nome, Categoria categoria, Produto produto, int erros) {
+        this.nome = nome;
+        this.categoria = categoria;
+        this.produto = produto;
+        this.erros = erros;
+    }
+
+    /**
+     * Retorna o nome sugerido, como foi cadastrado (com acentos).
+     *
+     * @return Nome da categoria ou do produto
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Indica se a sugestão é uma categoria.
+     *
+     * @return {@code true} para categoria, {@code false} para produto
+     */
+    public boolean isCategoria() {
+        return categoria != null;
+    }
+
+    /**
+     * Retorna a categoria sugerida.
+     *
+     * @return Categoria, ou {@code null} se a sugestão for um produto
+     */
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    /**
+     * Retorna o produto sugerido.
+     *
+     * @return Produto, ou {@code null} se a sugestão for uma categoria
+     */
+    public Produto getProduto() {
+        return produto;
+    }
+
+    /**
+     * Retorna quantas edições (letras trocadas, faltando ou sobrando) foram
+     * necessárias para o texto digitado casar com o nome.
+     *
+     * @return 0 para casamento exato de prefixo
+     */
+    public int getErros() {
+        return erros;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
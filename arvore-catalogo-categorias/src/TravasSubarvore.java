@@ -0,0 +1,305 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Travas hierárquicas sobre as categorias, para que alterações em
+ * subárvores disjuntas do catálogo rodem em paralelo (ver
+ * {@link CatalogoControll#ativarEscritaConcorrente()}).
+ *
+ * Cada categoria tem uma {@link Trava} com dois modos: exclusivo, que dá a
+ * quem o obtém a subárvore inteira, e de intenção, que só anuncia que algo
+ * abaixo dela está travado de forma exclusiva. Intenções são compatíveis
+ * entre si; o modo exclusivo não é compatível com nada. Para alterar uma
+ * subárvore, a thread trava a categoria topo de forma exclusiva e todas as
+ * ancestrais com intenção, de modo que duas alterações só se esperam quando
+ * uma das subárvores contém a outra. Acima da raiz há a trava do catálogo
+ * inteiro, com os mesmos modos: as alterações por subárvore a obtêm com
+ * intenção, e as operações que mexem no catálogo todo (remoção, importação,
+ * snapshot, publicação de versões), de forma exclusiva.
+ *
+ * As travas de uma operação são obtidas todas antes de ela começar e sempre
+ * na mesma ordem (a do catálogo primeiro, depois as das categorias pela
+ * ordem de criação), o que evita impasses mesmo quando a operação trava duas
+ * subárvores distantes, como ao mover uma categoria de um ramo para outro.
+ * Como o caminho até a raiz pode mudar enquanto a thread espera, ele é
+ * conferido depois de obtidas as travas; se mudou, elas são soltas e a
+ * thread tenta de novo. Um pedido exclusivo em espera passa na frente de
+ * novas intenções, para não ser adiado indefinidamente.
+ *
+ * @since 2025
+ */
+final class TravasSubarvore {
+
+    /**
+     * Trava de uma categoria (ou do catálogo inteiro).
+     */
+    static final class Trava {
+
+        private static final AtomicLong CRIADAS = new AtomicLong();
+
+        /**
+         * Posição da trava na ordem global em que as travas são obtidas.
+         */
+        final long ordem = CRIADAS.getAndIncrement();
+
+        private int intencoes;
+        private boolean exclusiva;
+        private int exclusivasEsperando;
+
+        /**
+         * Espera a trava ficar livre para o modo pedido e a obtém. Uma
+         * interrupção não cancela a espera; ela é repassada à thread depois.
+         */
+        synchronized void obter(boolean exclusivo) {
+            boolean interrompida = false;
+            if (exclusivo) {
+                exclusivasEsperando++;
+                while (exclusiva || intencoes > 0) {
+                    interrompida |= esperar();
+                }
+                exclusivasEsperando--;
+                exclusiva = true;
+            } else {
+                while (exclusiva || exclusivasEsperando > 0) {
+                    interrompida |= esperar();
+                }
+                intencoes++;
+            }
+            if (interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized void soltar(boolean exclusivo) {
+            if (exclusivo) {
+                exclusiva = false;
+            } else {
+                intencoes--;
+            }
+            if (exclusivo || intencoes == 0) {
+                notifyAll();
+            }
+        }
+
+        private boolean esperar() {
+            try {
+                wait();
+                return false;
+            } catch (InterruptedException e) {
+                return true;
+            }
+        }
+    }
+
+    private static final Comparator<Categoria> ORDEM = Comparator.comparingLong(categoria -> categoria.trava.ordem);
+
+    private final Trava catalogo = new Trava();
+
+    /**
+     * Thread que tem o catálogo inteiro e quantas vezes ela o travou de novo
+     * sem soltar (operações inteiras chamam outras, como a recuperação do
+     * diário).
+     */
+    private volatile Thread donoCatalogo;
+    private int reentradas;
+
+    /**
+     * Travas obtidas por uma operação, soltas de uma vez ao fechar.
+     */
+    final class Travamento implements AutoCloseable {
+
+        private final Categoria[] categorias;
+        private final boolean[] exclusivas;
+
+        /**
+         * Modo em que o catálogo foi travado ({@code true} se exclusivo), ou
+         * {@code null} se esta operação não o travou.
+         */
+        private final Boolean catalogoExclusivo;
+        private boolean solto;
+
+        private Travamento(Categoria[] categorias, boolean[] exclusivas, Boolean catalogoExclusivo) {
+            this.categorias = categorias;
+            this.exclusivas = exclusivas;
+            this.catalogoExclusivo = catalogoExclusivo;
+        }
+
+        @Override
+        public void close() {
+            if (solto) {
+                return;
+            }
+            solto = true;
+            for (int i = categorias.length - 1; i >= 0; i--) {
+                categorias[i].trava.soltar(exclusivas[i]);
+            }
+            if (Boolean.TRUE.equals(catalogoExclusivo)) {
+                soltarCatalogo();
+            } else if (catalogoExclusivo != null) {
+                catalogo.soltar(false);
+            }
+        }
+    }
+
+    /**
+     * Trava o catálogo inteiro de forma exclusiva. A thread que já o tem
+     * pode travá-lo de novo.
+     *
+     * @return Travamento a ser fechado pela mesma thread
+     */
+    Travamento travarCatalogo() {
+        if (donoCatalogo == Thread.currentThread()) {
+            reentradas++;
+        } else {
+            catalogo.obter(true);
+            donoCatalogo = Thread.currentThread();
+        }
+        return new Travamento(new Categoria[0], new boolean[0], Boolean.TRUE);
+    }
+
+    /**
+     * Trava de forma exclusiva as subárvores das categorias informadas e,
+     * com intenção, as ancestrais delas e o catálogo. Categorias repetidas
+     * ou dentro da subárvore de outra da lista são cobertas pela trava da
+     * que as contém; valores nulos são ignorados. Sem categorias, trava só o
+     * catálogo com intenção (para alterações que não mexem na árvore).
+     *
+     * Quando o travamento é devolvido por subárvore, o caminho de cada
+     * categoria até {@code raiz} é o mesmo de quando as travas foram pedidas
+     * e não muda até elas serem soltas. Se alguma categoria estiver fora da
+     * árvore de {@code raiz}, o catálogo inteiro é travado: ou ela foi
+     * removida, e quem chama a descarta, ou foi lida no meio de uma
+     * mudança, quando a ancestral que está sendo movida aparece sem pai e o
+     * caminho lido não passa pelas travas de quem a move.
+     *
+     * @param raiz  Raiz da árvore do catálogo
+     * @param alvos Categorias cujas subárvores serão alteradas
+     * @return Travamento a ser fechado pela mesma thread
+     */
+    Travamento travar(Categoria raiz, Categoria... alvos) {
+        if (donoCatalogo == Thread.currentThread()) {
+            // o catálogo inteiro já é desta thread; nada a travar por subárvore
+            return new Travamento(new Categoria[0], new boolean[0], null);
+        }
+        for (;;) {
+            List<Categoria[]> caminhos = new ArrayList<>(alvos.length);
+            for (Categoria alvo : alvos) {
+                if (alvo != null) {
+                    caminhos.add(caminho(alvo));
+                }
+            }
+            if (caminhos.contains(null)) {
+                Thread.yield();
+                continue;
+            }
+            for (Categoria[] caminho : caminhos) {
+                if (caminho[0] != raiz) {
+                    return travarCatalogo();
+                }
+            }
+            Map<Categoria, Boolean> modos = modos(caminhos);
+            Categoria[] categorias = modos.keySet().toArray(new Categoria[0]);
+            Arrays.sort(categorias, ORDEM);
+            boolean[] exclusivas = new boolean[categorias.length];
+            catalogo.obter(false);
+            for (int i = 0; i < categorias.length; i++) {
+                exclusivas[i] = modos.get(categorias[i]);
+                categorias[i].trava.obter(exclusivas[i]);
+            }
+            Travamento travamento = new Travamento(categorias, exclusivas, Boolean.FALSE);
+            if (inalterados(caminhos)) {
+                return travamento;
+            }
+            travamento.close();
+        }
+    }
+
+    private void soltarCatalogo() {
+        if (reentradas > 0) {
+            reentradas--;
+            return;
+        }
+        donoCatalogo = null;
+        catalogo.soltar(true);
+    }
+
+    /**
+     * Lê o caminho da raiz até a categoria. A leitura é feita sem travas e
+     * pode misturar estados de uma categoria que está sendo movida; se isso
+     * formar um ciclo, devolve {@code null} para a thread tentar de novo.
+     *
+     * @return Caminho com a raiz na posição 0 e a categoria na última
+     */
+    private static Categoria[] caminho(Categoria alvo) {
+        List<Categoria> caminho = new ArrayList<>();
+        for (Categoria atual = alvo; atual != null; atual = atual.getPai()) {
+            caminho.add(atual);
+            int tamanho = caminho.size();
+            // a posição do meio anda a meia velocidade: só a alcança se houver ciclo
+            if (tamanho > 2 && caminho.get(tamanho / 2) == atual) {
+                return null;
+            }
+        }
+        Collections.reverse(caminho);
+        return caminho.toArray(new Categoria[0]);
+    }
+
+    /**
+     * Decide o modo de cada categoria: exclusivo para os alvos que não estão
+     * dentro da subárvore de outro alvo e intenção para as ancestrais deles.
+     */
+    private static Map<Categoria, Boolean> modos(List<Categoria[]> caminhos) {
+        Map<Categoria, Boolean> alvos = new IdentityHashMap<>();
+        for (Categoria[] caminho : caminhos) {
+            alvos.put(caminho[caminho.length - 1], Boolean.TRUE);
+        }
+        Map<Categoria, Boolean> modos = new IdentityHashMap<>();
+        for (Categoria[] caminho : caminhos) {
+            if (coberto(caminho, alvos)) {
+                continue;
+            }
+            for (int i = 0; i < caminho.length - 1; i++) {
+                modos.putIfAbsent(caminho[i], Boolean.FALSE);
+            }
+            modos.put(caminho[caminho.length - 1], Boolean.TRUE);
+        }
+        return modos;
+    }
+
+    private static boolean coberto(Categoria[] caminho, Map<Categoria, Boolean> alvos) {
+        for (int i = 0; i < caminho.length - 1; i++) {
+            if (alvos.containsKey(caminho[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Confere, já com as travas, se os caminhos lidos antes ainda valem. As
+     * partes que ficam dentro de uma subárvore travada de forma exclusiva
+     * também são conferidas, já que não podem mais mudar. Como o topo de
+     * cada caminho é a raiz, que está travada, o pai nulo dele é confiável.
+     */
+    private static boolean inalterados(List<Categoria[]> caminhos) {
+        for (Categoria[] caminho : caminhos) {
+            Categoria atual = caminho[caminho.length - 1];
+            for (int i = caminho.length - 1; i >= 0; i--) {
+                if (atual != caminho[i]) {
+                    return false;
+                }
+                atual = atual.getPai();
+            }
+            if (atual != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Versão imutável do catálogo, publicada pelo {@link CatalogoControll} a
+ * cada alteração quando a leitura concorrente está ativa (ver
+ * {@link CatalogoControll#ativarLeituraConcorrente()}).
+ *
+ * Uma versão nunca muda depois de publicada: threads de leitura podem
+ * percorrê-la e consultá-la sem travas enquanto o catálogo continua sendo
+ * alterado, sempre vendo um estado consistente. Versões consecutivas
+ * compartilham as subárvores e as entradas de índice que não mudaram.
+ *
+ * @since 2025
+ */
+public final class VersaoCatalogo {
+
+    private final long numero;
+    private final VersaoCategoria raiz;
+    private final MapaPersistente<VersaoCategoria> categorias;
+    private final MapaPersistente<VersaoProduto> produtos;
+
+    VersaoCatalogo(long numero, VersaoCategoria raiz, MapaPersistente<VersaoCategoria> categorias,
+            MapaPersistente<VersaoProduto> produtos) {
+        this.numero = numero;
+        this.raiz = raiz;
+        this.categorias = categorias;
+        this.produtos = produtos;
+    }
+
+    /**
+     * Retorna o número da versão, crescente a cada publicação.
+     *
+     * @return Número da versão
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retorna a categoria raiz nesta versão.
+     *
+     * @return Raiz, ou {@code null} se o catálogo estava vazio
+     */
+    public VersaoCategoria getRaiz() {
+        return raiz;
+    }
+
+    /**
+     * Busca uma categoria pelo código, sem diferenciar maiúsculas de
+     * minúsculas. Categorias sem código não são encontradas.
+     *
+     * @param codigo Código da categoria
+     * @return Categoria nesta versão, ou {@code null} se não existir
+     */
+    public VersaoCategoria buscarCategoriaPorCodigo(String codigo) {
+        return (codigo == null) ? null : categorias.buscar(IndiceCategorias.normalizar(codigo));
+    }
+
+    /**
+     * Busca um produto cadastrado pelo código.
+     *
+     * @param codigo Código do produto
+     * @return Produto nesta versão, ou {@code null} se não estiver cadastrado
+     */
+    public VersaoProduto buscarProduto(String codigo) {
+        return (codigo == null) ? null : produtos.buscar(codigo);
+    }
+
+    /**
+     * Retorna a quantidade de produtos cadastrados nesta versão.
+     *
+     * @return Quantidade de produtos
+     */
+    public int getQuantidadeProdutos() {
+        return produtos.tamanho();
+    }
+
+    /**
+     * Verifica se esta versão usa exatamente os índices informados, para
+     * não publicar uma versão igual à anterior.
+     */
+    boolean mesmosIndices(MapaPersistente<VersaoCategoria> categorias, MapaPersistente<VersaoProduto> produtos) {
+        return this.categorias == categorias && this.produtos == produtos;
+    }
+
+    /**
+     * Monta o caminho da raiz até a categoria, seguindo o código do pai de
+     * cada uma. O caminho para na primeira ancestral sem código.
+     *
+     * @param categoria Categoria desta versão
+     * @return Lista somente leitura da raiz (ou da ancestral mais alta com
+     *         código) até a categoria
+     */
+    public List<VersaoCategoria> buscarCaminho(VersaoCategoria categoria) {
+        List<VersaoCategoria> caminho = new ArrayList<>();
+        for (VersaoCategoria atual = categoria; atual != null; ) {
+            caminho.add(atual);
+            if (atual.getCodigoPai() == null) {
+                // sem código no pai: só a raiz real pode completar o caminho
+                if (atual != raiz && raiz != null && raiz.getCodigo() == null && raiz.getFilhas().contains(atual)) {
+                    caminho.add(raiz);
+                }
+                break;
+            }
+            atual = buscarCategoriaPorCodigo(atual.getCodigoPai());
+        }
+        Collections.reverse(caminho);
+        return Collections.unmodifiableList(caminho);
+    }
+}
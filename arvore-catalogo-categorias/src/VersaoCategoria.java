@@ -0,0 +1,178 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cópia imutável de uma {@link Categoria} em uma versão publicada do
+ * catálogo (ver {@link VersaoCatalogo}), com as filhas e os produtos também
+ * imutáveis e o resumo da subárvore no momento da cópia.
+ *
+ * As versões compartilham as subárvores que não mudaram: quando uma
+ * categoria é alterada, só ela e suas ancestrais ganham cópias novas. Por
+ * isso a cópia não aponta para o pai; o caminho até a raiz é obtido pela
+ * versão do catálogo ({@link VersaoCatalogo#buscarCaminho(VersaoCategoria)}).
+ *
+ * @since 2025
+ */
+public final class VersaoCategoria {
+
+    private final String nome;
+    private final String codigo;
+    private final String descricao;
+    private final String codigoPai;
+    private final List<VersaoCategoria> filhas;
+    private final List<VersaoProduto> produtos;
+
+    private final int tamanho;
+    private final int quantidadeProdutos;
+    private final double somaPrecos;
+    private final double menorPreco;
+    private final double maiorPreco;
+    private final int quantidadeMarcas;
+
+    /**
+     * Categoria de origem e sua {@link Categoria#versao} no momento da cópia,
+     * usadas só por quem publica as versões para decidir se a cópia pode
+     * ser reaproveitada.
+     */
+    final Categoria categoria;
+    final long versao;
+
+    VersaoCategoria(Categoria categoria, VersaoCategoria[] filhas, VersaoProduto[] produtos) {
+        this.categoria = categoria;
+        this.versao = categoria.versao;
+        this.nome = categoria.getNome();
+        this.codigo = categoria.getCodigo();
+        this.descricao = categoria.getDescricao();
+        this.codigoPai = (categoria.getPai() != null) ? categoria.getPai().getCodigo() : null;
+        this.filhas = Collections.unmodifiableList(Arrays.asList(filhas));
+        this.produtos = Collections.unmodifiableList(Arrays.asList(produtos));
+        this.tamanho = categoria.getTamanhoSubarvore();
+        this.quantidadeProdutos = categoria.getQuantidadeProdutosSubarvore();
+        this.somaPrecos = categoria.getSomaPrecosSubarvore();
+        this.menorPreco = categoria.getMenorPrecoSubarvore();
+        this.maiorPreco = categoria.getMaiorPrecoSubarvore();
+        this.quantidadeMarcas = categoria.getQuantidadeMarcasSubarvore();
+    }
+
+    /**
+     * Verifica se esta cópia ainda reflete a categoria de origem: nada mudou
+     * na subárvore e o pai tem o mesmo código.
+     *
+     * @return {@code true} se a cópia pode ser reaproveitada
+     */
+    boolean atual() {
+        Categoria pai = categoria.getPai();
+        return versao == categoria.versao
+                && codigoPai == ((pai != null) ? pai.getCodigo() : null);
+    }
+
+    /**
+     * Retorna o nome da categoria.
+     *
+     * @return Nome da categoria
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Retorna o código da categoria.
+     *
+     * @return Código da categoria
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Retorna a descrição da categoria.
+     *
+     * @return Descrição da categoria
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Retorna o código da categoria pai.
+     *
+     * @return Código do pai, ou {@code null} na raiz
+     */
+    public String getCodigoPai() {
+        return codigoPai;
+    }
+
+    /**
+     * Retorna as subcategorias, na ordem da árvore.
+     *
+     * @return Lista somente leitura das filhas
+     */
+    public List<VersaoCategoria> getFilhas() {
+        return filhas;
+    }
+
+    /**
+     * Retorna os produtos associados diretamente à categoria.
+     *
+     * @return Lista somente leitura dos produtos
+     */
+    public List<VersaoProduto> getProdutos() {
+        return produtos;
+    }
+
+    /**
+     * Retorna a quantidade de categorias na subárvore, incluindo esta.
+     *
+     * @return Tamanho da subárvore
+     */
+    public int getTamanhoSubarvore() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna quantos produtos estão associados à subárvore (um produto em
+     * duas categorias conta duas vezes).
+     *
+     * @return Quantidade de produtos da subárvore
+     */
+    public int getQuantidadeProdutosSubarvore() {
+        return quantidadeProdutos;
+    }
+
+    /**
+     * Retorna a soma dos preços dos produtos da subárvore.
+     *
+     * @return Soma dos preços
+     */
+    public double getSomaPrecosSubarvore() {
+        return somaPrecos;
+    }
+
+    /**
+     * Retorna o menor preço entre os produtos da subárvore.
+     *
+     * @return Menor preço, ou {@link Double#NaN} se não houver produtos
+     */
+    public double getMenorPrecoSubarvore() {
+        return menorPreco;
+    }
+
+    /**
+     * Retorna o maior preço entre os produtos da subárvore.
+     *
+     * @return Maior preço, ou {@link Double#NaN} se não houver produtos
+     */
+    public double getMaiorPrecoSubarvore() {
+        return maiorPreco;
+    }
+
+    /**
+     * Retorna quantas marcas distintas aparecem nos produtos da subárvore.
+     *
+     * @return Quantidade de marcas distintas
+     */
+    public int getQuantidadeMarcasSubarvore() {
+        return quantidadeMarcas;
+    }
+}
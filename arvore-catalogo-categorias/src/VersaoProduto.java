@@ -0,0 +1,74 @@
+import java.util.Objects;
+
+/**
+ * Cópia imutável de um {@link Produto} em uma versão publicada do catálogo
+ * (ver {@link VersaoCatalogo}).
+ *
+ * @since 2025
+ */
+public final class VersaoProduto {
+
+    private final String nome;
+    private final String codigo;
+    private final double preco;
+    private final String marca;
+
+    VersaoProduto(Produto produto) {
+        this.nome = produto.getNome();
+        this.codigo = produto.getCodigo();
+        this.preco = produto.getPreco();
+        this.marca = produto.getMarca();
+    }
+
+    /**
+     * Verifica se esta cópia ainda reflete o produto, para que ela seja
+     * reaproveitada na próxima versão. Os textos são comparados pelo
+     * conteúdo: um produto cadastrado monta nome e código a partir do
+     * {@link ArmazemProdutos} a cada leitura.
+     *
+     * @param produto Produto de origem
+     * @return {@code true} se nenhum campo mudou desde a cópia
+     */
+    boolean corresponde(Produto produto) {
+        return Double.compare(produto.getPreco(), preco) == 0
+                && Objects.equals(produto.getMarca(), marca)
+                && produto.temCodigo(codigo)
+                && Objects.equals(produto.getNome(), nome);
+    }
+
+    /**
+     * Retorna o nome do produto.
+     *
+     * @return Nome do produto
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Retorna o código do produto.
+     *
+     * @return Código do produto
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Retorna o preço do produto.
+     *
+     * @return Preço do produto
+     */
+    public double getPreco() {
+        return preco;
+    }
+
+    /**
+     * Retorna a marca do produto.
+     *
+     * @return Marca do produto
+     */
+    public String getMarca() {
+        return marca;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Visitante usado por {@link PercursoArvore#percorrer(Categoria, VisitanteCategoria)}.
+ * Recebe cada categoria ao entrar nela (antes das subcategorias) e ao sair
+ * dela (depois de todas as subcategorias), e decide como o percurso continua.
+ *
+ * @since 2025
+ */
+public interface VisitanteCategoria {
+
+    /**
+     * Decisão devolvida pelo visitante a cada passo do percurso.
+     */
+    enum Decisao {
+        /** Segue normalmente para o próximo nó. */
+        CONTINUAR,
+        /** Não desce nas subcategorias do nó atual (só válido ao entrar). */
+        PULAR_FILHOS,
+        /** Interrompe o percurso imediatamente. */
+        ENCERRAR
+    }
+
+    /**
+     * Chamado quando o percurso chega a uma categoria, antes das subcategorias.
+     *
+     * @param categoria Categoria visitada
+     * @return Decisão sobre como continuar o percurso
+     */
+    Decisao entrar(Categoria categoria);
+
+    /**
+     * Chamado depois que todas as subcategorias de uma categoria foram
+     * visitadas (ou puladas). A implementação padrão apenas continua.
+     *
+     * @param categoria Categoria sendo deixada
+     * @return Decisão sobre como continuar o percurso
+     */
+    default Decisao sair(Categoria categoria) {
+        return Decisao.CONTINUAR;
+    }
+}
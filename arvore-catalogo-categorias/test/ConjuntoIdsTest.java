@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Conjuntos de identificadores ({@link ConjuntoIds}) nas duas representações.
+ *
+ * @since 2025
+ */
+class ConjuntoIdsTest {
+
+    @Test
+    void poucosIdentificadoresAltosFicamNoVetor() {
+        int[] ids = {999_999, 500_000, 17, 500_000};
+        ConjuntoIds conjunto = ConjuntoIds.de(ids, ids.length, 999_999);
+
+        assertFalse(conjunto.isDenso());
+        assertEquals(3, conjunto.tamanho());
+        assertEquals(List.of(17, 500_000, 999_999), elementos(conjunto));
+    }
+
+    @Test
+    void muitosIdentificadoresBaixosViramBits() {
+        int[] ids = new int[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i * 2;
+        }
+        assertTrue(ConjuntoIds.de(ids, ids.length, 1998).isDenso());
+
+        ConjuntoIds conjunto = new ConjuntoIds();
+        for (int id = 0; id < 1000; id++) {
+            conjunto.adicionar(id);
+        }
+        assertTrue(conjunto.isDenso());
+        for (int id = 0; id < 990; id++) {
+            conjunto.remover(id);
+        }
+        assertFalse(conjunto.isDenso());
+        assertEquals(10, conjunto.tamanho());
+    }
+
+    @Test
+    void mesmoConteudoQueUmTreeSet() {
+        Random aleatorio = new Random(3);
+        ConjuntoIds conjunto = new ConjuntoIds();
+        ConjuntoIds outro = new ConjuntoIds();
+        TreeSet<Integer> esperado = new TreeSet<>();
+        TreeSet<Integer> esperadoOutro = new TreeSet<>();
+        for (int passo = 0; passo < 20_000; passo++) {
+            // alterna entre trechos densos e esparsos
+            int limite = ((passo / 2000) % 2 == 0) ? 300 : 100_000;
+            int id = aleatorio.nextInt(limite);
+            if (aleatorio.nextInt(3) == 0) {
+                assertEquals(esperado.remove(id), conjunto.remover(id));
+            } else {
+                assertEquals(esperado.add(id), conjunto.adicionar(id));
+            }
+            if (aleatorio.nextBoolean()) {
+                assertEquals(esperadoOutro.add(id), outro.adicionar(id));
+            }
+            assertEquals(esperado.size(), conjunto.tamanho());
+            assertEquals(esperado.contains(id), conjunto.contem(id));
+        }
+        assertEquals(new ArrayList<>(esperado), elementos(conjunto));
+
+        TreeSet<Integer> comuns = new TreeSet<>(esperado);
+        comuns.retainAll(esperadoOutro);
+        List<Integer> emComum = new ArrayList<>();
+        conjunto.paraCadaEmComum(outro, emComum::add);
+        assertEquals(new ArrayList<>(comuns), emComum);
+    }
+
+    private static List<Integer> elementos(ConjuntoIds conjunto) {
+        List<Integer> elementos = new ArrayList<>();
+        conjunto.paraCada(elementos::add);
+        return elementos;
+    }
+}
@@ -0,0 +1,316 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Estresse da escrita concorrente do {@link CatalogoControll}
+ * ({@link CatalogoControll#ativarEscritaConcorrente()}): várias threads
+ * associam e desassociam produtos compartilhados entre ramos, criam
+ * subcategorias e movem categorias dentro do próprio ramo e entre ramos,
+ * com o diário e a leitura concorrente ativos, além de remoções e inserções
+ * que travam o catálogo inteiro.
+ *
+ * Ao final confere, categoria por categoria, os tamanhos, os resumos de
+ * produtos, os níveis e os rótulos de intervalo contra valores recalculados
+ * do zero, o índice reverso dos produtos, os índices por nome, a última
+ * versão publicada e o catálogo recuperado do diário, que deve ser igual ao
+ * da memória. Threads que não terminam no prazo (impasse) também falham o
+ * teste.
+ *
+ * @since 2025
+ */
+class EscritaConcorrenteTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES_POR_THREAD = 10_000;
+    private static final long SEMENTE = 42;
+    private static final int RAMOS = 6;
+    private static final int CATEGORIAS_POR_RAMO = 8;
+    private static final int FOLHAS_POR_CATEGORIA = 4;
+    private static final int PRODUTOS = 400;
+    private static final int MARCAS = 12;
+    private static final long LIMITE_ESPERA_SEGUNDOS = 120;
+
+    @TempDir
+    Path diretorio;
+
+    private final List<String> falhas = new ArrayList<>();
+    private final Logger log = Logger.getLogger(CatalogoControll.class.getName());
+    private PrintStream saidaOriginal;
+    private Level nivelOriginal;
+
+    @BeforeEach
+    void silenciarConsole() {
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        // as recusas (ciclos sorteados) saem no nível INFO, milhares de vezes
+        nivelOriginal = log.getLevel();
+        log.setLevel(Level.WARNING);
+    }
+
+    @AfterEach
+    void restaurarConsole() {
+        System.setOut(saidaOriginal);
+        log.setLevel(nivelOriginal);
+    }
+
+    @Test
+    void alteracoesConcorrentesMantemOsInvariantes() throws Exception {
+        CatalogoControll catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "LOJA", "");
+        for (int r = 0; r < RAMOS; r++) {
+            catalogo.inserirCategoria("R" + r, "R" + r, "");
+            for (int c = 0; c < CATEGORIAS_POR_RAMO; c++) {
+                catalogo.definirSubcategoria("R" + r, "R" + r + "_c" + c);
+                for (int f = 0; f < FOLHAS_POR_CATEGORIA; f++) {
+                    catalogo.definirSubcategoria("R" + r + "_c" + c, "R" + r + "_c" + c + "_f" + f);
+                }
+            }
+        }
+        Random aleatorio = new Random(SEMENTE);
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < PRODUTOS; i++) {
+            produtos.add(new Produto("Produto " + i, "P" + i, aleatorio.nextInt(1000),
+                    "Marca" + aleatorio.nextInt(MARCAS)));
+        }
+        catalogo.abrirDiario(diretorio);
+        catalogo.ativarLeituraConcorrente();
+        catalogo.ativarEscritaConcorrente();
+
+        List<Thread> escritoras = new ArrayList<>();
+        List<Throwable> erros = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < THREADS; t++) {
+            int numero = t;
+            Thread escritora = new Thread(() -> {
+                try {
+                    escrever(catalogo, produtos, numero, new Random(SEMENTE * 31 + numero));
+                } catch (Throwable e) {
+                    erros.add(e);
+                }
+            }, "escritora-" + t);
+            escritora.setDaemon(true);
+            escritoras.add(escritora);
+        }
+        escritoras.forEach(Thread::start);
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(LIMITE_ESPERA_SEGUNDOS);
+        for (Thread escritora : escritoras) {
+            escritora.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(prazo - System.nanoTime())));
+            if (escritora.isAlive()) {
+                StringBuilder pilhas = new StringBuilder("Threads não terminaram: possível impasse");
+                for (Thread t : escritoras) {
+                    pilhas.append('\n').append(t.getName()).append(' ').append(t.getState());
+                    for (StackTraceElement quadro : t.getStackTrace()) {
+                        pilhas.append("\n    at ").append(quadro);
+                    }
+                }
+                fail(pilhas.toString());
+            }
+        }
+        for (Throwable erro : erros) {
+            falhas.add("exceção em uma escritora: " + erro);
+        }
+
+        conferirArvore(catalogo);
+        conferirProdutos(catalogo);
+        conferirVersao(catalogo);
+
+        String esperado = exportar(catalogo);
+        catalogo.fecharDiario();
+        CatalogoControll recuperado = new CatalogoControll();
+        recuperado.abrirDiario(diretorio);
+        if (!esperado.equals(exportar(recuperado))) {
+            falhas.add("catálogo recuperado do diário difere do catálogo em memória");
+        }
+        recuperado.fecharDiario();
+
+        assertEquals(List.of(), falhas.subList(0, Math.min(20, falhas.size())), falhas.size() + " falha(s)");
+    }
+
+    /**
+     * Sequência de operações de uma thread. A maior parte fica no ramo da
+     * própria thread; uma parte associa produtos e move categorias em
+     * outros ramos, para cruzar as travas.
+     */
+    private static void escrever(CatalogoControll catalogo, List<Produto> produtos, int numero, Random aleatorio) {
+        int criadas = 0;
+        List<String> proprias = new ArrayList<>();
+        for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+            int ramo = (aleatorio.nextInt(10) < 8) ? numero % RAMOS : aleatorio.nextInt(RAMOS);
+            int sorteio = aleatorio.nextInt(100);
+            if (sorteio < 40) {
+                catalogo.associarProduto(folha(ramo, aleatorio), produtos.get(aleatorio.nextInt(produtos.size())));
+            } else if (sorteio < 65) {
+                catalogo.desassociarProduto(folha(ramo, aleatorio), produtos.get(aleatorio.nextInt(produtos.size())));
+            } else if (sorteio < 85) {
+                // move uma categoria intermediária ou uma folha para outro pai (às vezes em outro ramo)
+                String filho = aleatorio.nextBoolean() ? categoria(ramo, aleatorio) : folha(ramo, aleatorio);
+                int destino = (aleatorio.nextInt(10) < 7) ? ramo : aleatorio.nextInt(RAMOS);
+                String pai = aleatorio.nextBoolean() ? "R" + destino : categoria(destino, aleatorio);
+                catalogo.definirSubcategoria(pai, filho);
+            } else if (sorteio < 95) {
+                String nome = "T" + numero + "_n" + criadas++;
+                String pai = aleatorio.nextBoolean() ? folha(ramo, aleatorio) : categoria(ramo, aleatorio);
+                catalogo.definirSubcategoria(pai, nome);
+                proprias.add(nome);
+            } else if (sorteio < 98 && !proprias.isEmpty()) {
+                catalogo.removerCategoria(proprias.remove(aleatorio.nextInt(proprias.size())));
+            } else {
+                catalogo.inserirProduto("Avulso " + numero + "_" + i, "A" + numero + "_" + i, aleatorio.nextInt(1000),
+                        "Marca" + aleatorio.nextInt(MARCAS));
+            }
+        }
+    }
+
+    private static String categoria(int ramo, Random aleatorio) {
+        return "R" + ramo + "_c" + aleatorio.nextInt(CATEGORIAS_POR_RAMO);
+    }
+
+    private static String folha(int ramo, Random aleatorio) {
+        return categoria(ramo, aleatorio) + "_f" + aleatorio.nextInt(FOLHAS_POR_CATEGORIA);
+    }
+
+    // CONFERÊNCIAS
+
+    /**
+     * Recalcula, de baixo para cima, tamanho e resumo de produtos de cada
+     * categoria e compara com os mantidos incrementalmente; confere também
+     * nível, raiz, rótulos e o índice por nome.
+     */
+    private void conferirArvore(CatalogoControll catalogo) {
+        Categoria raiz = catalogo.getRaiz();
+        Map<Categoria, Resumo> resumos = new HashMap<>();
+        for (Categoria categoria : PercursoArvore.posOrdem(raiz)) {
+            Resumo resumo = new Resumo();
+            for (Produto produto : categoria.getProdutos()) {
+                resumo.adicionar(produto);
+            }
+            long saidaAnterior = categoria.entrada;
+            for (Categoria filho : categoria.getFilhos()) {
+                resumo.somar(resumos.get(filho));
+                if (filho.getPai() != categoria) {
+                    falhas.add("pai errado em " + filho.getNome());
+                }
+                if (filho.entrada <= saidaAnterior || filho.saida >= categoria.saida || filho.entrada >= filho.saida) {
+                    falhas.add("rótulos fora de ordem em " + filho.getNome());
+                }
+                saidaAnterior = filho.saida;
+                if (filho.getNivel() != categoria.getNivel() + 1) {
+                    falhas.add("nível errado em " + filho.getNome());
+                }
+            }
+            resumos.put(categoria, resumo);
+            if (categoria.getRaizArvore() != raiz) {
+                falhas.add("raiz errada em " + categoria.getNome());
+            }
+            if (categoria.getTamanhoSubarvore() != resumo.tamanho) {
+                falhas.add("tamanho de " + categoria.getNome() + ": " + categoria.getTamanhoSubarvore() + " != "
+                        + resumo.tamanho);
+            }
+            resumo.conferir(categoria);
+            if (catalogo.listarProdutosDaSubarvore(categoria.getNome()).size() != resumo.quantidade
+                    && categoria.getNome() != null) {
+                falhas.add("consulta por nome de " + categoria.getNome() + " não bate com a subárvore");
+            }
+        }
+    }
+
+    /**
+     * Confere o índice reverso (produto para categorias) contra as listas de
+     * produtos das categorias da árvore.
+     */
+    private void conferirProdutos(CatalogoControll catalogo) {
+        Map<Produto, Integer> associacoes = new HashMap<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.getRaiz())) {
+            for (Produto produto : categoria.getProdutos()) {
+                associacoes.merge(produto, 1, Integer::sum);
+                if (!produto.getCategorias().contains(categoria)) {
+                    falhas.add(produto.getCodigo() + " não aponta para " + categoria.getNome());
+                }
+                if (catalogo.buscarProduto(produto.getCodigo()) != produto) {
+                    falhas.add(produto.getCodigo() + " associado sem estar cadastrado");
+                }
+            }
+        }
+        for (Produto produto : catalogo.getProdutosCadastrados()) {
+            int esperadas = associacoes.getOrDefault(produto, 0);
+            if (produto.getCategorias().size() != esperadas) {
+                falhas.add(produto.getCodigo() + " aponta para " + produto.getCategorias().size()
+                        + " categorias, mas está em " + esperadas);
+            }
+        }
+    }
+
+    private void conferirVersao(CatalogoControll catalogo) {
+        VersaoCatalogo versao = catalogo.getVersaoPublicada();
+        Categoria raiz = catalogo.getRaiz();
+        if (versao.getRaiz().getTamanhoSubarvore() != raiz.getTamanhoSubarvore()
+                || versao.getRaiz().getQuantidadeProdutosSubarvore() != raiz.getQuantidadeProdutosSubarvore()
+                || versao.getQuantidadeProdutos() != catalogo.getProdutosCadastrados().size()) {
+            falhas.add("versão publicada não corresponde ao catálogo");
+        }
+    }
+
+    private static String exportar(CatalogoControll catalogo) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        catalogo.exportarArvore(texto, RenderizadorArvore.Formato.JSON_LINHAS);
+        return texto.toString();
+    }
+
+    /**
+     * Resumo recalculado do zero para uma subárvore.
+     */
+    private final class Resumo {
+        int tamanho = 1;
+        int quantidade;
+        double soma;
+        double menor = Double.POSITIVE_INFINITY;
+        double maior = Double.NEGATIVE_INFINITY;
+        final Map<String, Integer> marcas = new HashMap<>();
+
+        void adicionar(Produto produto) {
+            quantidade++;
+            soma += produto.getPreco();
+            menor = Math.min(menor, produto.getPreco());
+            maior = Math.max(maior, produto.getPreco());
+            marcas.merge(produto.getMarca(), 1, Integer::sum);
+        }
+
+        void somar(Resumo outro) {
+            tamanho += outro.tamanho;
+            quantidade += outro.quantidade;
+            soma += outro.soma;
+            menor = Math.min(menor, outro.menor);
+            maior = Math.max(maior, outro.maior);
+            outro.marcas.forEach((marca, total) -> marcas.merge(marca, total, Integer::sum));
+        }
+
+        void conferir(Categoria categoria) {
+            boolean vazio = quantidade == 0;
+            if (categoria.getQuantidadeProdutosSubarvore() != quantidade
+                    || Math.abs(categoria.getSomaPrecosSubarvore() - soma) > 1e-6
+                    || (!vazio && (categoria.getMenorPrecoSubarvore() != menor
+                            || categoria.getMaiorPrecoSubarvore() != maior))
+                    || categoria.getQuantidadeMarcasSubarvore() != marcas.size()) {
+                falhas.add("resumo de produtos de " + categoria.getNome() + " não bate com o recalculado");
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Importação em lote ({@link CatalogoControll#importar(Path, Path)}).
+ *
+ * @since 2025
+ */
+class ImportadorCatalogoTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void produtoSemNenhumaCategoriaEncontradaNaoECadastrado() throws IOException {
+        Path categorias = escrever("categorias.csv",
+                "codigo,nome,descricao,pai",
+                "C1,Loja,,");
+        Path produtos = escrever("produtos.csv",
+                "codigo,nome,preco,marca,categorias",
+                "P1,TV,1500,Marca A,C1",
+                "P2,Rádio,90,Marca B,C1|Z",
+                "P3,Fone,50,Marca C,Z",
+                "P4,Cabo,10,Marca C,");
+        CatalogoControll catalogo = new CatalogoControll();
+
+        RelatorioImportacao relatorio = catalogo.importar(categorias, produtos);
+
+        assertNotNull(catalogo.buscarProduto("P2"));
+        assertNull(catalogo.buscarProduto("P3"));
+        // sem a coluna de categorias, o produto é só cadastrado
+        assertNotNull(catalogo.buscarProduto("P4"));
+        assertEquals(3, relatorio.getProdutosImportados());
+        assertEquals(2, relatorio.getAssociacoesImportadas());
+        assertEquals(List.of(
+                "produtos.csv, linha 3: categoria 'Z' não encontrada",
+                "produtos.csv, linha 4: produto 'P3' não cadastrado: categoria 'Z' não encontrada"),
+                relatorio.getErros());
+    }
+
+    @Test
+    void errosSaemNaOrdemDasLinhas() throws IOException {
+        // o código repetido é visto na primeira passada pelo arquivo e o pai
+        // inexistente só na segunda
+        Path categorias = escrever("categorias.csv",
+                "codigo,nome,descricao,pai",
+                "C1,Loja,,",
+                "C2,TVs,,X9",
+                "C1,Outra loja,,");
+        Path produtos = escrever("produtos.csv",
+                "codigo,nome,preco,marca,categorias",
+                "P1,TV,caro,Marca A,C1",
+                "P2,Rádio,90,Marca B,C2");
+        CatalogoControll catalogo = new CatalogoControll();
+
+        RelatorioImportacao relatorio = catalogo.importar(categorias, produtos);
+
+        List<String> erros = relatorio.getErros();
+        assertEquals(4, erros.size(), erros.toString());
+        assertEquals(List.of("categorias.csv, linha 3", "categorias.csv, linha 4", "produtos.csv, linha 2",
+                "produtos.csv, linha 3"),
+                erros.stream().map(erro -> erro.substring(0, erro.indexOf(':'))).collect(Collectors.toList()));
+    }
+
+    private Path escrever(String nome, String... linhas) throws IOException {
+        return Files.write(pasta.resolve(nome), List.of(linhas), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,186 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Facetas por marca ({@link CatalogoControll#contarProdutosPorMarca(String)}
+ * e {@link CatalogoControll#listarProdutosPorMarca(String, String)}).
+ *
+ * @since 2025
+ */
+class IndiceMarcasTest {
+
+    private static final String[] CATEGORIAS = {"Loja", "Eletrônicos", "Presentes", "TVs", "Fones"};
+
+    private CatalogoControll catalogo;
+    private List<Produto> produtos;
+
+    @BeforeEach
+    void montar() {
+        catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "L", "");
+        catalogo.inserirCategoria("Eletrônicos", "E", "");
+        catalogo.inserirCategoria("Presentes", "P", "");
+        catalogo.definirSubcategoria("Eletrônicos", "TVs");
+        catalogo.definirSubcategoria("Eletrônicos", "Fones");
+        produtos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Produto produto = catalogo.inserirProduto("Produto " + i, "P" + i, i, "Marca " + (i % 5));
+            catalogo.associarProduto(CATEGORIAS[1 + i % 4], produto);
+            produtos.add(produto);
+        }
+    }
+
+    @Test
+    void produtoEmDuasCategoriasContaUmaVez() {
+        Produto produto = produtos.get(0);
+        catalogo.associarProduto("Presentes", produto);
+
+        assertEquals(esperadas("Loja"), catalogo.contarProdutosPorMarca("Loja"));
+        assertEquals(40, catalogo.contarProdutosPorMarca("Loja").get("Marca 0"));
+        assertEquals(40, catalogo.listarProdutosPorMarca("Loja", "Marca 0").size());
+    }
+
+    @Test
+    void produtoSemMarcaNaoEntraNaContagem() {
+        produtos.get(0).setMarca(null);
+        produtos.get(5).setMarca(null);
+
+        Map<String, Integer> contagens = catalogo.contarProdutosPorMarca("Loja");
+
+        assertFalse(contagens.containsKey(null));
+        assertEquals(esperadas("Loja"), contagens);
+        assertEquals(38, contagens.get("Marca 0"));
+        assertTrue(catalogo.listarProdutosPorMarca("Loja", null).isEmpty());
+
+        produtos.get(0).setMarca("Marca 0");
+        assertEquals(39, catalogo.contarProdutosPorMarca("Loja").get("Marca 0"));
+    }
+
+    @Test
+    void acompanhaAlteracoesDaArvoreDepoisDaPrimeiraConsulta() {
+        // com as facetas já montadas, cada passo corrige ou descarta as das
+        // subárvores afetadas; categorias movidas levam os produtos junto
+        catalogo.definirSubcategoria("TVs", "OLED");
+        String[] categorias = {"Loja", "Eletrônicos", "Presentes", "TVs", "Fones", "OLED"};
+        Random aleatorio = new Random(7);
+        for (int passo = 0; passo < 2000; passo++) {
+            String pai = categorias[aleatorio.nextInt(categorias.length)];
+            String filho = categorias[1 + aleatorio.nextInt(categorias.length - 1)];
+            switch (aleatorio.nextInt(6)) {
+                case 0:
+                    // recusada se criar um ciclo; recria a filha se ela foi removida
+                    catalogo.definirSubcategoria(pai, filho);
+                    break;
+                case 1:
+                    if (aleatorio.nextInt(10) == 0) {
+                        catalogo.removerCategoria(filho);
+                    } else {
+                        catalogo.associarProduto(filho, produtos.get(aleatorio.nextInt(produtos.size())));
+                    }
+                    break;
+                case 2:
+                    produtos.get(aleatorio.nextInt(produtos.size())).setPreco(aleatorio.nextInt(200));
+                    break;
+                default:
+                    alterar(aleatorio);
+                    break;
+            }
+            for (String categoria : categorias) {
+                if (catalogo.buscarCategoria(categoria) != null) {
+                    assertEquals(esperadas(categoria), catalogo.contarProdutosPorMarca(categoria),
+                            "passo " + passo + ", " + categoria);
+                }
+            }
+        }
+    }
+
+    @Test
+    void consultasConcorrentesEntreAlteracoes() throws Exception {
+        // a árvore viva não é lida durante escritas (para isso há a leitura
+        // concorrente); aqui as consultas concorrem entre si, entre rodadas de
+        // alterações, e disputam os caches dos índices
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            Random aleatorio = new Random(42);
+            for (int rodada = 0; rodada < 200; rodada++) {
+                for (int passo = 0; passo < 20; passo++) {
+                    alterar(aleatorio);
+                }
+                List<Callable<Object>> leitoras = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    Random daLeitora = new Random(rodada * 4L + t);
+                    leitoras.add(() -> {
+                        for (int consulta = 0; consulta < 20; consulta++) {
+                            String categoria = CATEGORIAS[daLeitora.nextInt(CATEGORIAS.length)];
+                            catalogo.contarProdutosPorMarca(categoria);
+                            catalogo.listarProdutosPorMarca(categoria, "Marca " + daLeitora.nextInt(7));
+                            catalogo.listarProdutosDaSubarvore(categoria).size();
+                            catalogo.buscarProdutosPorFaixaDePreco(categoria, 10, 150);
+                        }
+                        return null;
+                    });
+                }
+                for (Future<Object> leitora : threads.invokeAll(leitoras)) {
+                    leitora.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        for (String categoria : CATEGORIAS) {
+            assertEquals(esperadas(categoria), catalogo.contarProdutosPorMarca(categoria), categoria);
+        }
+    }
+
+    private void alterar(Random aleatorio) {
+        Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+        String categoria = CATEGORIAS[1 + aleatorio.nextInt(CATEGORIAS.length - 1)];
+        switch (aleatorio.nextInt(3)) {
+            case 0:
+                catalogo.associarProduto(categoria, produto);
+                break;
+            case 1:
+                catalogo.desassociarProduto(categoria, produto);
+                break;
+            default:
+                produto.setMarca("Marca " + aleatorio.nextInt(7));
+                break;
+        }
+    }
+
+    /**
+     * Contagem por marca dos produtos distintos e com marca da subárvore,
+     * calculada percorrendo a subárvore.
+     */
+    private Map<String, Integer> esperadas(String nomeCategoria) {
+        Set<Produto> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<String, Integer> contagens = new TreeMap<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.buscarCategoria(nomeCategoria))) {
+            for (Produto produto : categoria.getProdutos()) {
+                if (vistos.add(produto) && produto.getMarca() != null) {
+                    contagens.merge(produto.getMarca(), 1, Integer::sum);
+                }
+            }
+        }
+        return contagens;
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Consultas por faixa de preço ({@link CatalogoControll#buscarProdutosPorFaixaDePreco(String, double, double)}).
+ *
+ * @since 2025
+ */
+class IndicePrecosTest {
+
+    private CatalogoControll catalogo;
+    private Produto barato;
+    private Produto caro;
+
+    @BeforeEach
+    void montar() {
+        catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "L", "");
+        catalogo.inserirCategoria("Eletrônicos", "E", "");
+        catalogo.inserirCategoria("Presentes", "P", "");
+        barato = catalogo.inserirProduto("Fone", "P1", 50, "Marca A");
+        caro = catalogo.inserirProduto("TV", "P2", 1500, "Marca B");
+        catalogo.associarProduto("Eletrônicos", barato);
+        catalogo.associarProduto("Eletrônicos", caro);
+    }
+
+    @Test
+    void produtoEmCategoriasIrmasApareceUmaVez() {
+        catalogo.associarProduto("Presentes", barato);
+
+        assertEquals(List.of(barato, caro), catalogo.buscarProdutosPorFaixaDePreco("Loja", 0, 2000));
+        assertEquals(List.of(barato), catalogo.buscarProdutosPorFaixaDePreco("Presentes", 0, 2000));
+    }
+
+    @Test
+    void acompanhaAlteracoesDepoisDaPrimeiraConsulta() {
+        String[] nomes = {"Loja", "Eletrônicos", "Presentes", "TVs", "Fones"};
+        catalogo.definirSubcategoria("Eletrônicos", "TVs");
+        catalogo.definirSubcategoria("Eletrônicos", "Fones");
+        List<Produto> produtos = new ArrayList<>(List.of(barato, caro));
+        for (int i = 3; i <= 40; i++) {
+            produtos.add(catalogo.inserirProduto("Produto " + i, "P" + i, i % 7 * 10, "Marca " + (i % 3)));
+        }
+        Random aleatorio = new Random(7);
+        for (int passo = 0; passo < 2000; passo++) {
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            String nome = nomes[aleatorio.nextInt(nomes.length)];
+            switch (aleatorio.nextInt(8)) {
+                case 0:
+                case 1:
+                    catalogo.associarProduto(nome, produto);
+                    break;
+                case 2:
+                case 3:
+                    catalogo.desassociarProduto(nome, produto);
+                    break;
+                case 4:
+                    produto.setPreco(aleatorio.nextInt(7) * 10);
+                    break;
+                case 5:
+                    produto.setMarca("Marca " + aleatorio.nextInt(3));
+                    break;
+                case 6:
+                    // troca de código: muda a ordem entre produtos de mesmo preço
+                    produto.setCodigo("Q" + passo);
+                    break;
+                default:
+                    // alteração que não passa pelo catálogo
+                    catalogo.buscarCategoria(nome).adicionarProduto(produto);
+                    break;
+            }
+            String consultada = nomes[aleatorio.nextInt(nomes.length)];
+            assertEquals(esperados(consultada, 10, 40), catalogo.buscarProdutosPorFaixaDePreco(consultada, 10, 40),
+                    "passo " + passo + ", " + consultada);
+        }
+        for (String nome : nomes) {
+            assertEquals(esperados(nome, 0, 100), catalogo.buscarProdutosPorFaixaDePreco(nome, 0, 100), nome);
+        }
+    }
+
+    /**
+     * Produtos da subárvore na faixa, calculados percorrendo a subárvore.
+     */
+    private List<Produto> esperados(String nomeCategoria, double precoMinimo, double precoMaximo) {
+        Set<Produto> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Produto> resultado = new ArrayList<>();
+        for (Categoria categoria : PercursoArvore.preOrdem(catalogo.buscarCategoria(nomeCategoria))) {
+            for (Produto produto : categoria.getProdutos()) {
+                if (produto.getPreco() >= precoMinimo && produto.getPreco() <= precoMaximo && vistos.add(produto)) {
+                    resultado.add(produto);
+                }
+            }
+        }
+        resultado.sort(Comparator.comparingDouble(Produto::getPreco).thenComparing(Produto::getCodigo));
+        return resultado;
+    }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fluxos do menu de console, com a entrada digitada simulada.
+ *
+ * @since 2025
+ */
+class MainTest {
+
+    private InputStream entradaOriginal;
+    private PrintStream saidaOriginal;
+
+    @BeforeEach
+    void guardarConsole() {
+        entradaOriginal = System.in;
+        saidaOriginal = System.out;
+    }
+
+    @AfterEach
+    void restaurarConsole() {
+        System.setIn(entradaOriginal);
+        System.setOut(saidaOriginal);
+    }
+
+    @Test
+    void associaProdutoInseridoPeloMenuEmDuasCategorias() {
+        List<String> resultados = executar(
+                "1", "Loja", "L", "",
+                "1", "Eletrônicos", "E", "",
+                "1", "Presentes", "P", "",
+                "2", "TV", "P1", "1500", "Marca A",
+                // mesmos dados do produto inserido pela opção 2
+                "4", "Eletrônicos", "TV", "P1", "1500", "Marca A",
+                // código já associado, numa segunda categoria
+                "4", "Presentes", "TV", "P1", "1500", "Marca A",
+                // mesmo código com outros dados
+                "4", "Presentes", "Rádio", "P1", "90", "Marca B",
+                "0");
+
+        assertEquals(List.of("Produto associado com sucesso!", "Produto associado com sucesso!",
+                "Falha ao associar produto."), resultados);
+    }
+
+    @Test
+    void associaProdutoNovoPeloMenu() {
+        List<String> resultados = executar(
+                "1", "Loja", "L", "",
+                "4", "Loja", "Rádio", "P2", "90", "Marca B",
+                "4", "Loja", "Rádio", "P2", "90", "Marca B",
+                "0");
+
+        assertEquals(List.of("Produto associado com sucesso!", "Produto associado com sucesso!"), resultados);
+    }
+
+    /**
+     * Executa o menu com as linhas informadas como entrada e retorna as
+     * mensagens de resultado da opção 4, na ordem.
+     */
+    private static List<String> executar(String... linhas) {
+        String entrada = String.join("\n", linhas) + "\n";
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        System.setIn(new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(saida, true, StandardCharsets.UTF_8));
+
+        Main.main(new String[0]);
+
+        List<String> resultados = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\\R")) {
+            int inicio = Math.max(linha.indexOf("Produto associado"), linha.indexOf("Falha ao associar"));
+            if (inicio >= 0) {
+                resultados.add(linha.substring(inicio));
+            }
+        }
+        return resultados;
+    }
+}
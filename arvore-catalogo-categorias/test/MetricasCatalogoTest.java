@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Métricas das operações que percorrem a árvore inteira.
+ *
+ * @since 2025
+ */
+class MetricasCatalogoTest {
+
+    private PrintStream saidaOriginal;
+    private CatalogoControll catalogo;
+
+    @BeforeEach
+    void montar() {
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        catalogo = new CatalogoControll();
+        catalogo.inserirCategoria("Loja", "L", "");
+        catalogo.inserirCategoria("Eletrônicos", "E", "");
+        catalogo.inserirCategoria("Presentes", "P", "");
+        catalogo.ativarMetricas();
+        // toda chamada entra na amostra
+        catalogo.getMetricas().setAmostragem(1);
+    }
+
+    @AfterEach
+    void restaurarConsole() {
+        System.setOut(saidaOriginal);
+    }
+
+    @Test
+    void percursosDaArvoreInteiraVisitamTodasAsCategorias() throws IOException {
+        catalogo.listarArvore();
+        catalogo.exportarArvore(new StringBuilder(), RenderizadorArvore.Formato.JSON_LINHAS);
+        catalogo.gerarArvoresDeNavegacao();
+
+        MetricasCatalogo metricas = catalogo.getMetricas();
+        for (String operacao : new String[] {"listarArvore", "exportarArvore", "gerarArvoresDeNavegacao"}) {
+            assertEquals(1L, metricas.getChamadas().get(operacao), operacao);
+            assertEquals(0L, metricas.getFalhas().get(operacao), operacao);
+            assertEquals(3.0, metricas.getMediaCategoriasVisitadas().get(operacao), operacao);
+        }
+    }
+
+    @Test
+    void associacoesDaImportacaoNaoContamComoBuscaDeProduto(@TempDir Path pasta) throws IOException {
+        catalogo.inserirProduto("TV", "P1", 1500, "Marca A");
+        Path produtos = Files.write(pasta.resolve("produtos.csv"), List.of(
+                "codigo,nome,preco,marca,categorias",
+                "P1,TV,1500,Marca A,E",
+                "P2,Rádio,90,Marca B,P"), StandardCharsets.UTF_8);
+
+        catalogo.importar(null, produtos);
+
+        assertEquals(1L, catalogo.getMetricas().getChamadas().get("importar"));
+        assertNull(catalogo.getMetricas().getChamadas().get("buscarProduto"));
+    }
+
+    @Test
+    void falhaDoDestinoContaComoFalhaDaExportacao() {
+        Writer quebrado = new Writer() {
+            @Override
+            public void write(char[] texto, int inicio, int tamanho) throws IOException {
+                throw new IOException("destino fechado");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(IOException.class, () -> catalogo.exportarArvore(quebrado, RenderizadorArvore.Formato.TEXTO));
+        assertEquals(1L, catalogo.getMetricas().getFalhas().get("exportarArvore"));
+    }
+}
@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Linhas escritas pelo {@link RenderizadorArvore}.
+ *
+ * @since 2025
+ */
+class RenderizadorArvoreTest {
+
+    private Locale localidadeOriginal;
+    private Categoria raiz;
+
+    @BeforeEach
+    void montar() {
+        localidadeOriginal = Locale.getDefault();
+        raiz = new Categoria("Loja", "L", "");
+        raiz.adicionarProduto(new Produto("Fone", "P1", 10.5, "Marca A"));
+    }
+
+    @AfterEach
+    void restaurarLocalidade() {
+        Locale.setDefault(localidadeOriginal);
+    }
+
+    @Test
+    void textoUsaOSeparadorDecimalDaLocalidade() throws IOException {
+        Locale.setDefault(new Locale("pt", "BR"));
+
+        String texto = renderizar(RenderizadorArvore.Formato.TEXTO);
+
+        assertTrue(texto.contains("| R$ " + String.format("%.2f", 10.5) + " |"), texto);
+        assertTrue(texto.contains("| R$ 10,50 |"), texto);
+    }
+
+    @Test
+    void jsonUsaPontoEmQualquerLocalidade() throws IOException {
+        Locale.setDefault(new Locale("pt", "BR"));
+
+        String json = renderizar(RenderizadorArvore.Formato.JSON_LINHAS);
+
+        assertTrue(json.contains("\"preco\":10.50"), json);
+    }
+
+    private String renderizar(RenderizadorArvore.Formato formato) throws IOException {
+        StringBuilder destino = new StringBuilder();
+        new RenderizadorArvore(formato).renderizar(raiz, destino);
+        return destino.toString();
+    }
+}